@@ -0,0 +1,129 @@
+package com.example.triage.bench;
+
+import com.example.triage.database.BedAllocator;
+import com.example.triage.database.DBConnection;
+import com.example.triage.database.PatientDAO;
+import com.example.triage.database.SequenceAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission and discharge throughput with several desks at once. Each
+ * operation admits through {@link PatientDAO#addPatientAutoAssign} and
+ * discharges the same patient again, so the census stays level however long
+ * the run. Finding the new row is a primary-key range read over the handful
+ * of in-flight admissions and is included in the score.
+ * <p>
+ * The bed-claim and patient-code benchmarks isolate the two contended steps
+ * inside an admission. Thread count: {@code -t N} on the command line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class AdmissionBenchmark {
+
+    private static final String[] SEVERITIES = {"critical", "high", "moderate"};
+
+    @Param({"1000", "10000"})
+    public int census;
+
+    private PatientDAO dao;
+    private BedAllocator allocator;
+    private SequenceAllocator sequence;
+    private int maxSeededId;
+
+    @State(Scope.Thread)
+    public static class Desk {
+        private String prefix;
+        private long admitted;
+        private int turn;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams thread) {
+            prefix = "Bench Desk" + thread.getThreadIndex() + " #";
+        }
+
+        String nextName() {
+            return prefix + admitted++;
+        }
+
+        String nextSeverity() {
+            return SEVERITIES[turn++ % SEVERITIES.length];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.open("admission");
+        maxSeededId = BenchmarkDatabase.seed(census).maxPatientId();
+        dao = new PatientDAO();
+        allocator = new BedAllocator();
+        sequence = SequenceAllocator.forName("benchmark", "SELECT NULL", 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.close();
+    }
+
+    @Benchmark
+    public void admitAndDischarge(Desk desk) throws SQLException {
+        String name = desk.nextName();
+        String severity = desk.nextSeverity();
+        dao.addPatientAutoAssign(name, 40, "Female", "Benchmark admission", severity);
+
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT id, unit_id FROM patients WHERE id > ? AND full_name = ?")) {
+            ps.setInt(1, maxSeededId);
+            ps.setString(2, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new IllegalStateException("Admission failed for " + severity);
+                dao.dischargePatient(rs.getInt("id"), rs.getInt("unit_id"));
+            }
+        }
+    }
+
+    /** Concurrent claims on the same pool of beds, rolled back so the pool never drains. */
+    @Benchmark
+    @Threads(8)
+    public Integer claimBed(Desk desk) throws SQLException {
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                return allocator.claimForSeverity(c, desk.nextSeverity());
+            } finally {
+                c.rollback();
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long nextPatientCode() throws SQLException {
+        return sequence.next();
+    }
+}
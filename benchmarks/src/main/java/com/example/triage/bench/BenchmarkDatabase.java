@@ -0,0 +1,72 @@
+package com.example.triage.bench;
+
+import com.example.triage.database.DBConnection;
+import com.example.triage.services.CapacityTracker;
+import com.example.triage.services.ChangeFeed;
+import com.example.triage.services.DatasetGenerator;
+import com.example.triage.services.EventBus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The benchmark database: the app's embedded in-memory backend (whose
+ * base tables {@code Schema} creates), seeded by {@link DatasetGenerator}.
+ * Seeding is deterministic (fixed seed) so runs on different machines measure
+ * the same data. Must be opened before anything touches
+ * {@link DBConnection}, which reads its backend settings once.
+ */
+final class BenchmarkDatabase {
+
+    /** A generated ward with patients on every floor, for the facility/floor filters. */
+    static final String WARD = DatasetGenerator.facilityName(2);
+    static final int FLOORS = 5;
+
+    // One bed in three stays free so admissions and transfers have somewhere to go
+    private static final double OCCUPANCY = 2.0 / 3;
+    private static final long SEED = 42L;
+
+    /** What {@link #seed} wrote; ids above maxPatientId were admitted by the benchmark itself. */
+    record Census(int patients, int maxPatientId) {}
+
+    private BenchmarkDatabase() {}
+
+    /** Points the application at a fresh embedded in-memory database. */
+    static void open(String name) {
+        System.setProperty("triage.db.backend", "embedded");
+        System.setProperty("triage.db.name", name);
+        // No loopback hub between forks; events stay inside the benchmark JVM
+        System.setProperty("triage.events.transport", "jvm");
+    }
+
+    /**
+     * Generates a hospital sized for roughly {@code patients} admitted
+     * patients at two-thirds occupancy across {@link DatasetGenerator}'s
+     * six-facility mix, with as many discharged rows and four staff a floor.
+     */
+    static Census seed(int patients) throws SQLException {
+        // Three wards (beds + rooms) and three bed-only facilities: 45 units per bedsPerFloor
+        int beds = Math.max((int) Math.ceil(patients / OCCUPANCY / 45), 1);
+        DatasetGenerator.Spec spec = new DatasetGenerator.Spec(
+                SEED, 6, FLOORS, beds, beds, OCCUPANCY, 4, patients, 365);
+        DatasetGenerator.Result result = new DatasetGenerator(spec).generate(p -> {});
+        System.out.println("✅ Seeded " + result);
+
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT MAX(id) FROM patients");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return new Census(result.patients(), rs.getInt(1));
+        }
+    }
+
+    /** Stops the background services the DAOs may have started and closes the pool. */
+    static void close() {
+        CapacityTracker.getInstance().stop();
+        ChangeFeed.getInstance().stop();
+        EventBus.getInstance().stop();
+        DBConnection.shutdown();
+    }
+}
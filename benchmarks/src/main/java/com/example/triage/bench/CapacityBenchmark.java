@@ -0,0 +1,77 @@
+package com.example.triage.bench;
+
+import com.example.triage.services.CapacityMonitor;
+import com.example.triage.services.CapacityTracker;
+import com.example.triage.services.DashboardService;
+import com.example.triage.services.DashboardSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CapacityMonitor#getCurrentCapacity()} answered by the aggregate query
+ * over every unit ({@code source=query}) versus the in-memory
+ * {@link CapacityTracker} counters ({@code source=tracker}), plus the full
+ * dashboard snapshot the capacity banner is usually read from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CapacityBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int census;
+
+    @Param({"query", "tracker"})
+    public String source;
+
+    private CapacityMonitor monitor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, InterruptedException {
+        BenchmarkDatabase.open("capacity");
+        BenchmarkDatabase.seed(census);
+        monitor = CapacityMonitor.getInstance();
+
+        if ("tracker".equals(source)) {
+            CapacityTracker tracker = CapacityTracker.getInstance();
+            tracker.start();
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+            while (!tracker.isLoaded()) {
+                if (System.currentTimeMillis() > deadline) throw new IllegalStateException("Tracker did not load");
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.close();
+    }
+
+    @Benchmark
+    public double currentCapacity() {
+        return monitor.getCurrentCapacity();
+    }
+
+    @Benchmark
+    public DashboardSnapshot dashboardSnapshot() {
+        return DashboardService.getInstance().load();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.triage.bench;
+
+import com.example.triage.database.Patient;
+import com.example.triage.database.PatientDAO;
+import com.example.triage.database.PatientPage;
+import com.example.triage.database.SortMode;
+import com.example.triage.services.PatientIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The patient list queries behind PatientsController, at several census
+ * sizes: the SQL path ({@link PatientDAO#getPatientsFiltered}), one keyset
+ * page, and the in-memory {@link PatientIndex} that answers the same filters
+ * once loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientQueryBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int census;
+
+    private PatientDAO dao;
+    private PatientIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.open("patient_query");
+        BenchmarkDatabase.seed(census);
+        dao = new PatientDAO();
+        index = PatientIndex.getInstance();
+        if (!index.ensureLoaded()) throw new IllegalStateException("Patient index did not load");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.close();
+    }
+
+    // ================= SQL =================
+
+    @Benchmark
+    public List<Patient> fullCensus() {
+        return dao.getPatientsFiltered(null, null, null, null, SortMode.NONE);
+    }
+
+    @Benchmark
+    public List<Patient> bySeverityNewestFirst() {
+        return dao.getPatientsFiltered(null, null, "critical", null, SortMode.ADMISSION_DATE);
+    }
+
+    @Benchmark
+    public List<Patient> byFacilityAndFloor() {
+        return dao.getPatientsFiltered(BenchmarkDatabase.WARD, 3, null, null, SortMode.BED_ROOM);
+    }
+
+    @Benchmark
+    public List<Patient> byNameSearch() {
+        return dao.getPatientsFiltered(null, null, null, "reyes", SortMode.NONE);
+    }
+
+    @Benchmark
+    public PatientPage firstPage() throws SQLException {
+        return dao.getPatientsPage(null, null, null, null, SortMode.ADMISSION_DATE, null,
+                PatientDAO.DEFAULT_PAGE_SIZE);
+    }
+
+    // ================= INDEX =================
+
+    @Benchmark
+    public List<Patient> indexBySeverityNewestFirst() {
+        return index.find(null, null, "critical", null, SortMode.ADMISSION_DATE);
+    }
+
+    @Benchmark
+    public List<Patient> indexByFacilityAndFloor() {
+        return index.find(BenchmarkDatabase.WARD, 3, null, null, SortMode.BED_ROOM);
+    }
+
+    @Benchmark
+    public List<Patient> indexByNameSearch() {
+        return index.find(null, null, null, "reyes", SortMode.NONE);
+    }
+}
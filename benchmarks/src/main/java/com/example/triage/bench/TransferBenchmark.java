@@ -0,0 +1,127 @@
+package com.example.triage.bench;
+
+import com.example.triage.database.DBConnection;
+import com.example.triage.database.PatientDAO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency of a bed transfer ({@link PatientDAO#updatePatientEditAutoAssign}
+ * with a new unit): the optimistic unit swap, the patient update and the
+ * change-log rows in one transaction. Each thread owns one ward patient and
+ * one free ward bed and moves the patient back and forth between them, so
+ * threads never fight over a unit and every transfer succeeds. Sampled, so
+ * the report carries percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TransferBenchmark {
+
+    // More than any sensible -t; each thread takes one pair
+    private static final int PAIRS = 64;
+
+    @Param({"1000", "10000"})
+    public int census;
+
+    private PatientDAO dao;
+    private final List<int[]> pairs = new ArrayList<>();
+    private final AtomicInteger nextPair = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Bedside {
+        private int patientId;
+        private int currentUnit;
+        private int spareUnit;
+
+        @Setup(Level.Trial)
+        public void setUp(TransferBenchmark benchmark) {
+            int[] pair = benchmark.pairs.get(benchmark.nextPair.getAndIncrement());
+            patientId = pair[0];
+            currentUnit = pair[1];
+            spareUnit = pair[2];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.open("transfer");
+        BenchmarkDatabase.seed(census);
+        dao = new PatientDAO();
+
+        List<int[]> placed = new ArrayList<>();
+        List<Integer> free = new ArrayList<>();
+        try (Connection c = DBConnection.getConnection()) {
+            try (PreparedStatement ps = c.prepareStatement("""
+                    SELECT p.id, p.unit_id
+                    FROM patients p
+                    JOIN units u ON u.id = p.unit_id
+                    JOIN floors f ON f.id = u.floor_id
+                    JOIN facilities fac ON fac.id = f.facility_id
+                    WHERE fac.type = 'WARD'
+                    ORDER BY p.id
+                    LIMIT ?
+                    """)) {
+                ps.setInt(1, PAIRS);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) placed.add(new int[]{rs.getInt(1), rs.getInt(2)});
+                }
+            }
+            try (PreparedStatement ps = c.prepareStatement("""
+                    SELECT u.id
+                    FROM units u
+                    JOIN floors f ON f.id = u.floor_id
+                    JOIN facilities fac ON fac.id = f.facility_id
+                    WHERE fac.type = 'WARD' AND u.status = 'AVAILABLE'
+                    ORDER BY u.id
+                    LIMIT ?
+                    """)) {
+                ps.setInt(1, PAIRS);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) free.add(rs.getInt(1));
+                }
+            }
+        }
+        for (int i = 0; i < Math.min(placed.size(), free.size()); i++) {
+            pairs.add(new int[]{placed.get(i)[0], placed.get(i)[1], free.get(i)});
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.close();
+    }
+
+    @Benchmark
+    public void transfer(Bedside bed) {
+        dao.updatePatientEditAutoAssign(bed.patientId, bed.currentUnit, bed.spareUnit, "Transferred", "high");
+        int vacated = bed.currentUnit;
+        bed.currentUnit = bed.spareUnit;
+        bed.spareUnit = vacated;
+    }
+}
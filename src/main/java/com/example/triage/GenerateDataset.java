@@ -0,0 +1,99 @@
+package com.example.triage;
+
+import com.example.triage.database.DBConnection;
+import com.example.triage.services.DatasetGenerator;
+
+import java.sql.SQLException;
+
+/**
+ * Command-line front end for {@link DatasetGenerator}. Point it at a database
+ * the way the app is pointed (see {@link com.example.triage.database.DataSourceConfig},
+ * e.g. {@code -Dtriage.db.backend=embedded -Dtriage.db.path=/tmp/triage}),
+ * pick a preset and override any field:
+ *
+ * <pre>
+ * GenerateDataset [small|medium|large] [--seed N] [--facilities N] [--floors N]
+ *                 [--beds N] [--rooms N] [--occupancy 0..1] [--staff N]
+ *                 [--history N] [--history-days N]
+ * </pre>
+ */
+public class GenerateDataset {
+
+    public static void main(String[] args) {
+        DatasetGenerator.Spec spec;
+        try {
+            spec = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        System.out.println("🔄 Generating " + spec);
+
+        int[] lastPercent = {-1};
+        try {
+            DatasetGenerator.Result result = new DatasetGenerator(spec).generate(progress -> {
+                int percent = (int) (progress * 100);
+                if (percent / 10 != lastPercent[0] / 10) {
+                    System.out.println("   " + percent + "%");
+                }
+                lastPercent[0] = percent;
+            });
+            System.out.println("✅ " + result);
+        } catch (SQLException e) {
+            System.out.println("❌ Generation failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            DBConnection.shutdown();
+        }
+    }
+
+    static DatasetGenerator.Spec parse(String[] args) {
+        DatasetGenerator.Spec base = DatasetGenerator.Spec.small();
+        int i = 0;
+        if (i < args.length && !args[i].startsWith("--")) {
+            base = switch (args[i++]) {
+                case "small" -> DatasetGenerator.Spec.small();
+                case "medium" -> DatasetGenerator.Spec.medium();
+                case "large" -> DatasetGenerator.Spec.large();
+                default -> throw new IllegalArgumentException("Unknown preset: " + args[i - 1]);
+            };
+        }
+
+        long seed = base.seed();
+        int facilities = base.facilities();
+        int floors = base.floorsPerFacility();
+        int beds = base.bedsPerFloor();
+        int rooms = base.roomsPerFloor();
+        double occupancy = base.occupancy();
+        int staff = base.staffPerFloor();
+        int history = base.history();
+        int historyDays = base.historyDays();
+
+        for (; i < args.length; i += 2) {
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+            String value = args[i + 1];
+            try {
+                switch (args[i]) {
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--facilities" -> facilities = Integer.parseInt(value);
+                    case "--floors" -> floors = Integer.parseInt(value);
+                    case "--beds" -> beds = Integer.parseInt(value);
+                    case "--rooms" -> rooms = Integer.parseInt(value);
+                    case "--occupancy" -> occupancy = Double.parseDouble(value);
+                    case "--staff" -> staff = Integer.parseInt(value);
+                    case "--history" -> history = Integer.parseInt(value);
+                    case "--history-days" -> historyDays = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number for " + args[i] + ": " + value);
+            }
+        }
+        if (occupancy < 0 || occupancy > 1) {
+            throw new IllegalArgumentException("--occupancy must be between 0 and 1");
+        }
+        return new DatasetGenerator.Spec(seed, facilities, floors, beds, rooms, occupancy, staff, history, historyDays);
+    }
+}
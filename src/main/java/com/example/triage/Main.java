@@ -6,13 +6,22 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 import javafx.scene.Parent;
 
+import com.example.triage.database.DBConnection;
+import com.example.triage.diagnostics.FxWatchdog;
+import com.example.triage.services.AsyncDAO;
 import com.example.triage.services.CapacityMonitor;
+import com.example.triage.services.CapacityTracker;
+import com.example.triage.services.ChangeFeed;
+import com.example.triage.services.EventBus;
+import com.example.triage.services.StartupPipeline;
 
 public class Main extends Application {
 
     @Override
     public void start(Stage stage) {
         try {
+            // Database and screen warm-up overlap the login screen
+            StartupPipeline.getInstance().start();
 
             FXMLLoader loader = new FXMLLoader(
                     getClass().getResource("/com/example/triage/views/login-view.fxml")
@@ -37,6 +46,10 @@ public class Main extends Application {
 
             stage.show();
 
+            // Stalls and frame latency from here on, attributed to the screen showing
+            FxWatchdog.getInstance().setActiveScreen("login-view.fxml");
+            FxWatchdog.getInstance().start();
+
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -45,8 +58,14 @@ public class Main extends Application {
     @Override
     public void stop() {
         System.out.println("🛑 Application shutting down...");
+        FxWatchdog.getInstance().stop();
         CapacityMonitor.getInstance().stopMonitoring();
+        CapacityTracker.getInstance().stop();
+        ChangeFeed.getInstance().stop();
+        EventBus.getInstance().stop();
         System.out.println("✅ Capacity monitoring stopped");
+        AsyncDAO.getInstance().shutdown();
+        DBConnection.shutdown();
     }
     public static void main(String[] args) {
         launch();
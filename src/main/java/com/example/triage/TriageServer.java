@@ -0,0 +1,68 @@
+package com.example.triage;
+
+import com.example.triage.database.DBConnection;
+import com.example.triage.remote.TriageHttpApi;
+import com.example.triage.services.AsyncDAO;
+import com.example.triage.services.CapacityTracker;
+import com.example.triage.services.ChangeFeed;
+import com.example.triage.services.EventBus;
+import com.example.triage.services.PatientIndex;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless mode: serves the DAO layer over HTTP so desktop clients started
+ * with {@code -Dtriage.server=http://host:PORT} share one connection pool,
+ * one patient index and one capacity tracker instead of each opening their
+ * own. Each request runs on its own virtual thread; the pool
+ * ({@code triage.pool.maxSize}) bounds how many reach the database at once.
+ * <p>
+ * Listens on loopback only unless {@code triage.server.host} names another
+ * address (for example {@code 0.0.0.0} to serve other machines). Every call
+ * but login needs a session token, but the traffic itself is plain HTTP, so
+ * outside one machine put it behind a TLS proxy or a trusted network.
+ */
+public class TriageServer {
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.getInteger("triage.server.port", 8088);
+        String host = System.getProperty("triage.server.host");
+        InetAddress address = host == null || host.isBlank()
+                ? InetAddress.getLoopbackAddress()
+                : InetAddress.getByName(host);
+
+        // Refuses to start, rather than serve failing writes, if the schema is behind
+        DBConnection.getPool();
+
+        // Warm the shared state before taking traffic
+        CapacityTracker.getInstance().start();
+        PatientIndex.getInstance().ensureLoaded();
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpServer server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        new TriageHttpApi().register(server);
+        server.setExecutor(executor);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("🛑 Triage server shutting down...");
+            server.stop(1);
+            executor.shutdown();
+            CapacityTracker.getInstance().stop();
+            ChangeFeed.getInstance().stop();
+            EventBus.getInstance().stop();
+            AsyncDAO.getInstance().shutdown();
+            DBConnection.shutdown();
+        }, "triage-server-shutdown"));
+
+        server.start();
+        System.out.println("✅ Triage server listening on " + address.getHostAddress() + ":" + port);
+        if (!address.isLoopbackAddress()) {
+            System.out.println("⚠️ Serving beyond this machine over plain HTTP; use a TLS proxy or a trusted network");
+        }
+    }
+}
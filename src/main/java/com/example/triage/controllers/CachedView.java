@@ -0,0 +1,12 @@
+package com.example.triage.controllers;
+
+/**
+ * A dashboard screen that {@link ViewCache} keeps alive between visits.
+ * Instead of being parsed and initialized again, the screen is reattached
+ * and told it is showing, so it can bring itself up to date.
+ */
+interface CachedView {
+
+    /** Called on the FX thread each time the cached screen is shown again. */
+    void onShow();
+}
@@ -1,6 +1,10 @@
 package com.example.triage.controllers;
 
-import com.example.triage.database.DBConnection;
+import com.example.triage.database.StaffDAO;
+import com.example.triage.diagnostics.FxWatchdog;
+import com.example.triage.remote.Backend;
+import com.example.triage.remote.TriageClient;
+import com.example.triage.services.AsyncDAO;
 import com.example.triage.services.SessionManager;
 import javafx.animation.FadeTransition;
 import javafx.animation.TranslateTransition;
@@ -14,9 +18,9 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
 
 public class DashboardController {
 
@@ -42,6 +46,13 @@ public class DashboardController {
     private boolean menuOpen = false;
     private static final double SIDEBAR_WIDTH = 240;
 
+    // Screens the user most often opens after the home page
+    private static final List<String> LIKELY_NEXT = List.of(
+            "patients.fxml", "facilities.fxml", "staff-accounts.fxml", "settings.fxml");
+
+    private final ViewCache views = new ViewCache();
+    private final StaffDAO staffDAO = Backend.staffDAO();
+
     @FXML
     public void initialize() {
         sidebar.setTranslateX(-SIDEBAR_WIDTH);
@@ -78,8 +89,7 @@ public class DashboardController {
         itemSettings.setOnMouseClicked(e -> selectMenu(itemSettings, "Settings"));
 
         selectMenu(itemDashboard, "Dashboard");
-
-
+        views.preload(LIKELY_NEXT);
     }
 
     private void loadUserName(int staffId) {
@@ -89,28 +99,17 @@ public class DashboardController {
             return;
         }
 
-        String sql = "SELECT first_name, last_name FROM staff WHERE id = ?";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, staffId);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                userNameLabel.setText(
-                        rs.getString("first_name") + " " + rs.getString("last_name")
-                );
+        AsyncDAO.getInstance().load(() -> {
+            try {
+                return staffDAO.getStaffName(staffId);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            userNameLabel.setText("User");
-        }
+        }, name -> {
+            if (name != null) userNameLabel.setText(name);
+        }, error -> userNameLabel.setText("User"));
     }
 
-
-
     @FXML
     private void toggleSidebar() {
         TranslateTransition slide = new TranslateTransition(Duration.millis(250), sidebar);
@@ -173,12 +172,14 @@ public class DashboardController {
 
     private void loadContent(String fxml) {
         try {
-            FXMLLoader loader = new FXMLLoader(
-                    getClass().getResource("/com/example/triage/views/" + fxml)
-            );
-            Parent view = loader.load();
+            boolean revisit = views.isCached(fxml);
+            ViewCache.Entry entry = views.get(fxml);
 
-            contentArea.setCenter(view);
+            contentArea.setCenter(entry.view());
+            FxWatchdog.getInstance().setActiveScreen(fxml);
+            if (revisit && entry.controller() instanceof CachedView cached) {
+                cached.onShow();
+            }
 
             overlay.toFront();
             sidebar.toFront();
@@ -210,6 +211,18 @@ public class DashboardController {
     @FXML
     private void performLogout() {
         SessionManager.getInstance().endSession();
+        if (TriageClient.isEnabled()) {
+            AsyncDAO.getInstance().run(() -> {
+                try {
+                    TriageClient.getInstance().logout();
+                } catch (IOException e) {
+                    System.out.println("⚠️ Server logout failed: " + e.getMessage());
+                }
+            });
+        }
+        // Screens were built for this user's permissions; detach so their feeds unsubscribe
+        views.clear();
+        contentArea.setCenter(null);
 
         try {
             FXMLLoader loader = new FXMLLoader(
@@ -218,6 +231,7 @@ public class DashboardController {
             Parent root = loader.load();
             Stage stage = (Stage) sidebar.getScene().getWindow();
             stage.setScene(new Scene(root));
+            FxWatchdog.getInstance().setActiveScreen("login-view.fxml");
             stage.centerOnScreen();
         } catch (Exception e) {
             e.printStackTrace();
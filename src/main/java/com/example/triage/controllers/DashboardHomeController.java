@@ -1,16 +1,27 @@
 package com.example.triage.controllers;
 
-import com.example.triage.database.DBConnection;
+import com.example.triage.diagnostics.ViewLoadEvent;
+import com.example.triage.services.AsyncDAO;
 import com.example.triage.services.CapacityMonitor;
+import com.example.triage.services.ChangeFeed;
+import com.example.triage.services.DashboardService;
+import com.example.triage.services.StartupPipeline;
+import com.example.triage.services.DashboardSnapshot;
+import com.example.triage.services.DashboardSnapshot.Admission;
+import com.example.triage.services.DashboardSnapshot.FacilityLoad;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.*;
 import org.kordamp.ikonli.javafx.FontIcon;
 import javafx.geometry.Insets;
-import java.sql.*;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 public class DashboardHomeController {
 
@@ -30,6 +41,10 @@ public class DashboardHomeController {
     @FXML private VBox criticalPatientsSection;
     @FXML private VBox capacityAlertBox;
 
+    private static final String HOME_VIEW = "DashboardHomeController";
+
+    private final AsyncDAO async = AsyncDAO.getInstance();
+
     @FXML
     public void initialize() {
 
@@ -44,92 +59,56 @@ public class DashboardHomeController {
 
         welcomeLabel.setText("Welcome");
 
-        loadStaffCount();
-        loadPatientsCount();
-        loadCriticalCount();
-        loadBedsCount();
-
-        loadFacilityCapacity();
-        loadRecentActivity();
-        loadCriticalPatients();
-
         // Capacity alerts
         CapacityMonitor monitor = CapacityMonitor.getInstance();
         monitor.setAlertContainer(capacityAlertBox);
         monitor.startMonitoring();
-    }
-
-    /* ================= COUNTS ================= */
-
-    private void loadStaffCount() {
-        setCount("SELECT COUNT(*) FROM staff WHERE on_shift = 1", adminStaffCountLabel);
-    }
-
-    private void loadPatientsCount() {
-        setCount(
-                "SELECT COUNT(*) FROM patients WHERE status = 'admitted'",
-                adminPatientsCountLabel
-        );
-    }
 
-    private void loadCriticalCount() {
-        setCount(
-                "SELECT COUNT(*) FROM patients WHERE severity = 'critical' AND status = 'admitted'",
-                adminCriticalCountLabel
-        );
+        // One round-trip for every section below
+        async.load(() -> loadSnapshot("load"), this::render);
+        // Re-snapshot only when something actually changed since the last poll
+        ChangeFeed.getInstance().bind(adminPanel, changes -> {
+            DashboardSnapshot snapshot = loadSnapshot("refresh");
+            Platform.runLater(() -> render(snapshot));
+        });
     }
 
-    private void loadBedsCount() {
-        setCount(
-                "SELECT COUNT(*) FROM units WHERE status = 'AVAILABLE'",
-                adminBedsCountLabel
-        );
+    private static DashboardSnapshot loadSnapshot(String phase) {
+        ViewLoadEvent event = ViewLoadEvent.begin(HOME_VIEW, phase);
+        // The first load takes the snapshot prefetched at login, if there is one
+        DashboardSnapshot snapshot = phase.equals("load")
+                ? DashboardService.getInstance().getOrLoad(0)
+                : DashboardService.getInstance().load();
+        event.finish(snapshot.getFacilityLoads().size());
+        return snapshot;
     }
 
-    private void setCount(String sql, Label label) {
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            label.setText(rs.next() ? String.valueOf(rs.getInt(1)) : "0");
-
-        } catch (Exception e) {
-            label.setText("0");
-            e.printStackTrace();
-        }
+    private void render(DashboardSnapshot snapshot) {
+        ViewLoadEvent event = ViewLoadEvent.begin(HOME_VIEW, "render");
+        adminStaffCountLabel.setText(String.valueOf(snapshot.getStaffOnShift()));
+        adminPatientsCountLabel.setText(String.valueOf(snapshot.getAdmittedPatients()));
+        adminCriticalCountLabel.setText(String.valueOf(snapshot.getCriticalPatients()));
+        adminBedsCountLabel.setText(String.valueOf(snapshot.getAvailableUnits()));
+
+        renderFacilityCapacity(snapshot.getFacilityLoads());
+        renderRecentActivity(snapshot.getRecentAdmissions());
+        renderCriticalPatients(snapshot.getCriticalPatientNames());
+
+        CapacityMonitor.getInstance().onSnapshot(snapshot);
+        event.finish(snapshot.getFacilityLoads().size()
+                + snapshot.getRecentAdmissions().size()
+                + snapshot.getCriticalPatientNames().size());
+        StartupPipeline.getInstance().dashboardShown();
     }
 
     /* ================= FACILITY CAPACITY ================= */
 
-    private void loadFacilityCapacity() {
-        facilityCapacityContainer.getChildren().clear();
-
-        String sql = """
-            SELECT f.name,
-                   COUNT(u.id) total,
-                   SUM(u.status='OCCUPIED') occupied
-            FROM facilities f
-            LEFT JOIN floors fl ON f.id = fl.facility_id
-            LEFT JOIN units u ON fl.id = u.floor_id
-            GROUP BY f.id
-        """;
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                facilityCapacityContainer.getChildren().add(
-                        createCapacityBar(
-                                rs.getString("name"),
-                                rs.getInt("occupied"),
-                                rs.getInt("total")
-                        )
-                );
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void renderFacilityCapacity(List<FacilityLoad> rows) {
+        List<Node> bars = new ArrayList<>(rows.size());
+        for (FacilityLoad row : rows) {
+            bars.add(createCapacityBar(row.name(), row.occupied(), row.total()));
         }
+        facilityCapacityContainer.getChildren().setAll(bars);
     }
 
     private VBox createCapacityBar(String name, int occupied, int total) {
@@ -152,34 +131,12 @@ public class DashboardHomeController {
 
     /* ================= RECENT ACTIVITY ================= */
 
-    private void loadRecentActivity() {
-        recentActivityContainer.getChildren().clear();
-
-        String sql = """
-            SELECT patient_code, full_name, admission_date, severity
-            FROM patients
-            WHERE status='admitted'
-            ORDER BY admission_date DESC
-            LIMIT 8
-        """;
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                recentActivityContainer.getChildren().add(
-                        createActivityItem(
-                                rs.getString("patient_code"),
-                                rs.getString("full_name"),
-                                rs.getTimestamp("admission_date"),
-                                rs.getString("severity")
-                        )
-                );
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void renderRecentActivity(List<Admission> rows) {
+        List<Node> items = new ArrayList<>(rows.size());
+        for (Admission row : rows) {
+            items.add(createActivityItem(row.code(), row.name(), row.admitted(), row.severity()));
         }
+        recentActivityContainer.getChildren().setAll(items);
     }
 
     private HBox createActivityItem(
@@ -198,35 +155,17 @@ public class DashboardHomeController {
 
     /* ================= CRITICAL PATIENTS ================= */
 
-    private void loadCriticalPatients() {
-        criticalPatientsContainer.getChildren().clear();
-
-        String sql = """
-            SELECT patient_code, full_name, age
-            FROM patients
-            WHERE severity='critical' AND status='admitted'
-        """;
-
-        int count = 0;
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                count++;
-                criticalPatientsContainer.getChildren().add(
-                        new Label(rs.getString("full_name"))
-                );
-            }
-
-            criticalCountBadge.setText(String.valueOf(count));
-            criticalPatientsSection.setVisible(count > 0);
-            criticalPatientsSection.setManaged(count > 0);
-
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void renderCriticalPatients(List<String> names) {
+        List<Node> labels = new ArrayList<>(names.size());
+        for (String name : names) {
+            labels.add(new Label(name));
         }
+        criticalPatientsContainer.getChildren().setAll(labels);
+
+        int count = names.size();
+        criticalCountBadge.setText(String.valueOf(count));
+        criticalPatientsSection.setVisible(count > 0);
+        criticalPatientsSection.setManaged(count > 0);
     }
 
     /* ================= HELPERS ================= */
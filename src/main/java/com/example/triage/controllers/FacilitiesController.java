@@ -1,5 +1,10 @@
 package com.example.triage.controllers;
 
+import com.example.triage.diagnostics.ViewLoadEvent;
+import com.example.triage.services.AsyncDAO;
+import com.example.triage.services.EventBus;
+import com.example.triage.services.FacilityProvisioner;
+import com.example.triage.services.LatestRequest;
 import com.example.triage.services.PermissionService;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -7,9 +12,14 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import java.sql.*;
 import java.util.*;
-import com.example.triage.database.DBConnection;
+import com.example.triage.database.FacilityDAO;
+import com.example.triage.database.FloorDAO;
+import com.example.triage.database.ReferenceDataCache;
+import com.example.triage.remote.Backend;
+
+public class FacilitiesController implements CachedView {
+    private static final String UNITS_VIEW = "FacilitiesController.renderUnits";
 
-public class FacilitiesController {
     @FXML private ComboBox<String> facilitySelector;
     @FXML private ComboBox<Integer> floorSelector;
     @FXML private FlowPane unitGrid;
@@ -27,6 +37,7 @@ public class FacilitiesController {
     @FXML private Spinner<Integer> addFacilityFloors;
     @FXML private Spinner<Integer> addFacilityBeds;
     @FXML private Spinner<Integer> addFacilityRooms;
+    @FXML private ProgressBar addFacilityProgress;
     @FXML private StackPane addFacilityOverlay;
     /* REMOVE FACILITY */
     @FXML private VBox removeFacilityPanel;
@@ -49,6 +60,19 @@ public class FacilitiesController {
     private int pendingBeds;
     private int pendingRooms;
 
+    private final AsyncDAO async = AsyncDAO.getInstance();
+    private final ReferenceDataCache referenceData = ReferenceDataCache.getInstance();
+    private final FacilityDAO facilityDAO = Backend.facilityDAO();
+    private final FloorDAO floorDAO = Backend.floorDAO();
+    private final FacilityProvisioner provisioner = Backend.facilityProvisioner();
+    private final LatestRequest<List<Integer>> floorsRequest = new LatestRequest<>();
+    private final LatestRequest<List<FacilityDAO.Unit>> unitsRequest = new LatestRequest<>();
+
+    // Tiles of the floor on screen, for applying unit events in place
+    private final Map<Integer, StackPane> unitBoxes = new HashMap<>();
+    private final Map<Integer, String> unitStatuses = new HashMap<>();
+    private record UnitCounts(int beds, int rooms) {}
+
     @FXML
     public void initialize() {
 
@@ -57,6 +81,10 @@ public class FacilitiesController {
         setupSelectors();
         clearView();
         setupRemoveListeners();
+        EventBus.getInstance().bind(unitGrid, event -> {
+            Map<Integer, String> statuses = event.unitStatuses();
+            if (!statuses.isEmpty()) Platform.runLater(() -> applyUnitStatuses(statuses));
+        });
 
         addFacilityType.getItems().setAll("ER", "WARD", "ICU", "PACU");
         addFacilityFloors.setValueFactory(
@@ -97,39 +125,28 @@ public class FacilitiesController {
        FACILITY / FLOOR LOADING
        ================================ */
     private void loadFacilities() {
-        facilitySelector.getItems().clear();
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps =
-                     conn.prepareStatement("SELECT name FROM facilities ORDER BY name");
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                facilitySelector.getItems().add(rs.getString("name"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        if (referenceData.isLoaded()) {
+            // Warm cache: fill on the spot, no query and no thread hop
+            facilitySelector.getItems().setAll(queryFacilities());
+            return;
         }
+        facilitySelector.getItems().clear();
+        async.load(this::queryFacilities, facilitySelector.getItems()::setAll);
+    }
+    private List<String> queryFacilities() {
+        return facilityDAO.getAllFacilities();
     }
     private void loadFloors(String facilityName) {
-        floorSelector.getItems().clear();
-        String sql = """
-                SELECT f.floor_number
-                FROM floors f
-                JOIN facilities fac ON fac.id = f.facility_id
-                WHERE fac.name = ?
-                ORDER BY f.floor_number
-                """;
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, facilityName);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                floorSelector.getItems().add(rs.getInt("floor_number"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        if (referenceData.isLoaded()) {
+            floorsRequest.cancel();
+            floorSelector.getItems().setAll(queryFloors(facilityName));
+            return;
         }
+        floorSelector.getItems().clear();
+        floorsRequest.submit(() -> queryFloors(facilityName), floorSelector.getItems()::setAll);
+    }
+    private List<Integer> queryFloors(String facilityName) {
+        return floorDAO.getFloorNumbers(facilityDAO.getFacilityIdByName(facilityName));
     }
     /* ================================
        DROPDOWN LOGIC
@@ -143,56 +160,71 @@ public class FacilitiesController {
         });
         floorSelector.setOnAction(e -> renderUnits());
     }
+    /** Unit events are not delivered while the screen is hidden; re-read the floor on show. */
+    @Override
+    public void onShow() {
+        if (facilitySelector.getValue() != null && floorSelector.getValue() != null) {
+            renderUnits();
+        }
+    }
     /* ================================
        UNIT RENDERING
        ================================ */
     private void renderUnits() {
-        unitGrid.getChildren().clear();
         String facility = facilitySelector.getValue();
         Integer floor = floorSelector.getValue();
         if (facility == null || floor == null) {
+            unitsRequest.cancel();
             clearView();
             return;
         }
+        unitsRequest.submit(
+                () -> {
+                    ViewLoadEvent event = ViewLoadEvent.begin(UNITS_VIEW, "load");
+                    List<FacilityDAO.Unit> units = facilityDAO.getUnits(facility, floor);
+                    event.finish(units.size());
+                    return units;
+                },
+                units -> {
+                    ViewLoadEvent event = ViewLoadEvent.begin(UNITS_VIEW, "render");
+                    showUnits(facility, floor, units);
+                    event.finish(units.size());
+                }
+        );
+    }
+    private void showUnits(String facility, int floor, List<FacilityDAO.Unit> units) {
+        unitGrid.getChildren().clear();
+        unitBoxes.clear();
+        unitStatuses.clear();
         emptyState.setVisible(false);
         facilityTitle.setText(facility + " - Floor " + floor);
+
+        for (FacilityDAO.Unit unit : units) {
+            StackPane box = createUnitBox(unit.id(), unit.label(), unit.status());
+            unitGrid.getChildren().add(box);
+            unitBoxes.put(unit.id(), box);
+            unitStatuses.put(unit.id(), unit.status());
+        }
+        updateCounts();
+    }
+    /** Applies pushed unit changes to the tiles on screen; other floors are ignored. */
+    private void applyUnitStatuses(Map<Integer, String> statuses) {
+        boolean changed = false;
+        for (Map.Entry<Integer, String> e : statuses.entrySet()) {
+            StackPane box = unitBoxes.get(e.getKey());
+            if (box == null || e.getValue().equals(unitStatuses.get(e.getKey()))) continue;
+            box.setStyle(getUnitStyle(e.getValue()));
+            unitStatuses.put(e.getKey(), e.getValue());
+            changed = true;
+        }
+        if (changed) updateCounts();
+    }
+    private void updateCounts() {
         int available = 0;
         int occupied = 0;
-
-        String sql = """
-                SELECT u.id, u.label, u.status
-                FROM units u
-                JOIN floors f ON f.id = u.floor_id
-                JOIN facilities fac ON fac.id = f.facility_id
-                WHERE fac.name = ? AND f.floor_number = ?
-                ORDER BY
-                    CASE
-                        WHEN u.label LIKE 'Bed %' THEN 1
-                        WHEN u.label LIKE 'Room %' THEN 2
-                        ELSE 3
-                    END,
-                    CAST(SUBSTRING(u.label, LOCATE(' ', u.label) + 1) AS UNSIGNED)
-                """;
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, facility);
-            ps.setInt(2, floor);
-            ResultSet rs = ps.executeQuery();
-
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String label = rs.getString("label");
-                String status = rs.getString("status");
-
-                unitGrid.getChildren().add(createUnitBox(id, label, status));
-
-                if ("AVAILABLE".equals(status)) available++;
-                if ("OCCUPIED".equals(status)) occupied++;
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
+        for (String status : unitStatuses.values()) {
+            if ("AVAILABLE".equals(status)) available++;
+            if ("OCCUPIED".equals(status)) occupied++;
         }
         availableCount.setText(String.valueOf(available));
         occupiedCount.setText(String.valueOf(occupied));
@@ -210,8 +242,9 @@ public class FacilitiesController {
 
         box.setOnMouseClicked(e -> {
             if (editMode && facilityStatusBox.getValue() != null) {
-                updateUnitStatus(id, facilityStatusBox.getValue().toUpperCase());
-                renderUnits();
+                String newStatus = facilityStatusBox.getValue().toUpperCase();
+                // The tile updates from the published event, like at every other desk
+                async.run(() -> facilityDAO.setUnitStatus(id, newStatus));
             }
         });
         return box;
@@ -226,18 +259,6 @@ public class FacilitiesController {
                     "-fx-background-color:#eeeeee;-fx-border-color:#9e9e9e;-fx-border-radius:8;";
         };
     }
-    private void updateUnitStatus(int id, String status) {
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps =
-                     conn.prepareStatement("UPDATE units SET status=? WHERE id=?")) {
-
-            ps.setString(1, status);
-            ps.setInt(2, id);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
     /* ================================
        EDIT MODE
        ================================ */
@@ -296,59 +317,44 @@ public class FacilitiesController {
         int roomCount = addFacilityRooms.getValue();
 
         if (name == null || name.isBlank() || type == null) return;
-        try (Connection conn = DBConnection.getConnection()) {
 
-            PreparedStatement facPS = conn.prepareStatement(
-                    "INSERT INTO facilities (name, type, bed_count, room_count) VALUES (?, ?, ?, ?)",
-                    Statement.RETURN_GENERATED_KEYS
-            );
-
-            facPS.setString(1, name);
-            facPS.setString(2, type);
-            facPS.setInt(3, bedCount);
-            facPS.setInt(4, roomCount);
-            facPS.executeUpdate();
-            ResultSet facKeys = facPS.getGeneratedKeys();
-            if (!facKeys.next()) return;
-            int facilityId = facKeys.getInt(1);
-
-            for (int floor = 1; floor <= floors; floor++) {
-                PreparedStatement floorPS = conn.prepareStatement(
-                        "INSERT INTO floors (facility_id, floor_number) VALUES (?, ?)",
-                        Statement.RETURN_GENERATED_KEYS
-                );
-                floorPS.setInt(1, facilityId);
-                floorPS.setInt(2, floor);
-                floorPS.executeUpdate();
-
-                ResultSet floorKeys = floorPS.getGeneratedKeys();
-                if (!floorKeys.next()) continue;
-                int floorId = floorKeys.getInt(1);
-
-                if (List.of("ER", "WARD", "ICU", "PACU").contains(type)) {
-                    for (int b = 1; b <= bedCount; b++) {
-                        conn.prepareStatement(
-                                "INSERT INTO units (floor_id, label, status) VALUES (" +
-                                        floorId + ", 'Bed " + b + "', 'AVAILABLE')"
-                        ).executeUpdate();
-                    }
-                }
-
-                if ("WARD".equals(type)) {
-                    for (int r = 1; r <= roomCount; r++) {
-                        conn.prepareStatement(
-                                "INSERT INTO units (floor_id, label, status) VALUES (" +
-                                        floorId + ", 'Room " + r + "', 'AVAILABLE')"
-                        ).executeUpdate();
+        FacilityProvisioner.Layout layout =
+                new FacilityProvisioner.Layout(name, type, floors, bedCount, roomCount);
+
+        addFacilityProgress.setProgress(0);
+        addFacilityProgress.setVisible(true);
+        addFacilityProgress.setManaged(true);
+        addFacilityPanel.setDisable(true);
+
+        async.load(
+                () -> {
+                    try {
+                        return provisioner.provision(layout, done ->
+                                Platform.runLater(() -> addFacilityProgress.setProgress(done)));
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
                     }
+                },
+                facilityId -> {
+                    resetAddFacilityProgress();
+                    closeAddFacilityPopup();
+                    loadFacilities();
+                },
+                error -> {
+                    resetAddFacilityProgress();
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setTitle("Add Facility");
+                    alert.setHeaderText("Facility could not be created");
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    alert.setContentText(cause.getMessage());
+                    alert.showAndWait();
                 }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        loadFacilities();
-        closeAddFacilityPopup();
+        );
+    }
+    private void resetAddFacilityProgress() {
+        addFacilityPanel.setDisable(false);
+        addFacilityProgress.setVisible(false);
+        addFacilityProgress.setManaged(false);
     }
     @FXML
     private void handleRemoveFacility() {
@@ -376,100 +382,58 @@ public class FacilitiesController {
             String facility = removeFacilitySelector.getValue();
             removeFloorSelector.getItems().clear();
             if (facility == null) return;
-            try (Connection conn = DBConnection.getConnection();
-                 PreparedStatement ps = conn.prepareStatement("""
-                 SELECT floor_number
-                 FROM floors f
-                 JOIN facilities fac ON fac.id=f.facility_id
-                 WHERE fac.name=?
-                 ORDER BY floor_number
-             """)) {
-                ps.setString(1, facility);
-                ResultSet rs = ps.executeQuery();
-                while (rs.next()) {
-                    removeFloorSelector.getItems().add(rs.getInt("floor_number"));
-                }
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-            }
+            async.load(() -> queryFloors(facility), removeFloorSelector.getItems()::setAll);
         });
         removeFloorSelector.setOnAction(e -> {
             String facility = removeFacilitySelector.getValue();
             Integer floor = removeFloorSelector.getValue();
             if (facility == null || floor == null) return;
-            int beds = countUnits(facility, floor, "Bed");
-            int rooms = countUnits(facility, floor, "Room");
-            removeBedsSpinner.setValueFactory(
-                    new SpinnerValueFactory.IntegerSpinnerValueFactory(0, beds, 0)
+            async.load(
+                    () -> new UnitCounts(
+                            facilityDAO.countUnits(facility, floor, "Bed"),
+                            facilityDAO.countUnits(facility, floor, "Room")
+                    ),
+                    this::showRemovableUnits
             );
-            removeRoomsSpinner.setValueFactory(
-                    new SpinnerValueFactory.IntegerSpinnerValueFactory(0, rooms, 0)
-            );
-            removeBedsSpinner.setDisable(beds == 0);
-            removeRoomsSpinner.setDisable(rooms == 0);
         });
     }
+    private void showRemovableUnits(UnitCounts counts) {
+        int beds = counts.beds();
+        int rooms = counts.rooms();
+        removeBedsSpinner.setValueFactory(
+                new SpinnerValueFactory.IntegerSpinnerValueFactory(0, beds, 0)
+        );
+        removeRoomsSpinner.setValueFactory(
+                new SpinnerValueFactory.IntegerSpinnerValueFactory(0, rooms, 0)
+        );
+        removeBedsSpinner.setDisable(beds == 0);
+        removeRoomsSpinner.setDisable(rooms == 0);
+    }
     @FXML
     private void executeConfirmedDelete() {
-        try (Connection conn = DBConnection.getConnection()) {
-            PreparedStatement facPS =
-                    conn.prepareStatement("SELECT id FROM facilities WHERE name=?");
-            facPS.setString(1, pendingFacility);
-            ResultSet rs = facPS.executeQuery();
-            if (!rs.next()) return;
-            int facilityId = rs.getInt("id");
-            if (hasOccupiedUnits(conn, facilityId, pendingFloor)) {
-                showDeleteBlocked();
-                return;
-            }
-            if (pendingFloor == null) {
-                conn.prepareStatement(
-                        "DELETE FROM facilities WHERE id=" + facilityId
-                ).executeUpdate();
-            } else if (pendingBeds == 0 && pendingRooms == 0) {
-
-                PreparedStatement ps = conn.prepareStatement("""
-                DELETE f FROM floors f
-                WHERE f.facility_id=? AND f.floor_number=?
-            """);
-                ps.setInt(1, facilityId);
-                ps.setInt(2, pendingFloor);
-                ps.executeUpdate();
-
-            } else {
-                int floorId = getFloorId(conn, pendingFacility, pendingFloor);
-
-                if (pendingBeds > 0) {
-                    deleteUnits(conn, floorId, "Bed", pendingBeds);
-                }
-                if (pendingRooms > 0) {
-                    deleteUnits(conn, floorId, "Room", pendingRooms);
+        String facility = pendingFacility;
+        Integer floor = pendingFloor;
+        int beds = pendingBeds;
+        int rooms = pendingRooms;
+
+        async.load(() -> deleteSelection(facility, floor, beds, rooms), outcome -> {
+            switch (outcome) {
+                case NOT_FOUND -> { }
+                case BLOCKED -> showDeleteBlocked();
+                case FAILED -> showDeleteFailed();
+                case DONE -> {
+                    loadFacilities();
+                    clearView();
+                    closeAllDeletePopups();
                 }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        loadFacilities();
-        clearView();
-        closeAllDeletePopups();
-    }
-
-    private boolean hasOccupiedUnits(Connection conn, int facilityId, Integer floor) throws SQLException {
-        String sql = """
-        SELECT COUNT(*) 
-        FROM units u
-        JOIN floors f ON f.id = u.floor_id
-        WHERE f.facility_id = ?
-        AND u.status = 'OCCUPIED'
-    """ + (floor != null ? " AND f.floor_number = ?" : "");
-        PreparedStatement ps = conn.prepareStatement(sql);
-        ps.setInt(1, facilityId);
-        if (floor != null) {
-            ps.setInt(2, floor);
-        }
-        ResultSet rs = ps.executeQuery();
-        rs.next();
-        return rs.getInt(1) > 0;
+        });
+    }
+
+    private FacilityDAO.DeleteOutcome deleteSelection(String facility, Integer floor, int beds, int rooms) {
+        int facilityId = facilityDAO.getFacilityIdByName(facility);
+        if (facilityId < 0) return FacilityDAO.DeleteOutcome.NOT_FOUND;
+        return facilityDAO.deleteSelection(facilityId, floor, beds, rooms);
     }
 
     @FXML
@@ -495,57 +459,13 @@ public class FacilitiesController {
 
     private void clearView() {
         unitGrid.getChildren().clear();
+        unitBoxes.clear();
+        unitStatuses.clear();
         emptyState.setVisible(true);
         facilityTitle.setText("Select a facility");
         availableCount.setText("0");
         occupiedCount.setText("0");
     }
-    private int countUnits(String facility, int floor, String type) {
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement("""
-             SELECT COUNT(*)
-             FROM units u
-             JOIN floors f ON f.id=u.floor_id
-             JOIN facilities fac ON fac.id=f.facility_id
-             WHERE fac.name=? AND f.floor_number=? AND u.label LIKE ?
-         """)) {
-            ps.setString(1, facility);
-            ps.setInt(2, floor);
-            ps.setString(3, type + " %");
-            ResultSet rs = ps.executeQuery();
-            rs.next();
-            return rs.getInt(1);
-        } catch (SQLException e) {
-            return 0;
-        }
-    }
-
-    private int getFloorId(Connection conn, String facility, int floor) throws SQLException {
-        PreparedStatement ps = conn.prepareStatement("""
-        SELECT f.id
-        FROM floors f
-        JOIN facilities fac ON fac.id=f.facility_id
-        WHERE fac.name=? AND f.floor_number=?
-    """);
-        ps.setString(1, facility);
-        ps.setInt(2, floor);
-        ResultSet rs = ps.executeQuery();
-        rs.next();
-        return rs.getInt(1);
-    }
-
-    private void deleteUnits(Connection conn, int floorId, String type, int limit) throws SQLException {
-        PreparedStatement ps = conn.prepareStatement("""
-        DELETE FROM units
-        WHERE floor_id=? AND label LIKE ?
-        ORDER BY CAST(SUBSTRING(label, LOCATE(' ', label)+1) AS UNSIGNED) DESC
-        LIMIT ?
-    """);
-        ps.setInt(1, floorId);
-        ps.setString(2, type + " %");
-        ps.setInt(3, limit);
-        ps.executeUpdate();
-    }
     @FXML
     private void closeRemoveFacilityPopup() {
         removeFacilityOverlay.setVisible(false);
@@ -559,6 +479,13 @@ public class FacilitiesController {
         deleteBlockedOverlay.setVisible(true);
         deleteBlockedOverlay.setManaged(true);
     }
+    private void showDeleteFailed() {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Remove Facility");
+        alert.setHeaderText("Nothing was removed");
+        alert.setContentText("The database rejected the change. Please try again.");
+        alert.showAndWait();
+    }
     @FXML
     private void closeDeleteConfirm() {
         deleteConfirmOverlay.setVisible(false);
@@ -2,8 +2,11 @@ package com.example.triage.controllers;
 
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
-import com.example.triage.database.DBConnection;
+import com.example.triage.database.UserDAO;
+import com.example.triage.remote.Backend;
+import com.example.triage.services.AsyncDAO;
 import com.example.triage.services.SessionManager;
+import com.example.triage.services.StartupPipeline;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Label;
@@ -12,9 +15,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import java.io.IOException;
-import java.sql.ResultSet;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import javafx.animation.FadeTransition;
 import javafx.animation.TranslateTransition;
 import javafx.util.Duration;
@@ -35,6 +36,7 @@ public class LoginController {
     @FXML private Label adminSetupErrorLabel;
 
     private Preferences prefs = Preferences.userNodeForPackage(LoginController.class);
+    private final UserDAO userDAO = Backend.userDAO();
 
     @FXML
     private void onLoginButtonClick() {
@@ -48,13 +50,30 @@ public class LoginController {
             return;
         }
 
-        if (authenticateUser(username, password)) {
-            System.out.println("Login successful for user: " + username);
-            loadDashboard();
-        } else {
-            showError("Invalid username or password. Please try again.");
-            shakeFields();
-        }
+        // Credentials are checked off the FX thread; the form stays put until the answer is back
+        usernameField.getParent().setDisable(true);
+        AsyncDAO.getInstance().load(() -> {
+            try {
+                return userDAO.authenticate(username, password);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }, account -> {
+            usernameField.getParent().setDisable(false);
+            if (account != null) {
+                SessionManager.getInstance()
+                        .startSession(account.userId(), account.staffId(), account.username(), account.role());
+                System.out.println("Login successful for user: " + username);
+                StartupPipeline.getInstance().loggedIn();
+                loadDashboard();
+            } else {
+                showError("Invalid username or password. Please try again.");
+                shakeFields();
+            }
+        }, error -> {
+            usernameField.getParent().setDisable(false);
+            showError("Database connection error.");
+        });
     }
 
     @FXML
@@ -99,44 +118,6 @@ public class LoginController {
 
 
 
-    private boolean authenticateUser(String username, String password) {
-
-        String sql = """
-        SELECT u.id AS user_id,
-               u.staff_id,
-               u.role
-        FROM users u
-        WHERE u.username = ? AND u.password = ?
-    """;
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            stmt.setString(2, password);
-
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                int userId  = rs.getInt("user_id");
-                int staffId = rs.getInt("staff_id");
-                String role = rs.getString("role").toUpperCase();
-
-                SessionManager.getInstance()
-                        .startSession(userId, staffId, username, role);
-
-                return true;
-            }
-
-            return false;
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Database connection error.");
-            return false;
-        }
-    }
-
     private void loadDashboard() {
         FadeTransition fade = new FadeTransition(Duration.millis(300), usernameField.getScene().getRoot());
         fade.setFromValue(1.0);
@@ -240,46 +221,23 @@ public class LoginController {
             return;
         }
 
-        // Admin already exists
-        if (adminExists()) {
-            showAdminError("Administrator setup has already been completed.");
-            return;
-        }
-
-        String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, 'admin')";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            stmt.setString(2, password); // (hashing later if required)
-            stmt.executeUpdate();
-
-            hideAdminSetup();
-            showError("Admin account created. You may now log in.");
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAdminError("Failed to create admin account.");
-        }
-    }
-
-
-    private boolean adminExists() {
-        String sql = "SELECT COUNT(*) FROM users WHERE role = 'admin'";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
+        AsyncDAO.getInstance().load(() -> {
+            try {
+                // Fail-safe: only one administrator is ever created here
+                if (userDAO.adminExists()) return false;
+                userDAO.createAdmin(username, password);
+                return true;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return true; // fail-safe: block creation
+        }, created -> {
+            if (created) {
+                hideAdminSetup();
+                showError("Admin account created. You may now log in.");
+            } else {
+                showAdminError("Administrator setup has already been completed.");
+            }
+        }, error -> showAdminError("Failed to create admin account."));
     }
 
 
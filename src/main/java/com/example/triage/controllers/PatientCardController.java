@@ -22,9 +22,11 @@ public class PatientCardController {
     @FXML private Label referralBadge;
 
     private Patient patient;
+    private String baseStyle;
 
     @FXML
     public void initialize() {
+        baseStyle = root.getStyle();
         root.setOnMouseEntered(e ->
                 root.setStyle(root.getStyle()
                         + "-fx-border-color: #2ca3fa;"
@@ -40,6 +42,7 @@ public class PatientCardController {
         );
     }
     /* ================= PUBLIC SETTER ================= */
+    // Safe to call repeatedly: the grid rebinds pooled cards to new patients
     public void setPatient(
             Patient patient,
             String searchText,
@@ -57,14 +60,15 @@ public class PatientCardController {
         severityLabel.setText(capitalize(patient.getSeverity()));
         applySeverityStyle(patient.getSeverity());
 
-        if ("PENDING".equals(patient.getReferralStatus())) {
-            referralBadge.setVisible(true);
-            referralBadge.setManaged(true);
-            root.setStyle(root.getStyle()
+        boolean pending = "PENDING".equals(patient.getReferralStatus());
+        referralBadge.setVisible(pending);
+        referralBadge.setManaged(pending);
+        root.setStyle(pending
+                ? baseStyle
                     + "-fx-border-color: #ff9800;"
                     + "-fx-background-color: #fff8e1;"
-            );
-        }
+                : baseStyle
+        );
         root.setOnMouseClicked(e -> onClick.run());
     }
 
@@ -0,0 +1,159 @@
+package com.example.triage.controllers;
+
+import com.example.triage.database.Patient;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Skin;
+import javafx.scene.layout.HBox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Virtualized patient card grid. Patients are chunked into rows sized to the
+ * current width, and the ListView only builds cells for the rows on screen.
+ * Card nodes come from a pool and are rebound through
+ * {@link PatientCardController#setPatient}, so patient-card.fxml is loaded
+ * once per visible card rather than once per patient per refresh.
+ */
+public class PatientGrid extends ListView<List<Patient>> {
+
+    // Keep in step with patient-card.fxml and the old FlowPane gaps
+    private static final double CARD_WIDTH = 260;
+    private static final double GAP = 20;
+    private static final double PADDING = 10;
+    private static final double SCROLLBAR_ALLOWANCE = 16;
+
+    private final Deque<Card> spareCards = new ArrayDeque<>();
+
+    private final List<Patient> patients = new ArrayList<>();
+    private String searchText = "";
+    private Consumer<Patient> onPatientClicked = p -> {};
+    private int columns = 1;
+    private boolean wired;
+
+    // Set up when the skin is built rather than in the constructor, so no listener sees a half-built grid
+    @Override
+    protected Skin<?> createDefaultSkin() {
+        if (!wired) {
+            wired = true;
+            setStyle("-fx-background-color: transparent;"
+                    + "-fx-background-insets: 0;"
+                    + "-fx-padding: " + PADDING + ";");
+            setFocusTraversable(false);
+            setCellFactory(list -> new RowCell());
+            widthProperty().addListener((obs, old, width) -> {
+                int fit = columnsFor(width.doubleValue());
+                if (fit != columns) {
+                    columns = fit;
+                    rebuildRows();
+                }
+            });
+        }
+        return super.createDefaultSkin();
+    }
+
+    public void setOnPatientClicked(Consumer<Patient> handler) {
+        this.onPatientClicked = handler;
+    }
+
+    /** Replaces the grid contents; only visible rows are (re)bound. */
+    public void setPatients(List<Patient> patients, String searchText) {
+        this.patients.clear();
+        this.patients.addAll(patients);
+        this.searchText = searchText == null ? "" : searchText;
+        rebuildRows();
+    }
+
+    /**
+     * Adds patients after the ones shown, e.g. the next page of a load still
+     * in progress. Only the last, partly filled row and the new rows are
+     * rebuilt.
+     */
+    public void appendPatients(List<Patient> more) {
+        if (more.isEmpty()) return;
+        int firstRow = patients.size() / columns;
+        patients.addAll(more);
+        getItems().remove(Math.min(firstRow, getItems().size()), getItems().size());
+        getItems().addAll(rowsFrom(firstRow));
+    }
+
+    private void rebuildRows() {
+        getItems().setAll(rowsFrom(0));
+    }
+
+    // Copies, not subList views: the backing list grows as pages are appended
+    private List<List<Patient>> rowsFrom(int firstRow) {
+        List<List<Patient>> rows = new ArrayList<>();
+        for (int i = firstRow * columns; i < patients.size(); i += columns) {
+            rows.add(List.copyOf(patients.subList(i, Math.min(i + columns, patients.size()))));
+        }
+        return rows;
+    }
+
+    private static int columnsFor(double width) {
+        double usable = width - 2 * PADDING - SCROLLBAR_ALLOWANCE + GAP;
+        return Math.max(1, (int) (usable / (CARD_WIDTH + GAP)));
+    }
+
+    /* ================= CARD POOL ================= */
+
+    private record Card(Node root, PatientCardController controller) {}
+
+    private Card acquireCard() {
+        Card card = spareCards.poll();
+        if (card != null) return card;
+
+        try {
+            FXMLLoader loader = new FXMLLoader(
+                    getClass().getResource("/com/example/triage/views/patient-card.fxml")
+            );
+            Node root = loader.load();
+            return new Card(root, loader.getController());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private class RowCell extends ListCell<List<Patient>> {
+
+        private final HBox row = new HBox(GAP);
+        private final List<Card> cards = new ArrayList<>();
+
+        RowCell() {
+            setStyle("-fx-background-color: transparent; -fx-padding: 0 0 " + GAP + " 0;");
+        }
+
+        @Override
+        protected void updateItem(List<Patient> item, boolean empty) {
+            super.updateItem(item, empty);
+
+            int wanted = (empty || item == null) ? 0 : item.size();
+            while (cards.size() > wanted) {
+                spareCards.push(cards.remove(cards.size() - 1));
+            }
+            while (cards.size() < wanted) {
+                cards.add(acquireCard());
+            }
+
+            List<Node> nodes = new ArrayList<>(wanted);
+            for (int i = 0; i < wanted; i++) {
+                Patient patient = item.get(i);
+                Card card = cards.get(i);
+                card.controller().setPatient(patient, searchText, () -> onPatientClicked.accept(patient));
+                nodes.add(card.root());
+            }
+            row.getChildren().setAll(nodes);
+
+            setText(null);
+            setGraphic(wanted == 0 ? null : row);
+        }
+    }
+}
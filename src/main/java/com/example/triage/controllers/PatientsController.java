@@ -1,6 +1,14 @@
 package com.example.triage.controllers;
 
+import com.example.triage.diagnostics.ViewLoadEvent;
+import com.example.triage.remote.Backend;
+import com.example.triage.remote.TriageClient;
+import com.example.triage.services.AsyncDAO;
+import com.example.triage.services.LatestRequest;
+import com.example.triage.services.PatientIndex;
+import com.example.triage.services.PatientSearch;
 import com.example.triage.services.PermissionService;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
@@ -13,10 +21,15 @@ import com.example.triage.database.FacilityDAO;
 import com.example.triage.database.FloorDAO;
 import com.example.triage.database.SortMode;
 import java.io.IOException;
+import java.sql.SQLException;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
+
+public class PatientsController implements CachedView {
+    private static final String PATIENTS_VIEW = "PatientsController.loadPatientsUnified";
 
-public class PatientsController {
     @FXML private Pane dischargeBackdrop;
     @FXML private VBox dischargePopup;
     @FXML private Pane addPatientBackdrop;
@@ -41,7 +54,7 @@ public class PatientsController {
     @FXML private TextField searchField;
 
     // ===== CENTER =====
-    @FXML private FlowPane patientGrid;
+    @FXML private PatientGrid patientGrid;
     @FXML private VBox emptyState;
     @FXML private Label areaLabel;
 
@@ -59,15 +72,27 @@ public class PatientsController {
     @FXML private ComboBox<String> editUnit;
     @FXML private VBox referralContainer;
 
-    private final PatientDAO patientDAO = new PatientDAO();
-    private final FacilityDAO facilityDAO = new FacilityDAO();
-    private final FloorDAO floorDAO = new FloorDAO();
+    private final PatientDAO patientDAO = Backend.patientDAO();
+    private final FacilityDAO facilityDAO = Backend.facilityDAO();
+    private final FloorDAO floorDAO = Backend.floorDAO();
+    private final AsyncDAO async = AsyncDAO.getInstance();
+
+    // Debounced, cancellable, narrows in memory when the search text only grows
+    private final PatientSearch patientSearch = new PatientSearch(this::findPatients, this::renderPatients);
+
+    // Rapid filter changes cancel the previous query instead of queueing behind it
+    private final LatestRequest<List<String>> floorsRequest = new LatestRequest<>();
+    private final LatestRequest<List<String>> editFloorsRequest = new LatestRequest<>();
 
     private int selectedPatientId = -1;
     private int selectedUnitId = -1;
 
     private SortMode currentSort = SortMode.NONE;
 
+    // What the grid shows so far, while pages of a cold-start load are appended
+    private int shownPatients;
+    private int shownCritical;
+
     private static final DateTimeFormatter FORMATTER =
             DateTimeFormatter.ofPattern("MMM dd, yyyy - hh:mm a");
 
@@ -79,12 +104,24 @@ public class PatientsController {
             loadPatientsUnified();
         });
         severityBox.setDisable(true);
-        facilityCombo.getItems().setAll(facilityDAO.getAllFacilities());
+        patientGrid.setOnPatientClicked(this::showPatientDetails);
+        // Changes from other desks land in the index via the change feed; re-run the filter then
+        Runnable indexChanged = () -> Platform.runLater(this::reloadPatients);
+        patientGrid.sceneProperty().addListener((obs, oldScene, scene) -> {
+            PatientIndex.getInstance().removeChangeListener(indexChanged);
+            if (scene != null) PatientIndex.getInstance().addChangeListener(indexChanged);
+        });
+        async.load(facilityDAO::getAllFacilities, facilityCombo.getItems()::setAll);
 
         facilityCombo.setOnAction(e -> {
-            int id = facilityDAO.getFacilityIdByName(facilityCombo.getValue());
-            floorCombo.getItems().setAll(floorDAO.getFloorsByFacility(id));
-            floorCombo.setDisable(false);
+            String facility = facilityCombo.getValue();
+            floorsRequest.submit(
+                    () -> floorDAO.getFloorsByFacility(facilityDAO.getFacilityIdByName(facility)),
+                    floors -> {
+                        floorCombo.getItems().setAll(floors);
+                        floorCombo.setDisable(false);
+                    }
+            );
         });
 
         floorCombo.setOnAction(e -> {
@@ -94,9 +131,8 @@ public class PatientsController {
         });
 
         severityBox.getItems().addAll("Moderate", "High", "Critical");
-        severityToggle.selectedProperty().addListener((a,b,c)->loadPatientsUnified());
         severityBox.setOnAction(e -> loadPatientsUnified());
-        searchField.textProperty().addListener((a,b,c)->loadPatientsUnified());
+        searchField.textProperty().addListener((a,b,c)->patientSearch.submitDebounced(currentQuery()));
         sortByAdmissionBtn.setOnAction(e -> {
             sortByBedBtn.setSelected(false);
             currentSort = sortByAdmissionBtn.isSelected()
@@ -275,16 +311,40 @@ public class PatientsController {
     }
 
     private void approveReferral(Patient p) {
-        patientDAO.approveReferral(p.getId());
         handleCloseDetail();
-        loadPatientsUnified();
+        async.load(() -> patientDAO.approveReferral(p.getId()), outcome -> {
+            reloadPatients();
+            showReferralOutcome(outcome);
+        });
     }
 
-    private void declineReferral(Patient p) {
-        patientDAO.declineReferral(p.getId());
+    private void showReferralOutcome(PatientDAO.ReferralOutcome outcome) {
+        if (outcome == PatientDAO.ReferralOutcome.APPROVED) return;
+
+        Alert alert = new Alert(outcome == PatientDAO.ReferralOutcome.FAILED
+                ? Alert.AlertType.ERROR
+                : Alert.AlertType.WARNING);
+        alert.setTitle("Referral Not Approved");
+        switch (outcome) {
+            case NO_UNIT -> {
+                alert.setHeaderText("Transfer Failed");
+                alert.setContentText("No available beds found on the referral floor. The referral is still pending.");
+            }
+            case NOT_PENDING -> {
+                alert.setHeaderText("Referral No Longer Pending");
+                alert.setContentText("The referral was already decided, or the patient was discharged.");
+            }
+            default -> {
+                alert.setHeaderText("Referral Not Saved");
+                alert.setContentText("The referral could not be approved. Please try again.");
+            }
+        }
+        alert.showAndWait();
+    }
 
+    private void declineReferral(Patient p) {
         handleCloseDetail();
-        loadPatientsUnified();
+        async.execute(() -> patientDAO.declineReferral(p.getId()), this::reloadPatients);
     }
 
 
@@ -298,8 +358,7 @@ public class PatientsController {
             ReferralPopupController controller = loader.getController();
             controller.init(p, () -> {
                 patientStack.getChildren().remove(popup);
-                loadPatientsUnified();
-                loadPatientsUnified();
+                reloadPatients();
                 handleCloseDetail();
             });
 
@@ -312,9 +371,62 @@ public class PatientsController {
     }
 
     private void loadPatientsUnified() {
+        // Narrowed searches render right here, on the FX thread
+        ViewLoadEvent event = ViewLoadEvent.begin(PATIENTS_VIEW, "submit");
+        patientSearch.submit(currentQuery());
+        event.finish(0);
+    }
+
+    /** The index kept up while hidden; re-run the current filter against it. */
+    @Override
+    public void onShow() {
+        reloadPatients();
+    }
+
+    /** After a write: the cached result is stale, so always query. */
+    private void reloadPatients() {
+        patientSearch.invalidate();
+        loadPatientsUnified();
+    }
 
-        patientGrid.getChildren().clear();
+    private List<Patient> findPatients(PatientSearch.Query q, Predicate<List<Patient>> partial) {
+        ViewLoadEvent event = ViewLoadEvent.begin(PATIENTS_VIEW, "load");
+        List<Patient> rows = queryPatients(q, partial);
+        event.finish(rows.size());
+        return rows;
+    }
 
+    // Background thread: the index answers filters without touching the database
+    private List<Patient> queryPatients(PatientSearch.Query q, Predicate<List<Patient>> partial) {
+        if (TriageClient.isEnabled()) {
+            // The server answers from its own index
+            return patientDAO.getPatientsFiltered(q.facility(), q.floor(), q.severity(), q.search(), q.sort());
+        }
+        PatientIndex index = PatientIndex.getInstance();
+        if (index.isLoaded()) {
+            return index.find(q.facility(), q.floor(), q.severity(), q.search(), q.sort());
+        }
+        async.run(index::ensureLoaded);
+
+        // Cold start: show each page as it arrives instead of waiting for the whole census
+        List<Patient> rows = new ArrayList<>();
+        try {
+            patientDAO.streamPatientsFiltered(
+                    q.facility(), q.floor(), q.severity(), q.search(), q.sort(),
+                    PatientDAO.DEFAULT_PAGE_SIZE,
+                    page -> {
+                        rows.addAll(page);
+                        // Only the new page; the grid appends it rather than re-rendering all rows
+                        return partial.test(page);
+                    }
+            );
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return rows;
+    }
+
+    private PatientSearch.Query currentQuery() {
         String facility = facilityCombo.getValue();
         Integer floor = floorCombo.getValue() == null
                 ? null
@@ -327,40 +439,32 @@ public class PatientsController {
 
         String search = searchField.getText().isBlank() ? null : searchField.getText();
 
-        List<Patient> patients = patientDAO.getPatientsFiltered(
-                facility, floor, severity, search, currentSort
-        );
+        return new PatientSearch.Query(facility, floor, severity, search, currentSort);
+    }
 
+    private void renderPatients(PatientSearch.Result result) {
+        ViewLoadEvent event = ViewLoadEvent.begin(PATIENTS_VIEW, "render");
+        List<Patient> patients = result.patients();
         int critical = 0;
-
         for (Patient p : patients) {
             if ("critical".equalsIgnoreCase(p.getSeverity())) critical++;
-            patientGrid.getChildren().add(createPatientCard(p));
         }
 
-        totalPatientsLabel.setText(String.valueOf(patients.size()));
-        criticalPatientsLabel.setText(String.valueOf(critical));
-
-        emptyState.setVisible(patients.isEmpty());
-    }
-
-    private VBox createPatientCard(Patient patient) {
-        try {
-            FXMLLoader loader = new FXMLLoader(
-                    getClass().getResource("/com/example/triage/views/patient-card.fxml")
-            );
-            VBox card = loader.load();
-            PatientCardController controller = loader.getController();
-
-            controller.setPatient(patient, searchField.getText(), () ->
-                    showPatientDetails(patient)
-            );
+        if (result.append()) {
+            patientGrid.appendPatients(patients);
+            shownPatients += patients.size();
+            shownCritical += critical;
+        } else {
+            patientGrid.setPatients(patients, result.query().search());
+            shownPatients = patients.size();
+            shownCritical = critical;
+        }
 
-            return card;
+        totalPatientsLabel.setText(String.valueOf(shownPatients));
+        criticalPatientsLabel.setText(String.valueOf(shownCritical));
 
-        } catch (IOException e) {
-            return new VBox();
-        }
+        emptyState.setVisible(shownPatients == 0);
+        event.finish(patients.size());
     }
 
     private void showPatientDetails(Patient p) {
@@ -391,16 +495,15 @@ public class PatientsController {
             showPermissionDenied("You are not allowed to edit patient details.");
             return;
         }
+        int patientId = selectedPatientId;
+        int unitId = selectedUnitId;
+
         // Basic fields
-        editDiagnosis.setText(
-                patientDAO.getDiagnosisByPatientId(selectedPatientId)
-        );
+        editDiagnosis.clear();
+        async.load(() -> patientDAO.getDiagnosisByPatientId(patientId), editDiagnosis::setText);
         editSeverity.getItems().setAll("Moderate", "High", "Critical");
         editSeverity.setValue(detailSeverity.getText());
 
-        String fromType =
-                facilityDAO.getFacilityTypeByUnitId(selectedUnitId);
-
         boolean isAdminOrDoctor = PermissionService.isAdminOrDoctor();
         boolean isNurseOrTech = PermissionService.isNurseOrTechnician();
 
@@ -415,19 +518,21 @@ public class PatientsController {
     /* ===============================
        FACILITY DROPDOWN (PRIMARY)
        =============================== */
-        if (isAdminOrDoctor) {
-            // Admin/Doctor: any facility
-            editFacility.getItems().setAll(
-                    facilityDAO.getAllFacilities()
-            );
-            editFacility.setDisable(false);
-
-        } else if (isNurseOrTech && "WARD".equalsIgnoreCase(fromType)) {
-            editFacility.getItems().setAll(
-                    facilityDAO.getFacilitiesByType("WARD")
-            );
+        async.load(() -> {
+            if (isAdminOrDoctor) {
+                // Admin/Doctor: any facility
+                return facilityDAO.getAllFacilities();
+            }
+            String fromType = facilityDAO.getFacilityTypeByUnitId(unitId);
+            if (isNurseOrTech && "WARD".equalsIgnoreCase(fromType)) {
+                return facilityDAO.getFacilitiesByType("WARD");
+            }
+            return null;
+        }, facilities -> {
+            if (facilities == null) return;
+            editFacility.getItems().setAll(facilities);
             editFacility.setDisable(false);
-        }
+        });
 
     /* ===============================
        FLOOR DROPDOWN (SECONDARY)
@@ -436,13 +541,14 @@ public class PatientsController {
             String facility = editFacility.getValue();
             if (facility == null) return;
 
-            int facilityId = facilityDAO.getFacilityIdByName(facility);
-
             editFloor.getItems().clear();
-            editFloor.getItems().setAll(
-                    floorDAO.getFloorsByFacility(facilityId)
+            editFloorsRequest.submit(
+                    () -> floorDAO.getFloorsByFacility(facilityDAO.getFacilityIdByName(facility)),
+                    floors -> {
+                        editFloor.getItems().setAll(floors);
+                        editFloor.setDisable(false);
+                    }
             );
-            editFloor.setDisable(false);
         });
         editBackdrop.setVisible(true);
         editBackdrop.setManaged(true);
@@ -455,20 +561,52 @@ public class PatientsController {
 
         String diagnosis = editDiagnosis.getText();
         String severity = editSeverity.getValue();
-
-        String fromType =
-                facilityDAO.getFacilityTypeByUnitId(selectedUnitId);
+        int patientId = selectedPatientId;
+        int unitId = selectedUnitId;
 
         String targetFacility = editFacility.getValue();
         String targetFloorLabel = editFloor.getValue();
 
+        async.load(
+                () -> planTransfer(unitId, targetFacility, targetFloorLabel),
+                plan -> applyEdit(plan, patientId, unitId, diagnosis, severity)
+        );
+    }
+
+    private record TransferPlan(String fromType, String toType, boolean transferring, Integer newUnitId) {}
+
+    // Runs in the background: resolves facility types and the target unit
+    private TransferPlan planTransfer(int unitId, String targetFacility, String targetFloorLabel) {
+        String fromType = facilityDAO.getFacilityTypeByUnitId(unitId);
         String toType = fromType;
 
         if (targetFacility != null) {
             toType = facilityDAO.getFacilityTypeByName(targetFacility);
         }
+        Integer newUnitId = null;
+        boolean transferring = targetFacility != null && targetFloorLabel != null;
+
+        if (transferring) {
+            int floorNumber =
+                    Integer.parseInt(targetFloorLabel.replaceAll("\\D+", ""));
+
+            newUnitId = patientDAO.findAvailableUnit(
+                    targetFacility,
+                    floorNumber
+            );
+        }
+        return new TransferPlan(fromType, toType, transferring, newUnitId);
+    }
+
+    private void applyEdit(
+            TransferPlan plan,
+            int patientId,
+            int unitId,
+            String diagnosis,
+            String severity
+    ) {
         // ===== PERMISSION CHECK =====
-        if (!PermissionService.canTransfer(fromType, toType)) {
+        if (!PermissionService.canTransfer(plan.fromType(), plan.toType())) {
             Alert alert = new Alert(Alert.AlertType.WARNING);
             alert.setTitle("Transfer Restricted");
             alert.setHeaderText("Action Not Allowed");
@@ -479,17 +617,9 @@ public class PatientsController {
             return;
         }
         // ===== AUTO-ASSIGN UNIT IF TRANSFERRING =====
-        Integer newUnitId = null;
+        Integer newUnitId = plan.newUnitId();
 
-        if (targetFacility != null && targetFloorLabel != null) {
-
-            int floorNumber =
-                    Integer.parseInt(targetFloorLabel.replaceAll("\\D+", ""));
-
-            newUnitId = patientDAO.findAvailableUnit(
-                    targetFacility,
-                    floorNumber
-            );
+        if (plan.transferring()) {
 
             if (newUnitId == null) {
                 Alert alert = new Alert(Alert.AlertType.WARNING);
@@ -503,19 +633,45 @@ public class PatientsController {
             }
         }
         // ===== APPLY UPDATE =====
-        patientDAO.updatePatientEditAutoAssign(
-                selectedPatientId,
-                selectedUnitId,
-                newUnitId,
-                diagnosis,
-                severity
-        );
         editBackdrop.setVisible(false);
         editPatientPopup.setVisible(false);
         detailBackdrop.setVisible(false);
         patientDetailCard.setVisible(false);
 
-        loadPatientsUnified();
+        async.load(
+                () -> patientDAO.updatePatientEditAutoAssign(
+                        patientId,
+                        unitId,
+                        newUnitId,
+                        diagnosis,
+                        severity
+                ),
+                outcome -> {
+                    reloadPatients();
+                    showEditOutcome(outcome);
+                }
+        );
+    }
+
+    private void showEditOutcome(PatientDAO.EditOutcome outcome) {
+        if (outcome == PatientDAO.EditOutcome.SAVED) return;
+
+        Alert alert = new Alert(outcome == PatientDAO.EditOutcome.UNIT_TAKEN
+                ? Alert.AlertType.WARNING
+                : Alert.AlertType.ERROR);
+        if (outcome == PatientDAO.EditOutcome.UNIT_TAKEN) {
+            alert.setTitle("Unit No Longer Available");
+            alert.setHeaderText("Transfer Failed");
+            alert.setContentText(
+                    "The changes were saved, but the selected unit was taken in the meantime. "
+                            + "The patient stays in their current unit."
+            );
+        } else {
+            alert.setTitle("Save Failed");
+            alert.setHeaderText("Changes Not Saved");
+            alert.setContentText("The patient could not be updated. Please try again.");
+        }
+        alert.showAndWait();
     }
 
     @FXML
@@ -556,10 +712,11 @@ public class PatientsController {
 
     @FXML
     public void confirmDischarge() {
-        patientDAO.dischargePatient(selectedPatientId, selectedUnitId);
+        int patientId = selectedPatientId;
+        int unitId = selectedUnitId;
         cancelDischarge();
         handleCloseDetail();
-        loadPatientsUnified();
+        async.execute(() -> patientDAO.dischargePatient(patientId, unitId), this::reloadPatients);
     }
 
     @FXML
@@ -600,16 +757,17 @@ public class PatientsController {
             return;
         }
 
-        patientDAO.addPatientAutoAssign(
-                addPatientName.getText(),
-                Integer.parseInt(addPatientAge.getText()),
-                addPatientGender.getValue(),
-                addPatientDiagnosis.getText(),
-                addPatientSeverity.getValue()
-        );
+        String name = addPatientName.getText();
+        int age = Integer.parseInt(addPatientAge.getText());
+        String gender = addPatientGender.getValue();
+        String diagnosis = addPatientDiagnosis.getText();
+        String severity = addPatientSeverity.getValue();
 
         hideAddPatientPopup();
-        loadPatientsUnified();
+        async.execute(
+                () -> patientDAO.addPatientAutoAssign(name, age, gender, diagnosis, severity),
+                this::reloadPatients
+        );
     }
 
     private void showPermissionDenied(String message) {
@@ -4,10 +4,15 @@ import com.example.triage.database.FacilityDAO;
 import com.example.triage.database.FloorDAO;
 import com.example.triage.database.Patient;
 import com.example.triage.database.PatientDAO;
+import com.example.triage.remote.Backend;
+import com.example.triage.services.AsyncDAO;
+import com.example.triage.services.LatestRequest;
 import javafx.fxml.FXML;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 
+import java.util.List;
+
 public class ReferralPopupController {
 
     @FXML private ComboBox<String> facilityBox;
@@ -17,23 +22,28 @@ public class ReferralPopupController {
     private Patient patient;
     private Runnable onDone;
 
-    private final FacilityDAO facilityDAO = new FacilityDAO();
-    private final PatientDAO patientDAO = new PatientDAO();
-    private final FloorDAO floorDAO = new FloorDAO();
+    private final FacilityDAO facilityDAO = Backend.facilityDAO();
+    private final PatientDAO patientDAO = Backend.patientDAO();
+    private final FloorDAO floorDAO = Backend.floorDAO();
+    private final AsyncDAO async = AsyncDAO.getInstance();
+    private final LatestRequest<List<String>> floorsRequest = new LatestRequest<>();
 
     public void init(Patient p, Runnable onDone) {
         this.patient = p;
         this.onDone = onDone;
 
-        facilityBox.getItems().setAll(facilityDAO.getAllFacilities());
+        async.load(facilityDAO::getAllFacilities, facilityBox.getItems()::setAll);
 
         facilityBox.setOnAction(e -> {
             // hide error once user interacts
             errorLabel.setVisible(false);
             errorLabel.setManaged(false);
 
-            int fid = facilityDAO.getFacilityIdByName(facilityBox.getValue());
-            floorBox.getItems().setAll(floorDAO.getFloorsByFacility(fid));
+            String facility = facilityBox.getValue();
+            floorsRequest.submit(
+                    () -> floorDAO.getFloorsByFacility(facilityDAO.getFacilityIdByName(facility)),
+                    floorBox.getItems()::setAll
+            );
         });
 
         floorBox.setOnAction(e -> {
@@ -52,15 +62,18 @@ public class ReferralPopupController {
         }
         errorLabel.setVisible(false);
         errorLabel.setManaged(false);
-        patientDAO.requestReferral(
-                patient.getId(),
-                facilityBox.getValue(),
-                floorBox.getValue()
-        );
+        int patientId = patient.getId();
+        String facility = facilityBox.getValue();
+        String floor = floorBox.getValue();
 
-        if (onDone != null) {
-            onDone.run();
-        }
+        async.execute(
+                () -> patientDAO.requestReferral(patientId, facility, floor),
+                () -> {
+                    if (onDone != null) {
+                        onDone.run();
+                    }
+                }
+        );
     }
 
     @FXML
@@ -6,16 +6,31 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.layout.GridPane;
 import javafx.scene.paint.Color;
 import javafx.animation.FadeTransition;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Duration;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.prefs.Preferences;
 import com.example.triage.database.DBConnection;
+import com.example.triage.database.QueryMetrics;
+import com.example.triage.database.QueryMetrics.StatementStats;
+import com.example.triage.diagnostics.FxWatchdog;
 import com.example.triage.services.CapacityMonitor; // ✅ ADD THIS IMPORT
+import com.example.triage.database.UserDAO;
+import com.example.triage.remote.Backend;
+import com.example.triage.services.AsyncDAO;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.sql.SQLException;
 
-public class SettingsController {
+public class SettingsController implements CachedView {
 
     // System Configuration
     @FXML private TextField systemNameField;
@@ -53,8 +68,23 @@ public class SettingsController {
     @FXML private CheckBox enableCapacityWarningsCheck;
     @FXML private CheckBox soundAlertCheck;
 
+    // Query Diagnostics
+    @FXML private Label queryStatsSummaryLabel;
+    @FXML private Label frameStatsLabel;
+    @FXML private ComboBox<String> slowQueryThresholdCombo;
+    @FXML private TableView<StatementStats> queryStatsTable;
+    @FXML private TableColumn<StatementStats, String> querySqlColumn;
+    @FXML private TableColumn<StatementStats, Long> queryCallsColumn;
+    @FXML private TableColumn<StatementStats, String> queryP50Column;
+    @FXML private TableColumn<StatementStats, String> queryP99Column;
+    @FXML private TableColumn<StatementStats, String> queryMaxColumn;
+    @FXML private TableColumn<StatementStats, Long> queryRowsColumn;
+    @FXML private TableColumn<StatementStats, Long> queryErrorsColumn;
+    @FXML private ListView<QueryMetrics.SlowQuery> slowQueryList;
+
     // Preferences storage
     private Preferences prefs = Preferences.userNodeForPackage(SettingsController.class);
+    private final UserDAO userDAO = Backend.userDAO();
 
     // Current logged-in user
     private String currentUsername = "admin"; // Default fallback
@@ -95,6 +125,8 @@ public class SettingsController {
 
         // Setup listeners
         setupListeners();
+
+        setupQueryDiagnostics();
     }
 
     private void populateComboBoxes() {
@@ -166,6 +198,15 @@ public class SettingsController {
                 "12 characters"
         );
         passwordLengthCombo.setValue("8 characters");
+
+        // Slow Query Threshold
+        slowQueryThresholdCombo.getItems().addAll(
+                "50 ms",
+                "100 ms",
+                "200 ms",
+                "500 ms",
+                "1000 ms"
+        );
     }
 
     private void setupListeners() {
@@ -286,6 +327,10 @@ public class SettingsController {
         if (soundAlertCheck != null) {
             soundAlertCheck.setSelected(prefs.getBoolean("soundAlert", false));
         }
+
+        long slowMs = prefs.getLong("slowQueryMs", QueryMetrics.getInstance().getSlowThresholdMs());
+        QueryMetrics.getInstance().setSlowThresholdMs(slowMs);
+        slowQueryThresholdCombo.setValue(slowMs + " ms");
     }
 
     @FXML
@@ -346,6 +391,9 @@ public class SettingsController {
             prefs.putBoolean("soundAlert", soundAlertCheck.isSelected());
         }
 
+        // Diagnostics
+        prefs.putLong("slowQueryMs", QueryMetrics.getInstance().getSlowThresholdMs());
+
         // Show success message
         showSuccessAlert("Settings saved successfully!");
     }
@@ -431,13 +479,15 @@ public class SettingsController {
                     }
                 }
 
-                // Verify current password and update in database
-                if (verifyAndUpdatePassword(current, newPass)) {
-                    showSuccessAlert("Password changed successfully!\nPlease remember your new password.");
-                } else {
-                    showErrorAlert("Failed to change password.\nPlease check your current password and try again.");
-                    handleChangePassword();
-                }
+                // Verify current password and update in database, off the FX thread
+                AsyncDAO.getInstance().load(() -> verifyAndUpdatePassword(current, newPass), changed -> {
+                    if (changed) {
+                        showSuccessAlert("Password changed successfully!\nPlease remember your new password.");
+                    } else {
+                        showErrorAlert("Failed to change password.\nPlease check your current password and try again.");
+                        handleChangePassword();
+                    }
+                });
             }
         });
     }
@@ -449,53 +499,10 @@ public class SettingsController {
      * @return true if successful, false otherwise
      */
     private boolean verifyAndUpdatePassword(String currentPassword, String newPassword) {
-        // SQL to verify current password
-        String verifySql = "SELECT id, password FROM users WHERE username = ? AND role = 'admin'";
-        // SQL to update password
-        String updateSql = "UPDATE users SET password = ? WHERE username = ? AND role = 'admin'";
-
-        try (Connection conn = DBConnection.getConnection()) {
-
-            // Step 1: Verify current password
-            try (PreparedStatement verifyStmt = conn.prepareStatement(verifySql)) {
-                verifyStmt.setString(1, currentUsername);
-                ResultSet rs = verifyStmt.executeQuery();
-
-                if (rs.next()) {
-                    String dbPassword = rs.getString("password");
-
-                    // TODO: Use password hashing (BCrypt, PBKDF2, etc.) for security
-                    // For now, comparing plain text (NOT SECURE!)
-                    if (!dbPassword.equals(currentPassword)) {
-                        System.err.println("Current password incorrect");
-                        return false;
-                    }
-                } else {
-                    System.err.println("Admin user not found");
-                    return false;
-                }
-            }
-
-            // Step 2: Update to new password
-            try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-                // TODO: Hash the new password before storing
-                // String hashedPassword = BCrypt.hashpw(newPassword, BCrypt.gensalt());
-                // updateStmt.setString(1, hashedPassword);
-
-                updateStmt.setString(1, newPassword); // Plain text (NOT SECURE!)
-                updateStmt.setString(2, currentUsername);
-
-                int rowsAffected = updateStmt.executeUpdate();
-
-                if (rowsAffected > 0) {
-                    System.out.println("Password updated successfully for user: " + currentUsername);
-                    return true;
-                } else {
-                    System.err.println("No rows updated");
-                    return false;
-                }
-            }
-
+        try {
+            boolean changed = userDAO.changeAdminPassword(currentUsername, currentPassword, newPassword);
+            if (changed) System.out.println("Password updated successfully for user: " + currentUsername);
+            return changed;
         } catch (Exception e) {
             System.err.println("Database error while changing password:");
             e.printStackTrace();
@@ -514,19 +521,16 @@ public class SettingsController {
             return;
         }
 
-        // Test actual database connection
-        try {
-            Connection conn = DBConnection.getConnection();
+        connectionStatusLabel.setText("🔄 Testing connection...");
+        connectionStatusLabel.setTextFill(Color.web("#aaaaaa"));
 
-            if (conn != null && !conn.isClosed()) {
+        // Test actual database connection (returned to the pool afterwards), off the FX thread
+        AsyncDAO.getInstance().load(this::describeConnection, dbVersion -> {
+            if (dbVersion != null) {
                 connectionStatusLabel.setText("✅ Connection successful");
                 connectionStatusLabel.setTextFill(Color.web("#4caf50"));
-
-                // Show database info
-                String dbVersion = conn.getMetaData().getDatabaseProductName() + " "
-                        + conn.getMetaData().getDatabaseProductVersion();
                 System.out.println("Connected to: " + dbVersion);
-
+                System.out.println("📊 Connection pool: " + DBConnection.getPoolStats());
             } else {
                 connectionStatusLabel.setText("❌ Connection failed");
                 connectionStatusLabel.setTextFill(Color.web("#ff6b6b"));
@@ -537,14 +541,119 @@ public class SettingsController {
             fade.setFromValue(0.0);
             fade.setToValue(1.0);
             fade.play();
-
-        } catch (Exception e) {
-            connectionStatusLabel.setText("❌ Connection failed: " + e.getMessage());
+        }, error -> {
+            connectionStatusLabel.setText("❌ Connection failed: " + error.getMessage());
             connectionStatusLabel.setTextFill(Color.web("#ff6b6b"));
+        });
+    }
+
+    // Product name and version of the database, or null when no connection could be made
+    private String describeConnection() {
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null || conn.isClosed()) return null;
+            return conn.getMetaData().getDatabaseProductName() + " "
+                    + conn.getMetaData().getDatabaseProductVersion();
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onShow() {
+        handleRefreshQueryStats();
+    }
+
+    // ================= QUERY DIAGNOSTICS =================
+
+    private void setupQueryDiagnostics() {
+        querySqlColumn.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().sql()));
+        queryCallsColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().calls()));
+        queryP50Column.setCellValueFactory(c -> new ReadOnlyStringWrapper(millis(c.getValue().p50Ms())));
+        queryP99Column.setCellValueFactory(c -> new ReadOnlyStringWrapper(millis(c.getValue().p99Ms())));
+        queryMaxColumn.setCellValueFactory(c -> new ReadOnlyStringWrapper(millis(c.getValue().maxMs())));
+        queryRowsColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().rows()));
+        queryErrorsColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().errors()));
+
+        // Full statement text on hover; the column is too narrow for most joins
+        queryStatsTable.setRowFactory(table -> {
+            TableRow<StatementStats> row = new TableRow<>();
+            row.itemProperty().addListener((obs, oldVal, newVal) ->
+                    row.setTooltip(newVal == null ? null : new Tooltip(newVal.sql())));
+            return row;
+        });
+
+        slowQueryThresholdCombo.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal == null) return;
+            QueryMetrics.getInstance().setSlowThresholdMs(Long.parseLong(newVal.replace(" ms", "")));
+        });
+
+        handleRefreshQueryStats();
+    }
+
+    @FXML
+    private void handleRefreshQueryStats() {
+        FxWatchdog.FrameStats frames = FxWatchdog.getInstance().getFrameStats();
+        if (!FxWatchdog.isEnabled()) {
+            frameStatsLabel.setText("UI frame watchdog is off (-Dtriage.fx.watchdog=true)");
+        } else if (frames.frames() > 0) {
+            frameStatsLabel.setText(String.format("UI frames: p50 %.1f ms, p99 %.1f ms, %d stalls",
+                    frames.p50Ms(), frames.p99Ms(), frames.stalls()));
+        }
+
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        if (!QueryMetrics.isEnabled()) {
+            queryStatsSummaryLabel.setText("Instrumentation is off (-Dtriage.sql.metrics=false)");
+            return;
+        }
+
+        List<StatementStats> stats = metrics.snapshot();
+        queryStatsTable.getItems().setAll(stats);
+        slowQueryList.getItems().setAll(metrics.slowQueries());
+
+        long calls = 0;
+        long errors = 0;
+        for (StatementStats s : stats) {
+            calls += s.calls();
+            errors += s.errors();
+        }
+        String since = LocalTime.ofInstant(metrics.since(), ZoneId.systemDefault())
+                .format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+        queryStatsSummaryLabel.setText(stats.size() + " statements, " + calls + " executions, "
+                + errors + " errors since " + since);
+    }
+
+    @FXML
+    private void handleExportQueryStats() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Query Metrics");
+        chooser.setInitialFileName("triage-sql-metrics.prom");
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Prometheus text format", "*.prom", "*.txt"));
+
+        File file = chooser.showSaveDialog(queryStatsTable.getScene().getWindow());
+        if (file == null) return;
+
+        try {
+            Files.writeString(file.toPath(),
+                    QueryMetrics.getInstance().toPrometheus() + FxWatchdog.getInstance().toPrometheus());
+            System.out.println("📊 Query metrics exported to " + file);
+            showSuccessAlert("Query metrics exported to " + file.getName());
+        } catch (IOException e) {
             e.printStackTrace();
+            showErrorAlert("Failed to export query metrics: " + e.getMessage());
         }
     }
 
+    @FXML
+    private void handleResetQueryStats() {
+        QueryMetrics.getInstance().reset();
+        handleRefreshQueryStats();
+    }
+
+    private static String millis(double value) {
+        return String.format("%.1f", value);
+    }
+
     @FXML
     private void handleResetToDefaults() {
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
@@ -1,6 +1,8 @@
 package com.example.triage.controllers;
 
-import com.example.triage.database.DBConnection;
+import com.example.triage.database.UserDAO;
+import com.example.triage.remote.Backend;
+import com.example.triage.services.AsyncDAO;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
@@ -8,8 +10,7 @@ import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
+import java.sql.SQLException;
 
 public class SetupAdminController {
 
@@ -25,6 +26,8 @@ public class SetupAdminController {
     @FXML
     private Label errorLabel;
 
+    private final UserDAO userDAO = Backend.userDAO();
+
     @FXML
     private void handleCreateAdmin() {
         String username = usernameField.getText();
@@ -43,25 +46,25 @@ public class SetupAdminController {
             return;
         }
 
-        String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, 'admin')";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            stmt.setString(2, password);
-            stmt.executeUpdate();
-
-            // Redirect to log in screen
-            Stage stage = (Stage) errorLabel.getScene().getWindow();
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/triage/app/views/login-view.fxml"));
-            Scene scene = new Scene(loader.load());
-            stage.setScene(scene);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            errorLabel.setText("Failed to create admin account.");
-        }
+        AsyncDAO.getInstance().load(() -> {
+            try {
+                userDAO.createAdmin(username, password);
+                return true;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }, created -> {
+            try {
+                // Redirect to log in screen
+                Stage stage = (Stage) errorLabel.getScene().getWindow();
+                FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/triage/app/views/login-view.fxml"));
+                Scene scene = new Scene(loader.load());
+                stage.setScene(scene);
+            } catch (Exception e) {
+                e.printStackTrace();
+                errorLabel.setText("Failed to create admin account.");
+            }
+        }, error -> errorLabel.setText("Failed to create admin account."));
     }
 
 }
@@ -1,15 +1,22 @@
 package com.example.triage.controllers;
 
 import com.example.triage.database.*;
+import com.example.triage.remote.Backend;
+import com.example.triage.services.AsyncDAO;
+import com.example.triage.services.ChangeFeed;
+import com.example.triage.services.LatestRequest;
 import com.example.triage.services.PermissionService;
 import javafx.animation.FadeTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.util.Duration;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public class StaffAccountsController {
     /* ================= TABLE ================= */
@@ -38,52 +45,95 @@ public class StaffAccountsController {
 
     private final List<Staff> staffList = new ArrayList<>();
     private final List<CheckBox> rowSelectors = new ArrayList<>();
-    private final StaffDAO staffDAO = new StaffDAO();
-    private final FacilityDAO facilityDAO = new FacilityDAO();
-    private final FloorDAO floorDAO = new FloorDAO();
-    private final UserDAO userDAO = new UserDAO();
+    private final StaffDAO staffDAO = Backend.staffDAO();
+    private final FacilityDAO facilityDAO = Backend.facilityDAO();
+    private final FloorDAO floorDAO = Backend.floorDAO();
+    private final UserDAO userDAO = Backend.userDAO();
+    private final AsyncDAO async = AsyncDAO.getInstance();
+    private final LatestRequest<List<Staff>> staffRequest = new LatestRequest<>();
+    private final LatestRequest<List<String>> addFloorsRequest = new LatestRequest<>();
+    private final LatestRequest<List<String>> editFloorsRequest = new LatestRequest<>();
 
     public void initialize() {
         boolean canManage = PermissionService.canManageStaff();
         editStaffBtn.setDisable(!canManage);
-        loadStaffFromDatabase();
         System.out.println("📋 StaffAccountsController initialized");
         addRoleBox.getItems().addAll("Doctor", "Nurse", "Technician");
         editRoleBox.getItems().addAll(addRoleBox.getItems());
-        List<String> facilities = facilityDAO.getAllFacilities();
-        System.out.println("🏥 Loaded " + facilities.size() + " facilities: " + facilities);
-        addFacilityBox.getItems().setAll(facilities);
-        editFacilityBox.getItems().setAll(facilities);
+        async.load(facilityDAO::getAllFacilities, facilities -> {
+            System.out.println("🏥 Loaded " + facilities.size() + " facilities: " + facilities);
+            addFacilityBox.getItems().setAll(facilities);
+            editFacilityBox.getItems().setAll(facilities);
+        });
         addFacilityBox.setOnAction(e -> {
             String facility = addFacilityBox.getValue();
             if (facility == null) return;
 
-            int facilityId = facilityDAO.getFacilityIdByName(facility);
-            List<String> floors = floorDAO.getFloorsByFacility(facilityId);
-            System.out.println("🏢 Loaded " + floors.size() + " floors for " + facility);
-
-            addFloorBox.getItems().setAll(floors);
+            addFloorsRequest.submit(
+                    () -> floorDAO.getFloorsByFacility(facilityDAO.getFacilityIdByName(facility)),
+                    floors -> {
+                        System.out.println("🏢 Loaded " + floors.size() + " floors for " + facility);
+                        addFloorBox.getItems().setAll(floors);
+                    }
+            );
         });
         editFacilityBox.setOnAction(e -> {
             String facility = editFacilityBox.getValue();
             if (facility == null) return;
 
-            int facilityId = facilityDAO.getFacilityIdByName(facility);
-            editFloorBox.getItems().setAll(
-                    floorDAO.getFloorsByFacility(facilityId)
+            editFloorsRequest.submit(
+                    () -> floorDAO.getFloorsByFacility(facilityDAO.getFacilityIdByName(facility)),
+                    editFloorBox.getItems()::setAll
             );
         });
         hideAllPopups();
         loadStaffFromDatabase();
+        ChangeFeed.getInstance().bind(staffRows, this::onFeedChanges);
     }
     /* ================= DB LOAD ================= */
     private void loadStaffFromDatabase() {
         System.out.println("🔄 Loading staff from database...");
-        staffList.clear();
-        staffList.addAll(staffDAO.getAllStaff());
-        System.out.println("✅ Loaded " + staffList.size() + " staff members");
+        staffRequest.submit(() -> {
+            // Pin the feed first so edits made during the load still arrive as deltas
+            ChangeFeed.getInstance().ensureBaseline();
+            return staffDAO.getAllStaff();
+        }, staff -> {
+            staffList.clear();
+            staffList.addAll(staff);
+            System.out.println("✅ Loaded " + staffList.size() + " staff members");
+            refreshTable();
+        });
+    }
+    /* ================= INCREMENTAL SYNC ================= */
+    // Feed thread: re-read only the staff rows that changed, then merge on the FX thread
+    private void onFeedChanges(ChangeFeed.Changes changes) {
+        if (changes.resync()) {
+            Platform.runLater(this::loadStaffFromDatabase);
+            return;
+        }
+        if (changes.staff().isEmpty()) return;
+        try {
+            List<Staff> fresh = staffDAO.getStaffByIds(changes.staff());
+            Platform.runLater(() -> applyStaffChanges(changes.staff(), fresh));
+        } catch (SQLException e) {
+            System.out.println("❌ Staff sync failed: " + e.getMessage());
+        }
+    }
+    private void applyStaffChanges(Set<Integer> changedIds, List<Staff> fresh) {
+        // Ids not returned were deleted
+        staffList.removeIf(s -> changedIds.contains(s.getId()));
+        for (Staff staff : fresh) {
+            int i = 0;
+            while (i < staffList.size() && staffList.get(i).getId() < staff.getId()) i++;
+            staffList.add(i, staff);
+        }
+        System.out.println("🔄 Synced " + changedIds.size() + " staff changes");
         refreshTable();
     }
+    /** After a local write: pull the delta now rather than reloading everything. */
+    private void syncStaff() {
+        ChangeFeed.getInstance().pollNow();
+    }
     /* ================= TABLE ================= */
     private void refreshTable() {
         staffRows.getChildren().clear();
@@ -241,7 +291,14 @@ public class StaffAccountsController {
             alert.showAndWait();
             return;
         }
-        try {
+        String[] parts = name.trim().split("\\s+");
+        String familyName = parts[parts.length - 1].toLowerCase();
+
+        String username = familyName;
+        String password = familyName + "123";
+        String userRole = role.toUpperCase();
+
+        async.load(() -> {
             int facilityId = facilityDAO.getFacilityIdByName(facility);
             int floorNumber = Integer.parseInt(floor.replace("Floor ", ""));
             int floorId = floorDAO.getFloorId(facilityId, floorNumber);
@@ -259,19 +316,14 @@ public class StaffAccountsController {
             }
             System.out.println("✅ Staff inserted successfully");
 
-            String[] parts = name.trim().split("\\s+");
-            String familyName = parts[parts.length - 1].toLowerCase();
-
-            String username = familyName;
-            String password = familyName + "123";
-            String userRole = role.toUpperCase();
-
             System.out.println("👤 Creating user account:");
             System.out.println("  Username: " + username);
             System.out.println("  Password: " + password);
             System.out.println("  Role: " + userRole);
             userDAO.createUser(staffId, username, password, userRole);
             System.out.println("✅ User account created successfully");
+            return staffId;
+        }, staffId -> {
             Alert success = new Alert(Alert.AlertType.INFORMATION);
             success.setTitle("Success");
             success.setHeaderText("Staff Added Successfully");
@@ -280,21 +332,20 @@ public class StaffAccountsController {
                     "Password: " + password + "\n" +
                     "Role: " + userRole);
             success.showAndWait();
-            loadStaffFromDatabase();
+            syncStaff();
             hideAllPopups();
             addNameField.clear();
             addRoleBox.setValue(null);
             addFacilityBox.setValue(null);
             addFloorBox.setValue(null);
-        } catch (Exception e) {
+        }, e -> {
             System.err.println("❌ Error adding staff:");
-            e.printStackTrace();
             Alert error = new Alert(Alert.AlertType.ERROR);
             error.setTitle("Error");
             error.setHeaderText("Failed to Add Staff");
             error.setContentText("Error: " + e.getMessage());
             error.showAndWait();
-        }
+        });
     }
     /* ================= EDIT ================= */
     @FXML
@@ -322,12 +373,15 @@ public class StaffAccountsController {
         if (index == -1) return;
 
         Staff staff = staffList.get(index);
-        int facilityId = facilityDAO.getFacilityIdByName(editFacilityBox.getValue());
+        String facility = editFacilityBox.getValue();
         int floorNumber = Integer.parseInt(editFloorBox.getValue().replace("Floor ", ""));
-        int floorId = floorDAO.getFloorId(facilityId, floorNumber);
-        staffDAO.updateStaff(staff.getId(), editRoleBox.getValue(), facilityId, floorId);
-        loadStaffFromDatabase();
+        String role = editRoleBox.getValue();
         hideAllPopups();
+        async.execute(() -> {
+            int facilityId = facilityDAO.getFacilityIdByName(facility);
+            int floorId = floorDAO.getFloorId(facilityId, floorNumber);
+            staffDAO.updateStaff(staff.getId(), role, facilityId, floorId);
+        }, this::syncStaff);
     }
     /* ================= DELETE ================= */
     @FXML
@@ -346,13 +400,14 @@ public class StaffAccountsController {
             showPermissionDenied("Only administrators can add staff.");
             return;
         }
+        List<Integer> ids = new ArrayList<>();
         for (int i = rowSelectors.size() - 1; i >= 0; i--) {
             if (rowSelectors.get(i).isSelected()) {
-                staffDAO.deleteStaff(staffList.get(i).getId());
+                ids.add(staffList.get(i).getId());
             }
         }
-        loadStaffFromDatabase();
         hideAllPopups();
+        async.execute(() -> ids.forEach(staffDAO::deleteStaff), this::syncStaff);
     }
     private void showPermissionDenied(String message) {
         staffInfoTitle.setText("Permission Denied");
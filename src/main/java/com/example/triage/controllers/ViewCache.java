@@ -0,0 +1,88 @@
+package com.example.triage.controllers;
+
+import javafx.animation.PauseTransition;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The dashboard's screens for one session: each FXML is parsed and its
+ * controller initialized once, then the same view is reattached on every
+ * visit. Screens the user is likely to open next can be preloaded; they are
+ * built one at a time in idle moments on the FX thread (controllers start
+ * animations and bind to the scene, so they cannot be built elsewhere),
+ * leaving the thread free between screens.
+ * Must be used from the FX thread.
+ */
+class ViewCache {
+
+    private static final String VIEWS = "/com/example/triage/views/";
+    private static final boolean PRELOAD =
+            Boolean.parseBoolean(System.getProperty("triage.views.preload", "true"));
+    private static final Duration PRELOAD_DELAY =
+            Duration.millis(Long.getLong("triage.views.preloadDelayMs", 400));
+
+    record Entry(Parent view, Object controller) {}
+
+    private final Map<String, Entry> views = new HashMap<>();
+    private final Deque<String> toPreload = new ArrayDeque<>();
+    private final PauseTransition preloadTimer = new PauseTransition(PRELOAD_DELAY);
+
+    ViewCache() {
+        preloadTimer.setOnFinished(e -> preloadNext());
+    }
+
+    boolean isCached(String fxml) {
+        return views.containsKey(fxml);
+    }
+
+    /** The cached screen, parsing it now if it has not been loaded yet. */
+    Entry get(String fxml) throws IOException {
+        Entry entry = views.get(fxml);
+        if (entry != null) return entry;
+
+        long start = System.nanoTime();
+        FXMLLoader loader = new FXMLLoader(getClass().getResource(VIEWS + fxml));
+        Parent view = loader.load();
+        entry = new Entry(view, loader.getController());
+        views.put(fxml, entry);
+        toPreload.remove(fxml);
+        System.out.println("🔄 Loaded " + fxml + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return entry;
+    }
+
+    /** Queues screens to build in the background, most likely first. */
+    void preload(List<String> fxmls) {
+        if (!PRELOAD) return;
+        for (String fxml : fxmls) {
+            if (!views.containsKey(fxml) && !toPreload.contains(fxml)) toPreload.add(fxml);
+        }
+        preloadTimer.playFromStart();
+    }
+
+    /** Stops preloading and forgets every screen, e.g. at logout. */
+    void clear() {
+        preloadTimer.stop();
+        toPreload.clear();
+        views.clear();
+    }
+
+    // One screen per idle turn, so a click in between is never stuck behind all of them
+    private void preloadNext() {
+        String fxml = toPreload.poll();
+        if (fxml == null) return;
+        try {
+            get(fxml);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("⚠️ Preloading " + fxml + " failed: " + e.getMessage());
+        }
+        if (!toPreload.isEmpty()) preloadTimer.playFromStart();
+    }
+}
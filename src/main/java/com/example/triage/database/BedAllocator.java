@@ -0,0 +1,73 @@
+package com.example.triage.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Claims an available unit inside the caller's transaction. The candidate row
+ * is locked with FOR UPDATE SKIP LOCKED, so concurrent admissions each get a
+ * different bed instead of queueing on (or double-booking) the same one, and
+ * the claim only counts if the guarded UPDATE still sees it AVAILABLE.
+ * Callers must have auto-commit off and commit or roll back themselves.
+ */
+public class BedAllocator {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    // The floor/facility lookup stays in a subquery so only the units row is locked
+    private static final String CANDIDATE_SQL = """
+        SELECT id
+        FROM units
+        WHERE status = 'AVAILABLE'
+          AND floor_id IN (
+              SELECT f.id
+              FROM floors f
+              JOIN facilities fac ON f.facility_id = fac.id
+              WHERE (? = 'critical' AND fac.type = 'ER')
+                 OR (? IN ('high', 'moderate') AND fac.type = 'WARD')
+          )
+        LIMIT 1
+        FOR UPDATE SKIP LOCKED
+        """;
+
+    private static final String CLAIM_SQL =
+            "UPDATE units SET status = 'OCCUPIED', version = version + 1 WHERE id = ? AND status = 'AVAILABLE'";
+
+    /**
+     * Claims a unit of the facility type that matches the severity.
+     * Returns the unit id, or null when every matching unit is taken or locked.
+     */
+    public Integer claimForSeverity(Connection c, String severity) throws SQLException {
+        if (c.getAutoCommit()) {
+            throw new SQLException("Bed allocation must run inside a transaction");
+        }
+        String sev = severity.toLowerCase();
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Integer candidate;
+            try (PreparedStatement ps = c.prepareStatement(CANDIDATE_SQL)) {
+                ps.setString(1, sev);
+                ps.setString(2, sev);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) return null;
+                    candidate = rs.getInt(1);
+                }
+            }
+            if (claim(c, candidate)) {
+                ChangeLog.record(c, ChangeLog.UNIT, candidate);
+                return candidate;
+            }
+            // Status changed under us (e.g. a manual edit); look again
+        }
+        return null;
+    }
+
+    boolean claim(Connection c, int unitId) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(CLAIM_SQL)) {
+            ps.setInt(1, unitId);
+            return ps.executeUpdate() == 1;
+        }
+    }
+}
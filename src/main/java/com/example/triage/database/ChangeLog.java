@@ -0,0 +1,48 @@
+package com.example.triage.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Writes rows to the {@code change_log} table (created by {@link Schema}).
+ * Every mutation records which entity it touched, on the same connection and
+ * inside the same transaction as the write itself, so the log never shows a
+ * change that was rolled back. The auto-increment version orders the feed that
+ * clients read incrementally (see ChangeFeed).
+ */
+public final class ChangeLog {
+
+    public static final String PATIENT = "patient";
+    public static final String UNIT = "unit";
+    public static final String STAFF = "staff";
+    public static final String FACILITY = "facility";
+
+    private static final String INSERT_SQL = "INSERT INTO change_log (entity, entity_id) VALUES (?, ?)";
+
+    private ChangeLog() {}
+
+    public static void record(Connection c, String entity, int id) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(INSERT_SQL)) {
+            ps.setString(1, entity);
+            ps.setInt(2, id);
+            ps.executeUpdate();
+        }
+    }
+
+    /** Records several rows of one entity with a single batch. */
+    public static void record(Connection c, String entity, int... ids) throws SQLException {
+        if (ids.length == 1) {
+            record(c, entity, ids[0]);
+            return;
+        }
+        try (PreparedStatement ps = c.prepareStatement(INSERT_SQL)) {
+            for (int id : ids) {
+                ps.setString(1, entity);
+                ps.setInt(2, id);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package com.example.triage.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded JDBC connection pool.
+ * Callers keep using try-with-resources: closing a borrowed connection
+ * hands the physical connection back to the pool instead of dropping it.
+ * Prepared SQL passes through the backend's {@link Dialect} on the way in, and
+ * statements are timed into {@link QueryMetrics} on the way out.
+ */
+public class ConnectionPool {
+
+    // Connections used within this window are not pinged again on borrow
+    private static final long VALIDATION_BYPASS_MS = 500;
+
+    private final DataSourceConfig source;
+    private final Dialect dialect;
+    private final PoolConfig config;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> inUse = new HashSet<>();
+    private int total = 0;
+    private boolean shutdown = false;
+
+    private final ScheduledExecutorService housekeeper;
+
+    // ===== METRICS =====
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong handshakes = new AtomicLong();
+    private final AtomicLong handshakesAvoided = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    private ConnectionPool(DataSourceConfig source, PoolConfig config) {
+        this.source = source;
+        this.dialect = source.getDialect();
+        this.config = config;
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Creates a pool and starts its housekeeping, which opens the minimum connections. */
+    public static ConnectionPool start(DataSourceConfig source, PoolConfig config) {
+        ConnectionPool pool = new ConnectionPool(source, config);
+        pool.housekeeper.scheduleWithFixedDelay(
+                pool::housekeep,
+                0,
+                config.getHousekeepingMs(),
+                TimeUnit.MILLISECONDS
+        );
+        return pool;
+    }
+
+    // ================= BORROW / RELEASE =================
+
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.getConnectionTimeoutMs());
+
+        while (true) {
+            PooledConnection pc = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (shutdown) throw new SQLException("Connection pool is shut down");
+                    pc = idle.pollFirst();
+                    if (pc != null) break;
+                    if (total < config.getMaxSize()) {
+                        total++;
+                        create = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeouts.incrementAndGet();
+                        throw new SQLException(
+                                "Timed out after " + config.getConnectionTimeoutMs()
+                                        + "ms waiting for a database connection ("
+                                        + inUse.size() + " in use)"
+                        );
+                    }
+                    try {
+                        released.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    pc = openPhysical();
+                } catch (SQLException e) {
+                    discardSlot();
+                    throw e;
+                }
+            } else if (!isUsable(pc)) {
+                closePhysical(pc);
+                discardSlot();
+                continue;
+            } else {
+                handshakesAvoided.incrementAndGet();
+            }
+
+            long waited = System.nanoTime() - start;
+            waitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            borrowCount.incrementAndGet();
+
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.borrowSite = config.getLeakDetectionMs() > 0 && config.isLeakStackTraces()
+                    ? new Exception("Connection borrowed here")
+                    : null;
+            pc.leakReported = false;
+
+            lock.lock();
+            try {
+                inUse.add(pc);
+            } finally {
+                lock.unlock();
+            }
+
+            QueryCancellation scope = QueryCancellation.current();
+            if (scope != null) {
+                try {
+                    scope.attach(pc);
+                } catch (SQLException e) {
+                    release(pc);
+                    throw e;
+                }
+                pc.scope = scope;
+            }
+            return pc.newHandle();
+        }
+    }
+
+    private void release(PooledConnection pc) {
+        if (pc.scope != null) {
+            pc.scope.detach(pc);
+            pc.scope = null;
+        }
+        boolean healthy = resetState(pc);
+        boolean retire = !healthy || pc.isExpired(config.getMaxLifetimeMs());
+
+        lock.lock();
+        try {
+            inUse.remove(pc);
+            pc.lastUsedAt = System.currentTimeMillis();
+            if (shutdown || retire) {
+                total--;
+            } else {
+                idle.offerFirst(pc);
+            }
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (shutdown || retire) {
+            closePhysical(pc);
+        }
+    }
+
+    private boolean resetState(PooledConnection pc) {
+        pc.closeOpenStatements();
+        if (pc.statements != null) pc.statements.returnAll();
+        try {
+            if (!pc.physical.getAutoCommit()) {
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        if (pc.isExpired(config.getMaxLifetimeMs())) return false;
+        if (System.currentTimeMillis() - pc.lastUsedAt < VALIDATION_BYPASS_MS) return true;
+        try {
+            return pc.physical.isValid(config.getValidationTimeoutSec());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection openPhysical() throws SQLException {
+        Connection c = DriverManager.getConnection(source.getUrl(), source.getUser(), source.getPassword());
+        handshakes.incrementAndGet();
+        return new PooledConnection(c);
+    }
+
+    private void closePhysical(PooledConnection pc) {
+        if (pc.statements != null) pc.statements.closeAll();
+        try {
+            pc.physical.close();
+        } catch (SQLException ignored) {}
+    }
+
+    private void discardSlot() {
+        lock.lock();
+        try {
+            total--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ================= HOUSEKEEPING =================
+
+    /** Opens connections until the pool holds its configured minimum. */
+    public void warmUp() {
+        while (true) {
+            lock.lock();
+            try {
+                if (shutdown || total >= config.getMinSize()) return;
+                total++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                PooledConnection pc = openPhysical();
+                lock.lock();
+                try {
+                    idle.offerLast(pc);
+                    released.signal();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                discardSlot();
+                System.err.println("⚠️ Pool warm-up failed: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            detectLeaks();
+            warmUp();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void evictIdle() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledConnection pc = it.next();
+                boolean expired = pc.isExpired(config.getMaxLifetimeMs());
+                boolean stale = total > config.getMinSize()
+                        && now - pc.lastUsedAt > config.getIdleTimeoutMs();
+                if (expired || stale) {
+                    it.remove();
+                    total--;
+                    evicted.add(pc);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection pc : evicted) {
+            closePhysical(pc);
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.getLeakDetectionMs();
+        if (threshold <= 0) return;
+        long now = System.currentTimeMillis();
+
+        List<PooledConnection> suspects = new ArrayList<>();
+        lock.lock();
+        try {
+            for (PooledConnection pc : inUse) {
+                if (!pc.leakReported && now - pc.borrowedAt > threshold) {
+                    pc.leakReported = true;
+                    suspects.add(pc);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection pc : suspects) {
+            leaks.incrementAndGet();
+            System.err.println("⚠️ Possible connection leak: held for "
+                    + (now - pc.borrowedAt) + "ms"
+                    + (pc.borrowSite == null ? " (-Dtriage.pool.leakStackTraces=true shows where)" : ""));
+            if (pc.borrowSite != null) pc.borrowSite.printStackTrace();
+        }
+    }
+
+    public void shutdown() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            shutdown = true;
+            toClose = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        toClose.forEach(this::closePhysical);
+    }
+
+    // ================= METRICS =================
+
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            return new PoolStats(
+                    inUse.size(),
+                    idle.size(),
+                    total,
+                    borrowCount.get(),
+                    waitNanos.get(),
+                    maxWaitNanos.get(),
+                    handshakes.get(),
+                    handshakesAvoided.get(),
+                    timeouts.get(),
+                    evictions.get(),
+                    leaks.get(),
+                    statementHits.get(),
+                    statementMisses.get(),
+                    statementEvictions.get()
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ================= POOLED CONNECTION =================
+
+    private class PooledConnection implements QueryCancellation.Cancellable {
+        final Connection physical;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastUsedAt = createdAt;
+        volatile long borrowedAt;
+        volatile Exception borrowSite;
+        volatile boolean leakReported;
+        volatile QueryCancellation scope;
+        final StatementCache statements;
+        private final List<Statement> openStatements = new ArrayList<>();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = config.getStatementCacheSize() > 0
+                    ? new StatementCache(physical, config.getStatementCacheSize(),
+                            statementHits, statementMisses, statementEvictions)
+                    : null;
+        }
+
+        boolean isExpired(long maxLifetimeMs) {
+            return maxLifetimeMs > 0 && System.currentTimeMillis() - createdAt > maxLifetimeMs;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this)
+            );
+        }
+
+        synchronized void track(Statement st) {
+            openStatements.add(st);
+        }
+
+        @Override
+        public void cancelRunning() {
+            List<Statement> running;
+            synchronized (this) {
+                running = new ArrayList<>(openStatements);
+            }
+            if (statements != null) running.addAll(statements.checkedOutStatements());
+            for (Statement st : running) {
+                try {
+                    st.cancel();
+                } catch (SQLException ignored) {
+                    // Already finished or closed
+                }
+            }
+        }
+
+        synchronized void closeOpenStatements() {
+            for (Statement st : openStatements) {
+                try {
+                    st.close();
+                } catch (SQLException ignored) {}
+            }
+            openStatements.clear();
+        }
+    }
+
+    /** Logical connection handed to callers; one per borrow. */
+    private class Handle implements InvocationHandler {
+        private final PooledConnection pc;
+        private boolean closed = false;
+
+        Handle(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        release(pc);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled[" + pc.physical + "]";
+                }
+            }
+            if (closed) throw new SQLException("Connection is closed");
+
+            if (isPrepare(method)) {
+                args[0] = dialect.translate((String) args[0]);
+            }
+            if (pc.statements != null && isCacheablePrepare(method)) {
+                int keys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                PreparedStatement cached = pc.statements.checkout((String) args[0], keys);
+                if (cached != null) return instrument(cached, (String) args[0]);
+            }
+
+            Object result;
+            try {
+                result = method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            // Statements are closed when the connection goes back to the pool
+            if (result instanceof Statement st) {
+                pc.track(st);
+                return instrument(st, isPrepare(method) ? (String) args[0] : null);
+            }
+            return result;
+        }
+
+        private Statement instrument(Statement st, String sql) {
+            return QueryMetrics.isEnabled() ? InstrumentedStatement.wrap(st, sql) : st;
+        }
+
+        private boolean isPrepare(Method method) {
+            String name = method.getName();
+            return (name.equals("prepareStatement") || name.equals("prepareCall"))
+                    && method.getParameterTypes()[0] == String.class;
+        }
+
+        // prepareStatement(String) and prepareStatement(String, int autoGeneratedKeys)
+        private boolean isCacheablePrepare(Method method) {
+            if (!method.getName().equals("prepareStatement")) return false;
+            Class<?>[] types = method.getParameterTypes();
+            return types.length == 1 || (types.length == 2 && types[1] == int.class);
+        }
+    }
+}
@@ -1,24 +1,95 @@
 package com.example.triage.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.SQLException;
 
 public class DBConnection {
 
-    private static final String URL = "jdbc:mysql://localhost:3306/triage_db";
-    private static final String USER = "root";
-    private static final String PASS = "root123";
-    private static Connection connection = null;
-    public static Connection getConnection() {
+    private static volatile DataSourceConfig config = null;
+    private static volatile ConnectionPool pool = null;
+    // Set once the schema check fails; from then on no connection is handed out
+    private static volatile IllegalStateException unusable = null;
+
+    /**
+     * Borrows a pooled connection; closing it hands it back. Never returns
+     * null: a failure, or a load that was superseded (SQLSTATE
+     * {@link QueryCancellation#CANCELLED_STATE}), is thrown, so the caller's
+     * try-with-resources aborts cleanly instead of failing on a null.
+     */
+    public static Connection getConnection() throws SQLException {
         try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(URL, USER, PASS);
-                System.out.println("Connected to MySQL successfully!");
+            return getPool().borrow();
+        } catch (SQLException e) {
+            // The caller's load was superseded; nothing went wrong
+            if (!QueryCancellation.CANCELLED_STATE.equals(e.getSQLState())) {
+                System.out.println("Database connection failed: " + e.getMessage());
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            System.out.println("Database connection failed: " + e.getMessage());
+            throw new SQLException("Database connection failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The shared pool, started on first use. Throws IllegalStateException,
+     * every time and without retrying, if the database schema is older than
+     * this build and was not migrated (see {@link Schema}).
+     */
+    public static ConnectionPool getPool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DBConnection.class) {
+                if (unusable != null) throw unusable;
+                p = pool;
+                if (p == null) {
+                    PoolConfig config = PoolConfig.fromSystemProperties();
+                    p = ConnectionPool.start(getConfig(), config);
+                    System.out.println("✅ Connection pool ready (min=" + config.getMinSize()
+                            + ", max=" + config.getMaxSize() + ", " + getConfig() + ")");
+                    // Published only afterwards: until then every other caller waits on
+                    // the lock, so no DAO sees the schema half upgraded
+                    ConnectionPool started = p;
+                    try {
+                        QueryCancellation.outsideAnyScope(() -> Schema.ensure(started, getConfig()));
+                    } catch (java.sql.SQLException e) {
+                        p.shutdown();
+                        unusable = new IllegalStateException(e.getMessage(), e);
+                        System.out.println("❌ " + e.getMessage() + "; refusing database connections");
+                        throw unusable;
+                    }
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /** The backend chosen at startup; see {@link DataSourceConfig}. */
+    public static DataSourceConfig getConfig() {
+        DataSourceConfig c = config;
+        if (c == null) {
+            synchronized (DBConnection.class) {
+                if (config == null) {
+                    config = DataSourceConfig.fromSystemProperties();
+                }
+                c = config;
+            }
+        }
+        return c;
+    }
+
+    public static PoolStats getPoolStats() {
+        return getPool().getStats();
+    }
+
+    public static void shutdown() {
+        synchronized (DBConnection.class) {
+            if (pool != null) {
+                System.out.println("📊 Connection pool: " + pool.getStats());
+                pool.shutdown();
+                pool = null;
             }
-        } catch (Exception e) {
-            System.out.println("Database connection failed:");
-            e.printStackTrace();
         }
-        return connection;
     }
 }
@@ -0,0 +1,72 @@
+package com.example.triage.database;
+
+/**
+ * Where the connection pool connects. Chosen with system properties:
+ * <ul>
+ *   <li>{@code -Dtriage.db.backend=mysql} (default): the triage_db server on localhost</li>
+ *   <li>{@code -Dtriage.db.backend=embedded}: an in-process H2 database in MySQL mode,
+ *       in memory, or on disk when {@code -Dtriage.db.path=/some/dir/triage} is set</li>
+ *   <li>{@code -Dtriage.db.url=...} (with {@code triage.db.user} / {@code triage.db.password})
+ *       overrides either; a {@code jdbc:h2:} URL is treated as embedded</li>
+ * </ul>
+ * Embedded databases get the base tables from {@code schema.sql} on first use.
+ * The application's own tables and columns come from {@link Schema}'s numbered
+ * migrations, applied on MySQL only with {@code -Dtriage.db.migrate=true}.
+ */
+public class DataSourceConfig {
+
+    // Server-side prepares so the pool's statement cache skips the parse/plan step;
+    // rewritten batches so addBatch/executeBatch goes out as multi-row INSERTs;
+    // cursor fetch so setFetchSize is honoured instead of buffering the whole result
+    private static final String MYSQL_URL = "jdbc:mysql://localhost:3306/triage_db"
+            + "?useServerPrepStmts=true&rewriteBatchedStatements=true&useCursorFetch=true";
+
+    // MySQL mode plus lower-case identifiers so the DAOs' SQL and metadata lookups work unchanged
+    private static final String H2_OPTIONS = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final Dialect dialect;
+
+    public DataSourceConfig(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.dialect = Dialect.forUrl(url);
+    }
+
+    public static DataSourceConfig fromSystemProperties() {
+        String url = System.getProperty("triage.db.url");
+        if (url != null) {
+            return new DataSourceConfig(url,
+                    System.getProperty("triage.db.user", "root"),
+                    System.getProperty("triage.db.password", "root123"));
+        }
+        if ("embedded".equalsIgnoreCase(System.getProperty("triage.db.backend"))) {
+            String path = System.getProperty("triage.db.path");
+            return path == null
+                    ? inMemory(System.getProperty("triage.db.name", "triage"))
+                    : new DataSourceConfig("jdbc:h2:file:" + path + H2_OPTIONS, "sa", "");
+        }
+        return new DataSourceConfig(MYSQL_URL,
+                System.getProperty("triage.db.user", "root"),
+                System.getProperty("triage.db.password", "root123"));
+    }
+
+    /** A named in-memory database that lives until the JVM exits. */
+    public static DataSourceConfig inMemory(String name) {
+        return new DataSourceConfig("jdbc:h2:mem:" + name + H2_OPTIONS + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    public String getUrl() { return url; }
+    public String getUser() { return user; }
+    public String getPassword() { return password; }
+    public Dialect getDialect() { return dialect; }
+
+    @Override
+    public String toString() {
+        if (!dialect.isEmbedded()) return url.replaceFirst("\\?.*$", "");
+        return url.startsWith("jdbc:h2:mem:") ? "embedded (in memory)" : "embedded (" + url.replaceFirst(";.*$", "") + ")";
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.triage.database;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SQL dialect of the configured backend. The DAOs are written for MySQL;
+ * {@link #translate} rewrites the few constructs the embedded engine (H2 in
+ * MySQL mode) does not accept. {@link ConnectionPool} applies it to every
+ * prepared statement, so DAO code stays dialect-free.
+ */
+public enum Dialect {
+
+    MYSQL,
+    H2;
+
+    private static final Pattern CAST_UNSIGNED =
+            Pattern.compile("\\bAS\\s+UNSIGNED(\\s+INTEGER)?\\b", Pattern.CASE_INSENSITIVE);
+
+    // Single-table DELETE with ORDER BY ... LIMIT, as in FacilitiesController.deleteUnits
+    private static final Pattern DELETE_ORDER_LIMIT = Pattern.compile(
+            "^\\s*DELETE\\s+FROM\\s+(\\w+)\\s+WHERE\\s+(.+?)\\s+ORDER\\s+BY\\s+(.+?)\\s+LIMIT\\s+(\\S+)\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    /** The statement as this backend needs it; unchanged for MySQL and for SQL that needs nothing. */
+    public String translate(String sql) {
+        if (this == MYSQL || sql == null) return sql;
+
+        String out = sql;
+        // H2 has no ORDER BY/LIMIT on DELETE; pick the rows in a subquery instead
+        Matcher delete = DELETE_ORDER_LIMIT.matcher(out);
+        if (delete.matches()) {
+            String table = delete.group(1);
+            out = "DELETE FROM " + table + " WHERE id IN (SELECT id FROM " + table
+                    + " WHERE " + delete.group(2) + " ORDER BY " + delete.group(3)
+                    + " LIMIT " + delete.group(4) + ")";
+        }
+        Matcher cast = CAST_UNSIGNED.matcher(out);
+        if (cast.find()) {
+            out = cast.replaceAll("AS BIGINT");
+        }
+        return out;
+    }
+
+    /** Embedded engines run in this JVM; nothing to reach over the network. */
+    public boolean isEmbedded() {
+        return this == H2;
+    }
+
+    static Dialect forUrl(String url) {
+        return url != null && url.startsWith("jdbc:h2:") ? H2 : MYSQL;
+    }
+}
@@ -1,93 +1,271 @@
 package com.example.triage.database;
 
+import com.example.triage.services.CapacityTracker;
+import com.example.triage.services.DomainEvent;
+import com.example.triage.services.EventBus;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Facility lookups, served from the {@link ReferenceDataCache}, the units
+ * of one floor as the facilities map shows them, and removing facilities,
+ * floors or units.
+ */
 public class FacilityDAO {
+    private final ReferenceDataCache cache = ReferenceDataCache.getInstance();
+
+    /** One tile of the facilities map. */
+    public record Unit(int id, String label, String status) {}
+
+    public enum DeleteOutcome { NOT_FOUND, BLOCKED, FAILED, DONE }
+
     public String getFacilityTypeByUnitId(int unitId) {
-        String sql = """
-        SELECT fac.type
-        FROM units u
-        JOIN floors f ON f.id = u.floor_id
-        JOIN facilities fac ON fac.id = f.facility_id
-        WHERE u.id = ?
-    """;
-        try (
-                Connection conn = DBConnection.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql)
-        ) {
-            ps.setInt(1, unitId);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getString("type");
-            }
-        } catch (Exception e) {
+        try {
+            return cache.facilityTypeOfUnit(unitId);
+        } catch (SQLException e) {
             e.printStackTrace();
         }
         return null;
     }
     public List<String> getAllFacilities() {
-        List<String> facilities = new ArrayList<>();
-        String sql = "SELECT name FROM facilities ORDER BY name";
-        try (
-                Connection conn = DBConnection.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql);
-                ResultSet rs = ps.executeQuery()
-        ) {
-            while (rs.next()) {
-                facilities.add(rs.getString("name"));
-            }
-        } catch (Exception e) {
+        try {
+            return cache.facilityNames();
+        } catch (SQLException e) {
             e.printStackTrace();
         }
-        return facilities;
+        return new ArrayList<>();
     }
 
     public int getFacilityIdByName(String name) {
-        String sql = "SELECT id FROM facilities WHERE name = ?";
-        try (
-                Connection conn = DBConnection.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql)
-        ) {
-            ps.setString(1, name);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) return rs.getInt("id");
-        } catch (Exception e) {
+        try {
+            return cache.facilityId(name);
+        } catch (SQLException e) {
             e.printStackTrace();
         }
         return -1;
     }
 
     public List<String> getFacilitiesByType(String type) {
-        List<String> list = new ArrayList<>();
-        String sql = "SELECT name FROM facilities WHERE type = ? ORDER BY name";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, type);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                list.add(rs.getString("name"));
-            }
-        } catch (Exception e) {
+        try {
+            return cache.facilityNamesByType(type);
+        } catch (SQLException e) {
             e.printStackTrace();
         }
-        return list;
+        return new ArrayList<>();
     }
     public String getFacilityTypeByName(String facilityName) {
-        String sql = "SELECT type FROM facilities WHERE name = ?";
-        try (Connection conn = DBConnection.getConnection();
+        try {
+            return cache.facilityType(facilityName);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // ================= UNITS =================
+
+    /** The units of one floor, beds before rooms, each in label order. */
+    public List<Unit> getUnits(String facility, int floor) {
+        List<Unit> units = new ArrayList<>();
+        String sql = """
+                SELECT u.id, u.label, u.status
+                FROM units u
+                JOIN floors f ON f.id = u.floor_id
+                JOIN facilities fac ON fac.id = f.facility_id
+                WHERE fac.name = ? AND f.floor_number = ?
+                ORDER BY
+                    CASE
+                        WHEN u.label LIKE 'Bed %' THEN 1
+                        WHEN u.label LIKE 'Room %' THEN 2
+                        ELSE 3
+                    END,
+                    CAST(SUBSTRING(u.label, LOCATE(' ', u.label) + 1) AS UNSIGNED)
+                """;
+        try (Connection conn = connection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, facilityName);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getString("type");
+            ps.setString(1, facility);
+            ps.setInt(2, floor);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    units.add(new Unit(rs.getInt("id"), rs.getString("label"), rs.getString("status")));
+                }
             }
-        } catch (Exception e) {
+        } catch (SQLException e) {
             e.printStackTrace();
         }
-        return null;
+        return units;
+    }
+
+    /** Sets a unit's status by hand and tells the other desks. */
+    public void setUnitStatus(int unitId, String status) {
+        try (Connection conn = connection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps =
+                         conn.prepareStatement("UPDATE units SET status=?, version=version+1 WHERE id=?")) {
+                ps.setString(1, status);
+                ps.setInt(2, unitId);
+                ps.executeUpdate();
+                ChangeLog.record(conn, ChangeLog.UNIT, unitId);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            CapacityTracker.getInstance().unitStatusChanged(unitId, status);
+            EventBus.getInstance().publish(DomainEvent.unitStatusChanged(unitId, status));
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** How many units of one kind ("Bed" or "Room") a floor has. */
+    public int countUnits(String facility, int floor, String kind) {
+        String sql = """
+                SELECT COUNT(*)
+                FROM units u
+                JOIN floors f ON f.id = u.floor_id
+                JOIN facilities fac ON fac.id = f.facility_id
+                WHERE fac.name = ? AND f.floor_number = ? AND u.label LIKE ?
+                """;
+        try (Connection conn = connection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, facility);
+            ps.setInt(2, floor);
+            ps.setString(3, kind + " %");
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    // ================= REMOVAL =================
+
+    /**
+     * Removes the whole facility ({@code floor} null), one floor ({@code beds}
+     * and {@code rooms} both 0) or that many of the floor's highest-numbered
+     * beds and rooms. Refused while any unit in scope is occupied; the check,
+     * the deletes and the change-log entry commit together.
+     */
+    public DeleteOutcome deleteSelection(int facilityId, Integer floor, int beds, int rooms) {
+        DeleteOutcome outcome;
+        try (Connection conn = connection()) {
+            conn.setAutoCommit(false);
+            try {
+                outcome = deleteSelection(conn, facilityId, floor, beds, rooms);
+                if (outcome == DeleteOutcome.DONE) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return DeleteOutcome.FAILED;
+        }
+        if (outcome == DeleteOutcome.DONE) {
+            cache.invalidate();
+            CapacityTracker.getInstance().unitsChanged();
+        }
+        return outcome;
+    }
+
+    private DeleteOutcome deleteSelection(Connection conn, int facilityId, Integer floor,
+                                          int beds, int rooms) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT id FROM facilities WHERE id=?")) {
+            ps.setInt(1, facilityId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return DeleteOutcome.NOT_FOUND;
+            }
+        }
+        if (hasOccupiedUnits(conn, facilityId, floor)) {
+            return DeleteOutcome.BLOCKED;
+        }
+        if (floor == null) {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM facilities WHERE id=?")) {
+                ps.setInt(1, facilityId);
+                ps.executeUpdate();
+            }
+        } else if (beds == 0 && rooms == 0) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "DELETE FROM floors WHERE facility_id=? AND floor_number=?")) {
+                ps.setInt(1, facilityId);
+                ps.setInt(2, floor);
+                ps.executeUpdate();
+            }
+        } else {
+            int floorId = floorId(conn, facilityId, floor);
+            if (beds > 0) {
+                deleteUnits(conn, floorId, "Bed", beds);
+            }
+            if (rooms > 0) {
+                deleteUnits(conn, floorId, "Room", rooms);
+            }
+        }
+        ChangeLog.record(conn, ChangeLog.FACILITY, facilityId);
+        return DeleteOutcome.DONE;
+    }
+
+    private static boolean hasOccupiedUnits(Connection conn, int facilityId, Integer floor) throws SQLException {
+        String sql = """
+                SELECT COUNT(*)
+                FROM units u
+                JOIN floors f ON f.id = u.floor_id
+                WHERE f.facility_id = ?
+                AND u.status = 'OCCUPIED'
+                """ + (floor != null ? " AND f.floor_number = ?" : "");
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, facilityId);
+            if (floor != null) {
+                ps.setInt(2, floor);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private static int floorId(Connection conn, int facilityId, int floor) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT id FROM floors WHERE facility_id=? AND floor_number=?")) {
+            ps.setInt(1, facilityId);
+            ps.setInt(2, floor);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Floor " + floor + " of facility " + facilityId + " not found");
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static void deleteUnits(Connection conn, int floorId, String kind, int limit) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+                DELETE FROM units
+                WHERE floor_id=? AND label LIKE ?
+                ORDER BY CAST(SUBSTRING(label, LOCATE(' ', label)+1) AS UNSIGNED) DESC
+                LIMIT ?
+                """)) {
+            ps.setInt(1, floorId);
+            ps.setString(2, kind + " %");
+            ps.setInt(3, limit);
+            ps.executeUpdate();
+        }
+    }
+
+    private static Connection connection() throws SQLException {
+        Connection conn = DBConnection.getConnection();
+        if (conn == null) throw new SQLException("No database connection");
+        return conn;
     }
 }
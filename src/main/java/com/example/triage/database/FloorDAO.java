@@ -1,54 +1,39 @@
 package com.example.triage.database;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
+/** Floor lookups, served from the {@link ReferenceDataCache}. */
 public class FloorDAO {
+    private final ReferenceDataCache cache = ReferenceDataCache.getInstance();
+
     public List<String> getFloorsByFacility(int facilityId) {
         List<String> floors = new ArrayList<>();
-        String sql = """
-            SELECT floor_number
-            FROM floors
-            WHERE facility_id = ?
-            ORDER BY floor_number
-        """;
-        try (
-                Connection conn = DBConnection.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql)
-        ) {
-            ps.setInt(1, facilityId);
-            ResultSet rs = ps.executeQuery();
-
-            while (rs.next()) {
-                floors.add("Floor " + rs.getInt("floor_number"));
+        try {
+            for (int floor : cache.floorNumbers(facilityId)) {
+                floors.add("Floor " + floor);
             }
-        } catch (Exception e) {
+        } catch (SQLException e) {
             e.printStackTrace();
         }
         return floors;
     }
 
-    public int getFloorId(int facilityId, int floorNumber) {
-
-        String sql = """
-            SELECT id
-            FROM floors
-            WHERE facility_id = ? AND floor_number = ?
-        """;
-
-        try (
-                Connection conn = DBConnection.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql)
-        ) {
-            ps.setInt(1, facilityId);
-            ps.setInt(2, floorNumber);
-            ResultSet rs = ps.executeQuery();
+    /** The facility's floor numbers, as the floor pickers list them. */
+    public List<Integer> getFloorNumbers(int facilityId) {
+        try {
+            return cache.floorNumbers(facilityId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
 
-            if (rs.next()) return rs.getInt("id");
-        } catch (Exception e) {
+    public int getFloorId(int facilityId, int floorNumber) {
+        try {
+            return cache.floorId(facilityId, floorNumber);
+        } catch (SQLException e) {
             e.printStackTrace();
         }
         return -1;
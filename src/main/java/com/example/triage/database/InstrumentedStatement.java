@@ -0,0 +1,185 @@
+package com.example.triage.database;
+
+import com.example.triage.diagnostics.StatementEvent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps a statement handed out by the {@link ConnectionPool} so each execution
+ * is timed into {@link QueryMetrics}. Bound parameters are remembered for the
+ * slow-query log, and a query's row count is the number of rows the caller
+ * read, so it is recorded when the result set is exhausted or closed (or the
+ * statement is closed, run again or moved on with {@code getMoreResults}). A
+ * plain {@code execute} that produced a result set is counted the same way
+ * through {@code getResultSet}. Each execution is also a
+ * {@link StatementEvent} in a Flight Recorder recording.
+ */
+final class InstrumentedStatement implements InvocationHandler {
+
+    private final Statement target;
+    private final String sql;
+    private final QueryMetrics metrics = QueryMetrics.getInstance();
+    private final List<Object> params = new ArrayList<>();
+
+    // A query whose rows are still being read
+    private String pendingSql;
+    private long pendingNanos;
+    private long pendingRows;
+    private List<Object> pendingParams;
+    private StatementEvent pendingEvent;
+
+    private InstrumentedStatement(Statement target, String sql) {
+        this.target = target;
+        this.sql = sql;
+    }
+
+    /** Wraps the statement; {@code sql} is null for a plain {@link Statement}. */
+    static Statement wrap(Statement statement, String sql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{type},
+                new InstrumentedStatement(statement, sql)
+        );
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            case "toString" -> {
+                return "Instrumented[" + target + "]";
+            }
+            case "close", "getMoreResults" -> flushPending();
+            case "clearParameters" -> params.clear();
+            case "getResultSet" -> {
+                return pendingSql == null ? forward(method, args) : countRows((ResultSet) forward(method, args));
+            }
+            case "executeQuery", "executeUpdate", "executeLargeUpdate", "execute",
+                 "executeBatch", "executeLargeBatch" -> {
+                return execute(method, args);
+            }
+            default -> {
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    bind(index, name.equals("setNull") ? null : args[1]);
+                }
+            }
+        }
+        return forward(method, args);
+    }
+
+    private Object forward(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+        flushPending();
+        String executed = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+        List<Object> bound = params.isEmpty() ? null : new ArrayList<>(params);
+
+        StatementEvent event = StatementEvent.start();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            QueryMetrics.Stats stats = metrics.record(executed, System.nanoTime() - start, -1, bound, e.getCause());
+            event.finish(stats.id, stats.sql, -1, true);
+            throw e.getCause();
+        }
+        long nanos = System.nanoTime() - start;
+
+        // execute() answers true when its rows are to be read through getResultSet()
+        if (result instanceof ResultSet || Boolean.TRUE.equals(result)) {
+            pendingSql = executed;
+            pendingNanos = nanos;
+            pendingRows = 0;
+            pendingParams = bound;
+            pendingEvent = event;
+            return result instanceof ResultSet rs ? countRows(rs) : result;
+        }
+        long rows = result instanceof Boolean ? target.getUpdateCount() : rows(result);
+        QueryMetrics.Stats stats = metrics.record(executed, nanos, rows, bound, null);
+        event.finish(stats.id, stats.sql, rows, false);
+        return result;
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Integer n) return n;
+        if (result instanceof Long n) return n;
+        long total = 0;
+        if (result instanceof int[] counts) {
+            for (int n : counts) if (n > 0) total += n;
+            return total;
+        }
+        if (result instanceof long[] counts) {
+            for (long n : counts) if (n > 0) total += n;
+            return total;
+        }
+        return -1;
+    }
+
+    private void bind(int index, Object value) {
+        while (params.size() < index) params.add(null);
+        params.set(index - 1, value);
+    }
+
+    private void flushPending() {
+        if (pendingSql == null) return;
+        QueryMetrics.Stats stats = metrics.record(pendingSql, pendingNanos, pendingRows, pendingParams, null);
+        pendingEvent.finish(stats.id, stats.sql, pendingRows, false);
+        pendingSql = null;
+        pendingParams = null;
+        pendingEvent = null;
+    }
+
+    private ResultSet countRows(ResultSet rs) {
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "close" -> flushPending();
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(rs, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().equals("next")) {
+                        if ((Boolean) result) pendingRows++;
+                        else flushPending();
+                    }
+                    return result;
+                }
+        );
+    }
+}
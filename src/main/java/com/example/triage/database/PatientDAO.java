@@ -1,20 +1,19 @@
 package com.example.triage.database;
 
+import com.example.triage.services.CapacityTracker;
+import com.example.triage.services.DomainEvent;
+import com.example.triage.services.EventBus;
+import com.example.triage.services.PatientIndex;
+
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class PatientDAO {
-    // ===== SEARCH + FILTER =====
-    public List<Patient> getPatientsFiltered(
-            String facility,
-            Integer floor,
-            String severity,
-            String search,
-            SortMode sort
-    ) {
-        List<Patient> list = new ArrayList<>();
-        StringBuilder sql = new StringBuilder("""
+    private static final String PATIENT_SELECT = """
         SELECT p.*,
                p.referral_status,
                p.referral_facility,
@@ -28,82 +27,275 @@ public class PatientDAO {
         LEFT JOIN floors f ON u.floor_id = f.id
         LEFT JOIN facilities fac ON f.facility_id = fac.id
         WHERE p.status = 'admitted'
-    """);
+    """;
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    /** What {@link #updatePatientEditAutoAssign} managed to save. */
+    public enum EditOutcome {
+        SAVED,
+        /** The edit was saved but the target unit was taken; the patient did not move. */
+        UNIT_TAKEN,
+        FAILED
+    }
+    /** What {@link #approveReferral} did. */
+    public enum ReferralOutcome {
+        APPROVED,
+        /** Nothing free on the referral floor; the referral stays pending. */
+        NO_UNIT,
+        /** Already approved or declined, or the patient was discharged, meanwhile. */
+        NOT_PENDING,
+        FAILED
+    }
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+    private final BedAllocator bedAllocator = new BedAllocator();
+    private final UnitTransfer unitTransfer = new UnitTransfer();
+    // Codes continue from the highest PT-number already issued; never reused after discharge
+    private static final SequenceAllocator PATIENT_CODES = SequenceAllocator.forName(
+            "patient_code",
+            "SELECT MAX(CAST(SUBSTRING(patient_code, 4) AS DECIMAL(20, 0))) FROM patients WHERE patient_code LIKE 'PT-%'",
+            20000
+    );
+    // ===== SEARCH + FILTER =====
+    public List<Patient> getPatientsFiltered(
+            String facility,
+            Integer floor,
+            String severity,
+            String search,
+            SortMode sort
+    ) {
+        List<Patient> list = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(PATIENT_SELECT);
+        appendFilters(sql, params, facility, floor, severity, search);
+        if (sort == SortMode.ADMISSION_DATE) {
+            sql.append(" ORDER BY p.admission_date DESC");
+        } else if (sort == SortMode.BED_ROOM) {
+            sql.append(" ORDER BY u.label");
+        }
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql.toString())) {
+            bind(ps, params);
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                list.add(mapPatient(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+    // ===== KEYSET PAGINATION =====
+    /**
+     * One page of the filtered census, starting after {@code after} (null for the
+     * first page). Seeks on the sort key plus p.id as tie-breaker, so each page
+     * costs the same no matter how deep it is.
+     */
+    public PatientPage getPatientsPage(
+            String facility,
+            Integer floor,
+            String severity,
+            String search,
+            SortMode sort,
+            PatientPage.Key after,
+            int pageSize
+    ) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(PATIENT_SELECT);
+        appendFilters(sql, params, facility, floor, severity, search);
+
+        SortMode mode = sort == null ? SortMode.NONE : sort;
+        switch (mode) {
+            case ADMISSION_DATE -> {
+                if (after != null) {
+                    sql.append(" AND (p.admission_date < ? OR (p.admission_date = ? AND p.id < ?))");
+                    params.add(after.admissionDate());
+                    params.add(after.admissionDate());
+                    params.add(after.id());
+                }
+                sql.append(" ORDER BY p.admission_date DESC, p.id DESC");
+            }
+            case BED_ROOM -> {
+                if (after != null) {
+                    sql.append(" AND (COALESCE(u.label, '') > ? OR (COALESCE(u.label, '') = ? AND p.id > ?))");
+                    params.add(after.unitLabel());
+                    params.add(after.unitLabel());
+                    params.add(after.id());
+                }
+                sql.append(" ORDER BY COALESCE(u.label, ''), p.id");
+            }
+            default -> {
+                if (after != null) {
+                    sql.append(" AND p.id > ?");
+                    params.add(after.id());
+                }
+                sql.append(" ORDER BY p.id");
+            }
+        }
+        // One extra row tells us whether another page exists
+        sql.append(" LIMIT ?");
+        params.add(pageSize + 1);
+
+        List<Patient> rows = new ArrayList<>(pageSize);
+        boolean more = false;
+        try (Connection c = connection();
+             PreparedStatement ps = c.prepareStatement(sql.toString())) {
+            ps.setFetchSize(pageSize + 1);
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (rows.size() == pageSize) {
+                        more = true;
+                        break;
+                    }
+                    rows.add(mapPatient(rs));
+                }
+            }
+        }
+        PatientPage.Key next = more ? PatientPage.Key.after(rows.get(rows.size() - 1)) : null;
+        return new PatientPage(rows, next);
+    }
+    /**
+     * Walks the filtered census page by page, handing each page to {@code onPage}
+     * as soon as it arrives. Stops early when onPage returns false.
+     */
+    public void streamPatientsFiltered(
+            String facility,
+            Integer floor,
+            String severity,
+            String search,
+            SortMode sort,
+            int pageSize,
+            Predicate<List<Patient>> onPage
+    ) throws SQLException {
+        PatientPage.Key after = null;
+        do {
+            PatientPage page = getPatientsPage(facility, floor, severity, search, sort, after, pageSize);
+            if (!onPage.test(page.patients())) return;
+            after = page.next();
+        } while (after != null);
+    }
+    private void appendFilters(
+            StringBuilder sql,
+            List<Object> params,
+            String facility,
+            Integer floor,
+            String severity,
+            String search
+    ) {
         if (facility != null) {
             sql.append(" AND (fac.name = ? OR p.referral_facility = ?)");
+            params.add(facility); // fac.name
+            params.add(facility); // p.referral_facility
         }
         if (floor != null) {
             sql.append(" AND f.floor_number = ?");
+            params.add(floor);
         }
         if (severity != null) {
             sql.append(" AND p.severity = ?");
+            params.add(severity.toLowerCase());
         }
         if (search != null) {
             sql.append(" AND (LOWER(p.full_name) LIKE ? OR LOWER(p.patient_code) LIKE ?)");
+            String s = "%" + search.toLowerCase() + "%";
+            params.add(s);
+            params.add(s);
         }
-        if (sort == SortMode.ADMISSION_DATE) {
-            sql.append(" ORDER BY p.admission_date DESC");
-        } else if (sort == SortMode.BED_ROOM) {
-            sql.append(" ORDER BY u.label");
+    }
+    private void bind(PreparedStatement ps, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            ps.setObject(i + 1, params.get(i));
         }
+    }
+    /** One admitted patient with its placement, or null if not admitted. */
+    public Patient getPatientById(int patientId) {
         try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql.toString())) {
-            int i = 1;
-            if (facility != null) {
-                ps.setString(i++, facility); // fac.name
-                ps.setString(i++, facility); // p.referral_facility
-            }
-            if (floor != null) {
-                ps.setInt(i++, floor);
-            }
-            if (severity != null) {
-                ps.setString(i++, severity.toLowerCase());
-            }
-            if (search != null) {
-                String s = "%" + search.toLowerCase() + "%";
-                ps.setString(i++, s);
-                ps.setString(i++, s);
-            }
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                Patient p = new Patient(
-                        rs.getInt("id"),
-                        rs.getString("patient_code"),
-                        rs.getString("full_name"),
-                        rs.getInt("age"),
-                        rs.getString("gender"),
-                        rs.getString("severity"),
-                        rs.getTimestamp("admission_date"),
-                        rs.getInt("unit_id"),
-                        rs.getString("unit_label"),
-                        rs.getString("facility_name"),
-                        rs.getInt("floor_number")
-                );
-                p.setReferralStatus(rs.getString("referral_status"));
-                p.setReferralFacility(rs.getString("referral_facility"));
-                p.setReferralFloor(rs.getInt("referral_floor"));
-                list.add(p);
+             PreparedStatement ps = c.prepareStatement(PATIENT_SELECT + " AND p.id = ?")) {
+            ps.setInt(1, patientId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapPatient(rs) : null;
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
+        }
+    }
+    /**
+     * The admitted patients among {@code ids}, in one query. Ids missing from
+     * the result were discharged (or never existed).
+     */
+    public List<Patient> getPatientsByIds(Collection<Integer> ids) throws SQLException {
+        List<Patient> list = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) return list;
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        try (Connection c = connection();
+             PreparedStatement ps = c.prepareStatement(PATIENT_SELECT + " AND p.id IN (" + placeholders + ")")) {
+            bind(ps, new ArrayList<>(ids));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapPatient(rs));
+                }
+            }
         }
         return list;
     }
+    private static Connection connection() throws SQLException {
+        Connection c = DBConnection.getConnection();
+        if (c == null) throw new SQLException("No database connection");
+        return c;
+    }
+    private Patient mapPatient(ResultSet rs) throws SQLException {
+        Patient p = new Patient(
+                rs.getInt("id"),
+                rs.getString("patient_code"),
+                rs.getString("full_name"),
+                rs.getInt("age"),
+                rs.getString("gender"),
+                rs.getString("severity"),
+                rs.getTimestamp("admission_date"),
+                rs.getInt("unit_id"),
+                rs.getString("unit_label"),
+                rs.getString("facility_name"),
+                rs.getInt("floor_number")
+        );
+        p.setReferralStatus(rs.getString("referral_status"));
+        p.setReferralFacility(rs.getString("referral_facility"));
+        p.setReferralFloor(rs.getInt("referral_floor"));
+        return p;
+    }
     public void dischargePatient(int patientId, int unitId) {
         String deletePatient = "DELETE FROM patients WHERE id = ?";
-        String freeUnit = "UPDATE units SET status = 'AVAILABLE' WHERE id = ?";
+        String freeUnit = "UPDATE units SET status = 'AVAILABLE', version = version + 1 WHERE id = ?";
+        boolean committed = false;
         try (Connection conn = DBConnection.getConnection()) {
-            try (PreparedStatement ps = conn.prepareStatement(deletePatient)) {
-                ps.setInt(1, patientId);
-                ps.executeUpdate();
-            }
-            try (PreparedStatement ps = conn.prepareStatement(freeUnit)) {
-                ps.setInt(1, unitId);
-                ps.executeUpdate();
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement(deletePatient)) {
+                    ps.setInt(1, patientId);
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(freeUnit)) {
+                    ps.setInt(1, unitId);
+                    ps.executeUpdate();
+                }
+                ChangeLog.record(conn, ChangeLog.PATIENT, patientId);
+                ChangeLog.record(conn, ChangeLog.UNIT, unitId);
+                conn.commit();
+                committed = true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        if (committed) {
+            CapacityTracker.getInstance().unitStatusChanged(unitId, "AVAILABLE");
+            PatientIndex.getInstance().remove(patientId);
+            EventBus.getInstance().publish(DomainEvent.discharged(patientId, unitId));
+        }
     }
     // ===== EDIT =====
     public String getDiagnosisByPatientId(int id) {
@@ -160,45 +352,61 @@ public class PatientDAO {
             String diagnosis,
             String severity
     ) {
+        int patientId = -1;
+        Integer unitId = null;
+        String patientCode;
+        try {
+            // Before borrowing: a block refill takes a pooled connection of its own, and
+            // waiting for one while holding a bed lock can exhaust the pool under load
+            patientCode = generatePatientCode();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return;
+        }
         try (Connection c = DBConnection.getConnection()) {
-            String unitSql = """
-                   SELECT u.id
-                   FROM units u
-                   JOIN floors f ON u.floor_id = f.id
-                   JOIN facilities fac ON f.facility_id = fac.id
-                   WHERE u.status = 'AVAILABLE'
-                   AND (
-                   (? = 'critical' AND fac.type = 'ER')
-                   OR (? IN ('high', 'moderate') AND fac.type = 'WARD'))
-                   LIMIT 1""";
-            PreparedStatement psUnit = c.prepareStatement(unitSql);
-            psUnit.setString(1, severity.toLowerCase());
-            psUnit.setString(2, severity.toLowerCase());
-            ResultSet rs = psUnit.executeQuery();
-            if (!rs.next()) {
-                throw new SQLException("No available unit found for severity: " + severity);
+            // Claim, insert and occupy commit together or not at all
+            c.setAutoCommit(false);
+            try {
+                unitId = bedAllocator.claimForSeverity(c, severity);
+                if (unitId == null) {
+                    throw new SQLException("No available unit found for severity: " + severity);
+                }
+                try (PreparedStatement ps = c.prepareStatement("""
+                INSERT INTO patients
+                (patient_code, full_name, age, gender, diagnosis, severity, admission_date, status, unit_id)
+                VALUES (?, ?, ?, ?, ?, ?, NOW(), 'admitted', ?)
+            """, Statement.RETURN_GENERATED_KEYS)) {
+                    ps.setString(1, patientCode);
+                    ps.setString(2, fullName);
+                    ps.setInt(3, age);
+                    ps.setString(4, gender);
+                    ps.setString(5, diagnosis);
+                    ps.setString(6, severity.toLowerCase());
+                    ps.setInt(7, unitId);
+                    ps.executeUpdate();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        if (keys.next()) patientId = keys.getInt(1);
+                    }
+                }
+                if (patientId > 0) {
+                    ChangeLog.record(c, ChangeLog.PATIENT, patientId);
+                }
+                c.commit();
+            } catch (SQLException e) {
+                unitId = null;
+                c.rollback();
+                throw e;
             }
-            int unitId = rs.getInt(1);
-            String patientCode = generatePatientCode(c);
-            PreparedStatement ps = c.prepareStatement("""
-            INSERT INTO patients
-            (patient_code, full_name, age, gender, diagnosis, severity, admission_date, status, unit_id)
-            VALUES (?, ?, ?, ?, ?, ?, NOW(), 'admitted', ?)
-        """);
-            ps.setString(1, patientCode);
-            ps.setString(2, fullName);
-            ps.setInt(3, age);
-            ps.setString(4, gender);
-            ps.setString(5, diagnosis);
-            ps.setString(6, severity.toLowerCase());
-            ps.setInt(7, unitId);
-            ps.executeUpdate();
-            c.prepareStatement(
-                    "UPDATE units SET status='OCCUPIED' WHERE id=" + unitId
-            ).execute();
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        if (unitId != null) {
+            CapacityTracker.getInstance().unitStatusChanged(unitId, "OCCUPIED");
+        }
+        if (patientId > 0) {
+            PatientIndex.getInstance().refresh(patientId);
+            EventBus.getInstance().publish(DomainEvent.admitted(patientId, unitId));
+        }
     }
     public void requestReferral(int patientId, String facility, String floor) {
         String sql = """
@@ -208,70 +416,74 @@ public class PatientDAO {
             referral_floor = ?
         WHERE id = ?
     """;
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        updatePatient(patientId, sql, ps -> {
             ps.setString(1, facility);
             ps.setInt(2, Integer.parseInt(floor.replaceAll("\\D+", "")));
             ps.setInt(3, patientId);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        });
+        PatientIndex.getInstance().refresh(patientId);
+        EventBus.getInstance().publish(DomainEvent.referralRequested(patientId));
     }
-    public void approveReferral(int patientId) {
+    /**
+     * Moves the patient to a free unit on the referral's facility and floor.
+     * The referral and current unit are read and locked inside the move's
+     * transaction, so a transfer or discharge committed just before cannot
+     * make it free the wrong unit.
+     */
+    public ReferralOutcome approveReferral(int patientId) {
         String getReferralSql = """
         SELECT referral_facility, referral_floor, unit_id
         FROM patients
-        WHERE id = ?
-    """;
-        String findUnitSql = """
-        SELECT u.id
-        FROM units u
-        JOIN floors f ON u.floor_id = f.id
-        JOIN facilities fac ON f.facility_id = fac.id
-        WHERE fac.name = ?
-          AND f.floor_number = ?
-          AND u.status = 'AVAILABLE'
-        LIMIT 1
+        WHERE id = ? AND status = 'admitted' AND referral_status = 'PENDING'
+        FOR UPDATE
     """;
-
-        try (Connection c = DBConnection.getConnection()) {
-
-            PreparedStatement ps1 = c.prepareStatement(getReferralSql);
-            ps1.setInt(1, patientId);
-            ResultSet rs = ps1.executeQuery();
-
-            if (!rs.next()) return;
-            String facility = rs.getString("referral_facility");
-
-            int floor = rs.getInt("referral_floor");
-            int oldUnit = rs.getInt("unit_id");
-
-            PreparedStatement ps2 = c.prepareStatement(findUnitSql);
-            ps2.setString(1, facility);
-            ps2.setInt(2, floor);
-            ResultSet rs2 = ps2.executeQuery();
-
-            if (!rs2.next()) return;
-
-            int newUnit = rs2.getInt("id");
-            c.prepareStatement(
-                    "UPDATE units SET status='AVAILABLE' WHERE id=" + oldUnit
-            ).execute();
-            c.prepareStatement(
-                    "UPDATE units SET status='OCCUPIED' WHERE id=" + newUnit
-            ).execute();
-            c.prepareStatement(
-                    "UPDATE patients SET " +
-                            "unit_id=" + newUnit + ", " +
-                            "referral_status='NONE', " +
-                            "referral_facility=NULL, " +
-                            "referral_floor=NULL " +
-                            "WHERE id=" + patientId
-            ).execute();
+        // Filled in by the first step of the transaction, read by the second
+        String[] facility = new String[1];
+        int[] floor = new int[1];
+        UnitTransfer.Move move;
+        try {
+            // Lock the referral, free, occupy and repoint the patient in one commit
+            move = unitTransfer.transferFrom(
+                    c -> {
+                        facility[0] = null;
+                        try (PreparedStatement ps = c.prepareStatement(getReferralSql)) {
+                            ps.setInt(1, patientId);
+                            try (ResultSet rs = ps.executeQuery()) {
+                                if (!rs.next()) return null;
+                                facility[0] = rs.getString("referral_facility");
+                                floor[0] = rs.getInt("referral_floor");
+                                return rs.getInt("unit_id");
+                            }
+                        }
+                    },
+                    c -> findAvailableUnit(c, facility[0], floor[0]),
+                    (c, unitId) -> {
+                        try (PreparedStatement ps = c.prepareStatement("""
+                        UPDATE patients
+                        SET unit_id = ?,
+                            referral_status = 'NONE',
+                            referral_facility = NULL,
+                            referral_floor = NULL
+                        WHERE id = ?
+                    """)) {
+                            ps.setInt(1, unitId);
+                            ps.setInt(2, patientId);
+                            ps.executeUpdate();
+                        }
+                        ChangeLog.record(c, ChangeLog.PATIENT, patientId);
+                    }
+            );
         } catch (SQLException e) {
             e.printStackTrace();
+            return ReferralOutcome.FAILED;
+        }
+        if (move == null) {
+            return facility[0] == null ? ReferralOutcome.NOT_PENDING : ReferralOutcome.NO_UNIT;
         }
+        unitsMoved(move.fromUnitId(), move.toUnitId());
+        PatientIndex.getInstance().refresh(patientId);
+        EventBus.getInstance().publish(DomainEvent.referralApproved(patientId, move.fromUnitId(), move.toUnitId()));
+        return ReferralOutcome.APPROVED;
     }
 
     public void declineReferral(int patientId) {
@@ -282,26 +494,53 @@ public class PatientDAO {
             referral_floor = NULL
         WHERE id = ?
     """;
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setInt(1, patientId);
-            ps.executeUpdate();
+        updatePatient(patientId, sql, ps -> ps.setInt(1, patientId));
+        PatientIndex.getInstance().refresh(patientId);
+        EventBus.getInstance().publish(DomainEvent.referralDeclined(patientId));
+    }
+
+    /** Runs a single-row patient UPDATE and its change-log entry in one commit; false if it failed. */
+    private boolean updatePatient(int patientId, String sql, Binder binder) {
+        try (Connection c = connection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                binder.bind(ps);
+                ps.executeUpdate();
+                ChangeLog.record(c, ChangeLog.PATIENT, patientId);
+                c.commit();
+                return true;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
         }
     }
 
-    private String generatePatientCode(Connection c) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM patients";
-        try (PreparedStatement ps = c.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            rs.next();
-            int count = rs.getInt(1) + 1;
-            return "PT-" + (20000 + count);
-        }
+    private String generatePatientCode() throws SQLException {
+        return "PT-" + PATIENT_CODES.next();
+    }
+
+    /**
+     * Reserves {@code count} consecutive PT-numbers for writers that insert
+     * patients outside this DAO, and returns the first.
+     */
+    public static long reservePatientCodes(int count) throws SQLException {
+        return PATIENT_CODES.reserveRange(count);
     }
 
     public Integer findAvailableUnit(String facility, int floor) {
+        try (Connection c = DBConnection.getConnection()) {
+            return findAvailableUnit(c, facility, floor);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private Integer findAvailableUnit(Connection c, String facility, int floor) throws SQLException {
         String sql = """
         SELECT u.id
         FROM units u
@@ -312,52 +551,75 @@ public class PatientDAO {
           AND u.status = 'AVAILABLE'
         LIMIT 1
     """;
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setString(1, facility);
             ps.setInt(2, floor);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) return rs.getInt("id");
-        } catch (SQLException e) {
-            e.printStackTrace();
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt("id") : null;
+            }
         }
-        return null;
     }
 
-    public void updatePatientEditAutoAssign(
+    /**
+     * Saves diagnosis and severity, moving the patient to {@code newUnitId}
+     * in the same commit when it differs from the current unit. If the target
+     * was taken in the meantime the edit is still saved and the patient stays
+     * put ({@link EditOutcome#UNIT_TAKEN}), so the caller can say so.
+     */
+    public EditOutcome updatePatientEditAutoAssign(
             int patientId,
             int oldUnitId,
             Integer newUnitId,
             String diagnosis,
             String severity
     ) {
-        try (Connection c = DBConnection.getConnection()) {
-            if (newUnitId != null && newUnitId != oldUnitId) {
-                c.prepareStatement(
-                        "UPDATE units SET status='AVAILABLE' WHERE id=" + oldUnitId
-                ).execute();
-                c.prepareStatement(
-                        "UPDATE units SET status='OCCUPIED' WHERE id=" + newUnitId
-                ).execute();
-                c.prepareStatement(
-                        "UPDATE patients SET unit_id=" + newUnitId +
-                                " WHERE id=" + patientId
-                ).execute();
-            }
-            PreparedStatement ps = c.prepareStatement(
-                    "UPDATE patients SET diagnosis=?, severity=? WHERE id=?"
-            );
+        String editSql = "UPDATE patients SET diagnosis=?, severity=? WHERE id=?";
+        Binder editBinder = ps -> {
             ps.setString(1, diagnosis);
             ps.setString(2, severity.toLowerCase());
             ps.setInt(3, patientId);
-            ps.executeUpdate();
+        };
+        DomainEvent event = DomainEvent.updated(patientId);
+        EditOutcome outcome = EditOutcome.SAVED;
+        try {
+            if (newUnitId != null && newUnitId != oldUnitId) {
+                // Move and edit commit together; a taken target fails at once, no retries
+                Integer moved = unitTransfer.transferTo(oldUnitId, newUnitId, (c, unitId) -> {
+                    try (PreparedStatement ps = c.prepareStatement(
+                            "UPDATE patients SET unit_id=?, diagnosis=?, severity=? WHERE id=?")) {
+                        ps.setInt(1, unitId);
+                        ps.setString(2, diagnosis);
+                        ps.setString(3, severity.toLowerCase());
+                        ps.setInt(4, patientId);
+                        ps.executeUpdate();
+                    }
+                    ChangeLog.record(c, ChangeLog.PATIENT, patientId);
+                });
+                if (moved == null) {
+                    System.out.println("⚠️ Transfer skipped: unit " + newUnitId + " is no longer available");
+                    outcome = updatePatient(patientId, editSql, editBinder)
+                            ? EditOutcome.UNIT_TAKEN
+                            : EditOutcome.FAILED;
+                } else {
+                    unitsMoved(oldUnitId, moved);
+                    event = DomainEvent.transferred(patientId, oldUnitId, moved);
+                }
+            } else if (!updatePatient(patientId, editSql, editBinder)) {
+                outcome = EditOutcome.FAILED;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
+            return EditOutcome.FAILED;
         }
+        if (outcome == EditOutcome.FAILED) return outcome;
+        PatientIndex.getInstance().refresh(patientId);
+        EventBus.getInstance().publish(event);
+        return outcome;
     }
 
-
-
-
-
+    private void unitsMoved(int fromUnitId, int toUnitId) {
+        CapacityTracker tracker = CapacityTracker.getInstance();
+        tracker.unitStatusChanged(fromUnitId, "AVAILABLE");
+        tracker.unitStatusChanged(toUnitId, "OCCUPIED");
+    }
 }
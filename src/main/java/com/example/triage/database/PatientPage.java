@@ -0,0 +1,27 @@
+package com.example.triage.database;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * One page of {@link PatientDAO#getPatientsPage}. {@code next} is the seek key
+ * for the following page, or null when this was the last one.
+ */
+public record PatientPage(List<Patient> patients, Key next) {
+
+    /** Position after the last row of a page, in the sort order that produced it. */
+    public record Key(int id, Timestamp admissionDate, String unitLabel) {
+
+        static Key after(Patient last) {
+            return new Key(
+                    last.getId(),
+                    last.getAdmissionDate(),
+                    last.getUnitLabel() == null ? "" : last.getUnitLabel()
+            );
+        }
+    }
+
+    public boolean isLast() {
+        return next == null;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.triage.database;
+
+/**
+ * Connection pool settings. Every value can be overridden with a
+ * system property, e.g. {@code -Dtriage.pool.maxSize=20}.
+ */
+public class PoolConfig {
+
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final long connectionTimeoutMs;
+    private final long leakDetectionMs;
+    private final boolean leakStackTraces;
+    private final long housekeepingMs;
+    private final int validationTimeoutSec;
+    private final int statementCacheSize;
+
+    public PoolConfig(int minSize, int maxSize, long idleTimeoutMs, long maxLifetimeMs,
+                      long connectionTimeoutMs, long leakDetectionMs, boolean leakStackTraces,
+                      long housekeepingMs, int validationTimeoutSec,
+                      int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException(
+                    "Invalid pool size: min=" + minSize + ", max=" + maxSize
+            );
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.leakDetectionMs = leakDetectionMs;
+        this.leakStackTraces = leakStackTraces;
+        this.housekeepingMs = housekeepingMs;
+        this.validationTimeoutSec = validationTimeoutSec;
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public static PoolConfig fromSystemProperties() {
+        return new PoolConfig(
+                Integer.getInteger("triage.pool.minSize", 2),
+                Integer.getInteger("triage.pool.maxSize", 10),
+                Long.getLong("triage.pool.idleTimeoutMs", 5 * 60_000L),
+                Long.getLong("triage.pool.maxLifetimeMs", 30 * 60_000L),
+                Long.getLong("triage.pool.connectionTimeoutMs", 10_000L),
+                Long.getLong("triage.pool.leakDetectionMs", 60_000L),
+                // Capturing the borrow site walks the stack on every borrow; debugging only
+                Boolean.getBoolean("triage.pool.leakStackTraces"),
+                Long.getLong("triage.pool.housekeepingMs", 30_000L),
+                Integer.getInteger("triage.pool.validationTimeoutSec", 2),
+                Integer.getInteger("triage.pool.statementCacheSize", 128)
+        );
+    }
+
+    public int getMinSize() { return minSize; }
+    public int getMaxSize() { return maxSize; }
+    public long getIdleTimeoutMs() { return idleTimeoutMs; }
+    public long getMaxLifetimeMs() { return maxLifetimeMs; }
+    public long getConnectionTimeoutMs() { return connectionTimeoutMs; }
+    public long getLeakDetectionMs() { return leakDetectionMs; }
+    public boolean isLeakStackTraces() { return leakStackTraces; }
+    public long getHousekeepingMs() { return housekeepingMs; }
+    public int getValidationTimeoutSec() { return validationTimeoutSec; }
+    public int getStatementCacheSize() { return statementCacheSize; }
+}
@@ -0,0 +1,79 @@
+package com.example.triage.database;
+
+/** Point-in-time view of {@link ConnectionPool} counters. */
+public class PoolStats {
+
+    private final int borrowed;
+    private final int idle;
+    private final int total;
+    private final long borrowCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long handshakes;
+    private final long handshakesAvoided;
+    private final long timeouts;
+    private final long evictions;
+    private final long leaks;
+    private final long statementHits;
+    private final long statementMisses;
+    private final long statementEvictions;
+
+    public PoolStats(int borrowed, int idle, int total, long borrowCount,
+                     long totalWaitNanos, long maxWaitNanos,
+                     long handshakes, long handshakesAvoided,
+                     long timeouts, long evictions, long leaks,
+                     long statementHits, long statementMisses, long statementEvictions) {
+        this.borrowed = borrowed;
+        this.idle = idle;
+        this.total = total;
+        this.borrowCount = borrowCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.handshakes = handshakes;
+        this.handshakesAvoided = handshakesAvoided;
+        this.timeouts = timeouts;
+        this.evictions = evictions;
+        this.leaks = leaks;
+        this.statementHits = statementHits;
+        this.statementMisses = statementMisses;
+        this.statementEvictions = statementEvictions;
+    }
+
+    public int getBorrowed() { return borrowed; }
+    public int getIdle() { return idle; }
+    public int getTotal() { return total; }
+    public long getBorrowCount() { return borrowCount; }
+    public long getHandshakes() { return handshakes; }
+    public long getHandshakesAvoided() { return handshakesAvoided; }
+    public long getTimeouts() { return timeouts; }
+    public long getEvictions() { return evictions; }
+    public long getLeaks() { return leaks; }
+    public long getStatementHits() { return statementHits; }
+    public long getStatementMisses() { return statementMisses; }
+    public long getStatementEvictions() { return statementEvictions; }
+
+    public double getStatementHitRatio() {
+        long lookups = statementHits + statementMisses;
+        return lookups == 0 ? 0.0 : (double) statementHits / lookups;
+    }
+
+    public double getAverageWaitMs() {
+        return borrowCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+    }
+
+    public double getMaxWaitMs() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "borrowed=%d idle=%d total=%d borrows=%d avgWait=%.2fms maxWait=%.2fms "
+                        + "handshakes=%d avoided=%d timeouts=%d evicted=%d leaks=%d "
+                        + "stmtHits=%d stmtMisses=%d stmtEvicted=%d",
+                borrowed, idle, total, borrowCount, getAverageWaitMs(), getMaxWaitMs(),
+                handshakes, handshakesAvoided, timeouts, evictions, leaks,
+                statementHits, statementMisses, statementEvictions
+        );
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.triage.database;
+
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Lets a background load be stopped while its SQL is still running.
+ * Connections borrowed from the {@link ConnectionPool} on a thread inside
+ * {@link #call} are attached to the scope; {@link #cancel()} asks the driver
+ * to cancel whatever they are executing ({@link java.sql.Statement#cancel()}),
+ * and any later borrow in the scope fails straight away.
+ */
+public final class QueryCancellation {
+
+    /** SQLSTATE for a cancelled query, as the standard and the drivers use it. */
+    public static final String CANCELLED_STATE = "57014";
+
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    /** Setup run by {@link #outsideAnyScope}. */
+    @FunctionalInterface
+    interface Work {
+        void run() throws SQLException;
+    }
+
+    /** A borrowed connection whose running statements can be cancelled. */
+    interface Cancellable {
+        void cancelRunning();
+    }
+
+    private final Set<Cancellable> attached = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /** Runs the work with this scope active on the current thread. */
+    public <T> T call(Supplier<T> work) {
+        QueryCancellation outer = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            if (outer == null) CURRENT.remove();
+            else CURRENT.set(outer);
+        }
+    }
+
+    /**
+     * Cancels the statements running in this scope. The driver may open a
+     * connection of its own to do so (MySQL sends KILL QUERY), so call it off
+     * the FX thread.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Cancellable c : attached) {
+            c.cancelRunning();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Runs shared setup, such as the first pool start's schema check, with no
+     * scope active, so a cancelled load that happens to trigger it cannot
+     * abort it for everyone.
+     */
+    static void outsideAnyScope(Work work) throws SQLException {
+        QueryCancellation outer = CURRENT.get();
+        CURRENT.remove();
+        try {
+            work.run();
+        } finally {
+            if (outer != null) CURRENT.set(outer);
+        }
+    }
+
+    static QueryCancellation current() {
+        return CURRENT.get();
+    }
+
+    // Attach before checking the flag: a concurrent cancel() either sees us or we see it
+    void attach(Cancellable c) throws SQLException {
+        attached.add(c);
+        if (cancelled) {
+            attached.remove(c);
+            throw new SQLException("Query cancelled", CANCELLED_STATE);
+        }
+    }
+
+    void detach(Cancellable c) {
+        attached.remove(c);
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.triage.database;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement execution metrics for everything that goes through the
+ * {@link ConnectionPool}: a latency histogram, call/row/error counters and a
+ * log of slow executions with their bound parameters. Statements are keyed by
+ * their SQL text with whitespace and {@code IN (?, ?, ...)} lists collapsed,
+ * so one DAO query is one row however it was formatted or how many ids it had.
+ *
+ * <pre>
+ * -Dtriage.sql.metrics=false         turn the instrumentation off
+ * -Dtriage.sql.slowMs=200            slow-query threshold
+ * -Dtriage.sql.logParams=redacted    full | redacted | none
+ * </pre>
+ *
+ * Redacted parameters keep numbers, dates and nulls and replace text with its
+ * length, so the log says which row was slow without copying patient names.
+ */
+public class QueryMetrics {
+
+    public enum ParamMode { FULL, REDACTED, NONE }
+
+    /** Histogram bucket upper bounds in milliseconds; the last bucket is unbounded. */
+    static final long[] BUCKETS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("triage.sql.metrics", "true"));
+    private static final int MAX_STATEMENTS = Integer.getInteger("triage.sql.maxStatements", 500);
+    private static final int SLOW_LOG_SIZE = Integer.getInteger("triage.sql.slowLogSize", 100);
+    private static final String OVERFLOW_KEY = "(other statements)";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    private static QueryMetrics instance;
+
+    private final Map<String, Stats> statements = new ConcurrentHashMap<>();
+    private final ArrayDeque<SlowQuery> slowLog = new ArrayDeque<>();
+    private volatile long slowThresholdMs = Long.getLong("triage.sql.slowMs", 200);
+    private volatile ParamMode paramMode = parseMode(System.getProperty("triage.sql.logParams", "redacted"));
+    private volatile long since = System.currentTimeMillis();
+
+    /** One statement's counters at the moment {@link #snapshot()} was taken. */
+    public record StatementStats(String id, String sql, long calls, long errors, long rows,
+                                 double totalMs, double maxMs, double p50Ms, double p99Ms,
+                                 long[] buckets) {
+
+        public double meanMs() {
+            return calls == 0 ? 0 : totalMs / calls;
+        }
+    }
+
+    /** One execution that took longer than the slow-query threshold. */
+    public record SlowQuery(Instant at, String id, String sql, double millis,
+                            String params, String thread, String error) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%.1f ms [%s] %s%s%s", millis, id, sql,
+                    params.isEmpty() ? "" : " -- " + params,
+                    error == null ? "" : " !! " + error);
+        }
+    }
+
+    private QueryMetrics() {}
+
+    public static synchronized QueryMetrics getInstance() {
+        if (instance == null) {
+            instance = new QueryMetrics();
+        }
+        return instance;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public long getSlowThresholdMs() {
+        return slowThresholdMs;
+    }
+
+    public void setSlowThresholdMs(long millis) {
+        slowThresholdMs = Math.max(millis, 0);
+    }
+
+    public ParamMode getParamMode() {
+        return paramMode;
+    }
+
+    public void setParamMode(ParamMode mode) {
+        paramMode = mode;
+    }
+
+    // ================= RECORDING =================
+
+    /**
+     * Records one execution. {@code rows} is the update count, or for a query
+     * the rows read before the result set was closed; -1 when unknown.
+     * Returns the statement's counters, for its id and normalized text.
+     */
+    Stats record(String sql, long nanos, long rows, List<Object> params, Throwable error) {
+        Stats stats = stats(sql);
+        stats.record(nanos, rows, error != null);
+
+        double millis = nanos / 1_000_000.0;
+        if (millis >= slowThresholdMs) {
+            SlowQuery slow = new SlowQuery(Instant.now(), stats.id, stats.sql, millis,
+                    formatParams(params), Thread.currentThread().getName(),
+                    error == null ? null : firstLine(error));
+            synchronized (slowLog) {
+                if (slowLog.size() == SLOW_LOG_SIZE) slowLog.removeFirst();
+                slowLog.addLast(slow);
+            }
+            System.out.println("⚠️ Slow query " + slow);
+        }
+        return stats;
+    }
+
+    private Stats stats(String sql) {
+        String key = normalize(sql);
+        Stats stats = statements.get(key);
+        if (stats != null) return stats;
+        // Ad-hoc SQL should not grow this without bound
+        if (statements.size() >= MAX_STATEMENTS) key = OVERFLOW_KEY;
+        return statements.computeIfAbsent(key, Stats::new);
+    }
+
+    private static String firstLine(Throwable error) {
+        String message = String.valueOf(error.getMessage());
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+
+    static String normalize(String sql) {
+        if (sql == null) return "(unknown)";
+        String flat = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return PLACEHOLDER_LIST.matcher(flat).replaceAll("?, ...");
+    }
+
+    // ================= READING =================
+
+    /** All statements, slowest total time first. */
+    public List<StatementStats> snapshot() {
+        List<StatementStats> result = new ArrayList<>();
+        for (Stats stats : statements.values()) {
+            result.add(stats.snapshot());
+        }
+        result.sort(Comparator.comparingDouble(StatementStats::totalMs).reversed());
+        return result;
+    }
+
+    /** Recent slow executions, newest first. */
+    public List<SlowQuery> slowQueries() {
+        synchronized (slowLog) {
+            List<SlowQuery> result = new ArrayList<>(slowLog);
+            Collections.reverse(result);
+            return result;
+        }
+    }
+
+    public Instant since() {
+        return Instant.ofEpochMilli(since);
+    }
+
+    public void reset() {
+        statements.clear();
+        synchronized (slowLog) {
+            slowLog.clear();
+        }
+        since = System.currentTimeMillis();
+    }
+
+    /**
+     * The counters in the Prometheus text exposition format, one series per
+     * statement labelled with its id; the SQL itself goes in a separate info
+     * metric so the label values stay short.
+     */
+    public String toPrometheus() {
+        List<StatementStats> all = snapshot();
+        StringBuilder out = new StringBuilder();
+
+        out.append("# HELP triage_sql_statement_info SQL text of each statement id.\n");
+        out.append("# TYPE triage_sql_statement_info gauge\n");
+        for (StatementStats s : all) {
+            out.append("triage_sql_statement_info{statement=\"").append(s.id())
+                    .append("\",sql=\"").append(escape(s.sql())).append("\"} 1\n");
+        }
+
+        out.append("# HELP triage_sql_duration_seconds Statement execution time.\n");
+        out.append("# TYPE triage_sql_duration_seconds histogram\n");
+        for (StatementStats s : all) {
+            long cumulative = 0;
+            for (int i = 0; i < BUCKETS_MS.length; i++) {
+                cumulative += s.buckets()[i];
+                out.append("triage_sql_duration_seconds_bucket{statement=\"").append(s.id())
+                        .append("\",le=\"").append(seconds(BUCKETS_MS[i])).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            out.append("triage_sql_duration_seconds_bucket{statement=\"").append(s.id())
+                    .append("\",le=\"+Inf\"} ").append(s.calls()).append('\n');
+            out.append("triage_sql_duration_seconds_sum{statement=\"").append(s.id()).append("\"} ")
+                    .append(String.format(Locale.ROOT, "%.6f", s.totalMs() / 1000)).append('\n');
+            out.append("triage_sql_duration_seconds_count{statement=\"").append(s.id()).append("\"} ")
+                    .append(s.calls()).append('\n');
+        }
+
+        counter(out, all, "triage_sql_rows_total", "Rows read or updated.", StatementStats::rows);
+        counter(out, all, "triage_sql_errors_total", "Executions that threw.", StatementStats::errors);
+
+        out.append("# HELP triage_sql_slow_threshold_seconds Slow-query log threshold.\n");
+        out.append("# TYPE triage_sql_slow_threshold_seconds gauge\n");
+        out.append("triage_sql_slow_threshold_seconds ").append(seconds(slowThresholdMs)).append('\n');
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, List<StatementStats> all, String name, String help,
+                                ToLongFunction<StatementStats> value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        for (StatementStats s : all) {
+            out.append(name).append("{statement=\"").append(s.id()).append("\"} ")
+                    .append(value.applyAsLong(s)).append('\n');
+        }
+    }
+
+    private static String seconds(long millis) {
+        return String.format(Locale.ROOT, "%.3f", millis / 1000.0);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    // ================= PARAMETERS =================
+
+    private String formatParams(List<Object> params) {
+        ParamMode mode = paramMode;
+        if (mode == ParamMode.NONE || params == null || params.isEmpty()) return "";
+        StringBuilder out = new StringBuilder("[");
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) out.append(", ");
+            out.append(formatParam(params.get(i), mode));
+        }
+        return out.append(']').toString();
+    }
+
+    private static String formatParam(Object value, ParamMode mode) {
+        if (value == null) return "NULL";
+        if (value instanceof Number || value instanceof Boolean || value instanceof java.util.Date
+                || value instanceof java.time.temporal.Temporal) {
+            return String.valueOf(value);
+        }
+        if (mode == ParamMode.FULL && value instanceof CharSequence text) {
+            return "'" + text + "'";
+        }
+        if (value instanceof CharSequence text) {
+            return "<text:" + text.length() + ">";
+        }
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+
+    private static ParamMode parseMode(String value) {
+        try {
+            return ParamMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.out.println("⚠️ Unknown triage.sql.logParams '" + value + "', using redacted");
+            return ParamMode.REDACTED;
+        }
+    }
+
+    // ================= PER-STATEMENT COUNTERS =================
+
+    static final class Stats {
+        final String sql;
+        final String id;
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder[] buckets = new LongAdder[BUCKETS_MS.length + 1];
+
+        Stats(String sql) {
+            this.sql = sql;
+            this.id = String.format("q%08x", sql.hashCode());
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos, long rowCount, boolean failed) {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (rowCount > 0) rows.add(rowCount);
+            if (failed) errors.increment();
+            buckets[bucket(nanos)].increment();
+        }
+
+        private static int bucket(long nanos) {
+            for (int i = 0; i < BUCKETS_MS.length; i++) {
+                if (nanos <= BUCKETS_MS[i] * 1_000_000) return i;
+            }
+            return BUCKETS_MS.length;
+        }
+
+        StatementStats snapshot() {
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            double maxMs = maxNanos.get() / 1_000_000.0;
+            return new StatementStats(id, sql, total, errors.sum(), rows.sum(),
+                    totalNanos.sum() / 1_000_000.0, maxMs,
+                    percentile(counts, total, 0.50, maxMs), percentile(counts, total, 0.99, maxMs),
+                    counts);
+        }
+
+        // Upper bound of the bucket holding the percentile, capped at the observed max
+        private static double percentile(long[] counts, long total, double q, double maxMs) {
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i < BUCKETS_MS.length ? Math.min(BUCKETS_MS[i], maxMs) : maxMs;
+                }
+            }
+            return maxMs;
+        }
+    }
+}
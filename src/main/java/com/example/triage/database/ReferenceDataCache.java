@@ -0,0 +1,218 @@
+package com.example.triage.database;
+
+import com.example.triage.services.ChangeFeed;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of the reference data behind every facility and floor
+ * combo box: facility name/id/type, the floors of each facility and the
+ * facility type of each unit. Loaded in three queries and then served from
+ * memory. Facility add/remove paths call {@link #invalidate()}; changes from
+ * other desks arrive through the change feed, and a TTL
+ * ({@code triage.refdata.ttlMinutes}) is the safety net.
+ */
+public class ReferenceDataCache {
+
+    private static final long TTL_MS =
+            TimeUnit.MINUTES.toMillis(Long.getLong("triage.refdata.ttlMinutes", 10));
+
+    private static ReferenceDataCache instance;
+
+    private record Facility(int id, String name, String type) {}
+
+    private record Snapshot(long loadedAt,
+                            List<Facility> facilities,
+                            Map<String, Facility> byName,
+                            Map<Integer, Map<Integer, Integer>> floors,
+                            Map<Integer, String> unitTypes) {
+
+        boolean expired() {
+            return System.currentTimeMillis() - loadedAt > TTL_MS;
+        }
+    }
+
+    private volatile Snapshot snapshot;
+    private final AtomicLong generation = new AtomicLong();
+    private boolean feedRegistered;
+
+    // Units created after the last load, looked up one at a time
+    private final Map<Integer, String> lateUnitTypes = new ConcurrentHashMap<>();
+
+    private ReferenceDataCache() {}
+
+    public static synchronized ReferenceDataCache getInstance() {
+        if (instance == null) {
+            instance = new ReferenceDataCache();
+        }
+        return instance;
+    }
+
+    /** Drops everything; the next read reloads. */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+        lateUnitTypes.clear();
+    }
+
+    /** True when reads will be answered from memory without a query. */
+    public boolean isLoaded() {
+        Snapshot current = snapshot;
+        return current != null && !current.expired();
+    }
+
+    // ================= READS =================
+
+    /** Facility names, sorted. */
+    public List<String> facilityNames() throws SQLException {
+        List<String> names = new ArrayList<>();
+        for (Facility f : snapshot().facilities()) {
+            names.add(f.name());
+        }
+        return names;
+    }
+
+    public List<String> facilityNamesByType(String type) throws SQLException {
+        List<String> names = new ArrayList<>();
+        for (Facility f : snapshot().facilities()) {
+            if (f.type().equals(type)) names.add(f.name());
+        }
+        return names;
+    }
+
+    /** The facility id, or -1 if there is no such facility. */
+    public int facilityId(String name) throws SQLException {
+        Facility f = snapshot().byName().get(name);
+        return f == null ? -1 : f.id();
+    }
+
+    public String facilityType(String name) throws SQLException {
+        Facility f = snapshot().byName().get(name);
+        return f == null ? null : f.type();
+    }
+
+    public String facilityTypeOfUnit(int unitId) throws SQLException {
+        String type = snapshot().unitTypes().get(unitId);
+        if (type != null) return type;
+        type = lateUnitTypes.get(unitId);
+        if (type != null) return type;
+        // Queried outside the map: a compute function can neither throw SQLException nor hold a bin during I/O
+        type = queryUnitType(unitId);
+        if (type != null) lateUnitTypes.putIfAbsent(unitId, type);
+        return type;
+    }
+
+    /** Floor numbers of a facility, ascending. */
+    public List<Integer> floorNumbers(int facilityId) throws SQLException {
+        Map<Integer, Integer> floors = snapshot().floors().get(facilityId);
+        return floors == null ? List.of() : List.copyOf(floors.keySet());
+    }
+
+    /** The floor id, or -1 if the facility has no such floor. */
+    public int floorId(int facilityId, int floorNumber) throws SQLException {
+        Map<Integer, Integer> floors = snapshot().floors().get(facilityId);
+        Integer id = floors == null ? null : floors.get(floorNumber);
+        return id == null ? -1 : id;
+    }
+
+    // ================= LOADING =================
+
+    private Snapshot snapshot() throws SQLException {
+        Snapshot current = snapshot;
+        if (current != null && !current.expired()) return current;
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && !current.expired()) return current;
+            long loadingGeneration = generation.get();
+            current = load();
+            // An invalidation during the load means these rows may predate it
+            if (generation.get() == loadingGeneration) {
+                snapshot = current;
+            }
+            if (!feedRegistered) {
+                feedRegistered = true;
+                ChangeFeed.getInstance().addListener(changes -> {
+                    if (changes.facilities()) invalidate();
+                });
+            }
+            return current;
+        }
+    }
+
+    private Snapshot load() throws SQLException {
+        List<Facility> facilities = new ArrayList<>();
+        Map<String, Facility> byName = new HashMap<>();
+        Map<Integer, Facility> byId = new HashMap<>();
+        Map<Integer, Map<Integer, Integer>> floors = new HashMap<>();
+        Map<Integer, String> unitTypes = new HashMap<>();
+
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) throw new SQLException("No database connection");
+
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT id, name, type FROM facilities ORDER BY name");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Facility f = new Facility(rs.getInt("id"), rs.getString("name"), rs.getString("type"));
+                    facilities.add(f);
+                    byName.put(f.name(), f);
+                    byId.put(f.id(), f);
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT id, facility_id, floor_number FROM floors ORDER BY facility_id, floor_number");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    floors.computeIfAbsent(rs.getInt("facility_id"), k -> new LinkedHashMap<>())
+                            .put(rs.getInt("floor_number"), rs.getInt("id"));
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement("""
+                    SELECT u.id, f.facility_id
+                    FROM units u
+                    JOIN floors f ON f.id = u.floor_id
+                    """)) {
+                ps.setFetchSize(1000);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Facility f = byId.get(rs.getInt("facility_id"));
+                        if (f != null) unitTypes.put(rs.getInt("id"), f.type());
+                    }
+                }
+            }
+        }
+        return new Snapshot(System.currentTimeMillis(),
+                Collections.unmodifiableList(facilities), byName, floors, unitTypes);
+    }
+
+    private String queryUnitType(int unitId) throws SQLException {
+        String sql = """
+            SELECT fac.type
+            FROM units u
+            JOIN floors f ON f.id = u.floor_id
+            JOIN facilities fac ON fac.id = f.facility_id
+            WHERE u.id = ?
+            """;
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) throw new SQLException("No database connection");
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, unitId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getString(1) : null;
+                }
+            }
+        }
+    }
+}
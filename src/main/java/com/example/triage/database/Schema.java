@@ -0,0 +1,220 @@
+package com.example.triage.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Numbered migrations on top of the base triage_db schema. Each one that has
+ * been applied is recorded in {@code schema_version}, so a database is
+ * upgraded once per step and always says which version it is at.
+ * <p>
+ * DDL runs only when asked for: with {@code -Dtriage.db.migrate=true} (run
+ * the server once with it after an upgrade, under an account that may ALTER)
+ * or on an embedded database, which the process owns. Otherwise the version
+ * is only checked when the pool starts, and a database that is behind is
+ * refused with the steps it is missing, for applying by hand. Either way it
+ * happens once per process; a failed step stops the run, is not retried, and
+ * leaves the process without database connections.
+ * Every step is idempotent, so a database upgraded before versioning existed
+ * just gets its rows recorded.
+ * <p>
+ * Embedded databases start empty, so they first get the base tables from
+ * {@code schema.sql}; a MySQL server is expected to have them already.
+ */
+final class Schema {
+
+    private static final boolean MIGRATE = Boolean.getBoolean("triage.db.migrate");
+
+    @FunctionalInterface
+    private interface Step {
+        void apply(Connection c, Statement st) throws SQLException;
+    }
+
+    private record Migration(int version, String description, Step step) {}
+
+    // Append only; a released step is never edited or renumbered
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "id_sequences for block-reserved sequences and the change feed's prune turn",
+                    (c, st) -> st.execute("""
+                        CREATE TABLE IF NOT EXISTS id_sequences (
+                            name VARCHAR(64) PRIMARY KEY,
+                            next_value BIGINT NOT NULL
+                        )
+                        """)),
+            new Migration(2, "units.version for optimistic unit status changes",
+                    (c, st) -> {
+                        if (!hasColumn(c, "units", "version")) {
+                            st.execute("ALTER TABLE units ADD COLUMN version INT NOT NULL DEFAULT 0");
+                        }
+                    }),
+            new Migration(3, "change_log for incremental client sync",
+                    (c, st) -> st.execute("""
+                        CREATE TABLE IF NOT EXISTS change_log (
+                            version BIGINT AUTO_INCREMENT PRIMARY KEY,
+                            entity VARCHAR(16) NOT NULL,
+                            entity_id INT NOT NULL,
+                            changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                            INDEX idx_change_log_changed_at (changed_at)
+                        )
+                        """)),
+            new Migration(4, "sequence-backed keys instead of identity columns on embedded databases",
+                    (c, st) -> {
+                        if (Dialect.forUrl(c.getMetaData().getURL()).isEmbedded()) {
+                            replaceIdentityColumns(c, st);
+                        }
+                    })
+    );
+
+    /** The schema version this build needs. */
+    static final int CURRENT = MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+
+    private Schema() {}
+
+    /**
+     * Brings the database up to {@link #CURRENT} or says why it cannot.
+     * Throws when the schema is behind and migrating was not asked for, or
+     * when a step fails; {@link DBConnection} then refuses connections, since
+     * every write would fail on the missing tables anyway.
+     */
+    static synchronized void ensure(ConnectionPool pool, DataSourceConfig config) throws SQLException {
+        boolean embedded = config.getDialect().isEmbedded();
+        try (Connection c = pool.borrow()) {
+            if (embedded) {
+                createBaseTables(c);
+            }
+            int version = version(c);
+            if (version >= CURRENT) return;
+            if (!MIGRATE && !embedded) {
+                throw new SQLException("Database schema is at version " + version + ", this build needs " + CURRENT
+                        + "; run once with -Dtriage.db.migrate=true or apply by hand: " + pending(version));
+            }
+            try {
+                migrate(c, version);
+            } catch (SQLException e) {
+                throw new SQLException("Schema migration to version " + CURRENT + " failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /** The highest migration recorded, or 0 on a database that has never been migrated. */
+    static int version(Connection c) throws SQLException {
+        if (!hasTable(c, "schema_version")) return 0;
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void migrate(Connection c, int from) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(200) NOT NULL,
+                    applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                )
+                """);
+            for (Migration m : MIGRATIONS) {
+                if (m.version() <= from) continue;
+                // MySQL commits each DDL statement itself, so a step and its row cannot share a transaction
+                m.step().apply(c, st);
+                try (PreparedStatement ps = c.prepareStatement(
+                        "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                    ps.setInt(1, m.version());
+                    ps.setString(2, m.description());
+                    ps.executeUpdate();
+                }
+                System.out.println("🛠️ Applied schema migration " + m.version() + ": " + m.description());
+            }
+        }
+    }
+
+    private static String pending(int from) {
+        StringJoiner joiner = new StringJoiner("; ");
+        for (Migration m : MIGRATIONS) {
+            if (m.version() > from) joiner.add(m.version() + " " + m.description());
+        }
+        return joiner.toString();
+    }
+
+    private static void createBaseTables(Connection c) throws SQLException {
+        String script;
+        try (InputStream in = Schema.class.getResourceAsStream("schema.sql")) {
+            if (in == null) throw new SQLException("schema.sql is missing from the build");
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Could not read schema.sql", e);
+        }
+        StringBuilder sql = new StringBuilder();
+        for (String line : script.split("\n")) {
+            if (!line.strip().startsWith("--")) sql.append(line).append('\n');
+        }
+        try (Statement st = c.createStatement()) {
+            for (String statement : sql.toString().split(";")) {
+                if (!statement.isBlank()) st.execute(statement);
+            }
+        }
+    }
+
+    /**
+     * H2 in MySQL mode can hand two concurrent transactions the same
+     * AUTO_INCREMENT value, which fails the second insert with a duplicate
+     * key (seen on change_log under the admission and transfer benchmarks).
+     * A plain sequence default does not, so each identity column gets one,
+     * starting after the rows already there. Generated keys are returned
+     * the same way.
+     */
+    private static void replaceIdentityColumns(Connection c, Statement st) throws SQLException {
+        List<String[]> columns = new ArrayList<>();
+        try (ResultSet rs = st.executeQuery("""
+                SELECT table_name, column_name FROM information_schema.columns
+                WHERE table_schema = SCHEMA() AND is_identity = 'YES'
+                """)) {
+            while (rs.next()) columns.add(new String[]{rs.getString(1), rs.getString(2)});
+        }
+        for (String[] col : columns) {
+            String table = col[0];
+            String column = col[1];
+            String sequence = table + "_" + column + "_seq";
+            long next;
+            try (ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(" + column + "), 0) + 1 FROM " + table)) {
+                next = rs.next() ? rs.getLong(1) : 1;
+            }
+            st.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " START WITH " + next);
+            st.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " DROP IDENTITY");
+            st.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " SET DEFAULT NEXT VALUE FOR " + sequence);
+        }
+    }
+
+    private static boolean hasTable(Connection c, String table) throws SQLException {
+        DatabaseMetaData meta = c.getMetaData();
+        for (String t : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = meta.getTables(c.getCatalog(), null, t, new String[]{"TABLE"})) {
+                if (rs.next()) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasColumn(Connection c, String table, String column) throws SQLException {
+        DatabaseMetaData meta = c.getMetaData();
+        for (String t : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = meta.getColumns(c.getCatalog(), null, t, null)) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.triage.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out values of a named sequence stored in {@code id_sequences}
+ * (created by {@link Schema}).
+ * Values are reserved from the database in blocks, in their own short
+ * transaction, and then served from memory with a single atomic increment.
+ * Values reserved but unused before a restart are skipped, never reissued,
+ * so codes stay unique across restarts, discharges and concurrent desks.
+ */
+public class SequenceAllocator {
+
+    private static final int BLOCK_SIZE = Integer.getInteger("triage.sequence.blockSize", 100);
+
+    private static final Map<String, SequenceAllocator> SEQUENCES = new ConcurrentHashMap<>();
+
+    private record Block(AtomicLong next, long limit) {}
+
+    private final String name;
+    private final String seedSql;
+    private final long floor;
+    private volatile Block block;
+
+    private SequenceAllocator(String name, String seedSql, long floor) {
+        this.name = name;
+        this.seedSql = seedSql;
+        this.floor = floor;
+    }
+
+    /**
+     * The allocator for a sequence. On first use the row is seeded from
+     * {@code seedSql} (a query returning the highest value already issued, or
+     * NULL) so existing data is never collided with; values start above floor.
+     */
+    public static SequenceAllocator forName(String name, String seedSql, long floor) {
+        return SEQUENCES.computeIfAbsent(name, n -> new SequenceAllocator(n, seedSql, floor));
+    }
+
+    /**
+     * Next value; only touches the database when the current block runs out.
+     * The refill borrows a pooled connection of its own, so call this before
+     * opening a transaction, not while holding a connection or row locks.
+     */
+    public long next() throws SQLException {
+        while (true) {
+            Block current = block;
+            if (current != null) {
+                long value = current.next().getAndIncrement();
+                if (value < current.limit()) return value;
+            }
+            synchronized (this) {
+                if (block == current) {
+                    block = reserve();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reserves {@code count} consecutive values straight from the database,
+     * bypassing the in-memory block, and returns the first. For bulk writers
+     * that would otherwise drain a block every hundred rows.
+     */
+    public long reserveRange(int count) throws SQLException {
+        if (count <= 0) throw new IllegalArgumentException("count must be positive");
+        return reserve(count);
+    }
+
+    private Block reserve() throws SQLException {
+        long start = reserve(BLOCK_SIZE);
+        return new Block(new AtomicLong(start), start + BLOCK_SIZE);
+    }
+
+    private long reserve(int count) throws SQLException {
+        try (Connection c = DBConnection.getConnection()) {
+            if (c == null) throw new SQLException("No database connection");
+
+            c.setAutoCommit(false);
+            try {
+                long start = lockRow(c);
+                try (PreparedStatement ps = c.prepareStatement(
+                        "UPDATE id_sequences SET next_value = ? WHERE name = ?")) {
+                    ps.setLong(1, start + count);
+                    ps.setString(2, name);
+                    ps.executeUpdate();
+                }
+                c.commit();
+                return start;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /** Locks the sequence row, creating it from the seed query if it is missing. */
+    private long lockRow(Connection c) throws SQLException {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try (PreparedStatement ps = c.prepareStatement(
+                    "SELECT next_value FROM id_sequences WHERE name = ? FOR UPDATE")) {
+                ps.setString(1, name);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) return rs.getLong(1);
+                }
+            }
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO id_sequences (name, next_value) VALUES (?, ?)")) {
+                ps.setString(1, name);
+                ps.setLong(2, seed(c));
+                ps.executeUpdate();
+            } catch (SQLIntegrityConstraintViolationException e) {
+                // Another instance seeded it first; lock theirs
+            }
+        }
+        throw new SQLException("Could not initialise sequence " + name);
+    }
+
+    private long seed(Connection c) throws SQLException {
+        long highest = floor;
+        try (PreparedStatement ps = c.prepareStatement(seedSql);
+             ResultSet rs = ps.executeQuery()) {
+            if (rs.next()) {
+                highest = Math.max(highest, rs.getLong(1));
+            }
+        }
+        return highest + 1;
+    }
+}
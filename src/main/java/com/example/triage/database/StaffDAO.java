@@ -2,25 +2,11 @@ package com.example.triage.database;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 public class StaffDAO {
-    public void setOnShift(int staffId, boolean onShift) {
-        String sql = "UPDATE staff SET on_shift = ? WHERE id = ?";
-        try (
-                Connection conn = DBConnection.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql)
-        ) {
-            ps.setBoolean(1, onShift);
-            ps.setInt(2, staffId);
-            ps.executeUpdate();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
-    public List<Staff> getAllStaff() {
-        List<Staff> list = new ArrayList<>();
-        String sql = """
+    private static final String STAFF_SELECT = """
     SELECT s.id,
            s.first_name,
            s.last_name,
@@ -31,28 +17,31 @@ public class StaffDAO {
     FROM staff s
     JOIN facilities f ON s.facility_id = f.id
     JOIN floors fl ON s.floor_id = fl.id
-    ORDER BY s.id
 """;
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    public void setOnShift(int staffId, boolean onShift) {
+        String sql = "UPDATE staff SET on_shift = ? WHERE id = ?";
+        updateStaffRow(staffId, sql, ps -> {
+            ps.setBoolean(1, onShift);
+            ps.setInt(2, staffId);
+        });
+    }
+
+    public List<Staff> getAllStaff() {
+        List<Staff> list = new ArrayList<>();
+        String sql = STAFF_SELECT + " ORDER BY s.id";
         try (
                 Connection conn = DBConnection.getConnection();
                 PreparedStatement ps = conn.prepareStatement(sql);
                 ResultSet rs = ps.executeQuery()
         ) {
             while (rs.next()) {
-                String fullName =
-                        rs.getString("first_name") + " " +
-                                rs.getString("last_name");
-                String facilityDisplay =
-                        rs.getString("facility") +
-                                " • Floor " +
-                                rs.getInt("floor_number");
-                list.add(new Staff(
-                        rs.getInt("id"),
-                        fullName,
-                        rs.getString("role"),
-                        facilityDisplay,
-                        rs.getBoolean("on_shift")
-                ));
+                list.add(mapStaff(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -60,6 +49,61 @@ public class StaffDAO {
         return list;
     }
 
+    /** The staff rows among {@code ids}, in one query. Missing ids were deleted. */
+    public List<Staff> getStaffByIds(Collection<Integer> ids) throws SQLException {
+        List<Staff> list = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) return list;
+        String sql = STAFF_SELECT
+                + " WHERE s.id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")"
+                + " ORDER BY s.id";
+        try (
+                Connection conn = DBConnection.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)
+        ) {
+            int i = 1;
+            for (int id : ids) {
+                ps.setInt(i++, id);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapStaff(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    /** "First Last" for the staff member, or null when there is no such row. */
+    public String getStaffName(int staffId) throws SQLException {
+        String sql = "SELECT first_name, last_name FROM staff WHERE id = ?";
+        try (
+                Connection conn = DBConnection.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)
+        ) {
+            ps.setInt(1, staffId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString("first_name") + " " + rs.getString("last_name") : null;
+            }
+        }
+    }
+
+    private Staff mapStaff(ResultSet rs) throws SQLException {
+        String fullName =
+                rs.getString("first_name") + " " +
+                        rs.getString("last_name");
+        String facilityDisplay =
+                rs.getString("facility") +
+                        " • Floor " +
+                        rs.getInt("floor_number");
+        return new Staff(
+                rs.getInt("id"),
+                fullName,
+                rs.getString("role"),
+                facilityDisplay,
+                rs.getBoolean("on_shift")
+        );
+    }
+
     public int addStaff(String fullName, String role, int facilityId, int floorId) {
 
         String[] parts = fullName.trim().split("\\s+");
@@ -71,21 +115,29 @@ public class StaffDAO {
         VALUES (?, ?, ?, ?, ?)
     """;
 
-        try (
-                Connection conn = DBConnection.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
-        ) {
-            ps.setString(1, firstName);
-            ps.setString(2, lastName);
-            ps.setString(3, role.toLowerCase());
-            ps.setInt(4, facilityId);
-            ps.setInt(5, floorId);
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setString(1, firstName);
+                ps.setString(2, lastName);
+                ps.setString(3, role.toLowerCase());
+                ps.setInt(4, facilityId);
+                ps.setInt(5, floorId);
 
-            ps.executeUpdate();
+                ps.executeUpdate();
 
-            ResultSet rs = ps.getGeneratedKeys();
-            if (rs.next()) {
-                return rs.getInt(1);
+                int id = -1;
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    if (rs.next()) id = rs.getInt(1);
+                }
+                if (id > 0) {
+                    ChangeLog.record(conn, ChangeLog.STAFF, id);
+                }
+                conn.commit();
+                return id;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -99,28 +151,32 @@ public class StaffDAO {
             SET role = ?, facility_id = ?, floor_id = ?
             WHERE id = ?
         """;
-        try (
-                Connection conn = DBConnection.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql)
-        ) {
+        updateStaffRow(id, sql, ps -> {
             ps.setString(1, role.toLowerCase());
             ps.setInt(2, facilityId);
             ps.setInt(3, floorId);
             ps.setInt(4, id);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        });
     }
 
     public void deleteStaff(int id) {
         String sql = "DELETE FROM staff WHERE id = ?";
-        try (
-                Connection conn = DBConnection.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql)
-        ) {
-            ps.setInt(1, id);
-            ps.executeUpdate();
+        updateStaffRow(id, sql, ps -> ps.setInt(1, id));
+    }
+
+    /** Runs a single-row staff write and its change-log entry in one commit. */
+    private void updateStaffRow(int id, String sql, Binder binder) {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                binder.bind(ps);
+                ps.executeUpdate();
+                ChangeLog.record(conn, ChangeLog.STAFF, id);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,232 @@
+package com.example.triage.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU of prepared statements for one physical connection, keyed by SQL text.
+ * Closing a statement obtained from the cache only returns it; the server-side
+ * statement stays prepared until it is evicted or the connection is retired.
+ * Settings a caller changed on it (fetch size, max rows, timeout...) are put
+ * back on return, so the next caller gets the statement as freshly prepared.
+ */
+class StatementCache {
+
+    // Per-statement settings a caller may change; restored through the matching getter's value
+    private static final Set<String> RESETTABLE = Set.of(
+            "setFetchSize", "setFetchDirection", "setMaxRows", "setLargeMaxRows",
+            "setMaxFieldSize", "setQueryTimeout", "setEscapeProcessing", "setPoolable");
+
+    private final Connection physical;
+    private final int capacity;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    private final LinkedHashMap<String, Entry> lru = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<Entry> checkedOut = new ArrayList<>();
+
+    StatementCache(Connection physical, int capacity,
+                   AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Returns a cached statement for the SQL text, or null when the only cached
+     * copy is still open by the caller (nested use), in which case the caller
+     * prepares a throwaway statement instead.
+     */
+    synchronized PreparedStatement checkout(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys + ":" + sql;
+        Entry entry = lru.get(key);
+
+        if (entry != null) {
+            if (entry.inUse) return null;
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            PreparedStatement ps = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS
+                    ? physical.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                    : physical.prepareStatement(sql);
+            entry = new Entry(ps);
+            lru.put(key, entry);
+            evictOverflow();
+        }
+
+        entry.inUse = true;
+        checkedOut.add(entry);
+        return entry.newHandle();
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = lru.entrySet().iterator();
+        while (lru.size() > capacity && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            evictions.incrementAndGet();
+            // Still open by a caller: close it when they are done
+            if (eldest.inUse) {
+                eldest.evicted = true;
+            } else {
+                eldest.closePhysical();
+            }
+        }
+    }
+
+    private synchronized void checkin(Entry entry) {
+        if (!entry.inUse) return;
+        entry.inUse = false;
+        checkedOut.remove(entry);
+
+        if (entry.evicted) {
+            entry.closePhysical();
+            return;
+        }
+        try {
+            entry.statement.clearParameters();
+            entry.statement.clearBatch();
+            entry.restoreSettings();
+        } catch (SQLException e) {
+            lru.values().remove(entry);
+            entry.closePhysical();
+        }
+    }
+
+    /** Called when the connection goes back to the pool. */
+    synchronized void returnAll() {
+        for (Entry entry : new ArrayList<>(checkedOut)) {
+            entry.handleClosed = true;
+            checkin(entry);
+        }
+    }
+
+    /** The physical statements currently handed out, for {@link QueryCancellation}. */
+    synchronized List<Statement> checkedOutStatements() {
+        List<Statement> result = new ArrayList<>(checkedOut.size());
+        for (Entry entry : checkedOut) {
+            result.add(entry.statement);
+        }
+        return result;
+    }
+
+    synchronized void closeAll() {
+        for (Entry entry : lru.values()) {
+            entry.closePhysical();
+        }
+        lru.clear();
+        checkedOut.clear();
+    }
+
+    private class Entry {
+        final PreparedStatement statement;
+        boolean inUse;
+        boolean evicted;
+        boolean handleClosed;
+        // Setter name -> the value it had before the current caller changed it
+        private final Map<String, Object> originals = new LinkedHashMap<>();
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        void rememberSetting(Method setter) throws ReflectiveOperationException {
+            if (originals.containsKey(setter.getName())) return;
+            // Escape processing has no getter; the JDBC default is on
+            String getter = setter.getName().equals("setEscapeProcessing") ? null
+                    : setter.getName().equals("setPoolable") ? "isPoolable"
+                    : "get" + setter.getName().substring(3);
+            Object original = getter == null ? Boolean.TRUE
+                    : PreparedStatement.class.getMethod(getter).invoke(statement);
+            originals.put(setter.getName(), original);
+        }
+
+        void restoreSettings() throws SQLException {
+            if (originals.isEmpty()) return;
+            // Row limits first: drivers may reject a fetch size above the current max rows
+            List<Map.Entry<String, Object>> settings = new ArrayList<>(originals.entrySet());
+            settings.sort(Comparator.comparing(setting -> !setting.getKey().contains("MaxRows")));
+            try {
+                for (Map.Entry<String, Object> original : settings) {
+                    Object value = original.getValue();
+                    Class<?> type = value instanceof Integer ? int.class
+                            : value instanceof Long ? long.class
+                            : boolean.class;
+                    PreparedStatement.class.getMethod(original.getKey(), type).invoke(statement, value);
+                }
+            } catch (InvocationTargetException e) {
+                throw e.getCause() instanceof SQLException sql ? sql : new SQLException(e.getCause());
+            } catch (ReflectiveOperationException e) {
+                throw new SQLException(e);
+            } finally {
+                originals.clear();
+            }
+        }
+
+        PreparedStatement newHandle() {
+            handleClosed = false;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new Handle()
+            );
+        }
+
+        void closePhysical() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {}
+        }
+
+        private class Handle implements InvocationHandler {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (!handleClosed) {
+                            handleClosed = true;
+                            checkin(Entry.this);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return handleClosed;
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "toString" -> {
+                        return "Cached[" + statement + "]";
+                    }
+                }
+                if (handleClosed) throw new SQLException("Statement is closed");
+                try {
+                    if (RESETTABLE.contains(method.getName())) rememberSetting(method);
+                    return method.invoke(statement, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+}
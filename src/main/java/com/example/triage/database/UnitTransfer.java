@@ -0,0 +1,168 @@
+package com.example.triage.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Moves a patient between units in a single transaction: free the old unit,
+ * occupy the new one and update the patient row, then one commit.
+ * Both unit updates go out as one JDBC batch guarded by the units.version
+ * read at the start, so a concurrent change to either unit is detected
+ * instead of overwritten. Deadlocks are retried, and so are version
+ * conflicts when the picker can choose another unit; a move to one fixed
+ * unit that is no longer free fails straight away.
+ * Both units are recorded in the {@link ChangeLog} with the same commit.
+ */
+public class UnitTransfer {
+
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BACKOFF_MS = 15;
+
+    // MySQL: deadlock, lock wait timeout
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+
+    /** Picks the target unit inside the transfer transaction; null means none free. */
+    @FunctionalInterface
+    public interface TargetPicker {
+        Integer pick(Connection c) throws SQLException;
+    }
+
+    /** Writes the patient side of the move (unit_id and anything else) in the same transaction. */
+    @FunctionalInterface
+    public interface PatientUpdate {
+        void apply(Connection c, int newUnitId) throws SQLException;
+    }
+
+    /** Where a {@link #transferFrom} moved the patient from and to. */
+    public record Move(int fromUnitId, int toUnitId) {}
+
+    private record UnitState(String status, int version) {}
+
+    private static class Conflict extends Exception {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static final String READ_SQL = "SELECT id, status, version FROM units WHERE id IN (?, ?)";
+    private static final String WRITE_SQL =
+            "UPDATE units SET status = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+    /**
+     * Runs the move. Returns the unit the patient now occupies, or null when the
+     * picker found no free unit or the target stayed contended after retries.
+     */
+    public Integer transfer(int fromUnitId, TargetPicker picker, PatientUpdate update) throws SQLException {
+        Move move = transfer(c -> fromUnitId, picker, update, true);
+        return move == null ? null : move.toUnitId();
+    }
+
+    /**
+     * Like {@link #transfer}, but the unit being left is read by {@code source}
+     * inside the same transaction, so it can lock the patient row first and a
+     * concurrent move or discharge cannot make it free the wrong unit. Null
+     * from {@code source} means there is nothing to move; the whole move then
+     * returns null too.
+     */
+    public Move transferFrom(TargetPicker source, TargetPicker picker, PatientUpdate update) throws SQLException {
+        return transfer(source, picker, update, true);
+    }
+
+    /**
+     * Moves to exactly {@code toUnitId}. Returns it, or null when it is no
+     * longer free; picking it again would only find the same answer.
+     */
+    public Integer transferTo(int fromUnitId, int toUnitId, PatientUpdate update) throws SQLException {
+        Move move = transfer(c -> fromUnitId, c -> toUnitId, update, false);
+        return move == null ? null : move.toUnitId();
+    }
+
+    private Move transfer(TargetPicker source, TargetPicker picker, PatientUpdate update,
+                          boolean retryConflicts) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try (Connection c = DBConnection.getConnection()) {
+                if (c == null) throw new SQLException("No database connection");
+                c.setAutoCommit(false);
+                try {
+                    Integer fromUnitId = source.pick(c);
+                    Integer target = fromUnitId == null ? null : picker.pick(c);
+                    if (target == null) {
+                        c.rollback();
+                        return null;
+                    }
+                    moveUnits(c, fromUnitId, target);
+                    update.apply(c, target);
+                    ChangeLog.record(c, ChangeLog.UNIT, fromUnitId, target);
+                    c.commit();
+                    return new Move(fromUnitId, target);
+                } catch (Conflict e) {
+                    c.rollback();
+                    if (!retryConflicts || attempt >= MAX_ATTEMPTS) return null;
+                } catch (SQLException e) {
+                    c.rollback();
+                    if (!isRetryable(e) || attempt >= MAX_ATTEMPTS) throw e;
+                }
+            }
+            backoff(attempt);
+        }
+    }
+
+    private void moveUnits(Connection c, int fromUnitId, int toUnitId) throws SQLException, Conflict {
+        Map<Integer, UnitState> states = new HashMap<>();
+        try (PreparedStatement ps = c.prepareStatement(READ_SQL)) {
+            ps.setInt(1, fromUnitId);
+            ps.setInt(2, toUnitId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    states.put(rs.getInt("id"), new UnitState(rs.getString("status"), rs.getInt("version")));
+                }
+            }
+        }
+
+        UnitState to = states.get(toUnitId);
+        if (to == null || !"AVAILABLE".equals(to.status())) throw new Conflict();
+        UnitState from = states.get(fromUnitId);
+
+        try (PreparedStatement ps = c.prepareStatement(WRITE_SQL)) {
+            // The old unit may already be gone (facility removed); nothing to free then
+            if (from != null) {
+                ps.setString(1, "AVAILABLE");
+                ps.setInt(2, fromUnitId);
+                ps.setInt(3, from.version());
+                ps.addBatch();
+            }
+            ps.setString(1, "OCCUPIED");
+            ps.setInt(2, toUnitId);
+            ps.setInt(3, to.version());
+            ps.addBatch();
+
+            for (int count : ps.executeBatch()) {
+                // SUCCESS_NO_INFO still means the row was written
+                if (count == 0) throw new Conflict();
+            }
+        }
+    }
+
+    static boolean isRetryable(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql) {
+                if ("40001".equals(sql.getSQLState())) return true;
+                if (sql.getErrorCode() == ER_LOCK_DEADLOCK || sql.getErrorCode() == ER_LOCK_WAIT_TIMEOUT) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(BACKOFF_MS * attempt + (long) (Math.random() * BACKOFF_MS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,8 +2,93 @@ package com.example.triage.database;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
 public class UserDAO {
+
+    /** Who a username/password pair logs in as; staffId is 0 for the administrator. */
+    public record Account(int userId, int staffId, String username, String role) {}
+
+    /** The matching account, or null when the credentials are wrong. */
+    public Account authenticate(String username, String password) throws SQLException {
+        String sql = """
+        SELECT u.id AS user_id,
+               u.staff_id,
+               u.role
+        FROM users u
+        WHERE u.username = ? AND u.password = ?
+    """;
+        try (Connection conn = connection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, username);
+            stmt.setString(2, password);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return null;
+                return new Account(
+                        rs.getInt("user_id"),
+                        rs.getInt("staff_id"),
+                        username,
+                        rs.getString("role").toUpperCase()
+                );
+            }
+        }
+    }
+
+    public boolean adminExists() throws SQLException {
+        String sql = "SELECT COUNT(*) FROM users WHERE role = 'admin'";
+        try (Connection conn = connection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+
+    public void createAdmin(String username, String password) throws SQLException {
+        String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, 'admin')";
+        try (Connection conn = connection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, username);
+            stmt.setString(2, password); // (hashing later if required)
+            stmt.executeUpdate();
+        }
+    }
+
+    /** Changes an administrator's password; false when the current one does not match. */
+    public boolean changeAdminPassword(String username, String currentPassword, String newPassword)
+            throws SQLException {
+        String verifySql = "SELECT id, password FROM users WHERE username = ? AND role = 'admin'";
+        String updateSql = "UPDATE users SET password = ? WHERE username = ? AND role = 'admin'";
+
+        try (Connection conn = connection()) {
+            try (PreparedStatement verifyStmt = conn.prepareStatement(verifySql)) {
+                verifyStmt.setString(1, username);
+                try (ResultSet rs = verifyStmt.executeQuery()) {
+                    // TODO: Use password hashing (BCrypt, PBKDF2, etc.) for security
+                    if (!rs.next()) {
+                        System.err.println("Admin user not found");
+                        return false;
+                    }
+                    if (!rs.getString("password").equals(currentPassword)) {
+                        System.err.println("Current password incorrect");
+                        return false;
+                    }
+                }
+            }
+            try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
+                updateStmt.setString(1, newPassword); // Plain text (NOT SECURE!)
+                updateStmt.setString(2, username);
+                return updateStmt.executeUpdate() > 0;
+            }
+        }
+    }
+
+    private static Connection connection() throws SQLException {
+        Connection conn = DBConnection.getConnection();
+        if (conn == null) throw new SQLException("No database connection");
+        return conn;
+    }
+
     public void createUser(int staffId, String username, String password, String role) {
         String sql = """
         INSERT INTO users (staff_id, username, password, role)
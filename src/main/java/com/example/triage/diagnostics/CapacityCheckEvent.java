@@ -0,0 +1,50 @@
+package com.example.triage.diagnostics;
+
+import javafx.application.Platform;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+
+/** Flight Recorder event for one capacity check and the alert level it settled on. */
+@Name("com.example.triage.CapacityCheck")
+@Label("Capacity Check")
+@Category({"Triage", "Capacity"})
+@Description("Occupancy compared against the warning thresholds")
+@StackTrace(false)
+public class CapacityCheckEvent extends Event {
+
+    @Label("Occupancy")
+    @Percentage
+    double occupancy;
+
+    @Label("Level")
+    @Description("NORMAL, WARNING or CRITICAL")
+    String level;
+
+    @Label("FX Thread")
+    boolean fxThread;
+
+    @Label("Thread Name")
+    String threadName;
+
+    public static CapacityCheckEvent start() {
+        CapacityCheckEvent event = new CapacityCheckEvent();
+        event.begin();
+        return event;
+    }
+
+    /** {@code percent} is 0-100, as the monitor reports it. */
+    public void finish(double percent, String level) {
+        end();
+        if (!shouldCommit()) return;
+        occupancy = percent / 100;
+        this.level = level;
+        fxThread = Platform.isFxApplicationThread();
+        threadName = Thread.currentThread().getName();
+        commit();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.triage.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for an FX thread stall seen by {@link FxWatchdog}.
+ * Committed when the thread recovers, so the stall length is a field rather
+ * than the event duration; the stack is the one sampled while it was blocked.
+ */
+@Name("com.example.triage.FxStall")
+@Label("FX Thread Stall")
+@Category({"Triage", "UI"})
+@Description("The FX Application Thread went without a pulse for longer than the threshold")
+@StackTrace(false)
+public class FxStallEvent extends Event {
+
+    @Label("Blocked")
+    @Timespan(Timespan.NANOSECONDS)
+    long blocked;
+
+    @Label("Screen")
+    String screen;
+
+    @Label("Blocked In")
+    @Description("The first application frame of the sampled FX thread stack")
+    String blockedIn;
+
+    @Label("Stack")
+    String stack;
+
+    static void emit(long nanos, String screen, StackTraceElement[] sampled) {
+        FxStallEvent event = new FxStallEvent();
+        if (!event.isEnabled()) return;
+        event.blocked = nanos;
+        event.screen = screen;
+        if (sampled != null) {
+            StringBuilder frames = new StringBuilder();
+            for (StackTraceElement frame : sampled) {
+                if (event.blockedIn == null && frame.getClassName().startsWith("com.example.triage.")
+                        && !StatementEvent.isPlumbing(frame.getClassName())) {
+                    event.blockedIn = frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                            + "." + frame.getMethodName();
+                }
+                frames.append(frame).append('\n');
+            }
+            event.stack = frames.toString();
+        }
+        event.commit();
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.triage.diagnostics;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the FX Application Thread. An animation timer timestamps every
+ * pulse, so the gaps between pulses are the frame latency the user sees; a
+ * daemon thread notices when no pulse has arrived for longer than the stall
+ * threshold and samples the FX thread's stack while it is still blocked. The
+ * stall is logged with that stack and the screen that was showing.
+ * <p>
+ * Off unless asked for: a running animation timer makes JavaFX render a
+ * pulse every frame, so an idle workstation would keep drawing and using
+ * CPU for as long as the watchdog runs. Turn it on to chase UI stalls.
+ *
+ * <pre>
+ * -Dtriage.fx.watchdog=true      turn it on
+ * -Dtriage.fx.stallMs=250        stall threshold
+ * -Dtriage.fx.frameWindow=600    pulses kept for p50/p99 (about 10 s at 60 fps)
+ * </pre>
+ */
+public class FxWatchdog {
+
+    private static final boolean ENABLED =
+            Boolean.getBoolean("triage.fx.watchdog");
+    private static final long STALL_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("triage.fx.stallMs", 250));
+    private static final int WINDOW = Integer.getInteger("triage.fx.frameWindow", 600);
+    private static final int RECENT_STALLS = 20;
+    private static final int STACK_DEPTH = 30;
+
+    private static FxWatchdog instance;
+
+    /** Rolling frame latency over the last {@code triage.fx.frameWindow} pulses. */
+    public record FrameStats(int frames, double p50Ms, double p99Ms, double maxMs, double sumMs, long stalls) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "frames=%d p50=%.1fms p99=%.1fms max=%.1fms stalls=%d",
+                    frames, p50Ms, p99Ms, maxMs, stalls);
+        }
+    }
+
+    /** One stall: how long the FX thread went without a pulse and where it was. */
+    public record Stall(Instant at, double millis, String screen, List<StackTraceElement> stack) {}
+
+    private AnimationTimer timer;
+    private Thread fxThread;
+    private Thread watcher;
+
+    private volatile long lastPulse;
+    private volatile String activeScreen = "(none)";
+
+    // Sampled by the watcher while the FX thread is stuck, for the pulse that ends the stall
+    private volatile long sampledFor;
+    private volatile StackTraceElement[] sampledStack;
+
+    private final long[] intervals = new long[WINDOW];
+    private int intervalCount;
+    private int intervalNext;
+    private long stallCount;
+    private final ArrayDeque<Stall> recentStalls = new ArrayDeque<>();
+
+    private FxWatchdog() {}
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static synchronized FxWatchdog getInstance() {
+        if (instance == null) {
+            instance = new FxWatchdog();
+        }
+        return instance;
+    }
+
+    /** Starts watching; call on the FX thread. */
+    public synchronized void start() {
+        if (!ENABLED || timer != null) return;
+        if (!Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("FxWatchdog must be started on the FX thread");
+        }
+        fxThread = Thread.currentThread();
+        lastPulse = System.nanoTime();
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onPulse(System.nanoTime());
+            }
+        };
+        timer.start();
+
+        watcher = new Thread(this::watch, "fx-watchdog");
+        watcher.setDaemon(true);
+        watcher.start();
+        System.out.println("✅ FX watchdog started (stall threshold "
+                + TimeUnit.NANOSECONDS.toMillis(STALL_NANOS) + " ms)");
+    }
+
+    public synchronized void stop() {
+        if (timer == null) return;
+        timer.stop();
+        timer = null;
+        watcher.interrupt();
+        watcher = null;
+        System.out.println("📊 Frame latency: " + getFrameStats());
+    }
+
+    /** The screen stalls are attributed to, e.g. the FXML the dashboard loaded. */
+    public void setActiveScreen(String screen) {
+        activeScreen = screen;
+    }
+
+    public String getActiveScreen() {
+        return activeScreen;
+    }
+
+    // ================= PULSES =================
+
+    private void onPulse(long now) {
+        long previous = lastPulse;
+        lastPulse = now;
+        long interval = now - previous;
+
+        synchronized (intervals) {
+            intervals[intervalNext] = interval;
+            intervalNext = (intervalNext + 1) % WINDOW;
+            if (intervalCount < WINDOW) intervalCount++;
+        }
+
+        if (interval >= STALL_NANOS) {
+            StackTraceElement[] stack = sampledFor == previous ? sampledStack : null;
+            recordStall(interval, stack);
+        }
+    }
+
+    private void recordStall(long nanos, StackTraceElement[] stack) {
+        Stall stall = new Stall(
+                Instant.now().minusNanos(nanos),
+                nanos / 1_000_000.0,
+                activeScreen,
+                stack == null ? List.of() : List.of(stack)
+        );
+        synchronized (recentStalls) {
+            stallCount++;
+            if (recentStalls.size() == RECENT_STALLS) recentStalls.removeFirst();
+            recentStalls.addLast(stall);
+        }
+
+        FxStallEvent.emit(nanos, stall.screen(), stack);
+        System.out.println(String.format(Locale.ROOT, "✅ FX thread responsive again after %.0f ms on %s",
+                stall.millis(), stall.screen()));
+    }
+
+    // Watcher thread: samples the FX stack once per stall, while it is still blocked
+    private void watch() {
+        long pollMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(STALL_NANOS) / 4, 10);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long pulse = lastPulse;
+            long blocked = System.nanoTime() - pulse;
+            if (blocked < STALL_NANOS || sampledFor == pulse) continue;
+
+            StackTraceElement[] stack = fxThread.getStackTrace();
+            sampledStack = stack.length > STACK_DEPTH ? Arrays.copyOf(stack, STACK_DEPTH) : stack;
+            sampledFor = pulse;
+            System.out.println(formatStall(blocked / 1_000_000.0, activeScreen, sampledStack));
+        }
+    }
+
+    private static String formatStall(double millis, String screen, StackTraceElement[] stack) {
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT,
+                "⚠️ FX thread blocked for %.0f ms on %s:", millis, screen));
+        for (StackTraceElement frame : stack) {
+            out.append("\n\tat ").append(frame);
+        }
+        return out.toString();
+    }
+
+    // ================= READING =================
+
+    public FrameStats getFrameStats() {
+        long[] window;
+        synchronized (intervals) {
+            window = Arrays.copyOf(intervals, intervalCount);
+        }
+        long stalls;
+        synchronized (recentStalls) {
+            stalls = stallCount;
+        }
+        if (window.length == 0) return new FrameStats(0, 0, 0, 0, 0, stalls);
+
+        Arrays.sort(window);
+        long sum = 0;
+        for (long interval : window) {
+            sum += interval;
+        }
+        return new FrameStats(window.length,
+                millis(percentile(window, 0.50)),
+                millis(percentile(window, 0.99)),
+                millis(window[window.length - 1]),
+                millis(sum),
+                stalls);
+    }
+
+    /** Recent stalls, newest first. */
+    public List<Stall> getRecentStalls() {
+        synchronized (recentStalls) {
+            List<Stall> result = new ArrayList<>(recentStalls);
+            Collections.reverse(result);
+            return result;
+        }
+    }
+
+    /** Frame latency in the Prometheus text format, to sit next to the query metrics; empty when off. */
+    public String toPrometheus() {
+        if (!ENABLED) return "";
+        FrameStats stats = getFrameStats();
+        return "# HELP triage_fx_frame_interval_seconds Time between JavaFX pulses over the rolling window.\n"
+                + "# TYPE triage_fx_frame_interval_seconds summary\n"
+                + "triage_fx_frame_interval_seconds{quantile=\"0.5\"} " + seconds(stats.p50Ms()) + "\n"
+                + "triage_fx_frame_interval_seconds{quantile=\"0.99\"} " + seconds(stats.p99Ms()) + "\n"
+                + "triage_fx_frame_interval_seconds_sum " + seconds(stats.sumMs()) + "\n"
+                + "triage_fx_frame_interval_seconds_count " + stats.frames() + "\n"
+                + "# HELP triage_fx_stalls_total Pulses that came later than the stall threshold.\n"
+                + "# TYPE triage_fx_stalls_total counter\n"
+                + "triage_fx_stalls_total " + stats.stalls() + "\n";
+    }
+
+    private static long percentile(long[] sorted, double q) {
+        int index = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String seconds(double millis) {
+        return String.format(Locale.ROOT, "%.4f", millis / 1000);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.triage.diagnostics;
+
+import javafx.application.Platform;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.List;
+
+/**
+ * Flight Recorder event for one statement execution through the pool, from
+ * execute until its result set was read to the end or closed. Carries the
+ * same statement id as the query diagnostics, and the DAO method that ran it.
+ */
+@Name("com.example.triage.Statement")
+@Label("SQL Statement")
+@Category({"Triage", "Database"})
+@Description("A statement executed through the connection pool")
+public class StatementEvent extends Event {
+
+    // Frames between the DAO and the driver, including proxies and lambdas
+    private static final List<String> PLUMBING = List.of(
+            "com.example.triage.database.InstrumentedStatement",
+            "com.example.triage.database.ConnectionPool$Handle",
+            "com.example.triage.database.StatementCache$Entry$Handle",
+            "com.example.triage.diagnostics.StatementEvent",
+            "java.",
+            "jdk.",
+            "com.sun."
+    );
+
+    @Label("Statement Id")
+    String statementId;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Rows")
+    @Description("Update count, or rows read from the result set; -1 when unknown")
+    long rows;
+
+    @Label("Failed")
+    boolean failed;
+
+    @Label("Caller")
+    @Description("The DAO or service method that ran the statement")
+    String caller;
+
+    @Label("FX Thread")
+    boolean fxThread;
+
+    @Label("Thread Name")
+    String threadName;
+
+    public static StatementEvent start() {
+        StatementEvent event = new StatementEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String statementId, String sql, long rows, boolean failed) {
+        end();
+        if (!shouldCommit()) return;
+        this.statementId = statementId;
+        this.sql = sql;
+        this.rows = rows;
+        this.failed = failed;
+        caller = caller();
+        fxThread = Platform.isFxApplicationThread();
+        threadName = Thread.currentThread().getName();
+        commit();
+    }
+
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> !isPlumbing(f.getClassName()))
+                .findFirst()
+                .map(f -> simpleName(f.getClassName()) + "." + f.getMethodName())
+                .orElse(null));
+    }
+
+    static boolean isPlumbing(String className) {
+        for (String prefix : PLUMBING) {
+            if (className.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+}
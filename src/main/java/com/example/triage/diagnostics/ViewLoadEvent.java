@@ -0,0 +1,62 @@
+package com.example.triage.diagnostics;
+
+import javafx.application.Platform;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one phase of a screen refresh: the background
+ * {@code load}, or the {@code render} that runs on the FX thread. A recording
+ * made with {@code -XX:StartFlightRecording=filename=triage.jfr} then shows
+ * which view spent how long where:
+ *
+ * <pre>
+ * jfr print --categories Triage triage.jfr
+ * </pre>
+ */
+@Name("com.example.triage.ViewLoad")
+@Label("View Load")
+@Category({"Triage", "UI"})
+@Description("One phase of a screen refresh")
+@StackTrace(false)
+public class ViewLoadEvent extends Event {
+
+    @Label("View")
+    String view;
+
+    @Label("Phase")
+    @Description("load (background), render (FX thread) or submit")
+    String phase;
+
+    @Label("Items")
+    @Description("Rows loaded or shown")
+    int items;
+
+    @Label("FX Thread")
+    boolean fxThread;
+
+    @Label("Thread Name")
+    String threadName;
+
+    /** Starts timing a phase; finish it on the same thread. */
+    public static ViewLoadEvent begin(String view, String phase) {
+        ViewLoadEvent event = new ViewLoadEvent();
+        event.view = view;
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    public void finish(int items) {
+        end();
+        if (!shouldCommit()) return;
+        this.items = items;
+        fxThread = Platform.isFxApplicationThread();
+        threadName = Thread.currentThread().getName();
+        commit();
+    }
+}
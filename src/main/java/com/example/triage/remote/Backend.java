@@ -0,0 +1,41 @@
+package com.example.triage.remote;
+
+import com.example.triage.database.FacilityDAO;
+import com.example.triage.database.FloorDAO;
+import com.example.triage.database.PatientDAO;
+import com.example.triage.database.StaffDAO;
+import com.example.triage.database.UserDAO;
+import com.example.triage.services.FacilityProvisioner;
+
+/**
+ * Picks the DAO implementations for this process: JDBC by default, or the
+ * HTTP-backed ones when {@link TriageClient#isEnabled() client mode} is on.
+ */
+public final class Backend {
+
+    private Backend() {}
+
+    public static PatientDAO patientDAO() {
+        return TriageClient.isEnabled() ? new RemotePatientDAO() : new PatientDAO();
+    }
+
+    public static FacilityDAO facilityDAO() {
+        return TriageClient.isEnabled() ? new RemoteFacilityDAO() : new FacilityDAO();
+    }
+
+    public static FloorDAO floorDAO() {
+        return TriageClient.isEnabled() ? new RemoteFloorDAO() : new FloorDAO();
+    }
+
+    public static StaffDAO staffDAO() {
+        return TriageClient.isEnabled() ? new RemoteStaffDAO() : new StaffDAO();
+    }
+
+    public static UserDAO userDAO() {
+        return TriageClient.isEnabled() ? new RemoteUserDAO() : new UserDAO();
+    }
+
+    public static FacilityProvisioner facilityProvisioner() {
+        return TriageClient.isEnabled() ? new RemoteFacilityProvisioner() : new FacilityProvisioner();
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.triage.remote;
+
+import com.example.triage.database.FacilityDAO;
+import com.example.triage.database.Patient;
+import com.example.triage.database.PatientPage;
+import com.example.triage.database.Staff;
+import com.example.triage.database.UserDAO;
+import com.example.triage.services.CapacityTracker.Capacity;
+import com.example.triage.services.DashboardSnapshot;
+import com.example.triage.services.DashboardSnapshot.Admission;
+import com.example.triage.services.DashboardSnapshot.FacilityLoad;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the domain objects the API serves to and from the plain maps
+ * {@link Json} reads and writes. Field names are the wire contract between
+ * {@link TriageHttpApi} and {@link TriageClient}.
+ */
+final class Codec {
+
+    private Codec() {}
+
+    // ================= PATIENT =================
+
+    static Map<String, Object> patient(Patient p) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", p.getId());
+        m.put("patientCode", p.getPatientCode());
+        m.put("fullName", p.getFullName());
+        m.put("age", p.getAge());
+        m.put("gender", p.getGender());
+        m.put("severity", p.getSeverity());
+        m.put("admissionDate", p.getAdmissionDate() == null ? null : p.getAdmissionDate().getTime());
+        m.put("unitId", p.getUnitId());
+        m.put("unitLabel", p.getUnitLabel());
+        m.put("facilityName", p.getFacilityName());
+        m.put("floorNumber", p.getFloorNumber());
+        m.put("referralStatus", p.getReferralStatus());
+        m.put("referralFacility", p.getReferralFacility());
+        m.put("referralFloor", p.getReferralFloor());
+        return m;
+    }
+
+    static Patient patient(Map<String, Object> m) {
+        Long admitted = (Long) m.get("admissionDate");
+        Patient p = new Patient(
+                integer(m, "id"),
+                (String) m.get("patientCode"),
+                (String) m.get("fullName"),
+                integer(m, "age"),
+                (String) m.get("gender"),
+                (String) m.get("severity"),
+                admitted == null ? null : new Timestamp(admitted),
+                integer(m, "unitId"),
+                (String) m.get("unitLabel"),
+                (String) m.get("facilityName"),
+                integer(m, "floorNumber")
+        );
+        p.setReferralStatus((String) m.get("referralStatus"));
+        p.setReferralFacility((String) m.get("referralFacility"));
+        p.setReferralFloor(integer(m, "referralFloor"));
+        return p;
+    }
+
+    static Map<String, Object> pageKey(PatientPage.Key k) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", k.id());
+        m.put("admissionDate", k.admissionDate() == null ? null : k.admissionDate().getTime());
+        m.put("unitLabel", k.unitLabel());
+        return m;
+    }
+
+    static PatientPage.Key pageKey(Map<String, Object> m) {
+        Long admitted = (Long) m.get("admissionDate");
+        return new PatientPage.Key(
+                integer(m, "id"),
+                admitted == null ? null : new Timestamp(admitted),
+                (String) m.get("unitLabel")
+        );
+    }
+
+    // ================= UNITS =================
+
+    static Map<String, Object> unit(FacilityDAO.Unit u) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", u.id());
+        m.put("label", u.label());
+        m.put("status", u.status());
+        return m;
+    }
+
+    static FacilityDAO.Unit unit(Map<String, Object> m) {
+        return new FacilityDAO.Unit(integer(m, "id"), (String) m.get("label"), (String) m.get("status"));
+    }
+
+    // ================= USERS / STAFF =================
+
+    static Map<String, Object> account(UserDAO.Account a) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("userId", a.userId());
+        m.put("staffId", a.staffId());
+        m.put("username", a.username());
+        m.put("role", a.role());
+        return m;
+    }
+
+    static UserDAO.Account account(Map<String, Object> m) {
+        return new UserDAO.Account(
+                integer(m, "userId"),
+                integer(m, "staffId"),
+                (String) m.get("username"),
+                (String) m.get("role")
+        );
+    }
+
+    static Map<String, Object> staff(Staff s) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", s.getId());
+        m.put("name", s.getName());
+        m.put("role", s.getRole());
+        m.put("facility", s.getFacility());
+        m.put("onShift", s.isOnShift());
+        return m;
+    }
+
+    static Staff staff(Map<String, Object> m) {
+        return new Staff(
+                integer(m, "id"),
+                (String) m.get("name"),
+                (String) m.get("role"),
+                (String) m.get("facility"),
+                Boolean.TRUE.equals(m.get("onShift"))
+        );
+    }
+
+    // ================= CAPACITY / DASHBOARD =================
+
+    static Map<String, Object> capacity(Capacity c) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("occupied", c.occupied());
+        m.put("total", c.total());
+        return m;
+    }
+
+    static Capacity capacity(Map<String, Object> m) {
+        return new Capacity(integer(m, "occupied"), integer(m, "total"));
+    }
+
+    static Map<String, Object> snapshot(DashboardSnapshot s) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("takenAt", s.getTakenAt().toEpochMilli());
+        m.put("staffOnShift", s.getStaffOnShift());
+        m.put("admittedPatients", s.getAdmittedPatients());
+        m.put("criticalPatients", s.getCriticalPatients());
+        m.put("availableUnits", s.getAvailableUnits());
+        m.put("totalUnits", s.getTotalUnits());
+        m.put("occupiedUnits", s.getOccupiedUnits());
+
+        List<Object> loads = new ArrayList<>();
+        for (FacilityLoad f : s.getFacilityLoads()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", f.name());
+            row.put("occupied", f.occupied());
+            row.put("total", f.total());
+            loads.add(row);
+        }
+        m.put("facilityLoads", loads);
+
+        List<Object> recent = new ArrayList<>();
+        for (Admission a : s.getRecentAdmissions()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("code", a.code());
+            row.put("name", a.name());
+            row.put("admitted", a.admitted() == null ? null : a.admitted().getTime());
+            row.put("severity", a.severity());
+            recent.add(row);
+        }
+        m.put("recentAdmissions", recent);
+        m.put("criticalPatientNames", s.getCriticalPatientNames());
+        return m;
+    }
+
+    @SuppressWarnings("unchecked")
+    static DashboardSnapshot snapshot(Map<String, Object> m) {
+        List<FacilityLoad> loads = new ArrayList<>();
+        for (Object o : (List<Object>) m.get("facilityLoads")) {
+            Map<String, Object> row = (Map<String, Object>) o;
+            loads.add(new FacilityLoad((String) row.get("name"), integer(row, "occupied"), integer(row, "total")));
+        }
+        List<Admission> recent = new ArrayList<>();
+        for (Object o : (List<Object>) m.get("recentAdmissions")) {
+            Map<String, Object> row = (Map<String, Object>) o;
+            Long admitted = (Long) row.get("admitted");
+            recent.add(new Admission(
+                    (String) row.get("code"),
+                    (String) row.get("name"),
+                    admitted == null ? null : new Timestamp(admitted),
+                    (String) row.get("severity")
+            ));
+        }
+        List<String> critical = new ArrayList<>();
+        for (Object o : (List<Object>) m.get("criticalPatientNames")) {
+            critical.add((String) o);
+        }
+        return new DashboardSnapshot(
+                Instant.ofEpochMilli((Long) m.get("takenAt")),
+                integer(m, "staffOnShift"),
+                integer(m, "admittedPatients"),
+                integer(m, "criticalPatients"),
+                integer(m, "availableUnits"),
+                integer(m, "totalUnits"),
+                integer(m, "occupiedUnits"),
+                loads,
+                recent,
+                critical
+        );
+    }
+
+    static int integer(Map<String, Object> m, String key) {
+        Object v = m.get(key);
+        return v == null ? 0 : ((Number) v).intValue();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.triage.remote;
+
+import com.example.triage.database.FacilityDAO;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** {@link FacilityDAO} served by a {@link com.example.triage.TriageServer}. */
+public class RemoteFacilityDAO extends FacilityDAO {
+
+    private final TriageClient client = TriageClient.getInstance();
+
+    @Override
+    public String getFacilityTypeByUnitId(int unitId) {
+        return type("unitId", unitId);
+    }
+
+    @Override
+    public List<String> getAllFacilities() {
+        return names();
+    }
+
+    @Override
+    public int getFacilityIdByName(String name) {
+        try {
+            return Codec.integer(map(client.get("facilities/id", "name", name)), "id");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
+    public List<String> getFacilitiesByType(String type) {
+        return names("type", type);
+    }
+
+    @Override
+    public String getFacilityTypeByName(String facilityName) {
+        return type("name", facilityName);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Unit> getUnits(String facility, int floor) {
+        List<Unit> units = new ArrayList<>();
+        try {
+            for (Object row : (List<Object>) client.get("units", "facility", facility, "floor", floor)) {
+                units.add(Codec.unit((Map<String, Object>) row));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return units;
+    }
+
+    @Override
+    public void setUnitStatus(int unitId, String status) {
+        try {
+            client.post("units/" + unitId + "/status", "status", status);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public int countUnits(String facility, int floor, String kind) {
+        try {
+            return Codec.integer(map(client.get("units/count", "facility", facility, "floor", floor, "kind", kind)),
+                    "count");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    @Override
+    public DeleteOutcome deleteSelection(int facilityId, Integer floor, int beds, int rooms) {
+        try {
+            Object result = client.delete("facilities/" + facilityId,
+                    "floor", floor, "beds", beds, "rooms", rooms);
+            return DeleteOutcome.valueOf((String) map(result).get("outcome"));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return DeleteOutcome.FAILED;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> names(Object... params) {
+        try {
+            return (List<String>) (List<?>) client.get("facilities", params);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    private String type(String key, Object value) {
+        try {
+            return (String) map(client.get("facilities/type", key, value)).get("type");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object json) {
+        return (Map<String, Object>) json;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.triage.remote;
+
+import com.example.triage.services.FacilityProvisioner;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.function.DoubleConsumer;
+
+/**
+ * {@link FacilityProvisioner} run by a {@link com.example.triage.TriageServer}:
+ * the whole layout is written there in its one transaction, so progress is
+ * only reported once, when it has committed.
+ */
+public class RemoteFacilityProvisioner extends FacilityProvisioner {
+
+    private final TriageClient client = TriageClient.getInstance();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int provision(Layout layout, DoubleConsumer progress) throws SQLException {
+        Map<String, Object> m;
+        try {
+            m = (Map<String, Object>) client.post("facilities",
+                    "name", layout.name(), "type", layout.type(), "floors", layout.floors(),
+                    "bedsPerFloor", layout.bedsPerFloor(), "roomsPerFloor", layout.roomsPerFloor());
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+        progress.accept(1.0);
+        return Codec.integer(m, "id");
+    }
+}
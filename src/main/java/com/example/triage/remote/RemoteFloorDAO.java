@@ -0,0 +1,51 @@
+package com.example.triage.remote;
+
+import com.example.triage.database.FloorDAO;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** {@link FloorDAO} served by a {@link com.example.triage.TriageServer}. */
+public class RemoteFloorDAO extends FloorDAO {
+
+    private final TriageClient client = TriageClient.getInstance();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> getFloorsByFacility(int facilityId) {
+        try {
+            return (List<String>) (List<?>) client.get("floors", "facilityId", facilityId);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<Integer> getFloorNumbers(int facilityId) {
+        List<Integer> floors = new ArrayList<>();
+        try {
+            for (Object floor : (List<?>) client.get("floors/numbers", "facilityId", facilityId)) {
+                floors.add(((Number) floor).intValue());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return floors;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int getFloorId(int facilityId, int floorNumber) {
+        try {
+            Map<String, Object> m = (Map<String, Object>) client.get("floors/id",
+                    "facilityId", facilityId, "floorNumber", floorNumber);
+            return Codec.integer(m, "id");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+}
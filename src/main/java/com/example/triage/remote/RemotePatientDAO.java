@@ -0,0 +1,192 @@
+package com.example.triage.remote;
+
+import com.example.triage.database.Patient;
+import com.example.triage.database.PatientDAO;
+import com.example.triage.database.PatientPage;
+import com.example.triage.database.SortMode;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * {@link PatientDAO} served by a {@link com.example.triage.TriageServer}.
+ * {@link #streamPatientsFiltered} is inherited: it walks
+ * {@link #getPatientsPage}, which is a server call here.
+ */
+public class RemotePatientDAO extends PatientDAO {
+
+    private final TriageClient client = TriageClient.getInstance();
+
+    @Override
+    public List<Patient> getPatientsFiltered(String facility, Integer floor, String severity,
+                                             String search, SortMode sort) {
+        try {
+            return patients(client.get("patients",
+                    "facility", facility,
+                    "floor", floor,
+                    "severity", severity,
+                    "search", search,
+                    "sort", sort == null ? null : sort.name()));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    @Override
+    public PatientPage getPatientsPage(String facility, Integer floor, String severity, String search,
+                                       SortMode sort, PatientPage.Key after, int pageSize) throws SQLException {
+        try {
+            Map<String, Object> m = map(client.get("patients/page",
+                    "facility", facility,
+                    "floor", floor,
+                    "severity", severity,
+                    "search", search,
+                    "sort", sort == null ? null : sort.name(),
+                    "size", pageSize,
+                    "afterId", after == null ? null : after.id(),
+                    "afterDate", after == null || after.admissionDate() == null ? null : after.admissionDate().getTime(),
+                    "afterLabel", after == null ? null : after.unitLabel()));
+            Object next = m.get("next");
+            return new PatientPage(patients(m.get("patients")), next == null ? null : Codec.pageKey(map(next)));
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Patient getPatientById(int patientId) {
+        try {
+            return Codec.patient(map(client.get("patients/" + patientId)));
+        } catch (IOException e) {
+            // 404 when the patient is no longer admitted
+            return null;
+        }
+    }
+
+    @Override
+    public List<Patient> getPatientsByIds(Collection<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) return new ArrayList<>();
+        try {
+            return patients(client.get("patients/batch",
+                    "ids", ids.stream().map(String::valueOf).collect(Collectors.joining(","))));
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void addPatientAutoAssign(String fullName, int age, String gender, String diagnosis, String severity) {
+        post("patients",
+                "fullName", fullName, "age", age, "gender", gender,
+                "diagnosis", diagnosis, "severity", severity);
+    }
+
+    @Override
+    public void dischargePatient(int patientId, int unitId) {
+        post("patients/" + patientId + "/discharge", "unitId", unitId);
+    }
+
+    @Override
+    public EditOutcome updatePatientEditAutoAssign(int patientId, int oldUnitId, Integer newUnitId,
+                                                   String diagnosis, String severity) {
+        try {
+            Object outcome = map(client.post("patients/" + patientId + "/edit",
+                    "oldUnitId", oldUnitId, "newUnitId", newUnitId,
+                    "diagnosis", diagnosis, "severity", severity)).get("outcome");
+            return outcome == null ? EditOutcome.FAILED : EditOutcome.valueOf((String) outcome);
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return EditOutcome.FAILED;
+        }
+    }
+
+    @Override
+    public void requestReferral(int patientId, String facility, String floor) {
+        post("patients/" + patientId + "/referral", "facility", facility, "floor", floor);
+    }
+
+    @Override
+    public ReferralOutcome approveReferral(int patientId) {
+        try {
+            Object outcome = map(client.post("patients/" + patientId + "/referral/approve")).get("outcome");
+            return outcome == null ? ReferralOutcome.FAILED : ReferralOutcome.valueOf((String) outcome);
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return ReferralOutcome.FAILED;
+        }
+    }
+
+    @Override
+    public void declineReferral(int patientId) {
+        post("patients/" + patientId + "/referral/decline");
+    }
+
+    @Override
+    public String getDiagnosisByPatientId(int id) {
+        try {
+            Object diagnosis = ((Map<?, ?>) client.get("patients/" + id + "/diagnosis")).get("diagnosis");
+            return diagnosis == null ? "" : (String) diagnosis;
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> getAvailableUnits(String facility, int floor) {
+        try {
+            return (List<String>) (List<?>) client.get("units/available", "facility", facility, "floor", floor);
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public int getUnitIdByLabel(String label) {
+        try {
+            return Codec.integer(map(client.get("units/id", "label", label)), "unitId");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
+    public Integer findAvailableUnit(String facility, int floor) {
+        try {
+            Object unitId = map(client.get("units/find", "facility", facility, "floor", floor)).get("unitId");
+            return unitId == null ? null : ((Number) unitId).intValue();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private void post(String path, Object... params) {
+        try {
+            client.post(path, params);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Patient> patients(Object json) {
+        List<Patient> list = new ArrayList<>();
+        for (Object row : (List<Object>) json) {
+            list.add(Codec.patient((Map<String, Object>) row));
+        }
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object json) {
+        return (Map<String, Object>) json;
+    }
+}
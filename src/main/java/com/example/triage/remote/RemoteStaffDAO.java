@@ -0,0 +1,92 @@
+package com.example.triage.remote;
+
+import com.example.triage.database.Staff;
+import com.example.triage.database.StaffDAO;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/** {@link StaffDAO} served by a {@link com.example.triage.TriageServer}. */
+public class RemoteStaffDAO extends StaffDAO {
+
+    private final TriageClient client = TriageClient.getInstance();
+
+    @Override
+    public List<Staff> getAllStaff() {
+        try {
+            return staff(client.get("staff"));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<Staff> getStaffByIds(Collection<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) return new ArrayList<>();
+        try {
+            return staff(client.get("staff", "ids", ids.stream().map(String::valueOf).collect(Collectors.joining(","))));
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getStaffName(int staffId) throws SQLException {
+        try {
+            return (String) ((Map<?, ?>) client.get("staff/" + staffId + "/name")).get("name");
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int addStaff(String fullName, String role, int facilityId, int floorId) {
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> m = (Map<String, Object>) client.post("staff",
+                    "fullName", fullName, "role", role, "facilityId", facilityId, "floorId", floorId);
+            return Codec.integer(m, "id");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
+    public void updateStaff(int id, String role, int facilityId, int floorId) {
+        post("staff/" + id, "role", role, "facilityId", facilityId, "floorId", floorId);
+    }
+
+    @Override
+    public void setOnShift(int staffId, boolean onShift) {
+        post("staff/" + staffId + "/shift", "onShift", onShift);
+    }
+
+    @Override
+    public void deleteStaff(int id) {
+        post("staff/" + id + "/delete");
+    }
+
+    private void post(String path, Object... params) {
+        try {
+            client.post(path, params);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Staff> staff(Object json) {
+        List<Staff> list = new ArrayList<>();
+        for (Object row : (List<Object>) json) {
+            list.add(Codec.staff((Map<String, Object>) row));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.triage.remote;
+
+import com.example.triage.database.UserDAO;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * {@link UserDAO} served by a {@link com.example.triage.TriageServer}.
+ * Logging in here also opens the server session every other remote DAO
+ * call runs under. Transport failures surface as SQLException, as they
+ * would from the database, so the login and setup screens report them the
+ * same way.
+ */
+public class RemoteUserDAO extends UserDAO {
+
+    private final TriageClient client = TriageClient.getInstance();
+
+    @Override
+    public Account authenticate(String username, String password) throws SQLException {
+        try {
+            return client.login(username, password);
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean adminExists() throws SQLException {
+        try {
+            return Boolean.TRUE.equals(map(client.get("setup")).get("adminExists"));
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    /** The server only creates one while there is no administrator yet. */
+    @Override
+    public void createAdmin(String username, String password) throws SQLException {
+        try {
+            Object created = map(client.post("setup/admin", "username", username, "password", password)).get("created");
+            if (!Boolean.TRUE.equals(created)) throw new SQLException("An administrator already exists");
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    /** The server changes the logged-in administrator's own password; {@code username} is not sent. */
+    @Override
+    public boolean changeAdminPassword(String username, String currentPassword, String newPassword)
+            throws SQLException {
+        try {
+            return Boolean.TRUE.equals(map(client.post("users/admin/password",
+                    "currentPassword", currentPassword, "newPassword", newPassword)).get("changed"));
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void createUser(int staffId, String username, String password, String role) {
+        try {
+            client.post("users", "staffId", staffId, "username", username, "password", password, "role", role);
+        } catch (IOException e) {
+            System.err.println("❌ User insert failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void updatePassword(int userId, String newPassword) {
+        try {
+            client.post("users/" + userId + "/password", "password", newPassword);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object json) {
+        return (Map<String, Object>) json;
+    }
+}
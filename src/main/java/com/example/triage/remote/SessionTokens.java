@@ -0,0 +1,54 @@
+package com.example.triage.remote;
+
+import com.example.triage.database.UserDAO;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bearer tokens the {@link TriageHttpApi} hands out at login. Each token maps
+ * to the account that logged in with it, so the server checks the caller's
+ * role itself rather than trusting the desk. Tokens idle for longer than
+ * {@code triage.server.sessionIdleMinutes} (default 12 hours) expire.
+ */
+final class SessionTokens {
+
+    private static final long IDLE_NANOS =
+            TimeUnit.MINUTES.toNanos(Long.getLong("triage.server.sessionIdleMinutes", 720));
+
+    private record Session(UserDAO.Account account, long lastUsed) {}
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    String open(UserDAO.Account account) {
+        expire();
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(account, System.nanoTime()));
+        return token;
+    }
+
+    /** The account behind the token, or null when it is unknown or expired. */
+    UserDAO.Account account(String token) {
+        if (token == null) return null;
+        long now = System.nanoTime();
+        Session session = sessions.computeIfPresent(token,
+                (t, s) -> now - s.lastUsed() > IDLE_NANOS ? null : new Session(s.account(), now));
+        return session == null ? null : session.account();
+    }
+
+    void close(String token) {
+        if (token != null) sessions.remove(token);
+    }
+
+    // Logins are rare; sweeping on each one keeps abandoned desks from piling up
+    private void expire() {
+        long now = System.nanoTime();
+        sessions.values().removeIf(s -> now - s.lastUsed() > IDLE_NANOS);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.triage.remote;
+
+import com.example.triage.database.UserDAO;
+import com.example.triage.services.DashboardSnapshot;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * HTTP client for a {@link com.example.triage.TriageServer}. The desktop app
+ * runs in client mode when started with {@code -Dtriage.server=http://host:8088};
+ * the remote DAOs then go through this instead of opening JDBC connections.
+ * After {@link #login} every call carries the session token the server
+ * issued, and the server applies the role of the account behind it.
+ */
+public class TriageClient {
+
+    private static final String BASE_URL = System.getProperty("triage.server");
+    private static final Duration TIMEOUT = Duration.ofSeconds(Long.getLong("triage.server.timeoutSec", 10));
+
+    private static TriageClient instance;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(TIMEOUT)
+            .build();
+    private final String baseUrl;
+    private volatile String token;
+
+    private TriageClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public static boolean isEnabled() {
+        return BASE_URL != null && !BASE_URL.isBlank();
+    }
+
+    public static synchronized TriageClient getInstance() {
+        if (instance == null) {
+            if (!isEnabled()) throw new IllegalStateException("triage.server is not set");
+            instance = new TriageClient(BASE_URL);
+        }
+        return instance;
+    }
+
+    /** GET /api/{path} with the given name/value pairs as query parameters (null values skipped). */
+    public Object get(String path, Object... params) throws IOException {
+        String query = form(params);
+        HttpRequest request = request(uri(path, query))
+                .GET()
+                .build();
+        return send(request);
+    }
+
+    /** POST /api/{path} with the given name/value pairs as a form body. */
+    public Object post(String path, Object... params) throws IOException {
+        HttpRequest request = request(uri(path, ""))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form(params)))
+                .build();
+        return send(request);
+    }
+
+    /** DELETE /api/{path} with the given name/value pairs as query parameters (null values skipped). */
+    public Object delete(String path, Object... params) throws IOException {
+        HttpRequest request = request(uri(path, form(params)))
+                .DELETE()
+                .build();
+        return send(request);
+    }
+
+    /** Logs in at the server and keeps its session token; null when the credentials are wrong. */
+    @SuppressWarnings("unchecked")
+    public UserDAO.Account login(String username, String password) throws IOException {
+        Map<String, Object> m = (Map<String, Object>) post("login", "username", username, "password", password);
+        Object account = m.get("account");
+        if (account == null) return null;
+        token = (String) m.get("token");
+        return Codec.account((Map<String, Object>) account);
+    }
+
+    /** Ends the server session; later calls are refused until the next login. */
+    public void logout() throws IOException {
+        if (token == null) return;
+        try {
+            post("logout");
+        } finally {
+            token = null;
+        }
+    }
+
+    /** The server's shared dashboard snapshot. */
+    @SuppressWarnings("unchecked")
+    public DashboardSnapshot dashboard() throws IOException {
+        return Codec.snapshot((Map<String, Object>) get("dashboard"));
+    }
+
+    /** Hospital-wide occupancy percent as the server's tracker sees it. */
+    public double capacityPercent() throws IOException {
+        return ((Number) ((Map<?, ?>) get("capacity")).get("percent")).doubleValue();
+    }
+
+    private HttpRequest.Builder request(URI uri) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(TIMEOUT);
+        String current = token;
+        if (current != null) builder.header("Authorization", "Bearer " + current);
+        return builder;
+    }
+
+    private URI uri(String path, String query) {
+        return URI.create(baseUrl + "/api/" + path + (query.isEmpty() ? "" : "?" + query));
+    }
+
+    private Object send(HttpRequest request) throws IOException {
+        HttpResponse<String> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted calling " + request.uri(), e);
+        }
+        Object body = Json.parse(response.body());
+        if (response.statusCode() != 200) {
+            Object error = body instanceof Map<?, ?> m ? m.get("error") : body;
+            throw new IOException("HTTP " + response.statusCode() + " from " + request.uri() + ": " + error);
+        }
+        return body;
+    }
+
+    private static String form(Object... params) {
+        StringJoiner joiner = new StringJoiner("&");
+        for (int i = 0; i + 1 < params.length; i += 2) {
+            if (params[i + 1] == null) continue;
+            joiner.add(URLEncoder.encode(String.valueOf(params[i]), StandardCharsets.UTF_8)
+                    + "=" + URLEncoder.encode(String.valueOf(params[i + 1]), StandardCharsets.UTF_8));
+        }
+        return joiner.toString();
+    }
+}
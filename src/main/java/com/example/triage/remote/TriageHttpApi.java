@@ -0,0 +1,526 @@
+package com.example.triage.remote;
+
+import com.example.triage.database.FacilityDAO;
+import com.example.triage.database.FloorDAO;
+import com.example.triage.database.Patient;
+import com.example.triage.database.PatientDAO;
+import com.example.triage.database.PatientPage;
+import com.example.triage.database.QueryMetrics;
+import com.example.triage.database.SortMode;
+import com.example.triage.database.Staff;
+import com.example.triage.database.StaffDAO;
+import com.example.triage.database.UserDAO;
+import com.example.triage.services.CapacityMonitor;
+import com.example.triage.services.CapacityTracker;
+import com.example.triage.services.DashboardService;
+import com.example.triage.services.FacilityProvisioner;
+import com.example.triage.services.PatientIndex;
+import com.example.triage.services.PermissionService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The DAO layer over HTTP, for {@link com.example.triage.TriageServer}.
+ * Reads return JSON; writes take form-encoded parameters and return
+ * {@code {"ok":true}}. Patient searches are answered from the server's
+ * {@link PatientIndex} and the dashboard from a briefly shared snapshot, so
+ * many desks asking the same thing cost the database one query.
+ * <p>
+ * Every route except logging in and first-time administrator setup needs
+ * the token {@code /api/login} returned, as {@code Authorization: Bearer};
+ * the caller's role is checked here with the same {@link PermissionService}
+ * rules the desks apply, so a modified client cannot skip them.
+ *
+ * <pre>
+ * POST /api/login                             username, password
+ * POST /api/logout
+ * GET  /api/setup                             whether an administrator exists
+ * POST /api/setup/admin                       username, password (only while there is none)
+ * POST /api/users                             staffId, username, password, role
+ * POST /api/users/{id}/password               password
+ * POST /api/users/admin/password              currentPassword, newPassword
+ * GET  /api/patients?facility=&amp;floor=&amp;severity=&amp;search=&amp;sort=
+ * GET  /api/patients/page?...&amp;size=&amp;afterId=&amp;afterDate=&amp;afterLabel=
+ * GET  /api/patients/batch?ids=
+ * GET  /api/patients/{id}
+ * POST /api/patients                          fullName, age, gender, diagnosis, severity
+ * GET  /api/patients/{id}/diagnosis
+ * POST /api/patients/{id}/discharge           unitId
+ * POST /api/patients/{id}/edit                oldUnitId, newUnitId, diagnosis, severity
+ * POST /api/patients/{id}/referral            facility, floor
+ * POST /api/patients/{id}/referral/approve
+ * POST /api/patients/{id}/referral/decline
+ * GET  /api/units/available?facility=&amp;floor=
+ * GET  /api/units/find?facility=&amp;floor=
+ * GET  /api/units/id?label=
+ * GET  /api/units?facility=&amp;floor=
+ * GET  /api/units/count?facility=&amp;floor=&amp;kind=
+ * POST /api/units/{id}/status                 status
+ * GET  /api/facilities[?type=]
+ * POST /api/facilities                        name, type, floors, bedsPerFloor, roomsPerFloor
+ * DELETE /api/facilities/{id}[?floor=&amp;beds=&amp;rooms=]
+ * GET  /api/facilities/id?name=
+ * GET  /api/facilities/type?name= | ?unitId=
+ * GET  /api/floors?facilityId=
+ * GET  /api/floors/id?facilityId=&amp;floorNumber=
+ * GET  /api/floors/numbers?facilityId=
+ * GET  /api/staff[?ids=]
+ * POST /api/staff                             fullName, role, facilityId, floorId
+ * GET  /api/staff/{id}/name
+ * POST /api/staff/{id}                        role, facilityId, floorId
+ * POST /api/staff/{id}/shift                  onShift
+ * POST /api/staff/{id}/delete
+ * GET  /api/capacity
+ * GET  /api/dashboard
+ * GET  /metrics                               statement timings, Prometheus text format (administrators)
+ * </pre>
+ */
+public class TriageHttpApi implements HttpHandler {
+
+    private static final String PREFIX = "/api/";
+    private static final long DASHBOARD_MAX_AGE_MS = Long.getLong("triage.server.dashboardMaxAgeMs", 2000);
+    private static final Map<String, Object> OK = Map.of("ok", true);
+    private static final Object NOT_FOUND = new Object();
+
+    private final PatientDAO patientDAO = new PatientDAO();
+    private final FacilityDAO facilityDAO = new FacilityDAO();
+    private final FloorDAO floorDAO = new FloorDAO();
+    private final StaffDAO staffDAO = new StaffDAO();
+    private final UserDAO userDAO = new UserDAO();
+    private final FacilityProvisioner provisioner = new FacilityProvisioner();
+    private final SessionTokens sessions = new SessionTokens();
+
+    public void register(HttpServer server) {
+        server.createContext(PREFIX, this);
+        server.createContext("/metrics", this::metrics);
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            UserDAO.Account caller = sessions.account(bearer(exchange));
+            if (caller == null || !PermissionService.isAdmin(caller.role())) {
+                respond(exchange, caller == null ? 401 : 403, Json.write(Map.of("error", "Administrator login required")));
+                return;
+            }
+            byte[] bytes = QueryMetrics.getInstance().toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().substring(PREFIX.length()).split("/");
+            Map<String, String> params = decodeForm(exchange.getRequestURI().getRawQuery());
+            if ("POST".equals(method)) {
+                params.putAll(decodeForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)));
+            }
+
+            String token = bearer(exchange);
+            UserDAO.Account caller = sessions.account(token);
+            if (caller == null && !isOpen(method, path)) {
+                respond(exchange, 401, Json.write(Map.of("error", "Not logged in")));
+                return;
+            }
+
+            Object result;
+            int status = 200;
+            try {
+                result = route(method, path, params, token, caller);
+                if (result == NOT_FOUND) {
+                    status = 404;
+                    result = Map.of("error", "Not found");
+                }
+            } catch (IllegalArgumentException e) {
+                status = 400;
+                result = Map.of("error", String.valueOf(e.getMessage()));
+            } catch (SecurityException e) {
+                status = 403;
+                result = Map.of("error", String.valueOf(e.getMessage()));
+            } catch (SQLException e) {
+                e.printStackTrace();
+                status = 500;
+                result = Map.of("error", String.valueOf(e.getMessage()));
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                status = 500;
+                result = Map.of("error", String.valueOf(e.getMessage()));
+            }
+            respond(exchange, status, Json.write(result));
+        }
+    }
+
+    // ================= ROUTING =================
+
+    // Reachable before anyone has logged in
+    private static boolean isOpen(String method, String[] path) {
+        String route = String.join("/", path);
+        return "POST".equals(method) && (route.equals("login") || route.equals("setup/admin"))
+                || "GET".equals(method) && route.equals("setup");
+    }
+
+    private Object route(String method, String[] path, Map<String, String> p,
+                         String token, UserDAO.Account caller) throws SQLException {
+        boolean get = "GET".equals(method);
+        boolean post = "POST".equals(method);
+        boolean delete = "DELETE".equals(method);
+
+        switch (path[0]) {
+            case "login" -> {
+                if (!post) return NOT_FOUND;
+                UserDAO.Account account = userDAO.authenticate(required(p, "username"), required(p, "password"));
+                if (account == null) return nullable("account", null);
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("account", Codec.account(account));
+                m.put("token", sessions.open(account));
+                return m;
+            }
+            case "logout" -> {
+                if (!post) return NOT_FOUND;
+                sessions.close(token);
+                return OK;
+            }
+            case "setup" -> {
+                if (path.length == 1 && get) return Map.of("adminExists", userDAO.adminExists());
+                if (path.length == 2 && "admin".equals(path[1]) && post) {
+                    return Map.of("created", createFirstAdmin(required(p, "username"), required(p, "password")));
+                }
+                return NOT_FOUND;
+            }
+            case "users" -> {
+                return users(path, p, caller, post);
+            }
+            case "patients" -> {
+                if (path.length == 1 && get) return findPatients(p);
+                if (path.length == 2 && get) {
+                    switch (path[1]) {
+                        case "page" -> {
+                            return patientsPage(p);
+                        }
+                        case "batch" -> {
+                            return patientDAO.getPatientsByIds(ids(p)).stream().map(Codec::patient).toList();
+                        }
+                        default -> {
+                            Patient patient = patientDAO.getPatientById(Integer.parseInt(path[1]));
+                            return patient == null ? NOT_FOUND : Codec.patient(patient);
+                        }
+                    }
+                }
+                if (path.length == 1 && post) {
+                    allow(PermissionService.canAddPatient(caller.role()));
+                    patientDAO.addPatientAutoAssign(required(p, "fullName"), integer(p, "age"),
+                            required(p, "gender"), p.get("diagnosis"), required(p, "severity"));
+                    return OK;
+                }
+                if (path.length < 3) return NOT_FOUND;
+                int id = Integer.parseInt(path[1]);
+                String action = path.length == 4 ? path[2] + "/" + path[3] : path[2];
+                switch (action) {
+                    case "diagnosis" -> {
+                        if (get) return Map.of("diagnosis", patientDAO.getDiagnosisByPatientId(id));
+                    }
+                    case "discharge" -> {
+                        if (post) {
+                            allow(PermissionService.canAddPatient(caller.role()));
+                            patientDAO.dischargePatient(id, integer(p, "unitId"));
+                            return OK;
+                        }
+                    }
+                    case "edit" -> {
+                        if (post) {
+                            allow(PermissionService.canAddPatient(caller.role()));
+                            int oldUnitId = integer(p, "oldUnitId");
+                            String newUnit = p.get("newUnitId");
+                            Integer newUnitId = newUnit == null || newUnit.isEmpty() ? null : Integer.valueOf(newUnit);
+                            if (newUnitId != null && newUnitId != oldUnitId) {
+                                allow(PermissionService.canTransfer(caller.role(),
+                                        facilityDAO.getFacilityTypeByUnitId(oldUnitId),
+                                        facilityDAO.getFacilityTypeByUnitId(newUnitId)));
+                            }
+                            PatientDAO.EditOutcome outcome = patientDAO.updatePatientEditAutoAssign(
+                                    id, oldUnitId, newUnitId, p.get("diagnosis"), required(p, "severity"));
+                            return Map.of("outcome", outcome.name());
+                        }
+                    }
+                    case "referral" -> {
+                        if (post) {
+                            allow(PermissionService.canAddPatient(caller.role()));
+                            patientDAO.requestReferral(id, required(p, "facility"), required(p, "floor"));
+                            return OK;
+                        }
+                    }
+                    case "referral/approve" -> {
+                        if (post) {
+                            allow(PermissionService.isAdminOrDoctor(caller.role()));
+                            return Map.of("outcome", patientDAO.approveReferral(id).name());
+                        }
+                    }
+                    case "referral/decline" -> {
+                        if (post) {
+                            allow(PermissionService.isAdminOrDoctor(caller.role()));
+                            patientDAO.declineReferral(id);
+                            return OK;
+                        }
+                    }
+                    default -> { }
+                }
+                return NOT_FOUND;
+            }
+            case "units" -> {
+                if (path.length == 1 && get) {
+                    return facilityDAO.getUnits(required(p, "facility"), integer(p, "floor")).stream()
+                            .map(Codec::unit).toList();
+                }
+                if (path.length == 3 && "status".equals(path[2]) && post) {
+                    allow(PermissionService.canManageFacilities(caller.role()));
+                    facilityDAO.setUnitStatus(Integer.parseInt(path[1]), required(p, "status"));
+                    return OK;
+                }
+                if (!get || path.length != 2) return NOT_FOUND;
+                return switch (path[1]) {
+                    case "available" -> patientDAO.getAvailableUnits(required(p, "facility"), integer(p, "floor"));
+                    case "find" -> nullable("unitId",
+                            patientDAO.findAvailableUnit(required(p, "facility"), integer(p, "floor")));
+                    case "id" -> Map.of("unitId", patientDAO.getUnitIdByLabel(required(p, "label")));
+                    case "count" -> Map.of("count",
+                            facilityDAO.countUnits(required(p, "facility"), integer(p, "floor"), required(p, "kind")));
+                    default -> NOT_FOUND;
+                };
+            }
+            case "facilities" -> {
+                if (path.length == 1 && post) {
+                    allow(PermissionService.canManageFacilities(caller.role()));
+                    return Map.of("id", provisioner.provision(new FacilityProvisioner.Layout(
+                            required(p, "name"), required(p, "type"), integer(p, "floors"),
+                            integer(p, "bedsPerFloor"), integer(p, "roomsPerFloor")), done -> { }));
+                }
+                if (path.length == 2 && delete) {
+                    allow(PermissionService.canManageFacilities(caller.role()));
+                    Integer floor = p.containsKey("floor") ? integer(p, "floor") : null;
+                    FacilityDAO.DeleteOutcome outcome = facilityDAO.deleteSelection(Integer.parseInt(path[1]), floor,
+                            p.containsKey("beds") ? integer(p, "beds") : 0,
+                            p.containsKey("rooms") ? integer(p, "rooms") : 0);
+                    return Map.of("outcome", outcome.name());
+                }
+                if (!get) return NOT_FOUND;
+                if (path.length == 1) {
+                    String type = p.get("type");
+                    return type == null ? facilityDAO.getAllFacilities() : facilityDAO.getFacilitiesByType(type);
+                }
+                return switch (path[1]) {
+                    case "id" -> Map.of("id", facilityDAO.getFacilityIdByName(required(p, "name")));
+                    case "type" -> nullable("type", p.containsKey("unitId")
+                            ? facilityDAO.getFacilityTypeByUnitId(integer(p, "unitId"))
+                            : facilityDAO.getFacilityTypeByName(required(p, "name")));
+                    default -> NOT_FOUND;
+                };
+            }
+            case "floors" -> {
+                if (!get) return NOT_FOUND;
+                if (path.length == 1) return floorDAO.getFloorsByFacility(integer(p, "facilityId"));
+                return switch (path[1]) {
+                    case "id" -> Map.of("id", floorDAO.getFloorId(integer(p, "facilityId"), integer(p, "floorNumber")));
+                    case "numbers" -> floorDAO.getFloorNumbers(integer(p, "facilityId"));
+                    default -> NOT_FOUND;
+                };
+            }
+            case "staff" -> {
+                return staff(path, p, caller, get, post);
+            }
+            case "capacity" -> {
+                return get ? capacity() : NOT_FOUND;
+            }
+            case "dashboard" -> {
+                return get ? Codec.snapshot(DashboardService.getInstance().getOrLoad(DASHBOARD_MAX_AGE_MS)) : NOT_FOUND;
+            }
+            default -> {
+                return NOT_FOUND;
+            }
+        }
+    }
+
+    private Object users(String[] path, Map<String, String> p, UserDAO.Account caller, boolean post)
+            throws SQLException {
+        if (!post) return NOT_FOUND;
+        if (path.length == 1) {
+            allow(PermissionService.canManageStaff(caller.role()));
+            userDAO.createUser(integer(p, "staffId"), required(p, "username"), required(p, "password"),
+                    required(p, "role"));
+            return OK;
+        }
+        if (path.length == 3 && "admin".equals(path[1]) && "password".equals(path[2])) {
+            // Administrators change their own password only
+            allow(PermissionService.isAdmin(caller.role()));
+            return Map.of("changed", userDAO.changeAdminPassword(caller.username(),
+                    required(p, "currentPassword"), required(p, "newPassword")));
+        }
+        if (path.length == 3 && "password".equals(path[2])) {
+            int userId = Integer.parseInt(path[1]);
+            allow(userId == caller.userId() || PermissionService.isAdmin(caller.role()));
+            userDAO.updatePassword(userId, required(p, "password"));
+            return OK;
+        }
+        return NOT_FOUND;
+    }
+
+    // Checked and created under one lock so two desks racing through setup make one administrator
+    private synchronized boolean createFirstAdmin(String username, String password) throws SQLException {
+        if (userDAO.adminExists()) return false;
+        userDAO.createAdmin(username, password);
+        return true;
+    }
+
+    private Object staff(String[] path, Map<String, String> p, UserDAO.Account caller, boolean get, boolean post)
+            throws SQLException {
+        if (path.length == 1 && get) {
+            List<Staff> rows =
+                    p.containsKey("ids") ? staffDAO.getStaffByIds(ids(p)) : staffDAO.getAllStaff();
+            return rows.stream().map(Codec::staff).toList();
+        }
+        if (path.length == 3 && "name".equals(path[2]) && get) {
+            return nullable("name", staffDAO.getStaffName(Integer.parseInt(path[1])));
+        }
+        if (!post) return NOT_FOUND;
+        allow(PermissionService.canManageStaff(caller.role()));
+        if (path.length == 1) {
+            return Map.of("id", staffDAO.addStaff(required(p, "fullName"), required(p, "role"),
+                    integer(p, "facilityId"), integer(p, "floorId")));
+        }
+        int id = Integer.parseInt(path[1]);
+        String action = path.length == 3 ? path[2] : "";
+        switch (action) {
+            case "" -> staffDAO.updateStaff(id, required(p, "role"), integer(p, "facilityId"), integer(p, "floorId"));
+            case "shift" -> staffDAO.setOnShift(id, Boolean.parseBoolean(required(p, "onShift")));
+            case "delete" -> staffDAO.deleteStaff(id);
+            default -> {
+                return NOT_FOUND;
+            }
+        }
+        return OK;
+    }
+
+    private Map<String, Object> patientsPage(Map<String, String> p) throws SQLException {
+        PatientPage.Key after = null;
+        if (p.containsKey("afterId")) {
+            String date = p.get("afterDate");
+            after = new PatientPage.Key(integer(p, "afterId"),
+                    date == null ? null : new Timestamp(Long.parseLong(date)),
+                    p.getOrDefault("afterLabel", ""));
+        }
+        PatientPage page = patientDAO.getPatientsPage(p.get("facility"),
+                p.containsKey("floor") ? Integer.valueOf(p.get("floor")) : null,
+                p.get("severity"), p.get("search"),
+                p.containsKey("sort") ? SortMode.valueOf(p.get("sort")) : SortMode.NONE,
+                after, integer(p, "size"));
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("patients", page.patients().stream().map(Codec::patient).toList());
+        m.put("next", page.next() == null ? null : Codec.pageKey(page.next()));
+        return m;
+    }
+
+    private List<Map<String, Object>> findPatients(Map<String, String> p) {
+        String facility = p.get("facility");
+        Integer floor = p.containsKey("floor") ? Integer.valueOf(p.get("floor")) : null;
+        String severity = p.get("severity");
+        String search = p.get("search");
+        SortMode sort = p.containsKey("sort") ? SortMode.valueOf(p.get("sort")) : SortMode.NONE;
+
+        PatientIndex index = PatientIndex.getInstance();
+        List<Patient> patients = index.ensureLoaded()
+                ? index.find(facility, floor, severity, search, sort)
+                : patientDAO.getPatientsFiltered(facility, floor, severity, search, sort);
+        return patients.stream().map(Codec::patient).toList();
+    }
+
+    private Map<String, Object> capacity() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        CapacityTracker tracker = CapacityTracker.getInstance();
+        if (tracker.isLoaded()) {
+            m.put("overall", Codec.capacity(tracker.getOverall()));
+            Map<String, Object> facilities = new LinkedHashMap<>();
+            tracker.getFacilities().forEach((id, c) -> facilities.put(String.valueOf(id), Codec.capacity(c)));
+            m.put("facilities", facilities);
+        }
+        m.put("percent", CapacityMonitor.getInstance().getCurrentCapacity());
+        return m;
+    }
+
+    // ================= HELPERS =================
+
+    private static void allow(boolean permitted) {
+        if (!permitted) throw new SecurityException("Not permitted for this role");
+    }
+
+    private static String bearer(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+    }
+
+    private static List<Integer> ids(Map<String, String> p) {
+        List<Integer> ids = new ArrayList<>();
+        for (String id : required(p, "ids").split(",")) {
+            if (!id.isBlank()) ids.add(Integer.parseInt(id.trim()));
+        }
+        return ids;
+    }
+
+    private static Map<String, Object> nullable(String key, Object value) {
+        Map<String, Object> m = new HashMap<>();
+        m.put(key, value);
+        return m;
+    }
+
+    private static String required(Map<String, String> p, String key) {
+        String value = p.get(key);
+        if (value == null) throw new IllegalArgumentException("Missing parameter: " + key);
+        return value;
+    }
+
+    private static int integer(Map<String, String> p, String key) {
+        try {
+            return Integer.parseInt(required(p, key));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + key);
+        }
+    }
+
+    static Map<String, String> decodeForm(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
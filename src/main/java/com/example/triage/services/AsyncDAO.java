@@ -0,0 +1,92 @@
+package com.example.triage.services;
+
+import com.example.triage.database.QueryCancellation;
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs DAO calls on virtual threads so JDBC never blocks the JavaFX Application Thread.
+ * Results are handed back to the FX thread with {@link Platform#runLater}.
+ */
+public class AsyncDAO {
+
+    private static AsyncDAO instance;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dao-", 0).factory()
+    );
+
+    private AsyncDAO() {}
+
+    public static synchronized AsyncDAO getInstance() {
+        if (instance == null) {
+            instance = new AsyncDAO();
+        }
+        return instance;
+    }
+
+    // ================= BACKGROUND CALLS =================
+
+    public <T> CompletableFuture<T> supply(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+
+    public CompletableFuture<Void> run(Runnable call) {
+        return CompletableFuture.runAsync(call, executor);
+    }
+
+    /** Runs the call in the background, then passes the result to onFx on the FX thread. */
+    public <T> CompletableFuture<T> load(Supplier<T> call, Consumer<T> onFx) {
+        return load(call, onFx, null);
+    }
+
+    /** Same as {@link #load(Supplier, Consumer)}, with failures handed to onFxError on the FX thread. */
+    public <T> CompletableFuture<T> load(Supplier<T> call, Consumer<T> onFx, Consumer<Throwable> onFxError) {
+        CompletableFuture<T> future = supply(call);
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                report(error);
+                if (onFxError != null) {
+                    Platform.runLater(() -> onFxError.accept(unwrap(error)));
+                }
+            } else {
+                Platform.runLater(() -> onFx.accept(result));
+            }
+        });
+        return future;
+    }
+
+    /** Runs a mutation in the background, then runs onFx on the FX thread. */
+    public CompletableFuture<Void> execute(Runnable call, Runnable onFx) {
+        return load(() -> {
+            call.run();
+            return null;
+        }, ignored -> onFx.run());
+    }
+
+    static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+    }
+
+    static void report(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof java.util.concurrent.CancellationException) return;
+        // A superseded load whose borrow or statement was cancelled
+        if (cause instanceof java.sql.SQLException e
+                && QueryCancellation.CANCELLED_STATE.equals(e.getSQLState())) return;
+        System.err.println("❌ Background database call failed");
+        cause.printStackTrace();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
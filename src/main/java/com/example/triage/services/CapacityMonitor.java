@@ -1,6 +1,8 @@
 package com.example.triage.services;
 
 import com.example.triage.database.DBConnection;
+import com.example.triage.diagnostics.CapacityCheckEvent;
+import com.example.triage.remote.TriageClient;
 import javafx.application.Platform;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Label;
@@ -11,8 +13,6 @@ import org.kordamp.ikonli.javafx.FontIcon;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.prefs.Preferences;
 
 public class CapacityMonitor {
@@ -20,14 +20,18 @@ public class CapacityMonitor {
     private static CapacityMonitor instance;
     private Preferences prefs = Preferences.userNodeForPackage(CapacityMonitor.class);
 
-    private Timer monitorTimer;
-    private boolean isMonitoring = false;
+    // A dashboard snapshot younger than this answers capacity checks without a query
+    private static final long SNAPSHOT_REUSE_MS = 15_000;
+
+    private final CapacityTracker.Listener trackerListener =
+            overall -> checkCapacity(overall.percent());
+    private volatile boolean isMonitoring = false;
 
     private Stage primaryStage;
     private VBox alertContainer; // For dashboard alerts
 
-    private boolean warningAlertShown = false;
-    private boolean criticalAlertShown = false;
+    private volatile boolean warningAlertShown = false;
+    private volatile boolean criticalAlertShown = false;
 
     private CapacityMonitor() {}
 
@@ -47,41 +51,50 @@ public class CapacityMonitor {
         if (!enabled) return;
 
         isMonitoring = true;
-        monitorTimer = new Timer(true);
 
-        // Check every 30 seconds
-        monitorTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                checkCapacity();
-            }
-        }, 0, 30000); // 30 seconds
+        if (TriageClient.isEnabled()) {
+            // No database here; dashboard snapshots from the server drive the checks
+            System.out.println("✅ Capacity monitoring started (server snapshots)");
+            return;
+        }
+
+        // Checks run on every bed change reported to the tracker
+        CapacityTracker tracker = CapacityTracker.getInstance();
+        tracker.addListener(trackerListener);
+        tracker.start();
+        if (tracker.isLoaded()) {
+            checkCapacity(tracker.getOverall().percent());
+        }
 
         System.out.println("✅ Capacity monitoring started");
     }
 
     public void stopMonitoring() {
-        if (monitorTimer != null) {
-            monitorTimer.cancel();
-            monitorTimer = null;
-        }
+        CapacityTracker.getInstance().removeListener(trackerListener);
         isMonitoring = false;
         System.out.println("⏹️ Capacity monitoring stopped");
     }
 
     // ================= CAPACITY CHECK =================
 
-    private void checkCapacity() {
+    /** Evaluates a dashboard snapshot instead of querying the units table again. */
+    public void onSnapshot(DashboardSnapshot snapshot) {
+        if (!isMonitoring) return;
+        checkCapacity(snapshot.getOccupancyPercent());
+    }
+
+    private void checkCapacity(double currentCapacity) {
+        CapacityCheckEvent event = CapacityCheckEvent.start();
+        String level = "NORMAL";
         try {
-            double currentCapacity = getCurrentCapacity();
             double warningThreshold = prefs.getDouble("warningThreshold", 80.0);
             double criticalThreshold = prefs.getDouble("criticalThreshold", 95.0);
 
-            System.out.println("📊 Current Capacity: " + String.format("%.1f%%", currentCapacity));
-
             if (currentCapacity >= criticalThreshold) {
+                level = "CRITICAL";
                 handleCriticalCapacity(currentCapacity);
             } else if (currentCapacity >= warningThreshold) {
+                level = "WARNING";
                 handleWarningCapacity(currentCapacity);
             } else {
                 // Reset alerts when capacity drops
@@ -93,12 +106,32 @@ public class CapacityMonitor {
 
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            event.finish(currentCapacity, level);
         }
     }
 
     // ================= GET CAPACITY FROM DATABASE =================
 
     public double getCurrentCapacity() {
+        if (TriageClient.isEnabled()) {
+            try {
+                return TriageClient.getInstance().capacityPercent();
+            } catch (Exception e) {
+                e.printStackTrace();
+                return 0.0;
+            }
+        }
+        CapacityTracker tracker = CapacityTracker.getInstance();
+        if (tracker.isLoaded()) {
+            return tracker.getOverall().percent();
+        }
+
+        DashboardSnapshot snapshot = DashboardService.getInstance().getLatest();
+        if (snapshot != null && snapshot.getAgeMillis() < SNAPSHOT_REUSE_MS) {
+            return snapshot.getOccupancyPercent();
+        }
+
         String sql = """
             SELECT 
                 COUNT(*) as total,
@@ -129,6 +162,8 @@ public class CapacityMonitor {
 
     private void handleWarningCapacity(double capacity) {
         if (warningAlertShown) return; // Don't spam alerts
+        warningAlertShown = true;
+        criticalAlertShown = false;
 
         Platform.runLater(() -> {
             Alert alert = new Alert(Alert.AlertType.WARNING);
@@ -140,13 +175,12 @@ public class CapacityMonitor {
             );
 
             alert.show();
-            warningAlertShown = true;
-            criticalAlertShown = false;
         });
     }
 
     private void handleCriticalCapacity(double capacity) {
         if (criticalAlertShown) return;
+        criticalAlertShown = true;
 
         boolean soundEnabled = prefs.getBoolean("soundAlert", false);
 
@@ -166,7 +200,6 @@ public class CapacityMonitor {
             }
 
             alert.show();
-            criticalAlertShown = true;
         });
     }
 
@@ -0,0 +1,301 @@
+package com.example.triage.services;
+
+import com.example.triage.database.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-memory occupancy counters per facility, per floor and hospital-wide.
+ * Every unit status change made by the application is reported here as it
+ * happens, so listeners hear about a threshold crossing immediately instead
+ * of on the next poll. Changes made at other desks are pushed over the
+ * {@link EventBus} and caught up by the {@link ChangeFeed}, and a slow reconciliation sweep against the units table
+ * corrects drift from changes made outside the app.
+ */
+public class CapacityTracker {
+
+    public record Capacity(int occupied, int total) {
+        public double percent() {
+            return total == 0 ? 0.0 : (occupied * 100.0) / total;
+        }
+    }
+
+    public interface Listener {
+        void capacityChanged(Capacity overall);
+    }
+
+    private record UnitState(int facilityId, int floorId, boolean occupied) {}
+
+    private static CapacityTracker instance;
+
+    private static final long RECONCILE_MINUTES =
+            Long.getLong("triage.capacity.reconcileMinutes", 10);
+
+    private static final String UNITS_SQL = """
+        SELECT u.id, u.status, fl.id AS floor_id, fl.facility_id
+        FROM units u
+        JOIN floors fl ON u.floor_id = fl.id
+        """;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private Map<Integer, UnitState> units = new HashMap<>();
+    private Map<Integer, int[]> byFacility = new HashMap<>();
+    private Map<Integer, int[]> byFloor = new HashMap<>();
+    private int occupied;
+    private boolean loaded;
+    // Statuses reported while a sweep is reading the table, laid over what it read; null between sweeps
+    private Map<Integer, Boolean> duringSweep;
+    private boolean sweepQueued;
+
+    private ScheduledExecutorService reconciler;
+
+    private final ChangeFeed.Listener feedListener = this::applyChanges;
+    private final Consumer<DomainEvent> eventListener = this::applyEvent;
+
+    private CapacityTracker() {}
+
+    public static synchronized CapacityTracker getInstance() {
+        if (instance == null) {
+            instance = new CapacityTracker();
+        }
+        return instance;
+    }
+
+    // ================= LIFECYCLE =================
+
+    /** Loads the counters and schedules the reconciliation sweep. Idempotent. */
+    public synchronized void start() {
+        if (reconciler != null) return;
+
+        reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "capacity-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+        reconciler.scheduleWithFixedDelay(this::reconcile, 0, RECONCILE_MINUTES, TimeUnit.MINUTES);
+        ChangeFeed.getInstance().addListener(feedListener);
+        EventBus.getInstance().subscribe(eventListener);
+    }
+
+    public synchronized void stop() {
+        if (reconciler != null) {
+            ChangeFeed.getInstance().removeListener(feedListener);
+            EventBus.getInstance().unsubscribe(eventListener);
+            reconciler.shutdownNow();
+            reconciler = null;
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // ================= INCREMENTAL UPDATES =================
+
+    /** Records a committed status change for one unit. */
+    public void unitStatusChanged(int unitId, String status) {
+        boolean nowOccupied = "OCCUPIED".equalsIgnoreCase(status);
+        Capacity overall;
+
+        synchronized (this) {
+            if (duringSweep != null) duringSweep.put(unitId, nowOccupied);
+            if (!loaded) return;
+
+            UnitState state = units.get(unitId);
+            if (state == null) {
+                // Unit created outside our view; let a sweep pick it up
+                if (duringSweep == null) unitsChanged();
+                return;
+            }
+            if (state.occupied() == nowOccupied) return;
+
+            int delta = nowOccupied ? 1 : -1;
+            units.put(unitId, new UnitState(state.facilityId(), state.floorId(), nowOccupied));
+            byFacility.get(state.facilityId())[0] += delta;
+            byFloor.get(state.floorId())[0] += delta;
+            occupied += delta;
+            overall = new Capacity(occupied, units.size());
+        }
+        fire(overall);
+    }
+
+    /** Units were added or removed: rebuild the counters in the background. */
+    public void unitsChanged() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            // One queued sweep covers any number of requests made before it starts
+            if (sweepQueued) return;
+            executor = reconciler;
+            sweepQueued = executor != null;
+        }
+        if (executor != null) {
+            executor.execute(this::reconcile);
+        }
+    }
+
+    /** Unit changes pushed by another workstation; our own were applied when made. */
+    private void applyEvent(DomainEvent event) {
+        if (EventBus.getInstance().isLocal(event)) return;
+        event.unitStatuses().forEach(this::unitStatusChanged);
+    }
+
+    /** Change-feed batch: re-reads just the units that changed elsewhere. */
+    private void applyChanges(ChangeFeed.Changes feed) {
+        if (feed.resync() || feed.facilities()) {
+            unitsChanged();
+            return;
+        }
+        if (feed.units().isEmpty()) return;
+
+        String sql = "SELECT id, status FROM units WHERE id IN ("
+                + String.join(", ", Collections.nCopies(feed.units().size(), "?")) + ")";
+        Map<Integer, String> statuses = new HashMap<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (int id : feed.units()) {
+                ps.setInt(i++, id);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    statuses.put(rs.getInt("id"), rs.getString("status"));
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Capacity sync failed: " + e.getMessage());
+            return;
+        }
+        if (statuses.size() < feed.units().size()) {
+            // A unit disappeared; only a sweep can fix the totals
+            unitsChanged();
+        }
+        statuses.forEach(this::unitStatusChanged);
+    }
+
+    // ================= RECONCILIATION =================
+
+    private void reconcile() {
+        boolean firstLoad;
+        synchronized (this) {
+            sweepQueued = false;
+            firstLoad = !loaded;
+            duringSweep = new HashMap<>();
+        }
+        if (firstLoad) {
+            ChangeFeed.getInstance().ensureBaseline();
+        }
+        Map<Integer, UnitState> fresh = new HashMap<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(UNITS_SQL);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                fresh.put(rs.getInt("id"), new UnitState(
+                        rs.getInt("facility_id"),
+                        rs.getInt("floor_id"),
+                        "OCCUPIED".equalsIgnoreCase(rs.getString("status"))
+                ));
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Capacity reconciliation failed: " + e.getMessage());
+            synchronized (this) {
+                duringSweep = null;
+            }
+            return;
+        }
+
+        Capacity before;
+        Capacity after;
+        synchronized (this) {
+            // Changes that landed while we were reading are at least as new as the rows
+            duringSweep.forEach((unitId, nowOccupied) -> fresh.computeIfPresent(unitId,
+                    (id, state) -> new UnitState(state.facilityId(), state.floorId(), nowOccupied)));
+            duringSweep = null;
+
+            Map<Integer, int[]> facilities = new HashMap<>();
+            Map<Integer, int[]> floors = new HashMap<>();
+            int freshOccupied = 0;
+            for (UnitState state : fresh.values()) {
+                int hit = state.occupied() ? 1 : 0;
+                int[] f = facilities.computeIfAbsent(state.facilityId(), k -> new int[2]);
+                f[0] += hit;
+                f[1]++;
+                int[] fl = floors.computeIfAbsent(state.floorId(), k -> new int[2]);
+                fl[0] += hit;
+                fl[1]++;
+                freshOccupied += hit;
+            }
+
+            before = new Capacity(occupied, units.size());
+            units = fresh;
+            byFacility = facilities;
+            byFloor = floors;
+            occupied = freshOccupied;
+            after = new Capacity(occupied, units.size());
+
+            if (loaded && !before.equals(after)) {
+                System.out.println("🔄 Capacity drift corrected: " + before + " -> " + after);
+            }
+            loaded = true;
+        }
+        if (!before.equals(after)) {
+            fire(after);
+        }
+    }
+
+    private void fire(Capacity overall) {
+        for (Listener listener : listeners) {
+            try {
+                listener.capacityChanged(overall);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // ================= READS =================
+
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized Capacity getOverall() {
+        return new Capacity(occupied, units.size());
+    }
+
+    public synchronized Capacity getFacility(int facilityId) {
+        return toCapacity(byFacility.get(facilityId));
+    }
+
+    public synchronized Capacity getFloor(int floorId) {
+        return toCapacity(byFloor.get(floorId));
+    }
+
+    public synchronized Map<Integer, Capacity> getFacilities() {
+        Map<Integer, Capacity> copy = new HashMap<>();
+        byFacility.forEach((id, counts) -> copy.put(id, toCapacity(counts)));
+        return copy;
+    }
+
+    private static Capacity toCapacity(int[] counts) {
+        return counts == null ? new Capacity(0, 0) : new Capacity(counts[0], counts[1]);
+    }
+}
@@ -0,0 +1,468 @@
+package com.example.triage.services;
+
+import com.example.triage.database.ChangeLog;
+import com.example.triage.database.DBConnection;
+import com.example.triage.remote.TriageClient;
+import javafx.scene.Node;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incremental sync from the {@code change_log} table. The feed remembers the
+ * last version it has seen and each poll reads only the rows after it, so a
+ * quiet hospital costs one indexed range scan per interval and a busy one
+ * costs work proportional to what actually changed. Listeners get the changed
+ * ids per entity and re-read just those rows.
+ * <p>
+ * Versions come from an auto-increment that is assigned before commit, so a
+ * slow transaction can commit a lower version after a higher one was read.
+ * Skipped versions are kept as gaps and re-checked for a grace period before
+ * being given up as rolled back. A jump too large to be in-flight
+ * transactions (a restore, or ids reserved in bulk elsewhere) would make
+ * that list huge, so past {@code triage.feed.maxGaps} the feed resyncs instead.
+ * <p>
+ * Old rows are pruned by whichever desk first claims the hourly turn in
+ * {@code id_sequences}, and the highest pruned version is kept there too. A
+ * client whose last seen version is below that watermark fell behind the
+ * pruned part of the log, and its listeners are told to resync in full.
+ * Listeners are called after the poll has released its lock, so they may
+ * call back into the feed.
+ */
+public class ChangeFeed {
+
+    public record Changes(Set<Integer> patients, Set<Integer> units, Set<Integer> staff,
+                          boolean facilities, boolean resync) {
+
+        static Changes resyncAll() {
+            return new Changes(Set.of(), Set.of(), Set.of(), true, true);
+        }
+
+        public boolean isEmpty() {
+            return !resync && !facilities && patients.isEmpty() && units.isEmpty() && staff.isEmpty();
+        }
+
+        int size() {
+            return patients.size() + units.size() + staff.size();
+        }
+
+        Changes merge(Changes other) {
+            return new Changes(union(patients, other.patients), union(units, other.units),
+                    union(staff, other.staff), facilities || other.facilities, resync || other.resync);
+        }
+
+        private static Set<Integer> union(Set<Integer> a, Set<Integer> b) {
+            if (b.isEmpty()) return a;
+            if (a.isEmpty()) return b;
+            Set<Integer> both = new HashSet<>(a);
+            both.addAll(b);
+            return both;
+        }
+    }
+
+    public interface Listener {
+        /** Called on the feed thread; hop to the FX thread before touching the UI. */
+        void changed(Changes changes);
+    }
+
+    private static ChangeFeed instance;
+
+    private static final long POLL_MS = Long.getLong("triage.feed.pollMs", 3000);
+    private static final long GAP_GRACE_MS = Long.getLong("triage.feed.gapGraceMs", 30_000);
+    private static final long RETENTION_HOURS = Long.getLong("triage.feed.retentionHours", 24);
+    private static final long PRUNE_EVERY_MS = TimeUnit.HOURS.toMillis(1);
+    // Rows in id_sequences shared by every desk: when the next prune is due, and how far it got
+    private static final String NEXT_PRUNE = "change_log.next_prune_ms";
+    private static final String PRUNED_THROUGH = "change_log.pruned_through";
+    private static final int BATCH = 500;
+    // Also bounds the IN list that re-checks them
+    private static final int MAX_GAPS = Integer.getInteger("triage.feed.maxGaps", 1000);
+    // Past this many ids missed by a hidden view, reloading it is cheaper than catching up
+    private static final int MAX_PARKED = 2000;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by pollLock
+    private final Object pollLock = new Object();
+    private long lastVersion = -1;
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private long lastPruneCheck;
+
+    private ScheduledExecutorService poller;
+
+    private ChangeFeed() {}
+
+    public static synchronized ChangeFeed getInstance() {
+        if (instance == null) {
+            instance = new ChangeFeed();
+        }
+        return instance;
+    }
+
+    // ================= LIFECYCLE =================
+
+    /** Starts polling from the current end of the log. Idempotent. */
+    public synchronized void start() {
+        // Client mode has no database to poll
+        if (poller != null || TriageClient.isEnabled()) return;
+
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "change-feed");
+            t.setDaemon(true);
+            return t;
+        });
+        poller.scheduleWithFixedDelay(this::poll, 0, POLL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    /** Polls right away instead of waiting for the next tick (e.g. after a local write). */
+    public void pollNow() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = poller;
+        }
+        if (executor != null) {
+            executor.execute(this::poll);
+        }
+    }
+
+    public void addListener(Listener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        start();
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Keeps {@code listener} subscribed only while {@code node} is part of a
+     * scene, so views swapped out of the dashboard stop receiving changes.
+     * What changes while the node is detached is only collected, and handed
+     * to the listener in one batch when the node is shown again, so a cached
+     * view catches up on exactly what it missed.
+     */
+    public void bind(Node node, Listener listener) {
+        Parked parked = new Parked(node);
+        node.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                removeListener(listener);
+                parked.park();
+            } else {
+                // Subscribe first: a change seen by both is re-read twice, never missed
+                addListener(listener);
+                Changes missed = parked.unpark();
+                if (missed != null) deliver(listener, missed);
+            }
+        });
+        if (node.getScene() != null) {
+            addListener(listener);
+        } else {
+            parked.park();
+        }
+    }
+
+    // Feed thread, like a regular poll
+    private void deliver(Listener listener, Changes changes) {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = poller;
+        }
+        if (executor != null) {
+            executor.execute(() -> listener.changed(changes));
+        }
+    }
+
+    /**
+     * Collects changes for a detached node. Holds the node weakly, so a view
+     * that is dropped without being shown again unsubscribes on the next poll.
+     */
+    private class Parked implements Listener {
+        private final WeakReference<Node> node;
+        private Changes missed;
+
+        Parked(Node node) {
+            this.node = new WeakReference<>(node);
+        }
+
+        synchronized void park() {
+            missed = null;
+            addListener(this);
+        }
+
+        synchronized Changes unpark() {
+            removeListener(this);
+            Changes result = missed;
+            missed = null;
+            return result;
+        }
+
+        @Override
+        public synchronized void changed(Changes changes) {
+            if (node.get() == null) {
+                removeListener(this);
+                return;
+            }
+            missed = missed == null ? changes : missed.merge(changes);
+            if (missed.size() > MAX_PARKED) missed = Changes.resyncAll();
+        }
+    }
+
+    /**
+     * Pins the starting version before a full load, so nothing committed
+     * between the load's read and the first poll is missed. Blocking; the
+     * feed is started as a side effect.
+     */
+    public void ensureBaseline() {
+        start();
+        if (TriageClient.isEnabled()) return;
+        synchronized (pollLock) {
+            if (lastVersion >= 0) return;
+            try (Connection conn = DBConnection.getConnection()) {
+                if (conn != null) lastVersion = maxVersion(conn);
+            } catch (SQLException e) {
+                System.out.println("❌ Change feed baseline failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // ================= POLLING =================
+
+    private void poll() {
+        Changes changes;
+        synchronized (pollLock) {
+            changes = pollLocked();
+        }
+        // Outside the lock: a listener may reload and ask for a baseline
+        if (changes != null && !changes.isEmpty()) {
+            fire(changes);
+        }
+    }
+
+    private Changes pollLocked() {
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return null;
+
+            if (lastVersion < 0) {
+                // No full load asked for a baseline yet; start from the end
+                lastVersion = maxVersion(conn);
+                return null;
+            }
+            if (counter(conn, PRUNED_THROUGH) > lastVersion) {
+                // Rows we never read were pruned
+                System.out.println("🔄 Change feed fell behind the log; resyncing");
+                lastVersion = maxVersion(conn);
+                gaps.clear();
+                return Changes.resyncAll();
+            }
+
+            Set<Integer> patients = new HashSet<>();
+            Set<Integer> units = new HashSet<>();
+            Set<Integer> staff = new HashSet<>();
+            boolean[] facilities = {false};
+            Collector collect = (entity, id) -> {
+                switch (entity) {
+                    case ChangeLog.PATIENT -> patients.add(id);
+                    case ChangeLog.UNIT -> units.add(id);
+                    case ChangeLog.STAFF -> staff.add(id);
+                    case ChangeLog.FACILITY -> facilities[0] = true;
+                    default -> { }
+                }
+            };
+
+            readGaps(conn, collect);
+            int read;
+            do {
+                read = readAfter(conn, collect);
+                if (read < 0) {
+                    System.out.println("🔄 Change feed skipped more than " + MAX_GAPS + " versions; resyncing");
+                    lastVersion = maxVersion(conn);
+                    gaps.clear();
+                    return Changes.resyncAll();
+                }
+            } while (read == BATCH);
+
+            expireGaps();
+            pruneIfDue(conn);
+
+            return new Changes(patients, units, staff, facilities[0], false);
+        } catch (Exception e) {
+            System.out.println("❌ Change feed poll failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Collector {
+        void accept(String entity, int id);
+    }
+
+    /** Rows read, or -1 if the versions skipped would take the gaps past {@link #MAX_GAPS}. */
+    private int readAfter(Connection conn, Collector collect) throws SQLException {
+        int read = 0;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT version, entity, entity_id FROM change_log WHERE version > ? ORDER BY version LIMIT ?")) {
+            ps.setLong(1, lastVersion);
+            ps.setInt(2, BATCH);
+            try (ResultSet rs = ps.executeQuery()) {
+                long now = System.currentTimeMillis();
+                while (rs.next()) {
+                    long version = rs.getLong("version");
+                    if (gaps.size() + (version - lastVersion - 1) > MAX_GAPS) return -1;
+                    for (long missing = lastVersion + 1; missing < version; missing++) {
+                        gaps.put(missing, now);
+                    }
+                    lastVersion = version;
+                    collect.accept(rs.getString("entity"), rs.getInt("entity_id"));
+                    read++;
+                }
+            }
+        }
+        return read;
+    }
+
+    /** Picks up versions that were skipped earlier because their transaction had not committed yet. */
+    private void readGaps(Connection conn, Collector collect) throws SQLException {
+        if (gaps.isEmpty()) return;
+
+        List<Long> pending = List.copyOf(gaps.keySet());
+        String placeholders = String.join(", ", Collections.nCopies(pending.size(), "?"));
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT version, entity, entity_id FROM change_log WHERE version IN (" + placeholders + ")")) {
+            for (int i = 0; i < pending.size(); i++) {
+                ps.setLong(i + 1, pending.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    gaps.remove(rs.getLong("version"));
+                    collect.accept(rs.getString("entity"), rs.getInt("entity_id"));
+                }
+            }
+        }
+    }
+
+    private void expireGaps() {
+        long cutoff = System.currentTimeMillis() - GAP_GRACE_MS;
+        for (Iterator<Long> it = gaps.values().iterator(); it.hasNext(); ) {
+            if (it.next() < cutoff) it.remove();
+        }
+    }
+
+    /**
+     * Deletes rows past the retention period, if this desk wins the turn.
+     * Deletes by version rather than timestamp, so everything up to the
+     * recorded watermark is gone and everything after it is still there.
+     */
+    private void pruneIfDue(Connection conn) throws SQLException {
+        long now = System.currentTimeMillis();
+        if (now - lastPruneCheck < PRUNE_EVERY_MS) return;
+        lastPruneCheck = now;
+
+        conn.setAutoCommit(false);
+        try {
+            if (!claimPrune(conn, now)) {
+                conn.rollback();
+                return;
+            }
+            long through;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT COALESCE(MAX(version), 0) FROM change_log WHERE changed_at < ?")) {
+                ps.setTimestamp(1, new Timestamp(now - TimeUnit.HOURS.toMillis(RETENTION_HOURS)));
+                try (ResultSet rs = ps.executeQuery()) {
+                    through = rs.next() ? rs.getLong(1) : 0;
+                }
+            }
+            if (through > 0) {
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM change_log WHERE version <= ?")) {
+                    ps.setLong(1, through);
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "UPDATE id_sequences SET next_value = ? WHERE name = ? AND next_value < ?")) {
+                    ps.setLong(1, through);
+                    ps.setString(2, PRUNED_THROUGH);
+                    ps.setLong(3, through);
+                    ps.executeUpdate();
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /** Takes this hour's prune turn; false if another desk already has it. */
+    private static boolean claimPrune(Connection conn, long now) throws SQLException {
+        counter(conn, PRUNED_THROUGH);
+        counter(conn, NEXT_PRUNE);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE id_sequences SET next_value = ? WHERE name = ? AND next_value <= ?")) {
+            ps.setLong(1, now + PRUNE_EVERY_MS);
+            ps.setString(2, NEXT_PRUNE);
+            ps.setLong(3, now);
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    /** Reads a shared counter row, creating it at 0 if it is missing. */
+    private static long counter(Connection conn, String name) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT next_value FROM id_sequences WHERE name = ?")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return rs.getLong(1);
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO id_sequences (name, next_value) VALUES (?, 0)")) {
+            ps.setString(1, name);
+            ps.executeUpdate();
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // Another desk created it first
+        }
+        return 0;
+    }
+
+    private static long maxVersion(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT COALESCE(MAX(version), 0) FROM change_log");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private void fire(Changes changes) {
+        for (Listener listener : listeners) {
+            try {
+                listener.changed(changes);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
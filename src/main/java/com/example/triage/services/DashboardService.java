@@ -0,0 +1,171 @@
+package com.example.triage.services;
+
+import com.example.triage.database.DBConnection;
+import com.example.triage.remote.TriageClient;
+import com.example.triage.services.DashboardSnapshot.Admission;
+import com.example.triage.services.DashboardSnapshot.FacilityLoad;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Builds {@link DashboardSnapshot}s. Every dashboard section comes back from a
+ * single UNION ALL statement, tagged by its first column, so opening the
+ * dashboard costs one database round-trip instead of seven.
+ */
+public class DashboardService {
+
+    private static DashboardService instance;
+
+    private static final String SNAPSHOT_SQL = """
+        SELECT 'COUNTS' AS section,
+               NULL AS name,
+               NULL AS code,
+               (SELECT COUNT(*) FROM staff WHERE on_shift = 1) AS n1,
+               (SELECT COUNT(*) FROM patients WHERE status = 'admitted') AS n2,
+               (SELECT COUNT(*) FROM patients WHERE severity = 'critical' AND status = 'admitted') AS n3,
+               (SELECT COUNT(*) FROM units WHERE status = 'AVAILABLE') AS n4,
+               (SELECT COUNT(*) FROM units) AS n5,
+               (SELECT COUNT(*) FROM units WHERE status = 'OCCUPIED') AS n6,
+               NULL AS ts,
+               NULL AS severity
+        UNION ALL
+        SELECT 'FACILITY', f.name, NULL,
+               COUNT(u.id),
+               SUM(CASE WHEN u.status = 'OCCUPIED' THEN 1 ELSE 0 END),
+               NULL, NULL, NULL, NULL, NULL, NULL
+        FROM facilities f
+        LEFT JOIN floors fl ON f.id = fl.facility_id
+        LEFT JOIN units u ON fl.id = u.floor_id
+        GROUP BY f.id, f.name
+        UNION ALL
+        SELECT 'RECENT', full_name, patient_code,
+               NULL, NULL, NULL, NULL, NULL, NULL,
+               admission_date, severity
+        FROM (
+            SELECT full_name, patient_code, admission_date, severity
+            FROM patients
+            WHERE status = 'admitted'
+            ORDER BY admission_date DESC
+            LIMIT 8
+        ) recent
+        UNION ALL
+        SELECT 'CRITICAL', full_name, patient_code,
+               NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL
+        FROM patients
+        WHERE severity = 'critical' AND status = 'admitted'
+        """;
+
+    private volatile DashboardSnapshot latest;
+    private volatile CompletableFuture<DashboardSnapshot> prefetched;
+
+    private DashboardService() {}
+
+    public static synchronized DashboardService getInstance() {
+        if (instance == null) {
+            instance = new DashboardService();
+        }
+        return instance;
+    }
+
+    /** Queries a fresh snapshot. Blocking: call it through {@link AsyncDAO}. */
+    public DashboardSnapshot load() {
+        if (TriageClient.isEnabled()) {
+            return loadRemote();
+        }
+        int staff = 0, patients = 0, critical = 0, available = 0, total = 0, occupied = 0;
+        List<FacilityLoad> facilities = new ArrayList<>();
+        List<Admission> recent = new ArrayList<>();
+        List<String> criticalNames = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SNAPSHOT_SQL);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                switch (rs.getString("section")) {
+                    case "COUNTS" -> {
+                        staff = rs.getInt("n1");
+                        patients = rs.getInt("n2");
+                        critical = rs.getInt("n3");
+                        available = rs.getInt("n4");
+                        total = rs.getInt("n5");
+                        occupied = rs.getInt("n6");
+                    }
+                    case "FACILITY" -> facilities.add(new FacilityLoad(
+                            rs.getString("name"),
+                            rs.getInt("n2"),
+                            rs.getInt("n1")
+                    ));
+                    case "RECENT" -> recent.add(new Admission(
+                            rs.getString("code"),
+                            rs.getString("name"),
+                            rs.getTimestamp("ts"),
+                            rs.getString("severity")
+                    ));
+                    case "CRITICAL" -> criticalNames.add(rs.getString("name"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        // Row order out of a UNION ALL is not guaranteed, whatever the derived table's ORDER BY did
+        recent.sort(Comparator.comparing(Admission::admitted,
+                Comparator.nullsLast(Comparator.<Timestamp>reverseOrder())));
+
+        DashboardSnapshot snapshot = new DashboardSnapshot(
+                Instant.now(), staff, patients, critical, available, total, occupied,
+                facilities, recent, criticalNames
+        );
+        latest = snapshot;
+        return snapshot;
+    }
+
+    private DashboardSnapshot loadRemote() {
+        try {
+            DashboardSnapshot snapshot = TriageClient.getInstance().dashboard();
+            latest = snapshot;
+            return snapshot;
+        } catch (IOException e) {
+            System.out.println("❌ Dashboard load failed: " + e.getMessage());
+            return new DashboardSnapshot(Instant.now(), 0, 0, 0, 0, 0, 0, List.of(), List.of(), List.of());
+        }
+    }
+
+    /** Most recent snapshot, or null if none has been taken yet. */
+    public DashboardSnapshot getLatest() {
+        return latest;
+    }
+
+    /**
+     * Starts a snapshot in the background ahead of the dashboard asking for
+     * it, e.g. while the dashboard screen is still being built after login.
+     * The next {@link #getOrLoad} takes it instead of querying again.
+     */
+    public void prefetch() {
+        prefetched = AsyncDAO.getInstance().supply(this::load);
+    }
+
+    /** The latest snapshot if it is younger than maxAgeMillis, otherwise a fresh one. */
+    public DashboardSnapshot getOrLoad(long maxAgeMillis) {
+        CompletableFuture<DashboardSnapshot> pending = prefetched;
+        if (pending != null) {
+            prefetched = null;
+            return pending.join();
+        }
+        DashboardSnapshot snapshot = latest;
+        if (snapshot != null && snapshot.getAgeMillis() <= maxAgeMillis) {
+            return snapshot;
+        }
+        return load();
+    }
+}
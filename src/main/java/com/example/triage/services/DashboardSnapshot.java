@@ -0,0 +1,64 @@
+package com.example.triage.services;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable result of one dashboard query: the stat-card counts, per-facility
+ * capacity, recent admissions and critical patients, stamped with when it was taken.
+ */
+public final class DashboardSnapshot {
+
+    public record FacilityLoad(String name, int occupied, int total) {}
+    public record Admission(String code, String name, Timestamp admitted, String severity) {}
+
+    private final Instant takenAt;
+    private final int staffOnShift;
+    private final int admittedPatients;
+    private final int criticalPatients;
+    private final int availableUnits;
+    private final int totalUnits;
+    private final int occupiedUnits;
+    private final List<FacilityLoad> facilityLoads;
+    private final List<Admission> recentAdmissions;
+    private final List<String> criticalPatientNames;
+
+    public DashboardSnapshot(Instant takenAt,
+                             int staffOnShift, int admittedPatients, int criticalPatients,
+                             int availableUnits, int totalUnits, int occupiedUnits,
+                             List<FacilityLoad> facilityLoads,
+                             List<Admission> recentAdmissions,
+                             List<String> criticalPatientNames) {
+        this.takenAt = takenAt;
+        this.staffOnShift = staffOnShift;
+        this.admittedPatients = admittedPatients;
+        this.criticalPatients = criticalPatients;
+        this.availableUnits = availableUnits;
+        this.totalUnits = totalUnits;
+        this.occupiedUnits = occupiedUnits;
+        this.facilityLoads = List.copyOf(facilityLoads);
+        this.recentAdmissions = List.copyOf(recentAdmissions);
+        this.criticalPatientNames = List.copyOf(criticalPatientNames);
+    }
+
+    public Instant getTakenAt() { return takenAt; }
+    public int getStaffOnShift() { return staffOnShift; }
+    public int getAdmittedPatients() { return admittedPatients; }
+    public int getCriticalPatients() { return criticalPatients; }
+    public int getAvailableUnits() { return availableUnits; }
+    public int getTotalUnits() { return totalUnits; }
+    public int getOccupiedUnits() { return occupiedUnits; }
+    public List<FacilityLoad> getFacilityLoads() { return facilityLoads; }
+    public List<Admission> getRecentAdmissions() { return recentAdmissions; }
+    public List<String> getCriticalPatientNames() { return criticalPatientNames; }
+
+    /** Hospital-wide occupancy, as used by {@link CapacityMonitor}. */
+    public double getOccupancyPercent() {
+        return totalUnits == 0 ? 0.0 : (occupiedUnits * 100.0) / totalUnits;
+    }
+
+    public long getAgeMillis() {
+        return Instant.now().toEpochMilli() - takenAt.toEpochMilli();
+    }
+}
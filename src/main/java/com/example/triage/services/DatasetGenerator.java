@@ -0,0 +1,416 @@
+package com.example.triage.services;
+
+import com.example.triage.database.DBConnection;
+import com.example.triage.database.PatientDAO;
+import com.example.triage.database.ReferenceDataCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Writes a synthetic hospital for load and scale testing: facilities, floors,
+ * units labelled "Bed N" / "Room N" as FacilitiesController lays them out,
+ * admitted patients with per-facility severity mixes and referral states,
+ * discharged history, and staff with user accounts.
+ * <p>
+ * Deterministic: the same {@link Spec} against an empty database writes the
+ * same rows. Rows go out in batches and are committed facility by facility,
+ * so memory stays flat however large the spec. Meant for empty or throwaway
+ * databases; desks that are already running should be restarted afterwards.
+ * Blocking: run it through {@link AsyncDAO} or from
+ * {@link com.example.triage.GenerateDataset}.
+ */
+public class DatasetGenerator {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String PATIENT_INSERT = """
+        INSERT INTO patients
+        (patient_code, full_name, age, gender, diagnosis, severity, admission_date, status, unit_id,
+         referral_status, referral_facility, referral_floor)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    // Repeating facility mix: half wards, the rest ER, ICU and recovery
+    private static final String[] TYPE_CYCLE = {"WARD", "ER", "WARD", "ICU", "WARD", "PACU"};
+
+    private static final String[] SEVERITIES = {"critical", "high", "moderate"};
+    private static final Map<String, double[]> SEVERITY_MIX = Map.of(
+            "ER", new double[]{0.55, 0.35, 0.10},
+            "ICU", new double[]{0.80, 0.20, 0.00},
+            "PACU", new double[]{0.05, 0.45, 0.50},
+            "WARD", new double[]{0.02, 0.38, 0.60}
+    );
+
+    private static final String[] FIRST_NAMES = {
+            "Maria", "Jose", "Ana", "Juan", "Mark", "Grace", "Paolo", "Andrea", "Miguel", "Sofia",
+            "Carlo", "Bea", "Rafael", "Camille", "Luis", "Isabel", "Marco", "Patricia", "Daniel", "Kristine",
+            "Angelo", "Nicole", "Gabriel", "Joy", "Ramon", "Teresa", "Vincent", "Lourdes", "Emmanuel", "Rosa"
+    };
+    private static final String[] LAST_NAMES = {
+            "Santos", "Reyes", "Cruz", "Bautista", "Garcia", "Mendoza", "Torres", "Flores", "Ramos", "Villanueva",
+            "Castillo", "Aquino", "Navarro", "Domingo", "Morales", "Salazar", "Rivera", "Gonzales", "Lopez", "Tan",
+            "Dela Cruz", "Fernandez", "Pascual", "Soriano", "Manalo", "Lim", "Del Rosario", "Ocampo", "Valdez", "Go"
+    };
+    private static final String[] DIAGNOSES = {
+            "Chest pain", "Dengue fever", "Pneumonia", "Fracture, left femur", "Appendicitis",
+            "Asthma exacerbation", "Hypertensive urgency", "Gastroenteritis", "Head trauma", "Sepsis",
+            "Post-op observation", "Diabetic ketoacidosis", "Stroke", "Burns", "Urinary tract infection"
+    };
+    private static final String[] STAFF_ROLES = {"Doctor", "Nurse", "Nurse", "Nurse", "Technician"};
+
+    /**
+     * What to generate. {@code occupancy} is the share of units with an
+     * admitted patient; {@code history} is the number of discharged rows,
+     * spread over the last {@code historyDays}.
+     */
+    public record Spec(long seed, int facilities, int floorsPerFacility, int bedsPerFloor, int roomsPerFloor,
+                       double occupancy, int staffPerFloor, int history, int historyDays) {
+
+        public static Spec small() {
+            return new Spec(42, 6, 3, 20, 10, 0.7, 4, 1_000, 90);
+        }
+
+        public static Spec medium() {
+            return new Spec(42, 24, 5, 40, 20, 0.75, 6, 50_000, 365);
+        }
+
+        public static Spec large() {
+            return new Spec(42, 60, 8, 60, 30, 0.8, 8, 1_000_000, 3 * 365);
+        }
+    }
+
+    public record Result(int facilities, int floors, int units, int patients, int history, int staff, long millis) {
+        @Override
+        public String toString() {
+            return facilities + " facilities, " + floors + " floors, " + units + " units, "
+                    + patients + " admitted, " + history + " discharged, " + staff + " staff in " + millis + " ms";
+        }
+    }
+
+    private final Spec spec;
+    private final Random random;
+
+    private int floors;
+    private int units;
+    private int patients;
+    private int staff;
+
+    public DatasetGenerator(Spec spec) {
+        this.spec = spec;
+        this.random = new Random(spec.seed());
+    }
+
+    /** Facility type by position in the generated list. */
+    public static String facilityType(int index) {
+        return TYPE_CYCLE[index % TYPE_CYCLE.length];
+    }
+
+    /** Facility name by position: "Ward 1", "ER 1", "Ward 2", ... */
+    public static String facilityName(int index) {
+        String type = facilityType(index);
+        int ordinal = 0;
+        for (int i = 0; i <= index; i++) {
+            if (TYPE_CYCLE[i % TYPE_CYCLE.length].equals(type)) ordinal++;
+        }
+        return ("WARD".equals(type) ? "Ward" : type) + " " + ordinal;
+    }
+
+    /** Writes the whole spec. Progress (0..1) is reported after each facility. */
+    public Result generate(DoubleConsumer progress) throws SQLException {
+        long started = System.nanoTime();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < spec.facilities(); i++) {
+            names.add(facilityName(i));
+        }
+
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) throw new SQLException("No database connection");
+            conn.setAutoCommit(false);
+            try {
+                for (int i = 0; i < spec.facilities(); i++) {
+                    writeFacility(conn, names.get(i), facilityType(i), names);
+                    conn.commit();
+                    progress.accept((i + 1.0) / (spec.facilities() + 1));
+                }
+                writeHistory(conn);
+                conn.commit();
+                progress.accept(1.0);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } finally {
+            ReferenceDataCache.getInstance().invalidate();
+            CapacityTracker.getInstance().unitsChanged();
+        }
+        return new Result(spec.facilities(), floors, units, patients, spec.history(), staff,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // ================= FACILITIES =================
+
+    private void writeFacility(Connection conn, String name, String type, List<String> names) throws SQLException {
+        int facilityId;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO facilities (name, type, bed_count, room_count) VALUES (?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, name);
+            ps.setString(2, type);
+            ps.setInt(3, spec.bedsPerFloor());
+            ps.setInt(4, "WARD".equals(type) ? spec.roomsPerFloor() : 0);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (!keys.next()) throw new SQLException("No id returned for facility " + name);
+                facilityId = keys.getInt(1);
+            }
+        }
+
+        Map<Integer, Integer> floorIds = writeFloors(conn, facilityId);
+        writeUnits(conn, type, floorIds);
+        writePatients(conn, facilityId, type, names);
+        writeStaff(conn, facilityId, floorIds);
+    }
+
+    /** Floor number to floor id. */
+    private Map<Integer, Integer> writeFloors(Connection conn, int facilityId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO floors (facility_id, floor_number) VALUES (?, ?)")) {
+            for (int floor = 1; floor <= spec.floorsPerFacility(); floor++) {
+                ps.setInt(1, facilityId);
+                ps.setInt(2, floor);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        floors += spec.floorsPerFacility();
+
+        Map<Integer, Integer> ids = new LinkedHashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT id, floor_number FROM floors WHERE facility_id = ? ORDER BY floor_number")) {
+            ps.setInt(1, facilityId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(rs.getInt("floor_number"), rs.getInt("id"));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /** Units go in already OCCUPIED or AVAILABLE, so patients need no second pass over them. */
+    private void writeUnits(Connection conn, String type, Map<Integer, Integer> floorIds) throws SQLException {
+        int beds = spec.bedsPerFloor();
+        int rooms = "WARD".equals(type) ? spec.roomsPerFloor() : 0;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO units (floor_id, label, status) VALUES (?, ?, ?)")) {
+            Batch batch = new Batch(ps);
+            for (int floorId : floorIds.values()) {
+                for (int n = 1; n <= beds + rooms; n++) {
+                    ps.setInt(1, floorId);
+                    ps.setString(2, n <= beds ? "Bed " + n : "Room " + (n - beds));
+                    ps.setString(3, random.nextDouble() < spec.occupancy() ? "OCCUPIED" : "AVAILABLE");
+                    batch.add();
+                }
+            }
+            batch.flush();
+        }
+        units += floorIds.size() * (beds + rooms);
+    }
+
+    // ================= PATIENTS =================
+
+    private void writePatients(Connection conn, int facilityId, String type, List<String> names) throws SQLException {
+        List<Integer> occupied = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement("""
+                SELECT u.id
+                FROM units u
+                JOIN floors f ON f.id = u.floor_id
+                WHERE f.facility_id = ? AND u.status = 'OCCUPIED'
+                ORDER BY u.id
+                """)) {
+            ps.setInt(1, facilityId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) occupied.add(rs.getInt(1));
+            }
+        }
+
+        if (occupied.isEmpty()) return;
+        long code = PatientDAO.reservePatientCodes(occupied.size());
+        long now = System.currentTimeMillis();
+        try (PreparedStatement ps = conn.prepareStatement(PATIENT_INSERT)) {
+            Batch batch = new Batch(ps);
+            for (int unitId : occupied) {
+                // Current stays are days, not years
+                Timestamp admitted = new Timestamp(now - random.nextInt(14 * 24 * 60) * 60_000L);
+                bindPatient(ps, code++, severity(type), admitted, "admitted", unitId);
+
+                double roll = random.nextDouble();
+                if (roll < 0.05 && names.size() > 1) {
+                    ps.setString(10, "PENDING");
+                    ps.setString(11, names.get(random.nextInt(names.size())));
+                    ps.setInt(12, 1 + random.nextInt(spec.floorsPerFacility()));
+                } else {
+                    ps.setString(10, roll < 0.08 ? "DECLINED" : "NONE");
+                    ps.setNull(11, Types.VARCHAR);
+                    ps.setNull(12, Types.INTEGER);
+                }
+                batch.add();
+            }
+            batch.flush();
+        }
+        patients += occupied.size();
+    }
+
+    /** Discharged stays spread over the history window; they hold no unit. */
+    private void writeHistory(Connection conn) throws SQLException {
+        if (spec.history() <= 0) return;
+        long code = PatientDAO.reservePatientCodes(spec.history());
+        long now = System.currentTimeMillis();
+        long window = TimeUnit.DAYS.toMinutes(Math.max(spec.historyDays(), 1));
+        try (PreparedStatement ps = conn.prepareStatement(PATIENT_INSERT)) {
+            Batch batch = new Batch(ps);
+            for (int i = 0; i < spec.history(); i++) {
+                Timestamp admitted = new Timestamp(now - (long) (random.nextDouble() * window) * 60_000L);
+                bindPatient(ps, code++, severity(facilityType(random.nextInt(Math.max(spec.facilities(), 1)))),
+                        admitted, "discharged", null);
+                ps.setString(10, "NONE");
+                ps.setNull(11, Types.VARCHAR);
+                ps.setNull(12, Types.INTEGER);
+                // Commit every 50 batches so a million rows is not one transaction
+                if (batch.add() && batch.flushes() % 50 == 0) {
+                    conn.commit();
+                }
+            }
+            batch.flush();
+        }
+    }
+
+    private void bindPatient(PreparedStatement ps, long code, String severity, Timestamp admitted,
+                             String status, Integer unitId) throws SQLException {
+        ps.setString(1, "PT-" + code);
+        ps.setString(2, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        ps.setInt(3, age(severity));
+        ps.setString(4, random.nextBoolean() ? "Male" : "Female");
+        ps.setString(5, DIAGNOSES[random.nextInt(DIAGNOSES.length)]);
+        ps.setString(6, severity);
+        ps.setTimestamp(7, admitted);
+        ps.setString(8, status);
+        if (unitId == null) {
+            ps.setNull(9, Types.INTEGER);
+        } else {
+            ps.setInt(9, unitId);
+        }
+    }
+
+    private String severity(String type) {
+        double[] mix = SEVERITY_MIX.get(type);
+        double roll = random.nextDouble();
+        for (int i = 0; i < mix.length; i++) {
+            roll -= mix[i];
+            if (roll < 0) return SEVERITIES[i];
+        }
+        return SEVERITIES[SEVERITIES.length - 1];
+    }
+
+    /** Skews older for the sicker patients. */
+    private int age(String severity) {
+        int base = "critical".equals(severity) ? 45 : "high".equals(severity) ? 35 : 20;
+        return Math.min(base + random.nextInt(50), 100);
+    }
+
+    // ================= STAFF =================
+
+    private void writeStaff(Connection conn, int facilityId, Map<Integer, Integer> floorIds) throws SQLException {
+        if (spec.staffPerFloor() <= 0) return;
+        List<String[]> accounts = new ArrayList<>();
+        List<Integer> staffIds = new ArrayList<>();
+
+        try (PreparedStatement ps = conn.prepareStatement("""
+                INSERT INTO staff (first_name, last_name, role, facility_id, floor_id, on_shift)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """, Statement.RETURN_GENERATED_KEYS)) {
+            for (int floorId : floorIds.values()) {
+                for (int n = 0; n < spec.staffPerFloor(); n++) {
+                    String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                    String role = STAFF_ROLES[random.nextInt(STAFF_ROLES.length)];
+                    ps.setString(1, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                    ps.setString(2, lastName);
+                    ps.setString(3, role);
+                    ps.setInt(4, facilityId);
+                    ps.setInt(5, floorId);
+                    ps.setBoolean(6, random.nextDouble() < 0.4);
+                    ps.addBatch();
+                    accounts.add(new String[]{lastName, role});
+                }
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                while (keys.next()) staffIds.add(keys.getInt(1));
+            }
+        }
+        if (staffIds.size() != accounts.size()) {
+            throw new SQLException("Expected " + accounts.size() + " staff ids, got " + staffIds.size());
+        }
+
+        // Same scheme as StaffAccountsController, numbered so usernames stay unique
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO users (staff_id, username, password, role) VALUES (?, ?, ?, ?)")) {
+            Batch batch = new Batch(ps);
+            for (int i = 0; i < staffIds.size(); i++) {
+                String familyName = accounts.get(i)[0].toLowerCase().replace(" ", "");
+                ps.setInt(1, staffIds.get(i));
+                ps.setString(2, familyName + staffIds.get(i));
+                ps.setString(3, familyName + "123");
+                ps.setString(4, accounts.get(i)[1].toUpperCase());
+                batch.add();
+            }
+            batch.flush();
+        }
+        staff += staffIds.size();
+    }
+
+    // ================= BATCHING =================
+
+    private static final class Batch {
+        private final PreparedStatement ps;
+        private int pending;
+        private int flushes;
+
+        Batch(PreparedStatement ps) {
+            this.ps = ps;
+        }
+
+        /** True when this row completed a batch and it was sent. */
+        boolean add() throws SQLException {
+            ps.addBatch();
+            if (++pending < BATCH_SIZE) return false;
+            flush();
+            return true;
+        }
+
+        void flush() throws SQLException {
+            if (pending == 0) return;
+            ps.executeBatch();
+            pending = 0;
+            flushes++;
+        }
+
+        int flushes() {
+            return flushes;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.triage.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Something that happened to a patient or unit, published on the
+ * {@link EventBus} after the write committed. Events are notifications,
+ * not the data itself: receivers re-read what they show, so a lost or
+ * duplicated event costs at most one extra query.
+ */
+public record DomainEvent(Type type, int patientId, int unitId, int previousUnitId,
+                          String status, String origin) {
+
+    public enum Type {
+        UNIT_STATUS_CHANGED,
+        PATIENT_ADMITTED,
+        PATIENT_UPDATED,
+        PATIENT_DISCHARGED,
+        PATIENT_TRANSFERRED,
+        REFERRAL_REQUESTED,
+        REFERRAL_DECIDED
+    }
+
+    private static final String SEPARATOR = "|";
+
+    public static DomainEvent unitStatusChanged(int unitId, String status) {
+        return new DomainEvent(Type.UNIT_STATUS_CHANGED, 0, unitId, 0, status, null);
+    }
+
+    public static DomainEvent admitted(int patientId, int unitId) {
+        return new DomainEvent(Type.PATIENT_ADMITTED, patientId, unitId, 0, null, null);
+    }
+
+    public static DomainEvent updated(int patientId) {
+        return new DomainEvent(Type.PATIENT_UPDATED, patientId, 0, 0, null, null);
+    }
+
+    public static DomainEvent discharged(int patientId, int unitId) {
+        return new DomainEvent(Type.PATIENT_DISCHARGED, patientId, 0, unitId, null, null);
+    }
+
+    public static DomainEvent transferred(int patientId, int fromUnitId, int toUnitId) {
+        return new DomainEvent(Type.PATIENT_TRANSFERRED, patientId, toUnitId, fromUnitId, null, null);
+    }
+
+    public static DomainEvent referralRequested(int patientId) {
+        return new DomainEvent(Type.REFERRAL_REQUESTED, patientId, 0, 0, "PENDING", null);
+    }
+
+    /** An approved referral also moves the patient, from fromUnitId to toUnitId. */
+    public static DomainEvent referralApproved(int patientId, int fromUnitId, int toUnitId) {
+        return new DomainEvent(Type.REFERRAL_DECIDED, patientId, toUnitId, fromUnitId, "APPROVED", null);
+    }
+
+    public static DomainEvent referralDeclined(int patientId) {
+        return new DomainEvent(Type.REFERRAL_DECIDED, patientId, 0, 0, "DECLINED", null);
+    }
+
+    DomainEvent withOrigin(String origin) {
+        return new DomainEvent(type, patientId, unitId, previousUnitId, status, origin);
+    }
+
+    public boolean concernsPatient() {
+        return patientId > 0;
+    }
+
+    /** The unit statuses this event implies, keyed by unit id. */
+    public Map<Integer, String> unitStatuses() {
+        Map<Integer, String> statuses = new LinkedHashMap<>();
+        if (type == Type.UNIT_STATUS_CHANGED) {
+            statuses.put(unitId, status);
+            return statuses;
+        }
+        if (previousUnitId > 0) statuses.put(previousUnitId, "AVAILABLE");
+        if (unitId > 0) statuses.put(unitId, "OCCUPIED");
+        return statuses;
+    }
+
+    // ================= WIRE FORMAT =================
+
+    /** One line: type|patientId|unitId|previousUnitId|status|origin. */
+    String encode() {
+        return String.join(SEPARATOR,
+                type.name(),
+                String.valueOf(patientId),
+                String.valueOf(unitId),
+                String.valueOf(previousUnitId),
+                status == null ? "" : status,
+                origin == null ? "" : origin);
+    }
+
+    /** Parses a line written by {@link #encode()}; null if it is malformed. */
+    static DomainEvent decode(String line) {
+        String[] parts = line.split("\\|", -1);
+        if (parts.length != 6) return null;
+        try {
+            return new DomainEvent(
+                    Type.valueOf(parts[0]),
+                    Integer.parseInt(parts[1]),
+                    Integer.parseInt(parts[2]),
+                    Integer.parseInt(parts[3]),
+                    parts[4].isEmpty() ? null : parts[4],
+                    parts[5].isEmpty() ? null : parts[5]
+            );
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
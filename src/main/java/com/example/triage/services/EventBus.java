@@ -0,0 +1,138 @@
+package com.example.triage.services;
+
+import javafx.scene.Node;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Publish/subscribe channel for {@link DomainEvent}s. DAOs publish after a
+ * write commits; the patient index, capacity tracker and open views
+ * subscribe and apply each event incrementally, so other workstations see a
+ * bed taken or a patient moved within milliseconds instead of on their next
+ * click. The transport is chosen with {@code triage.events.transport}:
+ * {@code jvm}, the default, keeps events inside this process; {@code socket}
+ * links the workstations on this machine and needs a shared
+ * {@code triage.events.secret} (see {@link SocketTransport}). If the socket
+ * transport cannot start, the bus stays local.
+ * <p>
+ * Subscribers run one at a time on a dispatch thread, in publish order; hop
+ * to the FX thread before touching the UI.
+ */
+public class EventBus {
+
+    private static EventBus instance;
+
+    private final String origin = UUID.randomUUID().toString();
+    private final List<Consumer<DomainEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    private ExecutorService dispatcher;
+    private EventTransport transport;
+
+    private EventBus() {}
+
+    public static synchronized EventBus getInstance() {
+        if (instance == null) {
+            instance = new EventBus();
+        }
+        return instance;
+    }
+
+    // ================= LIFECYCLE =================
+
+    /** Connects the transport. Idempotent; called on first use. */
+    public synchronized void start() {
+        if (transport != null) return;
+
+        dispatcher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "event-dispatch");
+            t.setDaemon(true);
+            return t;
+        });
+        transport = "socket".equalsIgnoreCase(System.getProperty("triage.events.transport"))
+                ? new SocketTransport()
+                : new InJvmTransport();
+        try {
+            transport.start(this::receive);
+        } catch (IOException e) {
+            System.out.println("⚠️ Event transport unavailable, staying local: " + e.getMessage());
+            InJvmTransport local = new InJvmTransport();
+            local.start(this::receive);
+            transport = local;
+        }
+    }
+
+    public synchronized void stop() {
+        if (transport != null) {
+            transport.close();
+            transport = null;
+        }
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+            dispatcher = null;
+        }
+    }
+
+    // ================= PUBLISH / SUBSCRIBE =================
+
+    public void publish(DomainEvent event) {
+        EventTransport t;
+        synchronized (this) {
+            start();
+            t = transport;
+        }
+        t.publish(event.withOrigin(origin));
+    }
+
+    public void subscribe(Consumer<DomainEvent> subscriber) {
+        if (!subscribers.contains(subscriber)) {
+            subscribers.add(subscriber);
+        }
+        start();
+    }
+
+    public void unsubscribe(Consumer<DomainEvent> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /** Subscribes only while {@code node} is part of a scene. */
+    public void bind(Node node, Consumer<DomainEvent> subscriber) {
+        node.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                unsubscribe(subscriber);
+            } else {
+                subscribe(subscriber);
+            }
+        });
+        if (node.getScene() != null) {
+            subscribe(subscriber);
+        }
+    }
+
+    /** True for events published by this workstation, which already applied them. */
+    public boolean isLocal(DomainEvent event) {
+        return origin.equals(event.origin());
+    }
+
+    private void receive(DomainEvent event) {
+        ExecutorService executor;
+        synchronized (this) {
+            executor = dispatcher;
+        }
+        if (executor == null) return;
+        executor.execute(() -> {
+            for (Consumer<DomainEvent> subscriber : subscribers) {
+                try {
+                    subscriber.accept(event);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+}
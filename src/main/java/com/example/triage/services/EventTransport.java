@@ -0,0 +1,20 @@
+package com.example.triage.services;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link DomainEvent}s between workstations for the {@link EventBus}.
+ * A transport delivers every published event to every connected endpoint,
+ * the publisher included; the bus filters by origin where it needs to.
+ * Delivery is best effort: the change feed catches up anything missed.
+ */
+public interface EventTransport {
+
+    /** Connects and starts handing received events to {@code inbound}. */
+    void start(Consumer<DomainEvent> inbound) throws IOException;
+
+    void publish(DomainEvent event);
+
+    void close();
+}
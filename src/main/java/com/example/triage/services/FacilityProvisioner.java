@@ -0,0 +1,162 @@
+package com.example.triage.services;
+
+import com.example.triage.database.ChangeLog;
+import com.example.triage.database.DBConnection;
+import com.example.triage.database.ReferenceDataCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Creates a facility with all of its floors and units in one transaction.
+ * Floors and units are written with JDBC batches (sent as multi-row INSERTs
+ * by the driver), so a large ward is a handful of round-trips and a single
+ * commit instead of one autocommitted INSERT per bed. Blocking: run it
+ * through {@link AsyncDAO}.
+ */
+public class FacilityProvisioner {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final List<String> BED_TYPES = List.of("ER", "WARD", "ICU", "PACU");
+
+    public record Layout(String name, String type, int floors, int bedsPerFloor, int roomsPerFloor) {
+
+        int bedsPerFloorFor() {
+            return BED_TYPES.contains(type) ? bedsPerFloor : 0;
+        }
+
+        int roomsPerFloorFor() {
+            return "WARD".equals(type) ? roomsPerFloor : 0;
+        }
+
+        public int unitCount() {
+            return floors * (bedsPerFloorFor() + roomsPerFloorFor());
+        }
+    }
+
+    /**
+     * Writes the layout and returns the new facility id. Progress (0..1) is
+     * reported from the calling thread after each batch.
+     */
+    public int provision(Layout layout, DoubleConsumer progress) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) throw new SQLException("No database connection");
+
+            conn.setAutoCommit(false);
+            try {
+                int facilityId = insertFacility(conn, layout);
+                Map<Integer, Integer> floorIds = insertFloors(conn, facilityId, layout.floors());
+                insertUnits(conn, layout, floorIds, progress);
+                ChangeLog.record(conn, ChangeLog.FACILITY, facilityId);
+                conn.commit();
+                progress.accept(1.0);
+                return facilityId;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } finally {
+            ReferenceDataCache.getInstance().invalidate();
+            CapacityTracker.getInstance().unitsChanged();
+        }
+    }
+
+    private int insertFacility(Connection conn, Layout layout) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO facilities (name, type, bed_count, room_count) VALUES (?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS
+        )) {
+            ps.setString(1, layout.name());
+            ps.setString(2, layout.type());
+            ps.setInt(3, layout.bedsPerFloor());
+            ps.setInt(4, layout.roomsPerFloor());
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (!keys.next()) throw new SQLException("No id returned for facility " + layout.name());
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    /** Batch-inserts the floors, then reads their ids back in one query. */
+    private Map<Integer, Integer> insertFloors(Connection conn, int facilityId, int floors) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO floors (facility_id, floor_number) VALUES (?, ?)"
+        )) {
+            for (int floor = 1; floor <= floors; floor++) {
+                ps.setInt(1, facilityId);
+                ps.setInt(2, floor);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        Map<Integer, Integer> ids = new LinkedHashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT id, floor_number FROM floors WHERE facility_id = ? ORDER BY floor_number"
+        )) {
+            ps.setInt(1, facilityId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(rs.getInt("floor_number"), rs.getInt("id"));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void insertUnits(Connection conn, Layout layout, Map<Integer, Integer> floorIds,
+                             DoubleConsumer progress) throws SQLException {
+        int total = layout.unitCount();
+        if (total == 0) return;
+
+        int written = 0;
+        int pending = 0;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO units (floor_id, label, status) VALUES (?, ?, 'AVAILABLE')"
+        )) {
+            for (int floorId : floorIds.values()) {
+                for (int b = 1; b <= layout.bedsPerFloorFor(); b++) {
+                    pending = add(ps, floorId, "Bed " + b, pending);
+                    if (pending == BATCH_SIZE) {
+                        written += flush(ps, pending, written, total, progress);
+                        pending = 0;
+                    }
+                }
+                for (int r = 1; r <= layout.roomsPerFloorFor(); r++) {
+                    pending = add(ps, floorId, "Room " + r, pending);
+                    if (pending == BATCH_SIZE) {
+                        written += flush(ps, pending, written, total, progress);
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                flush(ps, pending, written, total, progress);
+            }
+        }
+    }
+
+    private static int add(PreparedStatement ps, int floorId, String label, int pending) throws SQLException {
+        ps.setInt(1, floorId);
+        ps.setString(2, label);
+        ps.addBatch();
+        return pending + 1;
+    }
+
+    private static int flush(PreparedStatement ps, int pending, int written, int total,
+                             DoubleConsumer progress) throws SQLException {
+        ps.executeBatch();
+        // Leave the last slice for the commit
+        progress.accept(0.95 * (written + pending) / total);
+        return pending;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.triage.services;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers events to every endpoint started in this JVM. The default, and
+ * the fallback when the socket transport cannot start.
+ */
+public class InJvmTransport implements EventTransport {
+
+    private static final List<Consumer<DomainEvent>> ENDPOINTS = new CopyOnWriteArrayList<>();
+
+    private Consumer<DomainEvent> inbound;
+
+    @Override
+    public void start(Consumer<DomainEvent> inbound) {
+        this.inbound = inbound;
+        ENDPOINTS.add(inbound);
+    }
+
+    @Override
+    public void publish(DomainEvent event) {
+        for (Consumer<DomainEvent> endpoint : ENDPOINTS) {
+            endpoint.accept(event);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (inbound != null) {
+            ENDPOINTS.remove(inbound);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.triage.services;
+
+import com.example.triage.database.QueryCancellation;
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps only the newest background load for one view element.
+ * Submitting a new request cancels the previous one, including the SQL it
+ * is running (see {@link QueryCancellation}), and a result that arrives
+ * after it was superseded is dropped instead of rendered.
+ * Must be used from the FX thread.
+ */
+public class LatestRequest<T> {
+
+    private CompletableFuture<T> current;
+    private QueryCancellation scope;
+    private long generation = 0;
+
+    public CompletableFuture<T> submit(Supplier<T> call, Consumer<T> onFx) {
+        cancel();
+        long token = ++generation;
+
+        QueryCancellation cancellation = new QueryCancellation();
+        CompletableFuture<T> future = AsyncDAO.getInstance().supply(() -> cancellation.call(call));
+        current = future;
+        scope = cancellation;
+        future.whenComplete((result, error) -> {
+            if (error != null) AsyncDAO.report(error);
+            Platform.runLater(() -> {
+                if (token != generation) return; // superseded while in flight
+                // Cleared on failure too, or isPending() would stay true for good
+                current = null;
+                scope = null;
+                if (error == null) onFx.accept(result);
+            });
+        });
+        return future;
+    }
+
+    public void cancel() {
+        generation++;
+        if (current != null) {
+            QueryCancellation running = scope;
+            // Statement.cancel() may open a connection of its own; keep it off the FX thread
+            AsyncDAO.getInstance().run(running::cancel);
+            current.cancel(true);
+            current = null;
+            scope = null;
+        }
+    }
+
+    public boolean isPending() {
+        return current != null;
+    }
+}
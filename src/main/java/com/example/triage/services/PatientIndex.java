@@ -0,0 +1,437 @@
+package com.example.triage.services;
+
+import com.example.triage.database.Patient;
+import com.example.triage.database.PatientDAO;
+import com.example.triage.database.SortMode;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index over admitted patients, so the patients view can filter
+ * without touching the database. Each patient gets a dense slot number;
+ * trigram postings on name and code and secondary postings on facility,
+ * floor and severity are BitSets over those slots, and a filter combination
+ * is their intersection. Kept current by {@link PatientDAO} after each
+ * admit, edit, referral change and discharge made here, by
+ * {@link EventBus} events from other desks as they happen, and by the
+ * {@link ChangeFeed} for anything the events missed. Changes that arrive
+ * while the index is loading (or stale after a resync) are held back and
+ * applied once the load finishes.
+ */
+public class PatientIndex {
+
+    private static final int GRAM = 3;
+
+    private static PatientIndex instance;
+
+    private final PatientDAO patientDAO = new PatientDAO();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final List<Patient> slots = new ArrayList<>();
+    private final List<List<Posting>> slotPostings = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, BitSet> grams = new HashMap<>();
+    private final Map<String, BitSet> byFacility = new HashMap<>();
+    private final Map<Integer, BitSet> byFloor = new HashMap<>();
+    private final Map<String, BitSet> bySeverity = new HashMap<>();
+    private volatile boolean loaded;
+
+    // Guarded by pendingLock; only collected once a load has subscribed to the feed
+    private final Object pendingLock = new Object();
+    private boolean subscribed;
+    private ChangeFeed.Changes pending;
+
+    /** One posting list a slot was added to, and the key it is filed under. */
+    private record Posting(Map<?, BitSet> index, Object key, BitSet bits) {}
+
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+    private final ChangeFeed.Listener feedListener = this::applyChanges;
+    private final Consumer<DomainEvent> eventListener = this::applyEvent;
+
+    private PatientIndex() {}
+
+    public static synchronized PatientIndex getInstance() {
+        if (instance == null) {
+            instance = new PatientIndex();
+        }
+        return instance;
+    }
+
+    // ================= LOADING =================
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Builds the index from the database once. Blocking. Returns false if the
+     * load failed, in which case callers should query the database directly.
+     */
+    public boolean ensureLoaded() {
+        if (loaded) return true;
+        ChangeFeed.Changes missed;
+        synchronized (this) {
+            if (loaded) return true;
+            ChangeFeed feed = ChangeFeed.getInstance();
+            feed.ensureBaseline();
+            synchronized (pendingLock) {
+                subscribed = true;
+                // Anything delivered before this point was committed before the read below
+                pending = null;
+            }
+            feed.addListener(feedListener);
+            EventBus.getInstance().subscribe(eventListener);
+            try {
+                lock.writeLock().lock();
+                try {
+                    clear();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                // Page by page so the full census never sits in one JDBC result
+                patientDAO.streamPatientsFiltered(null, null, null, null, SortMode.NONE,
+                        PatientDAO.DEFAULT_PAGE_SIZE, page -> {
+                            lock.writeLock().lock();
+                            try {
+                                page.forEach(this::insert);
+                            } finally {
+                                lock.writeLock().unlock();
+                            }
+                            return true;
+                        });
+                synchronized (pendingLock) {
+                    loaded = true;
+                    missed = pending;
+                    pending = null;
+                }
+                System.out.println("✅ Patient index loaded: " + size() + " patients");
+            } catch (SQLException e) {
+                System.out.println("❌ Patient index load failed: " + e.getMessage());
+                return false;
+            }
+        }
+        // Changed while the pages were being read; the load may have seen either version
+        if (missed != null) applyChanges(missed);
+        return true;
+    }
+
+    /**
+     * Holds a change back while the index is not loaded. Returns false when
+     * the index is loaded and the caller should apply it now.
+     */
+    private boolean defer(ChangeFeed.Changes changes) {
+        synchronized (pendingLock) {
+            if (loaded) return false;
+            if (subscribed) {
+                pending = pending == null ? changes : pending.merge(changes);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Drops the contents after the feed lost track of the log. The reload
+     * runs on its own thread: the caller is the feed, and loading waits on
+     * the feed for a baseline.
+     */
+    private void markStale() {
+        synchronized (pendingLock) {
+            loaded = false;
+        }
+        System.out.println("🔄 Patient index is stale; reloading");
+        AsyncDAO.getInstance().run(this::ensureLoaded);
+    }
+
+    /** Replaces the whole index with the given admitted patients. */
+    public void rebuild(List<Patient> patients) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Patient p : patients) {
+                insert(p);
+            }
+            synchronized (pendingLock) {
+                loaded = true;
+                pending = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        slots.clear();
+        slotPostings.clear();
+        freeSlots.clear();
+        slotById.clear();
+        live.clear();
+        grams.clear();
+        byFacility.clear();
+        byFloor.clear();
+        bySeverity.clear();
+    }
+
+    // ================= INCREMENTAL UPDATES =================
+
+    /** Runs on the feed thread whenever the feed changed the index. */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Runnable listener) {
+        changeListeners.remove(listener);
+    }
+
+    /** Applies a patient event from another workstation. */
+    private void applyEvent(DomainEvent event) {
+        if (!event.concernsPatient() || EventBus.getInstance().isLocal(event)) return;
+        if (defer(patientChanged(event.patientId()))) return;
+        if (event.type() == DomainEvent.Type.PATIENT_DISCHARGED) {
+            remove(event.patientId());
+        } else {
+            refresh(event.patientId());
+        }
+        fireChanged();
+    }
+
+    /** Applies a change-feed batch: re-reads only the patients that changed. */
+    private void applyChanges(ChangeFeed.Changes changes) {
+        if (defer(changes)) return;
+        if (changes.resync()) {
+            markStale();
+            return;
+        }
+        if (changes.patients().isEmpty()) return;
+
+        List<Patient> fresh;
+        try {
+            fresh = patientDAO.getPatientsByIds(changes.patients());
+        } catch (SQLException e) {
+            System.out.println("❌ Patient index sync failed: " + e.getMessage());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            // Anything not returned is no longer admitted
+            for (int id : changes.patients()) {
+                removeSlot(id);
+            }
+            for (Patient p : fresh) {
+                insert(p);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        fireChanged();
+    }
+
+    private static ChangeFeed.Changes patientChanged(int patientId) {
+        return new ChangeFeed.Changes(Set.of(patientId), Set.of(), Set.of(), false, false);
+    }
+
+    private void fireChanged() {
+        for (Runnable listener : changeListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** Re-reads one patient after a write; drops it if no longer admitted. */
+    public void refresh(int patientId) {
+        if (defer(patientChanged(patientId))) return;
+        Patient fresh = patientDAO.getPatientById(patientId);
+        if (fresh == null) {
+            remove(patientId);
+        } else {
+            put(fresh);
+        }
+    }
+
+    public void put(Patient patient) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(patient.getId());
+            insert(patient);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int patientId) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(patientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(Patient p) {
+        List<Posting> postings = postingsFor(p);
+        Integer reused = freeSlots.poll();
+        int slot;
+        if (reused != null) {
+            slot = reused;
+            slots.set(slot, p);
+            slotPostings.set(slot, postings);
+        } else {
+            slot = slots.size();
+            slots.add(p);
+            slotPostings.add(postings);
+        }
+        slotById.put(p.getId(), slot);
+        live.set(slot);
+
+        for (Posting posting : postings) {
+            posting.bits().set(slot);
+        }
+    }
+
+    private void removeSlot(int patientId) {
+        Integer slot = slotById.remove(patientId);
+        if (slot == null) return;
+
+        // Clear exactly what insert() set, even if the Patient was mutated since;
+        // a posting nobody is in any more (old name, emptied unit) is dropped
+        for (Posting posting : slotPostings.get(slot)) {
+            posting.bits().clear(slot);
+            if (posting.bits().isEmpty()) {
+                posting.index().remove(posting.key());
+            }
+        }
+        live.clear(slot);
+        slots.set(slot, null);
+        slotPostings.set(slot, null);
+        freeSlots.push(slot);
+    }
+
+    private List<Posting> postingsFor(Patient p) {
+        Set<String> patientGrams = gramsOf(p.getFullName());
+        patientGrams.addAll(gramsOf(p.getPatientCode()));
+
+        List<Posting> postings = new ArrayList<>(patientGrams.size() + 4);
+        for (String gram : patientGrams) {
+            postings.add(posting(grams, gram));
+        }
+        if (p.getFacilityName() != null) {
+            postings.add(posting(byFacility, p.getFacilityName()));
+        }
+        if (p.getReferralFacility() != null && !p.getReferralFacility().equals(p.getFacilityName())) {
+            postings.add(posting(byFacility, p.getReferralFacility()));
+        }
+        postings.add(posting(byFloor, p.getFloorNumber()));
+        if (p.getSeverity() != null) {
+            postings.add(posting(bySeverity, lower(p.getSeverity())));
+        }
+        return postings;
+    }
+
+    private static <K> Posting posting(Map<K, BitSet> index, K key) {
+        return new Posting(index, key, index.computeIfAbsent(key, k -> new BitSet()));
+    }
+
+    private static Set<String> gramsOf(String text) {
+        Set<String> out = new HashSet<>();
+        if (text == null) return out;
+        String s = lower(text);
+        for (int i = 0; i + GRAM <= s.length(); i++) {
+            out.add(s.substring(i, i + GRAM));
+        }
+        return out;
+    }
+
+    // ================= QUERIES =================
+
+    /**
+     * Same semantics as {@link PatientDAO#getPatientsFiltered}: facility
+     * matches the placement or a pending referral target, search is a
+     * case-insensitive substring of name or code.
+     */
+    public List<Patient> find(String facility, Integer floor, String severity, String search, SortMode sort) {
+        lock.readLock().lock();
+        try {
+            BitSet hits = (BitSet) live.clone();
+
+            if (facility != null) and(hits, byFacility.get(facility));
+            if (floor != null) and(hits, byFloor.get(floor));
+            if (severity != null) and(hits, bySeverity.get(lower(severity)));
+
+            String term = search == null ? null : lower(search);
+            if (term != null) {
+                for (String gram : gramsOf(term)) {
+                    and(hits, grams.get(gram));
+                    if (hits.isEmpty()) break;
+                }
+            }
+
+            List<Patient> result = new ArrayList<>(hits.cardinality());
+            for (int slot = hits.nextSetBit(0); slot >= 0; slot = hits.nextSetBit(slot + 1)) {
+                Patient p = slots.get(slot);
+                // Trigrams only narrow the candidates; short terms and gram order need the real check
+                if (term == null || contains(p.getFullName(), term) || contains(p.getPatientCode(), term)) {
+                    result.add(p);
+                }
+            }
+            sort(result, sort);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void and(BitSet hits, BitSet postings) {
+        if (postings == null) {
+            hits.clear();
+        } else {
+            hits.and(postings);
+        }
+    }
+
+    private static void sort(List<Patient> patients, SortMode sort) {
+        switch (sort == null ? SortMode.NONE : sort) {
+            case ADMISSION_DATE -> patients.sort(Comparator.comparing(
+                    Patient::getAdmissionDate, Comparator.nullsLast(Comparator.<Timestamp>reverseOrder())));
+            case BED_ROOM -> patients.sort(Comparator.comparing(
+                    Patient::getUnitLabel, Comparator.nullsFirst(Comparator.<String>naturalOrder())));
+            default -> patients.sort(Comparator.comparingInt(Patient::getId));
+        }
+    }
+
+    private static boolean contains(String value, String term) {
+        return value != null && lower(value).contains(term);
+    }
+
+    private static String lower(String s) {
+        return s.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.triage.services;
+
+import com.example.triage.database.Patient;
+import com.example.triage.database.SortMode;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Search pipeline for the patients view. Keystrokes are debounced, a newer
+ * query cancels the one in flight, and a query that only extends the search
+ * text of the last loaded (or in-flight) one is answered by filtering that
+ * result in memory instead of going back to the database.
+ * Must be used from the FX thread.
+ */
+public class PatientSearch {
+
+    public record Query(String facility, Integer floor, String severity, String search, SortMode sort) {
+
+        /** True when every row matching this query is also in {@code wider}'s result. */
+        boolean narrows(Query wider) {
+            if (wider == null) return false;
+            if (!Objects.equals(facility, wider.facility)
+                    || !Objects.equals(floor, wider.floor)
+                    || !Objects.equals(severity, wider.severity)
+                    || sort != wider.sort) {
+                return false;
+            }
+            if (wider.search == null) return true;
+            return search != null && lower(search).contains(lower(wider.search));
+        }
+    }
+
+    /**
+     * Rows for a query; {@code complete} is false while later pages are still
+     * loading. An {@code append} result carries only the page that just
+     * arrived, to be added after the rows already shown; otherwise the rows
+     * replace them.
+     */
+    public record Result(Query query, List<Patient> patients, boolean complete, boolean append) {}
+
+    /**
+     * Loads a query in the background. Each page may be offered to
+     * {@code partial} as it arrives (only the new rows, not everything so
+     * far); it returns false once the query is superseded, and the loader
+     * should then stop paging.
+     */
+    public interface Loader {
+        List<Patient> load(Query query, Predicate<List<Patient>> partial);
+    }
+
+    private static final long DEFAULT_DEBOUNCE_MS =
+            Long.getLong("triage.search.debounceMs", 250);
+
+    private final Loader loader;
+    private final Consumer<Result> onResult;
+    private final PauseTransition debounce;
+    private final LatestRequest<List<Patient>> request = new LatestRequest<>();
+
+    private Query loadedQuery;
+    private List<Patient> loaded = List.of();
+
+    private Query inFlightQuery;
+    // Bumped by invalidate(); a request sent in an older epoch may predate a write
+    private long epoch;
+    private long inFlightEpoch;
+    private Query wanted;
+    // Read by loader threads to stop paging for a superseded query
+    private volatile long generation;
+
+    public PatientSearch(Loader loader, Consumer<Result> onResult) {
+        this(Duration.millis(DEFAULT_DEBOUNCE_MS), loader, onResult);
+    }
+
+    public PatientSearch(Duration debounceDelay, Loader loader, Consumer<Result> onResult) {
+        this.loader = loader;
+        this.onResult = onResult;
+        this.debounce = new PauseTransition(debounceDelay);
+    }
+
+    /** Runs the query after the debounce delay; each call restarts the delay. */
+    public void submitDebounced(Query query) {
+        debounce.setOnFinished(e -> submit(query));
+        debounce.playFromStart();
+    }
+
+    /** Runs the query now, narrowing in memory when possible. */
+    public void submit(Query query) {
+        debounce.stop();
+        wanted = query;
+
+        if (inFlightQuery != null && request.isPending() && inFlightEpoch == epoch) {
+            if (query.narrows(inFlightQuery)) return; // filtered when it lands
+        } else if (query.narrows(loadedQuery)) {
+            generation++;
+            onResult.accept(new Result(query, filter(loaded, query), true, false));
+            return;
+        }
+
+        Query sent = query;
+        long token = ++generation;
+        long sentEpoch = epoch;
+        inFlightQuery = sent;
+        inFlightEpoch = sentEpoch;
+        // FX thread only; once one page is dropped as stale every later one is too
+        boolean[] shownPage = {false};
+        request.submit(() -> loader.load(sent, page -> {
+            if (token != generation) return false;
+            Platform.runLater(() -> {
+                if (token != generation || sentEpoch != epoch) return;
+                // The first page replaces the previous query's rows, later ones are appended
+                onResult.accept(new Result(wanted, narrowTo(page, sent), false, shownPage[0]));
+                shownPage[0] = true;
+            });
+            return true;
+        }), patients -> {
+            inFlightQuery = null;
+            if (sentEpoch != epoch) {
+                // Read before a write this view has since made; ask again rather than show it
+                submit(wanted);
+                return;
+            }
+            loadedQuery = sent;
+            loaded = patients;
+            onResult.accept(new Result(wanted, narrowTo(patients, sent), true, false));
+        });
+    }
+
+    /**
+     * Forgets the cached result, e.g. after a write, so the next submit hits
+     * the database. A query already in flight is not reused or rendered.
+     */
+    public void invalidate() {
+        epoch++;
+        loadedQuery = null;
+        loaded = List.of();
+    }
+
+    public void cancel() {
+        generation++;
+        debounce.stop();
+        request.cancel();
+        inFlightQuery = null;
+    }
+
+    private List<Patient> narrowTo(List<Patient> patients, Query sent) {
+        return sent == wanted ? patients : filter(patients, wanted);
+    }
+
+    private static List<Patient> filter(List<Patient> patients, Query query) {
+        if (query.search() == null) return patients;
+
+        String term = lower(query.search());
+        List<Patient> matches = new ArrayList<>();
+        for (Patient p : patients) {
+            if (contains(p.getFullName(), term) || contains(p.getPatientCode(), term)) {
+                matches.add(p);
+            }
+        }
+        return matches;
+    }
+
+    private static boolean contains(String value, String term) {
+        return value != null && lower(value).contains(term);
+    }
+
+    private static String lower(String s) {
+        return s.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.triage.services;
 
 
+/**
+ * Role rules for the UI and the server. The no-argument checks ask about the
+ * user logged in at this desk; the overloads taking a role are the same rules
+ * for a caller the server authenticated.
+ */
 public class PermissionService {
 
 
@@ -12,29 +17,48 @@ public class PermissionService {
 
     /* ===== ROLE CHECKS ===== */
     public static boolean isAdmin() {
-        return "admin".equalsIgnoreCase(role());
+        return isAdmin(role());
     }
     public static boolean isDoctor() {
-        return "doctor".equalsIgnoreCase(role());
+        return isDoctor(role());
     }
     public static boolean isNurseOrTechnician() {
-        return "nurse".equalsIgnoreCase(role())
-                || "technician".equalsIgnoreCase(role());
+        return isNurseOrTechnician(role());
     }
     public static boolean isAdminOrDoctor() {
-        return isAdmin() || isDoctor();
+        return isAdminOrDoctor(role());
+    }
+
+    public static boolean isAdmin(String role) {
+        return "admin".equalsIgnoreCase(role);
+    }
+    public static boolean isDoctor(String role) {
+        return "doctor".equalsIgnoreCase(role);
+    }
+    public static boolean isNurseOrTechnician(String role) {
+        return "nurse".equalsIgnoreCase(role)
+                || "technician".equalsIgnoreCase(role);
+    }
+    public static boolean isAdminOrDoctor(String role) {
+        return isAdmin(role) || isDoctor(role);
     }
 
     /* ===== MANAGEMENT ===== */
     public static boolean canManageStaff() {
-        return isAdmin();
+        return canManageStaff(role());
     }
     public static boolean canManageFacilities() {
-        return isAdmin();
+        return canManageFacilities(role());
+    }
+    public static boolean canManageStaff(String role) {
+        return isAdmin(role);
+    }
+    public static boolean canManageFacilities(String role) {
+        return isAdmin(role);
     }
     /* ===== PATIENT ACTIONS ===== */
     public static boolean canAddPatient() {
-        return isAdmin() || isDoctor() || isNurseOrTechnician();
+        return canAddPatient(role());
     }
     public static boolean canEditSeverity() {
         return canAddPatient();
@@ -42,17 +66,27 @@ public class PermissionService {
     public static boolean canDischargePatient() {
         return canAddPatient();
     }
+    public static boolean canAddPatient(String role) {
+        return isAdmin(role) || isDoctor(role) || isNurseOrTechnician(role);
+    }
 
     /* ===== TRANSFER LOGIC ===== */
     public static boolean canTransfer(
             String fromFacilityType,
             String toFacilityType
+    ) {
+        return canTransfer(role(), fromFacilityType, toFacilityType);
+    }
+    public static boolean canTransfer(
+            String role,
+            String fromFacilityType,
+            String toFacilityType
     ) {
         // Admin & Doctor: unrestricted
-        if (isAdmin() || isDoctor()) {
+        if (isAdminOrDoctor(role)) {
             return true;
         }
-        return isNurseOrTechnician()
+        return isNurseOrTechnician(role)
                 && "WARD".equalsIgnoreCase(fromFacilityType)
                 && "WARD".equalsIgnoreCase(toFacilityType);
     }
@@ -0,0 +1,348 @@
+package com.example.triage.services;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Stand-in for a message broker between workstations on one machine. The
+ * first instance to bind the loopback port becomes the hub and relays every
+ * line it receives to all other connected instances; later instances connect
+ * to it as clients. If the hub exits, the clients reconnect and one of them
+ * takes over the port. Events published while disconnected are dropped (the
+ * change feed covers them).
+ * <p>
+ * Both ends of a connection prove they know the shared secret from
+ * {@code triage.events.secret} without sending it: each answers the other's
+ * random challenge with an HMAC-SHA256 keyed by the secret, the connecting
+ * side first, so other local processes can neither inject nor read events.
+ * Without a secret the transport refuses to start. Every connection has a bounded outbound
+ * queue drained by its own writer thread, so publishing never waits on a
+ * socket; a peer that falls a full queue behind is disconnected.
+ */
+public class SocketTransport implements EventTransport {
+
+    private static final int PORT = Integer.getInteger("triage.events.port", 47211);
+    private static final String SECRET = System.getProperty("triage.events.secret", "");
+    private static final int QUEUE_CAPACITY = Integer.getInteger("triage.events.queueSize", 1024);
+    private static final long RECONNECT_MS = 1000;
+    private static final int HANDSHAKE_TIMEOUT_MS = 2000;
+    private static final String HMAC = "HmacSHA256";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final List<Peer> peers = new CopyOnWriteArrayList<>();
+    private volatile Peer upstream;
+    private volatile ServerSocket hub;
+    private volatile Socket client;
+    private volatile boolean closed;
+    private volatile boolean warnedUnauthenticated;
+
+    private Consumer<DomainEvent> inbound;
+
+    /**
+     * Binds the hub port or connects to the hub once before returning, so a
+     * transport that can reach nobody fails here and the bus stays local.
+     */
+    @Override
+    public void start(Consumer<DomainEvent> inbound) throws IOException {
+        if (SECRET.isEmpty()) {
+            throw new IOException("triage.events.secret is not set; peers could not be authenticated");
+        }
+        this.inbound = inbound;
+        Closeable first = open();
+        Thread.ofPlatform().daemon().name("event-transport").start(() -> run(first));
+    }
+
+    @Override
+    public void publish(DomainEvent event) {
+        // Local delivery never waits on the network
+        inbound.accept(event);
+
+        String line = event.encode();
+        if (hub != null) {
+            for (Peer peer : peers) {
+                peer.send(line);
+            }
+        } else {
+            Peer out = upstream;
+            if (out != null) out.send(line);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeQuietly(hub);
+        closeQuietly(client);
+    }
+
+    // ================= CONNECTION LOOP =================
+
+    /** The hub's server socket if the port was free, else a socket connected to the hub. */
+    private Closeable open() throws IOException {
+        try {
+            return new ServerSocket(PORT, 50, InetAddress.getLoopbackAddress());
+        } catch (BindException e) {
+            // Someone else is the hub
+            return new Socket(InetAddress.getLoopbackAddress(), PORT);
+        }
+    }
+
+    private void run(Closeable first) {
+        Closeable endpoint = first;
+        while (!closed) {
+            try {
+                if (endpoint == null) endpoint = open();
+                if (endpoint instanceof ServerSocket server) {
+                    serveAsHub(server);
+                } else {
+                    connectAsClient((Socket) endpoint);
+                }
+            } catch (IOException e) {
+                // A client losing the hub loops and tries to take over; a failing hub is worth a line
+                if (!closed && endpoint instanceof ServerSocket) {
+                    System.out.println("❌ Event hub failed: " + e.getMessage());
+                }
+            }
+            endpoint = null;
+            if (!closed) sleep();
+        }
+    }
+
+    private void serveAsHub(ServerSocket server) throws IOException {
+        try (server) {
+            hub = server;
+            System.out.println("📡 Event hub listening on port " + PORT);
+            while (!closed) {
+                Socket socket = server.accept();
+                Thread.ofVirtual().name("event-peer").start(() -> servePeer(socket));
+            }
+        } finally {
+            hub = null;
+            for (Peer peer : peers) {
+                peer.close();
+            }
+            peers.clear();
+        }
+    }
+
+    private void servePeer(Socket socket) {
+        Peer peer = null;
+        try (socket;
+             BufferedReader in = reader(socket)) {
+            if (!acceptPeer(socket, in)) return;
+            peer = new Peer(socket);
+            peers.add(peer);
+            String line;
+            while ((line = in.readLine()) != null) {
+                DomainEvent event = DomainEvent.decode(line);
+                if (event == null) continue;
+                inbound.accept(event);
+                for (Peer other : peers) {
+                    if (other != peer) other.send(line);
+                }
+            }
+        } catch (IOException ignored) {
+            // Peer disconnected
+        } finally {
+            if (peer != null) {
+                peers.remove(peer);
+                peer.close();
+            }
+        }
+    }
+
+    private void connectAsClient(Socket socket) throws IOException {
+        Peer out = null;
+        try (socket;
+             BufferedReader in = reader(socket)) {
+            client = socket;
+            if (!authenticateHub(socket, in)) {
+                if (!warnedUnauthenticated) {
+                    warnedUnauthenticated = true;
+                    System.out.println("⚠️ Event hub on port " + PORT + " did not authenticate; not connecting");
+                }
+                return;
+            }
+            out = new Peer(socket);
+            upstream = out;
+            System.out.println("📡 Connected to event hub on port " + PORT);
+            String line;
+            while ((line = in.readLine()) != null) {
+                DomainEvent event = DomainEvent.decode(line);
+                if (event != null) inbound.accept(event);
+            }
+        } finally {
+            upstream = null;
+            client = null;
+            if (out != null) out.close();
+        }
+    }
+
+    // ================= HANDSHAKE =================
+    //
+    //   hub  -> peer   hubNonce
+    //   peer -> hub    peerNonce proof("peer", hubNonce, peerNonce)
+    //   hub  -> peer   proof("hub", peerNonce, hubNonce)
+    //
+    // The hub answers only a peer that has already proved itself, so a
+    // process that merely connects gets a random nonce and nothing derived
+    // from the secret. The role in each proof stops one side's answer being
+    // replayed as the other's.
+
+    /** The hub's side: challenge the connecting peer and answer it only once it has proved itself. */
+    private static boolean acceptPeer(Socket socket, BufferedReader in) throws IOException {
+        Writer out = writer(socket);
+        String hubNonce = nonce();
+        out.write(hubNonce + "\n");
+        out.flush();
+
+        String[] reply = readHandshake(socket, in);
+        if (reply == null || reply.length != 2
+                || !matches(reply[1], proof("peer", hubNonce, reply[0]))) {
+            return false;
+        }
+        out.write(proof("hub", reply[0], hubNonce) + "\n");
+        out.flush();
+        return true;
+    }
+
+    /** The connecting side: answer the hub's challenge and check its answer to ours. */
+    private static boolean authenticateHub(Socket socket, BufferedReader in) throws IOException {
+        String[] challenge = readHandshake(socket, in);
+        if (challenge == null || challenge.length != 1) return false;
+        String hubNonce = challenge[0];
+
+        Writer out = writer(socket);
+        String peerNonce = nonce();
+        out.write(peerNonce + " " + proof("peer", hubNonce, peerNonce) + "\n");
+        out.flush();
+
+        String[] answer = readHandshake(socket, in);
+        return answer != null && answer.length == 1 && matches(answer[0], proof("hub", peerNonce, hubNonce));
+    }
+
+    /** One handshake line split on spaces, or null if the other side hung up or took too long. */
+    private static String[] readHandshake(Socket socket, BufferedReader in) throws IOException {
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+        try {
+            String line = in.readLine();
+            return line == null || line.isBlank() ? null : line.strip().split(" ");
+        } finally {
+            socket.setSoTimeout(0);
+        }
+    }
+
+    private static String nonce() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /** HMAC-SHA256 keyed by the secret over the role and both nonces, the one being answered first. */
+    static String proof(String role, String challenge, String ownNonce) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), HMAC));
+            byte[] digest = mac.doFinal((role + " " + challenge + " " + ownNonce).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            // Every JDK ships HmacSHA256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean matches(String received, String expected) {
+        return MessageDigest.isEqual(received.getBytes(StandardCharsets.UTF_8), expected.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ================= PEERS =================
+
+    /** One authenticated connection and the thread that writes to it. */
+    private static final class Peer {
+        private final Socket socket;
+        private final BlockingQueue<String> outbound = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final Thread writer;
+
+        Peer(Socket socket) throws IOException {
+            this.socket = socket;
+            Writer out = writer(socket);
+            writer = Thread.ofVirtual().name("event-writer").start(() -> drain(out));
+        }
+
+        /** Queues a line without blocking; a peer this far behind is cut off and catches up from the feed. */
+        void send(String line) {
+            if (!outbound.offer(line)) {
+                System.out.println("⚠️ Event peer " + socket.getRemoteSocketAddress() + " is not keeping up; disconnecting");
+                close();
+            }
+        }
+
+        void close() {
+            closeQuietly(socket);
+            writer.interrupt();
+        }
+
+        private void drain(Writer out) {
+            try {
+                while (!socket.isClosed()) {
+                    out.write(outbound.take());
+                    out.write('\n');
+                    // Batch whatever queued up meanwhile into one flush
+                    String next;
+                    while ((next = outbound.poll()) != null) {
+                        out.write(next);
+                        out.write('\n');
+                    }
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                close();
+            }
+        }
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static Writer writer(Socket socket) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(RECONNECT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
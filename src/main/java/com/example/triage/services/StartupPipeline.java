@@ -0,0 +1,216 @@
+package com.example.triage.services;
+
+import com.example.triage.database.DBConnection;
+import com.example.triage.database.ReferenceDataCache;
+import com.example.triage.remote.TriageClient;
+import javafx.scene.Node;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cold-start work that does not need the user, started before the login
+ * screen is built so it overlaps the time spent typing credentials. Two
+ * independent tracks run in parallel: the database (JDBC driver loading,
+ * then connection pool warm-up, then the reference data behind every
+ * facility picker) and the screens (class-loading everything the dashboard's
+ * FXML files use, so parsing them after login does not pay for it). Each
+ * phase logs its time, and the pipeline logs how long after login the
+ * dashboard first rendered.
+ */
+public class StartupPipeline {
+
+    private static final String VIEWS = "/com/example/triage/views/";
+    // In the order they are opened after login
+    private static final List<String> SCREENS = List.of(
+            "dashboard.fxml", "dashboard-home.fxml", "patients.fxml", "patient-card.fxml",
+            "facilities.fxml", "staff-accounts.fxml", "settings.fxml");
+
+    private static StartupPipeline instance;
+
+    private final Map<String, Long> phaseMillis = new LinkedHashMap<>();
+    private ExecutorService executor;
+    private long startedAt;
+    private volatile long loggedInAt;
+
+    private StartupPipeline() {}
+
+    public static synchronized StartupPipeline getInstance() {
+        if (instance == null) {
+            instance = new StartupPipeline();
+        }
+        return instance;
+    }
+
+    /** Starts both tracks in the background. Idempotent. */
+    public synchronized void start() {
+        if (executor != null) return;
+        startedAt = System.nanoTime();
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofPlatform()
+                .name("startup-", 0)
+                .daemon(true)
+                .factory());
+
+        CompletableFuture<Void> database = CompletableFuture.runAsync(() -> {
+            if (TriageClient.isEnabled()) return; // the server owns the database
+            phase("driver", this::loadDrivers);
+            phase("pool", this::warmPool);
+            phase("reference data", this::fillReferenceData);
+        }, executor);
+        CompletableFuture<Void> screens = CompletableFuture.runAsync(
+                () -> phase("fxml", this::preloadScreenClasses), executor);
+
+        CompletableFuture.allOf(database, screens).whenComplete((ignored, error) -> {
+            System.out.println("✅ Startup pipeline finished in " + millisSince(startedAt) + " ms " + summary());
+            executor.shutdown();
+        });
+    }
+
+    /**
+     * Called once credentials check out: the dashboard snapshot is queried
+     * while the login screen fades out and the dashboard is being built.
+     */
+    public void loggedIn() {
+        loggedInAt = System.nanoTime();
+        DashboardService.getInstance().prefetch();
+    }
+
+    /** Called when the dashboard has rendered its first snapshot; logs once per login. */
+    public void dashboardShown() {
+        long at = loggedInAt;
+        if (at == 0) return;
+        loggedInAt = 0;
+        System.out.println("⏱️ Dashboard interactive " + millisSince(at) + " ms after login");
+    }
+
+    // ================= PHASES =================
+
+    private void phase(String name, Runnable work) {
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            System.out.println("⚠️ Startup phase '" + name + "' failed: " + e.getMessage());
+        }
+        long millis = millisSince(start);
+        synchronized (phaseMillis) {
+            phaseMillis.put(name, millis);
+        }
+        System.out.println("⏱️ Startup phase '" + name + "' took " + millis + " ms");
+    }
+
+    // ServiceLoader finds and initializes every driver on the path
+    private void loadDrivers() {
+        DriverManager.drivers().count();
+    }
+
+    // Opens the pool's minimum connections and checks the schema
+    private void warmPool() {
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) throw new IllegalStateException("no database connection");
+        } catch (java.sql.SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private void fillReferenceData() {
+        try {
+            ReferenceDataCache.getInstance().facilityNames();
+        } catch (java.sql.SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Loads and initializes every class the screens' FXML refers to, and
+     * builds a throwaway instance of each node type. Nodes may be created
+     * off the FX thread as long as they never join a shown scene; the
+     * controllers are only loaded, never constructed, since they query the
+     * session and the database when initialized.
+     */
+    private void preloadScreenClasses() {
+        ClassLoader loader = StartupPipeline.class.getClassLoader();
+        Set<String> types = new LinkedHashSet<>();
+        for (String screen : SCREENS) {
+            types.addAll(referencedClasses(screen));
+        }
+        for (String type : types) {
+            try {
+                Class<?> cls = Class.forName(type, true, loader);
+                if (Node.class.isAssignableFrom(cls) && !Modifier.isAbstract(cls.getModifiers())) {
+                    Constructor<?> constructor = cls.getConstructor();
+                    constructor.newInstance();
+                }
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError ignored) {
+                // Not every element is a class with a no-arg constructor; nothing to warm then
+            }
+        }
+    }
+
+    /** Fully qualified names of the elements and controller in one FXML file. */
+    private static List<String> referencedClasses(String screen) {
+        List<String> imports = new ArrayList<>();
+        Set<String> names = new LinkedHashSet<>();
+        List<String> result = new ArrayList<>();
+
+        try (InputStream in = StartupPipeline.class.getResourceAsStream(VIEWS + screen)) {
+            if (in == null) return result;
+            XMLStreamReader xml = XMLInputFactory.newFactory().createXMLStreamReader(in);
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.PROCESSING_INSTRUCTION && "import".equals(xml.getPITarget())) {
+                    imports.add(xml.getPIData().trim());
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if (Character.isUpperCase(name.charAt(0))) names.add(name);
+                    String controller = xml.getAttributeValue("http://javafx.com/fxml", "controller");
+                    if (controller != null) result.add(controller);
+                }
+            }
+            xml.close();
+        } catch (Exception e) {
+            System.out.println("⚠️ Could not read " + screen + ": " + e.getMessage());
+            return result;
+        }
+
+        for (String name : names) {
+            for (String imported : imports) {
+                if (imported.endsWith("." + name)) {
+                    result.add(imported);
+                } else if (imported.endsWith(".*")) {
+                    // Guess each wildcard package; misses fail to load and are skipped
+                    result.add(imported.substring(0, imported.length() - 1) + name);
+                }
+            }
+        }
+        return result;
+    }
+
+    private String summary() {
+        StringJoiner joiner = new StringJoiner(", ", "(", ")");
+        synchronized (phaseMillis) {
+            phaseMillis.forEach((name, millis) -> joiner.add(name + " " + millis + " ms"));
+        }
+        return joiner.toString();
+    }
+
+    private static long millisSince(long nanos) {
+        return (System.nanoTime() - nanos) / 1_000_000;
+    }
+}
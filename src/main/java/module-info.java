@@ -3,11 +3,15 @@ module com.example.triage {
     requires javafx.fxml;
     requires javafx.graphics;
     requires java.sql;
+    requires java.xml;
     requires java.prefs;
     requires org.kordamp.ikonli.javafx;
     requires org.kordamp.ikonli.fontawesome5;
     requires java.desktop;
     requires java.management;
+    requires java.net.http;
+    requires jdk.httpserver;
+    requires jdk.jfr;
     opens com.example.triage to javafx.fxml;
     opens com.example.triage.controllers to javafx.fxml;
 
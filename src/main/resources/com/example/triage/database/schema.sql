@@ -0,0 +1,65 @@
+-- Base triage_db tables the DAOs assume, created by Schema for embedded
+-- databases. The application's own upgrades (id_sequences, units.version,
+-- change_log) follow as Schema's numbered migrations (Schema.ensure), exactly
+-- as against MySQL.
+
+CREATE TABLE IF NOT EXISTS facilities (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    type VARCHAR(16) NOT NULL,
+    bed_count INT NOT NULL DEFAULT 0,
+    room_count INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS floors (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    facility_id INT NOT NULL,
+    floor_number INT NOT NULL,
+    UNIQUE (facility_id, floor_number),
+    FOREIGN KEY (facility_id) REFERENCES facilities(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS units (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    floor_id INT NOT NULL,
+    label VARCHAR(32) NOT NULL,
+    status VARCHAR(16) NOT NULL DEFAULT 'AVAILABLE',
+    INDEX idx_units_status (status),
+    FOREIGN KEY (floor_id) REFERENCES floors(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS patients (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    patient_code VARCHAR(20) NOT NULL,
+    full_name VARCHAR(120) NOT NULL,
+    age INT NOT NULL,
+    gender VARCHAR(16) NOT NULL,
+    diagnosis TEXT,
+    severity VARCHAR(16) NOT NULL,
+    admission_date DATETIME NOT NULL,
+    status VARCHAR(16) NOT NULL DEFAULT 'admitted',
+    unit_id INT,
+    referral_status VARCHAR(16) NOT NULL DEFAULT 'NONE',
+    referral_facility VARCHAR(100),
+    referral_floor INT,
+    INDEX idx_patients_status (status),
+    INDEX idx_patients_unit (unit_id)
+);
+
+CREATE TABLE IF NOT EXISTS staff (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    first_name VARCHAR(60) NOT NULL,
+    last_name VARCHAR(60) NOT NULL,
+    role VARCHAR(32) NOT NULL,
+    facility_id INT NOT NULL,
+    floor_id INT NOT NULL,
+    on_shift BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    staff_id INT,
+    username VARCHAR(60) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(16) NOT NULL
+);
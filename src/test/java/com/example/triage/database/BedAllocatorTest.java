@@ -0,0 +1,143 @@
+package com.example.triage.database;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BedAllocatorTest {
+
+    // One less than the pool, so the fixtures can still borrow while every worker holds a lock
+    private static final int WORKERS = 3;
+
+    private final BedAllocator allocator = new BedAllocator();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+    }
+
+    @Test
+    void concurrentClaimsGetDifferentUnits() throws Exception {
+        TestDatabase.addFacility("ER One", "ER", 5);
+        CyclicBarrier allClaimed = new CyclicBarrier(WORKERS);
+
+        // Every worker holds its row lock until all have claimed, so the claims really overlap
+        List<Integer> claimed = runConcurrently(() -> {
+            try (Connection c = TestDatabase.connection()) {
+                c.setAutoCommit(false);
+                Integer unit = allocator.claimForSeverity(c, "critical");
+                allClaimed.await(5, TimeUnit.SECONDS);
+                c.commit();
+                return unit;
+            }
+        });
+
+        assertEquals(WORKERS, new HashSet<>(claimed).size(), "claims " + claimed);
+        assertEquals(WORKERS, TestDatabase.count("SELECT COUNT(*) FROM units WHERE status = 'OCCUPIED'"));
+    }
+
+    @Test
+    void lockedUnitIsSkippedNotWaitedOn() throws Exception {
+        TestDatabase.addFacility("ER One", "ER", 1);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> first = pool.submit(() -> {
+                try (Connection c = TestDatabase.connection()) {
+                    c.setAutoCommit(false);
+                    Integer unit = allocator.claimForSeverity(c, "critical");
+                    holding.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    c.commit();
+                    return unit;
+                }
+            });
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            try (Connection c = TestDatabase.connection()) {
+                c.setAutoCommit(false);
+                assertNull(allocator.claimForSeverity(c, "critical"));
+                c.rollback();
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(millis < 1000, "second claim waited " + millis + " ms on the locked row");
+
+            release.countDown();
+            assertNotNull(first.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void rollbackReturnsTheUnit() throws Exception {
+        TestDatabase.addFacility("Ward One", "WARD", 1);
+
+        try (Connection c = TestDatabase.connection()) {
+            c.setAutoCommit(false);
+            assertNotNull(allocator.claimForSeverity(c, "high"));
+            c.rollback();
+        }
+        assertEquals(1, TestDatabase.count("SELECT COUNT(*) FROM units WHERE status = 'AVAILABLE'"));
+    }
+
+    @Test
+    void repeatedContentionFillsEveryUnitOnce() throws Exception {
+        int rounds = 4;
+        TestDatabase.addFacility("Ward One", "WARD", WORKERS * rounds);
+
+        List<Integer> claimed = runConcurrently(() -> {
+            List<Integer> mine = new ArrayList<>();
+            for (int i = 0; i < rounds; i++) {
+                try (Connection c = TestDatabase.connection()) {
+                    c.setAutoCommit(false);
+                    mine.add(allocator.claimForSeverity(c, "moderate"));
+                    c.commit();
+                }
+            }
+            return mine;
+        }).stream().flatMap(List::stream).toList();
+
+        Set<Integer> distinct = new HashSet<>(claimed);
+        assertEquals(WORKERS * rounds, distinct.size(), "claims " + claimed);
+        assertEquals(0, TestDatabase.count("SELECT COUNT(*) FROM units WHERE status = 'AVAILABLE'"));
+    }
+
+    private static <T> List<T> runConcurrently(Callable<T> work) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WORKERS);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < WORKERS; i++) {
+                futures.add(pool.submit(work));
+            }
+            List<T> results = new ArrayList<>();
+            for (Future<T> f : futures) {
+                results.add(f.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
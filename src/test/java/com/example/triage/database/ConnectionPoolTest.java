@@ -0,0 +1,122 @@
+package com.example.triage.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** A pool of its own on a separate in-memory database, so the sizes and timeouts are the test's. */
+class ConnectionPoolTest {
+
+    private static final int MAX = 2;
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    private ConnectionPool start(long connectionTimeoutMs) {
+        // No minimum and hour-long housekeeping: every physical connection is one a test asked for
+        pool = ConnectionPool.start(DataSourceConfig.inMemory("pooltest"), new PoolConfig(
+                0, MAX, 60_000, 600_000, connectionTimeoutMs, 0, false, 3_600_000, 2, 16));
+        return pool;
+    }
+
+    @Test
+    void returnedConnectionIsReused() throws Exception {
+        start(1000);
+        try (Connection c = pool.borrow()) {
+            assertEquals(1, pool.getStats().getBorrowed());
+        }
+        assertEquals(0, pool.getStats().getBorrowed());
+        assertEquals(1, pool.getStats().getIdle());
+
+        try (Connection c = pool.borrow()) {
+            assertTrue(c.isValid(1));
+        }
+        PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getHandshakes());
+        assertEquals(1, stats.getHandshakesAvoided());
+        assertEquals(2, stats.getBorrowCount());
+    }
+
+    @Test
+    void borrowTimesOutWhenEveryConnectionIsInUse() throws Exception {
+        start(200);
+        try (Connection a = pool.borrow(); Connection b = pool.borrow()) {
+            long start = System.nanoTime();
+            SQLException e = assertThrows(SQLException.class, pool::borrow);
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertTrue(e.getMessage().startsWith("Timed out"), e.getMessage());
+            assertTrue(waitedMs >= 150, "gave up after " + waitedMs + " ms");
+            assertEquals(1, pool.getStats().getTimeouts());
+            assertEquals(MAX, pool.getStats().getTotal());
+        }
+    }
+
+    @Test
+    void waitingBorrowerGetsTheNextReturnedConnection() throws Exception {
+        start(5000);
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.borrow();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(waiter.isDone());
+
+        a.close();
+        try (Connection c = waiter.get(2, TimeUnit.SECONDS)) {
+            assertNotNull(c);
+            assertEquals(MAX, pool.getStats().getTotal());
+        }
+        b.close();
+    }
+
+    @Test
+    void uncommittedWorkIsRolledBackOnReturn() throws Exception {
+        start(1000);
+        try (Connection c = pool.borrow(); Statement st = c.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS pool_probe (id INT)");
+            st.execute("DELETE FROM pool_probe");
+        }
+        try (Connection c = pool.borrow(); Statement st = c.createStatement()) {
+            c.setAutoCommit(false);
+            st.execute("INSERT INTO pool_probe VALUES (1)");
+            // Returned without commit
+        }
+        try (Connection c = pool.borrow();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM pool_probe")) {
+            assertTrue(c.getAutoCommit());
+            rs.next();
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void borrowAfterShutdownFails() {
+        start(1000);
+        pool.shutdown();
+        SQLException e = assertThrows(SQLException.class, pool::borrow);
+        assertEquals("Connection pool is shut down", e.getMessage());
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.triage.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class DBConnectionTest {
+
+    @Test
+    void cancelledLoadIsThrownNotNull() {
+        QueryCancellation scope = new QueryCancellation();
+        scope.cancel();
+        SQLException thrown = scope.call(() -> {
+            try (Connection c = DBConnection.getConnection()) {
+                return null;
+            } catch (SQLException e) {
+                return e;
+            }
+        });
+        assertNotNull(thrown);
+        assertEquals(QueryCancellation.CANCELLED_STATE, thrown.getSQLState());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.triage.database;
+
+import com.example.triage.services.FacilityProvisioner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FacilityDAOTest {
+
+    private static final String WARD = "Removal Ward";
+
+    private final FacilityDAO facilityDAO = new FacilityDAO();
+    private int facilityId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        // Two floors of four beds and two rooms
+        facilityId = new FacilityProvisioner().provision(
+                new FacilityProvisioner.Layout(WARD, "WARD", 2, 4, 2), done -> { });
+    }
+
+    @Test
+    void removesTheHighestNumberedUnitsOfOneFloor() {
+        assertEquals(FacilityDAO.DeleteOutcome.DONE, facilityDAO.deleteSelection(facilityId, 1, 2, 1));
+
+        assertEquals(List.of("Bed 1", "Bed 2", "Room 1"),
+                facilityDAO.getUnits(WARD, 1).stream().map(FacilityDAO.Unit::label).toList());
+        assertEquals(4, facilityDAO.countUnits(WARD, 2, "Bed"));
+        assertEquals(2, facilityDAO.countUnits(WARD, 2, "Room"));
+    }
+
+    @Test
+    void removesAFloorWithItsUnits() throws Exception {
+        assertEquals(FacilityDAO.DeleteOutcome.DONE, facilityDAO.deleteSelection(facilityId, 2, 0, 0));
+
+        assertEquals(1, TestDatabase.count("SELECT COUNT(*) FROM floors"));
+        assertEquals(6, TestDatabase.count("SELECT COUNT(*) FROM units"));
+    }
+
+    @Test
+    void anOccupiedUnitBlocksTheRemoval() throws Exception {
+        try (Connection c = TestDatabase.connection(); Statement st = c.createStatement()) {
+            st.executeUpdate("UPDATE units SET status = 'OCCUPIED' WHERE label = 'Room 2'");
+        }
+        int changes = TestDatabase.count("SELECT COUNT(*) FROM change_log");
+
+        assertEquals(FacilityDAO.DeleteOutcome.BLOCKED, facilityDAO.deleteSelection(facilityId, null, 0, 0));
+        assertEquals(FacilityDAO.DeleteOutcome.BLOCKED, facilityDAO.deleteSelection(facilityId, 1, 0, 0));
+
+        assertEquals(12, TestDatabase.count("SELECT COUNT(*) FROM units"));
+        assertEquals(changes, TestDatabase.count("SELECT COUNT(*) FROM change_log"));
+    }
+
+    @Test
+    void removesTheWholeFacilityOnce() throws Exception {
+        assertEquals(FacilityDAO.DeleteOutcome.DONE, facilityDAO.deleteSelection(facilityId, null, 0, 0));
+        assertEquals(0, TestDatabase.count("SELECT COUNT(*) FROM units"));
+        assertEquals(List.of(), facilityDAO.getAllFacilities());
+
+        assertEquals(FacilityDAO.DeleteOutcome.NOT_FOUND, facilityDAO.deleteSelection(facilityId, null, 0, 0));
+    }
+}
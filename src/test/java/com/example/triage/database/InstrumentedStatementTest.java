@@ -0,0 +1,150 @@
+package com.example.triage.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Statements borrowed through the pool, which wraps them when the metrics are on (the default). */
+class InstrumentedStatementTest {
+
+    private static final String FIVE_ROWS = "SELECT X FROM SYSTEM_RANGE(1, 5)";
+
+    private final QueryMetrics metrics = QueryMetrics.getInstance();
+    private long threshold;
+    private QueryMetrics.ParamMode mode;
+
+    @BeforeEach
+    void setUp() {
+        threshold = metrics.getSlowThresholdMs();
+        mode = metrics.getParamMode();
+        metrics.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        metrics.setSlowThresholdMs(threshold);
+        metrics.setParamMode(mode);
+        metrics.reset();
+    }
+
+    @Test
+    void rowsAreCountedAsTheCallerReadsThem() throws Exception {
+        try (Connection c = TestDatabase.connection(); PreparedStatement ps = c.prepareStatement(FIVE_ROWS)) {
+            ResultSet rs = ps.executeQuery();
+            assertTrue(rs.next());
+            assertTrue(rs.next());
+            assertTrue(rs.next());
+            // Not recorded until the caller is done reading
+            assertEquals(0, stats(FIVE_ROWS).calls());
+            rs.close();
+        }
+        assertEquals(1, stats(FIVE_ROWS).calls());
+        assertEquals(3, stats(FIVE_ROWS).rows());
+    }
+
+    @Test
+    void exhaustingTheResultRecordsEveryRow() throws Exception {
+        try (Connection c = TestDatabase.connection(); PreparedStatement ps = c.prepareStatement(FIVE_ROWS);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                // read them all
+            }
+            assertEquals(1, stats(FIVE_ROWS).calls());
+            assertEquals(5, stats(FIVE_ROWS).rows());
+        }
+        // Closing afterwards does not record it twice
+        assertEquals(1, stats(FIVE_ROWS).calls());
+    }
+
+    @Test
+    void closingTheStatementRecordsAPartialRead() throws Exception {
+        try (Connection c = TestDatabase.connection()) {
+            PreparedStatement ps = c.prepareStatement(FIVE_ROWS);
+            ResultSet rs = ps.executeQuery();
+            rs.next();
+            rs.next();
+            ps.close();
+        }
+        assertEquals(1, stats(FIVE_ROWS).calls());
+        assertEquals(2, stats(FIVE_ROWS).rows());
+    }
+
+    @Test
+    void rowsReadThroughGetResultSetAfterExecuteAreCounted() throws Exception {
+        try (Connection c = TestDatabase.connection(); Statement st = c.createStatement()) {
+            assertTrue(st.execute(FIVE_ROWS));
+            try (ResultSet rs = st.getResultSet()) {
+                int read = 0;
+                while (rs.next()) read++;
+                assertEquals(5, read);
+            }
+        }
+        assertEquals(1, stats(FIVE_ROWS).calls());
+        assertEquals(5, stats(FIVE_ROWS).rows());
+    }
+
+    @Test
+    void executeOfAnUpdateRecordsItsUpdateCount() throws Exception {
+        TestDatabase.reset();
+        TestDatabase.addFacility("Metrics ER", "ER", 3);
+        String sql = "UPDATE units SET label = label";
+        try (Connection c = TestDatabase.connection(); Statement st = c.createStatement()) {
+            assertFalse(st.execute(sql));
+        }
+        assertEquals(1, stats(sql).calls());
+        assertEquals(3, stats(sql).rows());
+    }
+
+    @Test
+    void boundParametersReachTheSlowLog() throws Exception {
+        metrics.setSlowThresholdMs(0);
+        String sql = "SELECT X FROM SYSTEM_RANGE(1, 5) WHERE X > ? AND CAST(? AS VARCHAR) IS NOT NULL AND ? IS NULL";
+        try (Connection c = TestDatabase.connection(); PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, 3);
+            ps.setString(2, "Alice");
+            ps.setNull(3, Types.INTEGER);
+
+            metrics.setParamMode(QueryMetrics.ParamMode.REDACTED);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    // read them all
+                }
+            }
+            assertEquals("[3, <text:5>, NULL]", slowParams(sql));
+
+            metrics.setParamMode(QueryMetrics.ParamMode.FULL);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    // read them all
+                }
+            }
+            assertEquals("[3, 'Alice', NULL]", slowParams(sql));
+        }
+        assertEquals(4, stats(sql).rows());
+    }
+
+    private QueryMetrics.StatementStats stats(String sql) {
+        return metrics.snapshot().stream()
+                .filter(s -> s.sql().equals(sql))
+                .findFirst()
+                .orElse(new QueryMetrics.StatementStats("", sql, 0, 0, 0, 0, 0, 0, 0, new long[0]));
+    }
+
+    private String slowParams(String sql) {
+        return metrics.slowQueries().stream()
+                .filter(q -> q.sql().equals(sql))
+                .findFirst()
+                .orElseThrow()
+                .params();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.triage.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryMetricsTest {
+
+    private static final long MS = 1_000_000;
+
+    private final QueryMetrics metrics = QueryMetrics.getInstance();
+    private long threshold;
+    private QueryMetrics.ParamMode mode;
+
+    @BeforeEach
+    void setUp() {
+        threshold = metrics.getSlowThresholdMs();
+        mode = metrics.getParamMode();
+        metrics.setSlowThresholdMs(200);
+        metrics.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        metrics.setSlowThresholdMs(threshold);
+        metrics.setParamMode(mode);
+        metrics.reset();
+    }
+
+    @Test
+    void normalizeCollapsesWhitespaceAndInLists() {
+        assertEquals("SELECT * FROM patients WHERE id IN (?, ...)",
+                QueryMetrics.normalize("  SELECT *\n\tFROM patients\n WHERE id IN (?,?, ?)  "));
+        assertEquals(QueryMetrics.normalize("SELECT * FROM units WHERE id IN (?, ?)"),
+                QueryMetrics.normalize("SELECT * FROM units WHERE id IN (?, ?, ?, ?, ?)"));
+        // A lone placeholder is not a list
+        assertEquals("SELECT * FROM units WHERE id = ? AND floor_id = ?",
+                QueryMetrics.normalize("SELECT * FROM units WHERE id = ? AND floor_id = ?"));
+    }
+
+    @Test
+    void executionsLandInTheirBucketsAndPercentilesUseTheBucketBounds() {
+        QueryMetrics.Stats stats = new QueryMetrics.Stats("SELECT 1");
+        for (int i = 0; i < 96; i++) stats.record(MS / 2, 1, false);
+        stats.record(MS, 1, false);             // a bound belongs to its own bucket
+        stats.record(30 * MS, 1, false);
+        stats.record(40 * MS, -1, true);
+        stats.record(6_000 * MS, 1, false);     // past the last bound
+
+        QueryMetrics.StatementStats s = stats.snapshot();
+        long[] expected = new long[QueryMetrics.BUCKETS_MS.length + 1];
+        expected[0] = 97;
+        expected[5] = 2;
+        expected[QueryMetrics.BUCKETS_MS.length] = 1;
+        assertArrayEquals(expected, s.buckets());
+        assertEquals(100, s.calls());
+        assertEquals(1, s.errors());
+        assertEquals(99, s.rows());
+        assertEquals(6_000.0, s.maxMs());
+        assertEquals(1.0, s.p50Ms());
+        assertEquals(50.0, s.p99Ms());
+    }
+
+    @Test
+    void percentilesAreCappedAtTheObservedMax() {
+        QueryMetrics.Stats fast = new QueryMetrics.Stats("SELECT 2");
+        fast.record(3 * MS, 0, false);
+        assertEquals(3.0, fast.snapshot().p50Ms());
+
+        QueryMetrics.Stats slow = new QueryMetrics.Stats("SELECT 3");
+        slow.record(7_000 * MS, 0, false);
+        assertEquals(7_000.0, slow.snapshot().p99Ms());
+
+        assertEquals(0.0, new QueryMetrics.Stats("SELECT 4").snapshot().p50Ms());
+    }
+
+    @Test
+    void statementsPastTheLimitShareTheOverflowKey() {
+        for (int i = 0; i < 500; i++) {
+            metrics.record("SELECT " + i, MS, 0, null, null);
+        }
+        metrics.record("SELECT 'one more'", MS, 0, null, null);
+        metrics.record("SELECT 'and another'", MS, 0, null, null);
+        metrics.record("SELECT 7", MS, 0, null, null);
+
+        List<QueryMetrics.StatementStats> all = metrics.snapshot();
+        assertEquals(501, all.size());
+        assertEquals(2, calls(all, "(other statements)"));
+        assertEquals(2, calls(all, "SELECT 7"));
+    }
+
+    @Test
+    void slowLogRedactsTextUnlessAskedForFullParameters() {
+        List<Object> params = Arrays.asList(42, "Jane Doe", null, LocalDate.of(2024, 1, 2), true);
+
+        metrics.setParamMode(QueryMetrics.ParamMode.REDACTED);
+        metrics.record("SELECT * FROM patients WHERE id = ?", 250 * MS, 1, params, null);
+        assertEquals("[42, <text:8>, NULL, 2024-01-02, true]", metrics.slowQueries().get(0).params());
+
+        metrics.setParamMode(QueryMetrics.ParamMode.FULL);
+        metrics.record("SELECT * FROM patients WHERE id = ?", 250 * MS, 1, params, null);
+        assertEquals("[42, 'Jane Doe', NULL, 2024-01-02, true]", metrics.slowQueries().get(0).params());
+
+        metrics.setParamMode(QueryMetrics.ParamMode.NONE);
+        metrics.record("SELECT * FROM patients WHERE id = ?", 250 * MS, 1, params, null);
+        assertEquals("", metrics.slowQueries().get(0).params());
+
+        // Under the threshold nothing is logged
+        metrics.record("SELECT * FROM patients WHERE id = ?", 150 * MS, 1, params, null);
+        assertEquals(3, metrics.slowQueries().size());
+    }
+
+    @Test
+    void prometheusOutputHasCumulativeBucketsSumCountAndCounters() {
+        String sql = "SELECT name FROM facilities WHERE type = \"ER\"";
+        metrics.record(sql, MS / 2, 3, null, null);
+        metrics.record(sql, 30 * MS, 4, null, new IllegalStateException("boom"));
+        String id = metrics.snapshot().get(0).id();
+
+        String text = metrics.toPrometheus();
+        assertContains(text, "triage_sql_statement_info{statement=\"" + id
+                + "\",sql=\"SELECT name FROM facilities WHERE type = \\\"ER\\\"\"} 1\n");
+        assertContains(text, "# TYPE triage_sql_duration_seconds histogram\n");
+        assertContains(text, "triage_sql_duration_seconds_bucket{statement=\"" + id + "\",le=\"0.001\"} 1\n");
+        assertContains(text, "triage_sql_duration_seconds_bucket{statement=\"" + id + "\",le=\"0.025\"} 1\n");
+        assertContains(text, "triage_sql_duration_seconds_bucket{statement=\"" + id + "\",le=\"0.050\"} 2\n");
+        assertContains(text, "triage_sql_duration_seconds_bucket{statement=\"" + id + "\",le=\"+Inf\"} 2\n");
+        assertContains(text, "triage_sql_duration_seconds_sum{statement=\"" + id + "\"} 0.030500\n");
+        assertContains(text, "triage_sql_duration_seconds_count{statement=\"" + id + "\"} 2\n");
+        assertContains(text, "triage_sql_rows_total{statement=\"" + id + "\"} 7\n");
+        assertContains(text, "triage_sql_errors_total{statement=\"" + id + "\"} 1\n");
+        assertContains(text, "triage_sql_slow_threshold_seconds 0.200\n");
+    }
+
+    private static long calls(List<QueryMetrics.StatementStats> all, String sql) {
+        return all.stream().filter(s -> s.sql().equals(sql)).mapToLong(QueryMetrics.StatementStats::calls).sum();
+    }
+
+    private static void assertContains(String text, String line) {
+        assertTrue(text.contains(line), () -> "missing: " + line + "in:\n" + text);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.triage.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaTest {
+
+    @Test
+    void embeddedDatabaseIsMigratedToTheCurrentVersion() throws Exception {
+        try (Connection c = TestDatabase.connection()) {
+            assertEquals(Schema.CURRENT, Schema.version(c));
+        }
+        // One row per step, none applied twice
+        assertEquals(Schema.CURRENT, TestDatabase.count("SELECT COUNT(*) FROM schema_version"));
+    }
+
+    @Test
+    void embeddedKeysComeFromSequences() throws Exception {
+        assertEquals(0, TestDatabase.count(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = SCHEMA() AND is_identity = 'YES'"));
+
+        TestDatabase.reset();
+        int first = TestDatabase.addFacility("Ward One", "WARD", 0);
+        try (Connection c = TestDatabase.connection();
+             PreparedStatement ps = c.prepareStatement(
+                     "INSERT INTO floors (facility_id, floor_number) SELECT facility_id, 2 FROM floors WHERE id = ?",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            ps.setInt(1, first);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                assertTrue(keys.next());
+                assertTrue(keys.getInt(1) > first);
+            }
+        }
+    }
+
+    @Test
+    void failedMigrationIsThrownNotLogged() throws Exception {
+        DataSourceConfig config = DataSourceConfig.inMemory("schema-broken");
+        ConnectionPool pool = ConnectionPool.start(config, PoolConfig.fromSystemProperties());
+        try {
+            // A view where migration 2 expects to ALTER the units table
+            try (Connection c = pool.borrow(); Statement st = c.createStatement()) {
+                st.execute("CREATE VIEW units AS SELECT 1 AS id");
+            }
+            SQLException e = assertThrows(SQLException.class, () -> Schema.ensure(pool, config));
+            assertTrue(e.getMessage().startsWith("Schema migration to version " + Schema.CURRENT + " failed"),
+                    e.getMessage());
+            try (Connection c = pool.borrow()) {
+                assertEquals(1, Schema.version(c));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.triage.database;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SequenceAllocatorTest {
+
+    private static final int THREADS = 8;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+    }
+
+    @Test
+    void concurrentCallersNeverShareAValue() throws Exception {
+        SequenceAllocator seq = SequenceAllocator.forName("test-concurrent", "SELECT NULL", 0);
+        int perThread = 200;
+
+        List<Long> values = runConcurrently(() -> {
+            List<Long> mine = new ArrayList<>(perThread);
+            for (int i = 0; i < perThread; i++) {
+                mine.add(seq.next());
+            }
+            return mine;
+        });
+
+        Set<Long> distinct = new HashSet<>(values);
+        assertEquals(THREADS * perThread, distinct.size());
+        assertTrue(distinct.stream().allMatch(v -> v > 0));
+    }
+
+    @Test
+    void rangesAndBlocksDoNotOverlap() throws Exception {
+        SequenceAllocator seq = SequenceAllocator.forName("test-ranges", "SELECT NULL", 0);
+        int rangeSize = 7;
+
+        List<Long> values = runConcurrently(() -> {
+            List<Long> mine = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                long start = seq.reserveRange(rangeSize);
+                for (long v = start; v < start + rangeSize; v++) mine.add(v);
+                mine.add(seq.next());
+            }
+            return mine;
+        });
+
+        assertEquals(values.size(), new HashSet<>(values).size());
+    }
+
+    @Test
+    void seedsAboveExistingData() throws Exception {
+        SequenceAllocator seq = SequenceAllocator.forName("test-seed", "SELECT 41", 10);
+        assertEquals(42, seq.next());
+    }
+
+    /**
+     * Admissions reserve their patient code before borrowing the connection
+     * they claim a bed on. With more admissions than pooled connections and
+     * small blocks, a refill taken inside the transaction would wait on a
+     * connection that never comes free and the admissions would time out.
+     */
+    @Test
+    void concurrentAdmissionsDoNotStarveThePool() throws Exception {
+        TestDatabase.addFacility("ER One", "ER", THREADS * 3);
+        PatientDAO dao = new PatientDAO();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < 3; i++) {
+                dao.addPatientAutoAssign("Patient " + Thread.currentThread().getId() + "-" + i,
+                        40, "F", "test", "Critical");
+            }
+            return null;
+        });
+
+        assertEquals(THREADS * 3, TestDatabase.count("SELECT COUNT(*) FROM patients"));
+        assertEquals(THREADS * 3, TestDatabase.count("SELECT COUNT(DISTINCT patient_code) FROM patients"));
+        assertEquals(THREADS * 3, TestDatabase.count("SELECT COUNT(DISTINCT unit_id) FROM patients"));
+    }
+
+    private static <T> List<T> runConcurrently(Callable<List<T>> work) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<T>>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(work));
+            }
+            List<T> results = new ArrayList<>();
+            for (Future<List<T>> f : futures) {
+                List<T> part = f.get(60, TimeUnit.SECONDS);
+                if (part != null) results.addAll(part);
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
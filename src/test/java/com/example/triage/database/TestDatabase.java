@@ -0,0 +1,68 @@
+package com.example.triage.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Fixtures on the embedded database the test JVM runs against (see the
+ * surefire properties in pom.xml). Every test class shares it, so tests
+ * start from {@link #reset()} rather than assuming it is empty.
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {}
+
+    public static Connection connection() throws SQLException {
+        Connection c = DBConnection.getConnection();
+        if (c == null) throw new SQLException("No database connection");
+        return c;
+    }
+
+    /** Empties the tables the fixtures write to. */
+    public static void reset() throws SQLException {
+        try (Connection c = connection(); Statement st = c.createStatement()) {
+            st.execute("DELETE FROM patients");
+            st.execute("DELETE FROM units");
+            st.execute("DELETE FROM floors");
+            st.execute("DELETE FROM facilities");
+            st.execute("DELETE FROM change_log");
+        }
+    }
+
+    /** A facility with one floor and {@code units} available units on it; returns the floor id. */
+    public static int addFacility(String name, String type, int units) throws SQLException {
+        try (Connection c = connection()) {
+            int facilityId = insert(c, "INSERT INTO facilities (name, type) VALUES (?, ?)", name, type);
+            int floorId = insert(c, "INSERT INTO floors (facility_id, floor_number) VALUES (?, 1)", facilityId);
+            for (int i = 1; i <= units; i++) {
+                insert(c, "INSERT INTO units (floor_id, label) VALUES (?, ?)", floorId, name + "-" + i);
+            }
+            return floorId;
+        }
+    }
+
+    public static int count(String sql) throws SQLException {
+        try (Connection c = connection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static int insert(Connection c, String sql, Object... params) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+}
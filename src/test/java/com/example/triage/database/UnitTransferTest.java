@@ -0,0 +1,124 @@
+package com.example.triage.database;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnitTransferTest {
+
+    private final PatientDAO patientDAO = new PatientDAO();
+
+    private int fromUnit;
+    private int freeUnit;
+    private int takenUnit;
+    private int patientId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        TestDatabase.addFacility("Ward One", "WARD", 3);
+        patientDAO.addPatientAutoAssign("Ada Lovelace", 36, "F", "before", "High");
+        try (Connection c = TestDatabase.connection();
+             PreparedStatement ps = c.prepareStatement("SELECT id, unit_id FROM patients");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            patientId = rs.getInt("id");
+            fromUnit = rs.getInt("unit_id");
+        }
+        // Of the two units left, one is taken by someone else and one stays free
+        takenUnit = unitWithStatus("AVAILABLE");
+        setStatus(takenUnit, "OCCUPIED");
+        freeUnit = unitWithStatus("AVAILABLE");
+    }
+
+    @Test
+    void editMovesToAFreeUnit() throws Exception {
+        assertEquals(PatientDAO.EditOutcome.SAVED,
+                patientDAO.updatePatientEditAutoAssign(patientId, fromUnit, freeUnit, "moved", "High"));
+        assertEquals(freeUnit, patientUnit());
+        assertEquals("AVAILABLE", status(fromUnit));
+        assertEquals("OCCUPIED", status(freeUnit));
+    }
+
+    @Test
+    void takenTargetStillSavesTheEdit() throws Exception {
+        assertEquals(PatientDAO.EditOutcome.UNIT_TAKEN,
+                patientDAO.updatePatientEditAutoAssign(patientId, fromUnit, takenUnit, "after", "Moderate"));
+        assertEquals(fromUnit, patientUnit());
+        assertEquals("after", patientDAO.getDiagnosisByPatientId(patientId));
+        assertEquals("OCCUPIED", status(fromUnit));
+    }
+
+    @Test
+    void fixedTargetIsNotRetried() throws Exception {
+        AtomicInteger updates = new AtomicInteger();
+        long start = System.nanoTime();
+        assertNull(new UnitTransfer().transferTo(fromUnit, takenUnit, (c, unitId) -> updates.incrementAndGet()));
+        // Retries back off 15 ms and more each; one attempt returns well before that adds up
+        assertEquals(0, updates.get());
+        assertTrue(System.nanoTime() - start < 15_000_000L * 3);
+    }
+
+    @Test
+    void approvedReferralMovesOnceFromTheCurrentUnit() throws Exception {
+        patientDAO.requestReferral(patientId, "Ward One", "Floor 1");
+
+        assertEquals(PatientDAO.ReferralOutcome.APPROVED, patientDAO.approveReferral(patientId));
+        assertEquals(freeUnit, patientUnit());
+        assertEquals("AVAILABLE", status(fromUnit));
+        assertEquals("OCCUPIED", status(freeUnit));
+
+        // Decided already: a second approval must not free the unit the patient is now in
+        assertEquals(PatientDAO.ReferralOutcome.NOT_PENDING, patientDAO.approveReferral(patientId));
+        assertEquals(freeUnit, patientUnit());
+        assertEquals("OCCUPIED", status(freeUnit));
+    }
+
+    @Test
+    void referralWithNoFreeUnitStaysPending() throws Exception {
+        setStatus(freeUnit, "OCCUPIED");
+        patientDAO.requestReferral(patientId, "Ward One", "Floor 1");
+
+        assertEquals(PatientDAO.ReferralOutcome.NO_UNIT, patientDAO.approveReferral(patientId));
+        assertEquals(fromUnit, patientUnit());
+        assertEquals(1, TestDatabase.count(
+                "SELECT COUNT(*) FROM patients WHERE referral_status = 'PENDING' AND id = " + patientId));
+    }
+
+    private int patientUnit() throws SQLException {
+        return TestDatabase.count("SELECT unit_id FROM patients WHERE id = " + patientId);
+    }
+
+    private static int unitWithStatus(String status) throws SQLException {
+        return TestDatabase.count("SELECT MIN(id) FROM units WHERE status = '" + status + "'");
+    }
+
+    private static String status(int unitId) throws SQLException {
+        try (Connection c = TestDatabase.connection();
+             PreparedStatement ps = c.prepareStatement("SELECT status FROM units WHERE id = ?")) {
+            ps.setInt(1, unitId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    private static void setStatus(int unitId, String status) throws SQLException {
+        try (Connection c = TestDatabase.connection();
+             PreparedStatement ps = c.prepareStatement("UPDATE units SET status = ? WHERE id = ?")) {
+            ps.setString(1, status);
+            ps.setInt(2, unitId);
+            ps.executeUpdate();
+        }
+    }
+}
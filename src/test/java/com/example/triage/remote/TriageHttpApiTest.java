@@ -0,0 +1,100 @@
+package com.example.triage.remote;
+
+import com.example.triage.database.TestDatabase;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** The facility routes on a loopback server, called as an administrator and as a nurse. */
+class TriageHttpApiTest {
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private HttpServer server;
+    private String admin;
+    private String nurse;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        try (Connection c = TestDatabase.connection(); Statement st = c.createStatement()) {
+            st.execute("DELETE FROM users WHERE username IN ('api-admin', 'api-nurse')");
+            st.execute("INSERT INTO users (username, password, role) VALUES ('api-admin', 'pw', 'admin')");
+            st.execute("INSERT INTO users (username, password, role) VALUES ('api-nurse', 'pw', 'NURSE')");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        new TriageHttpApi().register(server);
+        server.start();
+        admin = login("api-admin");
+        nurse = login("api-nurse");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void onlyAdministratorsAddFacilities() throws Exception {
+        String layout = "name=Api+Ward&type=WARD&floors=2&bedsPerFloor=3&roomsPerFloor=1";
+        assertEquals(401, send("POST", "facilities", null, layout).statusCode());
+        assertEquals(403, send("POST", "facilities", nurse, layout).statusCode());
+        assertEquals(0, TestDatabase.count("SELECT COUNT(*) FROM facilities"));
+
+        HttpResponse<String> created = send("POST", "facilities", admin, layout);
+        assertEquals(200, created.statusCode());
+        assertEquals(8, TestDatabase.count("SELECT COUNT(*) FROM units"));
+        assertEquals(TestDatabase.count("SELECT id FROM facilities WHERE name = 'Api Ward'"),
+                ((Number) body(created).get("id")).intValue());
+    }
+
+    @Test
+    void onlyAdministratorsRemoveFacilities() throws Exception {
+        int id = ((Number) body(send("POST", "facilities", admin,
+                "name=Api+Ward&type=WARD&floors=2&bedsPerFloor=3&roomsPerFloor=1")).get("id")).intValue();
+
+        assertEquals(403, send("DELETE", "facilities/" + id + "?floor=1&beds=2", nurse, null).statusCode());
+        assertEquals(8, TestDatabase.count("SELECT COUNT(*) FROM units"));
+
+        assertEquals("DONE", body(send("DELETE", "facilities/" + id + "?floor=1&beds=2", admin, null)).get("outcome"));
+        assertEquals(6, TestDatabase.count("SELECT COUNT(*) FROM units"));
+        assertEquals(1, ((Number) body(send("GET", "units/count?facility=Api+Ward&floor=1&kind=Bed", admin, null))
+                .get("count")).intValue());
+
+        assertEquals("DONE", body(send("DELETE", "facilities/" + id, admin, null)).get("outcome"));
+        assertEquals("NOT_FOUND", body(send("DELETE", "facilities/" + id, admin, null)).get("outcome"));
+        assertEquals(0, TestDatabase.count("SELECT COUNT(*) FROM facilities"));
+    }
+
+    private String login(String username) throws Exception {
+        return (String) body(send("POST", "login", null, "username=" + username + "&password=pw")).get("token");
+    }
+
+    private HttpResponse<String> send(String method, String path, String token, String form) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/api/" + path));
+        if (token != null) request.header("Authorization", "Bearer " + token);
+        if (form != null) request.header("Content-Type", "application/x-www-form-urlencoded");
+        request.method(method, form == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(form));
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> body(HttpResponse<String> response) {
+        return (Map<String, Object>) Json.parse(response.body());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.triage.services;
+
+import com.example.triage.database.ChangeLog;
+import com.example.triage.database.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeFeedTest {
+
+    private final ChangeFeed feed = ChangeFeed.getInstance();
+    private final BlockingQueue<ChangeFeed.Changes> received = new LinkedBlockingQueue<>();
+    private final ChangeFeed.Listener listener = received::add;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        feed.ensureBaseline();
+        feed.addListener(listener);
+        // Let a poll move the feed to the current end of the log
+        record(ChangeLog.PATIENT, 0);
+        next();
+        received.clear();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        feed.removeListener(listener);
+        setWatermark(0);
+    }
+
+    @Test
+    void versionGapsAfterPruningAreNotMistakenForLostRows() throws Exception {
+        // Rows we already read are pruned, and a rolled-back insert leaves a gap
+        try (Connection c = TestDatabase.connection()) {
+            c.prepareStatement("DELETE FROM change_log").executeUpdate();
+            c.setAutoCommit(false);
+            ChangeLog.record(c, ChangeLog.PATIENT, 99);
+            c.rollback();
+            c.setAutoCommit(true);
+        }
+        record(ChangeLog.PATIENT, 7);
+
+        ChangeFeed.Changes changes = next();
+        assertFalse(changes.resync());
+        assertEquals(Set.of(7), changes.patients());
+    }
+
+    @Test
+    void fallingBehindThePruneWatermarkResyncs() throws Exception {
+        setWatermark(Long.MAX_VALUE / 2);
+
+        assertTrue(next().resync());
+    }
+
+    @Test
+    void largeVersionJumpResyncsInsteadOfTrackingEveryGap() throws Exception {
+        try (Connection c = TestDatabase.connection();
+             PreparedStatement ps = c.prepareStatement(
+                     "ALTER SEQUENCE change_log_version_seq RESTART WITH (SELECT MAX(version) + 5000 FROM change_log)")) {
+            ps.execute();
+        }
+        record(ChangeLog.PATIENT, 8);
+
+        assertTrue(next().resync());
+        // Back to incremental reads from the new end
+        record(ChangeLog.PATIENT, 9);
+        ChangeFeed.Changes changes = next();
+        assertFalse(changes.resync());
+        assertEquals(Set.of(9), changes.patients());
+    }
+
+    @Test
+    void listenersMayCallBackIntoTheFeed() throws Exception {
+        BlockingQueue<Boolean> done = new LinkedBlockingQueue<>();
+        ChangeFeed.Listener reentrant = changes -> {
+            // What a stale index does on reload; must not wait on the poll that called us
+            feed.ensureBaseline();
+            done.add(true);
+        };
+        feed.addListener(reentrant);
+        try {
+            record(ChangeLog.UNIT, 3);
+            feed.pollNow();
+            assertNotNull(done.poll(10, TimeUnit.SECONDS));
+        } finally {
+            feed.removeListener(reentrant);
+        }
+    }
+
+    private ChangeFeed.Changes next() throws InterruptedException {
+        feed.pollNow();
+        ChangeFeed.Changes changes = received.poll(10, TimeUnit.SECONDS);
+        assertNotNull(changes, "no poll delivered changes");
+        return changes;
+    }
+
+    private static void record(String entity, int id) throws SQLException {
+        try (Connection c = TestDatabase.connection()) {
+            ChangeLog.record(c, entity, id);
+        }
+    }
+
+    private static void setWatermark(long version) throws SQLException {
+        try (Connection c = TestDatabase.connection();
+             PreparedStatement ps = c.prepareStatement(
+                     "UPDATE id_sequences SET next_value = ? WHERE name = 'change_log.pruned_through'")) {
+            ps.setLong(1, version);
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.triage.services;
+
+import com.example.triage.database.Patient;
+import com.example.triage.database.PatientDAO;
+import com.example.triage.database.SortMode;
+import com.example.triage.database.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientIndexTest {
+
+    private final PatientIndex index = PatientIndex.getInstance();
+
+    @BeforeEach
+    void setUp() {
+        index.rebuild(List.of(
+                patient(1, "P-0001", "Ada Lovelace", "Critical", "North ER", 1, "Bed 2", 100),
+                patient(2, "P-0002", "Alan Turing", "High", "North ER", 2, "Bed 1", 300),
+                patient(3, "P-0003", "Grace Hopper", "Critical", "South Ward", 1, "Room 1", 200),
+                patient(4, "P-0004", "Adele Goldberg", "Low", "South Ward", 1, "Bed 4", 400)
+        ));
+    }
+
+    @Test
+    void filtersCombine() {
+        assertEquals(List.of(1, 2), ids(index.find("North ER", null, null, null, SortMode.NONE)));
+        assertEquals(List.of(3, 4), ids(index.find("South Ward", 1, null, null, SortMode.NONE)));
+        assertEquals(List.of(1), ids(index.find("North ER", 1, "critical", null, SortMode.NONE)));
+        assertEquals(List.of(), ids(index.find("Nowhere", null, null, null, SortMode.NONE)));
+    }
+
+    @Test
+    void searchIsACaseInsensitiveSubstringOfNameOrCode() {
+        assertEquals(List.of(4), ids(index.find(null, null, null, "ADE", SortMode.NONE)));
+        assertEquals(List.of(3), ids(index.find(null, null, null, "p-0003", SortMode.NONE)));
+        // Shorter than a trigram: checked against every candidate
+        assertEquals(List.of(1, 4), ids(index.find(null, null, null, "Ad", SortMode.NONE)));
+
+        // Every trigram of the term (nna, nan, ann) is in the name, but the term is not
+        index.put(patient(5, "P-0005", "Anna Annan", "Low", "North ER", 1, "Bed 5", 500));
+        assertEquals(List.of(), ids(index.find(null, null, null, "nnann", SortMode.NONE)));
+        assertEquals(List.of(5), ids(index.find(null, null, null, "a annan", SortMode.NONE)));
+    }
+
+    @Test
+    void pendingReferralTargetMatchesTheFacilityFilter() {
+        Patient referred = patient(2, "P-0002", "Alan Turing", "High", "North ER", 2, "Bed 1", 300);
+        referred.setReferralStatus("PENDING");
+        referred.setReferralFacility("South Ward");
+        index.put(referred);
+
+        assertEquals(List.of(2, 3, 4), ids(index.find("South Ward", null, null, null, SortMode.NONE)));
+        assertEquals(List.of(1, 2), ids(index.find("North ER", null, null, null, SortMode.NONE)));
+    }
+
+    @Test
+    void putReplacesEveryPostingOfTheOldVersion() {
+        index.put(patient(1, "P-0001", "Ada Byron", "Low", "South Ward", 3, "Room 9", 100));
+
+        assertEquals(List.of(), ids(index.find(null, null, null, "lovelace", SortMode.NONE)));
+        assertEquals(List.of(2), ids(index.find("North ER", null, null, null, SortMode.NONE)));
+        assertEquals(List.of(3), ids(index.find(null, null, "critical", null, SortMode.NONE)));
+        assertEquals(List.of(1), ids(index.find("South Ward", 3, "low", "byron", SortMode.NONE)));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void removedSlotsAreReusedWithoutLeakingOldMatches() {
+        index.remove(3);
+        assertEquals(List.of(1), ids(index.find(null, null, "critical", null, SortMode.NONE)));
+
+        // Takes the freed slot; must not inherit Grace Hopper's postings
+        index.put(patient(5, "P-0005", "Barbara Liskov", "Moderate", "North ER", 1, "Bed 3", 500));
+        assertEquals(List.of(), ids(index.find(null, null, null, "hopper", SortMode.NONE)));
+        assertEquals(List.of(4), ids(index.find("South Ward", null, null, null, SortMode.NONE)));
+        assertEquals(List.of(1, 5), ids(index.find("North ER", 1, null, null, SortMode.NONE)));
+
+        index.remove(99); // unknown ids are ignored
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void sortModes() {
+        assertEquals(List.of(4, 2, 3, 1), ids(index.find(null, null, null, null, SortMode.ADMISSION_DATE)));
+        assertEquals(List.of(2, 1, 4, 3), ids(index.find(null, null, null, null, SortMode.BED_ROOM)));
+    }
+
+    @Test
+    void answersTheSameAsTheDatabase() throws Exception {
+        TestDatabase.reset();
+        TestDatabase.addFacility("East ER", "ER", 4);
+        TestDatabase.addFacility("West Ward", "WARD", 4);
+        PatientDAO dao = new PatientDAO();
+        String[] names = {"Ada Lovelace", "Alan Turing", "Grace Hopper", "Adele Goldberg", "Edsger Dijkstra"};
+        String[] severities = {"Critical", "High", "Critical", "Moderate", "High"};
+        for (int i = 0; i < names.length; i++) {
+            dao.addPatientAutoAssign(names[i], 40 + i, "F", "", severities[i]);
+        }
+        List<Patient> census = dao.getPatientsFiltered(null, null, null, null, SortMode.NONE);
+        assertEquals(names.length, census.size());
+        index.rebuild(census);
+
+        List<Object[]> queries = new ArrayList<>();
+        queries.add(new Object[]{"East ER", null, null, null});
+        queries.add(new Object[]{"West Ward", 1, null, null});
+        queries.add(new Object[]{null, null, "Critical", null});
+        queries.add(new Object[]{null, null, null, "ad"});
+        queries.add(new Object[]{null, null, null, "P-"});
+        queries.add(new Object[]{"East ER", 1, "critical", "a"});
+        for (Object[] q : queries) {
+            List<Integer> fromDb = sorted(dao.getPatientsFiltered(
+                    (String) q[0], (Integer) q[1], (String) q[2], (String) q[3], SortMode.NONE));
+            List<Integer> fromIndex = sorted(index.find(
+                    (String) q[0], (Integer) q[1], (String) q[2], (String) q[3], SortMode.NONE));
+            assertEquals(fromDb, fromIndex, () -> "query " + Arrays.toString(q));
+        }
+        assertTrue(index.find(null, null, null, "ad", SortMode.NONE).size() >= 2);
+    }
+
+    private static Patient patient(int id, String code, String name, String severity,
+                                   String facility, int floor, String unit, long admittedMillis) {
+        return new Patient(id, code, name, 40, "F", severity, new Timestamp(admittedMillis),
+                id * 10, unit, facility, floor);
+    }
+
+    /** Ids in the order returned; unsorted queries come back by id. */
+    private static List<Integer> ids(List<Patient> patients) {
+        return patients.stream().map(Patient::getId).toList();
+    }
+
+    private static List<Integer> sorted(List<Patient> patients) {
+        return patients.stream().map(Patient::getId).sorted().toList();
+    }
+}
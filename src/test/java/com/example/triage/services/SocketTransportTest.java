@@ -0,0 +1,104 @@
+package com.example.triage.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/** Runs against a real hub on the test port (see the surefire properties). */
+class SocketTransportTest {
+
+    private static final int PORT = Integer.getInteger("triage.events.port");
+    private static final String SECRET = System.getProperty("triage.events.secret");
+
+    private SocketTransport hub;
+    private SocketTransport client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) client.close();
+        if (hub != null) hub.close();
+    }
+
+    @Test
+    void plainSocketReceivesOnlyANonce() throws Exception {
+        hub = new SocketTransport();
+        hub.start(event -> { });
+
+        String first;
+        try (Socket socket = connect(); BufferedReader in = reader(socket)) {
+            first = in.readLine();
+            assertNotNull(first);
+            assertFalse(first.contains(SECRET));
+
+            // A wrong proof is dropped without an answer
+            send(socket, "abc " + first);
+            assertNull(in.readLine());
+        }
+        try (Socket socket = connect(); BufferedReader in = reader(socket)) {
+            assertNotEquals(first, in.readLine());
+        }
+    }
+
+    @Test
+    void hubAnswersOnlyAfterThePeerHasProvedItself() throws Exception {
+        hub = new SocketTransport();
+        hub.start(event -> { });
+
+        try (Socket socket = connect(); BufferedReader in = reader(socket)) {
+            String hubNonce = in.readLine();
+            String peerNonce = "peer-nonce";
+            send(socket, peerNonce + " " + SocketTransport.proof("peer", hubNonce, peerNonce));
+            assertEquals(SocketTransport.proof("hub", peerNonce, hubNonce), in.readLine());
+        }
+    }
+
+    @Test
+    void authenticatedPeersExchangeEvents() throws Exception {
+        BlockingQueue<DomainEvent> atHub = new LinkedBlockingQueue<>();
+        hub = new SocketTransport();
+        hub.start(atHub::add);
+        client = new SocketTransport();
+        client.start(event -> { });
+
+        // Published until the client has connected; local delivery only before that
+        DomainEvent event = DomainEvent.updated(42);
+        DomainEvent received = null;
+        for (int i = 0; i < 50 && received == null; i++) {
+            client.publish(event);
+            received = atHub.poll(100, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(42, received.patientId());
+    }
+
+    private static Socket connect() throws Exception {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), PORT);
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    private static BufferedReader reader(Socket socket) throws Exception {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static void send(Socket socket, String line) throws Exception {
+        Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        out.write(line + "\n");
+        out.flush();
+    }
+}